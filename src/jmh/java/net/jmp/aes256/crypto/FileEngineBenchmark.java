@@ -0,0 +1,153 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)FileEngineBenchmark.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.security.GeneralSecurityException;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.crypto.Cipher;
+
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.utils.ProgressMonitor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encrypts a sparse file once with each I/O engine. The
+ * input is sparse so only the output occupies disk space;
+ * the 100 GB case needs that much free space in the
+ * temporary directory.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Fork(1)
+@Measurement(iterations = 3)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+public class FileEngineBenchmark {
+    /** The I/O engine. */
+    @Param({"stream", "mapped", "async"})
+    public String engine;
+
+    /** The size of the input file in gigabytes. */
+    @Param({"1", "10", "100"})
+    public int gigabytes;
+
+    /** The sparse input file. */
+    private Path input;
+
+    /** The output file. */
+    private Path output;
+
+    /** The file cipher engine. */
+    private FileCipherEngine fileCipherEngine;
+
+    /** The secret key. */
+    private SecretKeySpec secretKeySpec;
+
+    /** The initialization vector. */
+    private IvParameterSpec ivParameterSpec;
+
+    /**
+     * Create the sparse input file and the engine.
+     *
+     * @throws  java.io.IOException
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.input = Files.createTempFile("aes256-engine-", ".plain");
+        this.output = Files.createTempFile("aes256-engine-", ".aes");
+
+        try (final RandomAccessFile file = new RandomAccessFile(this.input.toFile(), "rw")) {
+            file.setLength(this.gigabytes * 1024L * 1024 * 1024);
+        }
+
+        this.fileCipherEngine = FileCipherEngine.of(this.engine);
+        this.secretKeySpec = new SecretKeySpec(new byte[32], "AES");
+        this.ivParameterSpec = new IvParameterSpec(new byte[16]);
+    }
+
+    /**
+     * Remove the files.
+     *
+     * @throws  java.io.IOException
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.input);
+        Files.deleteIfExists(this.output);
+    }
+
+    /**
+     * Encrypt the input file.
+     *
+     * @return  boolean
+     * @throws  java.io.IOException
+     * @throws  java.security.GeneralSecurityException
+     */
+    @Benchmark
+    public boolean encrypt() throws IOException, GeneralSecurityException {
+        final Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+
+        cipher.init(Cipher.ENCRYPT_MODE, this.secretKeySpec, this.ivParameterSpec);
+
+        return this.fileCipherEngine.transform(cipher,
+                this.input,
+                0,
+                this.output,
+                new byte[0],
+                ProgressMonitor.disabled(),
+                new AtomicBoolean());
+    }
+}
@@ -0,0 +1,367 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)PerfCheck.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.ConfigSnapshot;
+
+import net.jmp.aes256.input.Options;
+
+import net.jmp.aes256.utils.Builder;
+import net.jmp.aes256.utils.Salter;
+import net.jmp.aes256.utils.SecretKeySpecBuilder;
+
+/**
+ * A short, stable benchmark subset that gates the build on
+ * performance. It measures file encryption and decryption
+ * throughput, string operations per second and the key
+ * derivation time, taking the best of several runs after a
+ * warm up, and compares each against a baseline file. The
+ * best run is the one least disturbed by the rest of the
+ * host, so it varies less between runs than the mean. A
+ * metric that is worse than its baseline by more than the
+ * tolerance is a regression and fails the check. In update
+ * mode the baseline is rewritten with the measured values.
+ *
+ * <p>Usage: PerfCheck &lt;baseline-file&gt; &lt;tolerance-percent&gt; &lt;check | update&gt;
+ */
+public final class PerfCheck {
+    /** The file size. */
+    static final int FILE_SIZE = 64 * 1024 * 1024;
+
+    /** The string length. */
+    static final int STRING_LENGTH = 256;
+
+    /** The time each string measurement runs for in nanoseconds. */
+    static final long STRING_NANOS = 500_000_000L;
+
+    /** The number of warm up runs. */
+    static final int WARMUPS = 2;
+
+    /** The number of measured runs. */
+    static final int RUNS = 10;
+
+    /** The user identifier of the synthetic credentials. */
+    static final String USER_ID = "perfcheck@localhost";
+
+    /** The password of the synthetic credentials. */
+    static final String PASSWORD = "Performance_Check%Baseline-(2026)";
+
+    /** The configuration snapshot. */
+    private final ConfigSnapshot configSnapshot;
+
+    /** The working directory. */
+    private final Path directory;
+
+    /**
+     * The default constructor.
+     */
+    private PerfCheck() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the configuration
+     * snapshot and the working directory.
+     *
+     * @param   configSnapshot  net.jmp.aes256.config.ConfigSnapshot
+     * @param   directory       java.nio.file.Path
+     */
+    PerfCheck(final ConfigSnapshot configSnapshot, final Path directory) {
+        super();
+
+        this.configSnapshot = configSnapshot;
+        this.directory = directory;
+    }
+
+    /**
+     * The main method.
+     *
+     * @param   args    java.lang.String[]
+     * @throws          java.lang.Exception
+     */
+    public static void main(final String[] args) throws Exception {
+        if (args.length != 3 || !(args[2].equals("check") || args[2].equals("update"))) {
+            throw new IllegalArgumentException("Usage: PerfCheck <baseline-file> <tolerance-percent> <check | update>");
+        }
+
+        final Path baselineFile = Paths.get(args[0]);
+        final double tolerance = Double.parseDouble(args[1]);
+        final Path directory = Files.createTempDirectory("aes256-perfcheck");
+
+        Map<String, Double> measured;
+
+        try {
+            measured = new PerfCheck(ConfigSnapshot.read(Paths.get(System.getProperty("app.configurationFile"))), directory).measure();
+        } finally {
+            try (final var paths = Files.list(directory)) {
+                for (final Path path : paths.toList()) {
+                    Files.delete(path);
+                }
+            }
+
+            Files.delete(directory);
+        }
+
+        final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+        if (args[2].equals("update")) {
+            Files.writeString(baselineFile, gson.toJson(measured) + System.lineSeparator());
+
+            System.out.format("Wrote the baseline: %s%n", baselineFile);
+        } else if (!Files.exists(baselineFile)) {
+            System.out.format("No baseline: %s; run with -PperfCheck.update to create it%n", baselineFile);
+            System.exit(1);
+        } else {
+            final Map<String, Double> baseline = gson.fromJson(Files.readString(baselineFile), new TypeToken<LinkedHashMap<String, Double>>() {}.getType());
+            final int regressions = compare(baseline, measured, tolerance);
+
+            if (regressions > 0) {
+                System.out.format("%d metric(s) regressed by more than %.0f%% against %s%n", regressions, tolerance, baselineFile);
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Print each measured metric against its baseline
+     * and return the number of regressions. Metrics in
+     * milliseconds are better lower; the rest are better
+     * higher. A metric without a baseline is reported
+     * but never a regression.
+     *
+     * @param   baseline    java.util.Map&lt;java.lang.String, java.lang.Double&gt;
+     * @param   measured    java.util.Map&lt;java.lang.String, java.lang.Double&gt;
+     * @param   tolerance   double
+     * @return              int
+     */
+    static int compare(final Map<String, Double> baseline, final Map<String, Double> measured, final double tolerance) {
+        int regressions = 0;
+
+        System.out.format("%-32s %12s %12s %9s%n", "Metric", "Baseline", "Measured", "Change");
+
+        for (final Map.Entry<String, Double> entry : measured.entrySet()) {
+            final String name = entry.getKey();
+            final double value = entry.getValue();
+            final Double expected = baseline.get(name);
+
+            if (expected == null) {
+                System.out.format("%-32s %12s %12.2f %9s%n", name, "-", value, "new");
+            } else {
+                final boolean lowerIsBetter = name.endsWith("-millis");
+                final double change = 100.0 * (value - expected) / expected;
+                final double worse = lowerIsBetter ? change : -change;
+                final boolean regressed = worse > tolerance;
+
+                if (regressed) {
+                    regressions++;
+                }
+
+                System.out.format("%-32s %12.2f %12.2f %+8.1f%%%s%n", name, expected, value, change, regressed ? "  REGRESSION" : "");
+            }
+        }
+
+        return regressions;
+    }
+
+    /**
+     * Measure every metric.
+     *
+     * @return  java.util.Map&lt;java.lang.String, java.lang.Double&gt;
+     * @throws  net.jmp.aes256.crypto.CryptographyException
+     * @throws  java.io.IOException
+     */
+    Map<String, Double> measure() throws CryptographyException, IOException {
+        final Config config = this.configSnapshot.getConfig();
+        final Random random = new Random(1);
+        final byte[] plainText = new byte[FILE_SIZE];
+        final char[] characters = new char[STRING_LENGTH];
+
+        random.nextBytes(plainText);
+
+        for (int i = 0; i < characters.length; i++) {
+            characters[i] = (char) (' ' + random.nextInt('~' - ' ' + 1));
+        }
+
+        final String string = new String(characters);
+        final Path plainFile = Files.write(this.directory.resolve("plain.bin"), plainText);
+        final Path encryptedFile = this.directory.resolve("encrypted.aes");
+        final Path decryptedFile = this.directory.resolve("decrypted.bin");
+        final String salt = new Salter(config).getSalt(USER_ID);
+
+        final double[] kdfMillis = new double[RUNS];
+        SecretKeySpec secretKeySpec = null;
+
+        for (int i = -WARMUPS; i < RUNS; i++) {
+            final long start = System.nanoTime();
+
+            secretKeySpec = new SecretKeySpecBuilder(config).build(PASSWORD, salt);
+
+            record(kdfMillis, i, (System.nanoTime() - start) / 1e6);
+        }
+
+        final double[] encryptMibPerSecond = new double[RUNS];
+        final double[] decryptMibPerSecond = new double[RUNS];
+
+        for (int i = -WARMUPS; i < RUNS; i++) {
+            long start = System.nanoTime();
+
+            Encrypter.of(this.configSnapshot, this.options(null, plainFile, encryptedFile)).encrypt(secretKeySpec);
+
+            record(encryptMibPerSecond, i, mibPerSecond(FILE_SIZE, System.nanoTime() - start));
+
+            start = System.nanoTime();
+
+            Decrypter.of(this.configSnapshot, this.options(null, encryptedFile, decryptedFile)).decrypt(secretKeySpec);
+
+            record(decryptMibPerSecond, i, mibPerSecond(FILE_SIZE, System.nanoTime() - start));
+        }
+
+        final String cipherText = Encrypter.of(this.configSnapshot, this.options(string, null, null)).encrypt(secretKeySpec).orElseThrow();
+        final double[] encryptOpsPerSecond = new double[RUNS];
+        final double[] decryptOpsPerSecond = new double[RUNS];
+
+        for (int i = -WARMUPS; i < RUNS; i++) {
+            record(encryptOpsPerSecond, i, this.operationsPerSecond(secretKeySpec, string, true));
+            record(decryptOpsPerSecond, i, this.operationsPerSecond(secretKeySpec, cipherText, false));
+        }
+
+        final Map<String, Double> measured = new LinkedHashMap<>();
+
+        measured.put("file-encrypt-mib-per-second", round(Arrays.stream(encryptMibPerSecond).max().orElseThrow()));
+        measured.put("file-decrypt-mib-per-second", round(Arrays.stream(decryptMibPerSecond).max().orElseThrow()));
+        measured.put("string-encrypt-ops-per-second", round(Arrays.stream(encryptOpsPerSecond).max().orElseThrow()));
+        measured.put("string-decrypt-ops-per-second", round(Arrays.stream(decryptOpsPerSecond).max().orElseThrow()));
+        measured.put("key-derivation-millis", round(Arrays.stream(kdfMillis).min().orElseThrow()));
+
+        return measured;
+    }
+
+    /**
+     * Encrypt or decrypt the string repeatedly for
+     * a fixed time and return the operations per second.
+     *
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @param   string          java.lang.String
+     * @param   encrypting      boolean
+     * @return                  double
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     */
+    private double operationsPerSecond(final SecretKeySpec secretKeySpec, final String string, final boolean encrypting) throws CryptographyException {
+        final Options options = this.options(string, null, null);
+        final long start = System.nanoTime();
+
+        long operations = 0;
+        long elapsed;
+
+        do {
+            if (encrypting) {
+                Encrypter.of(this.configSnapshot, options).encrypt(secretKeySpec);
+            } else {
+                Decrypter.of(this.configSnapshot, options).decrypt(secretKeySpec);
+            }
+
+            operations++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < STRING_NANOS);
+
+        return operations / (elapsed / 1e9);
+    }
+
+    /**
+     * Return the options for one operation.
+     *
+     * @param   string  java.lang.String
+     * @param   input   java.nio.file.Path
+     * @param   output  java.nio.file.Path
+     * @return          net.jmp.aes256.input.Options
+     */
+    private Options options(final String string, final Path input, final Path output) {
+        return Builder.of(Options::new)
+                .with(Options::setString, string)
+                .with(Options::setInputFile, input == null ? null : input.toString())
+                .with(Options::setOutputFile, output == null ? null : output.toString())
+                .build();
+    }
+
+    /**
+     * Record a measured value, ignoring warm up runs,
+     * which have a negative index.
+     *
+     * @param   values  double[]
+     * @param   index   int
+     * @param   value   double
+     */
+    private static void record(final double[] values, final int index, final double value) {
+        if (index >= 0) {
+            values[index] = value;
+        }
+    }
+
+    /**
+     * Return the mebibytes per second.
+     *
+     * @param   bytes   long
+     * @param   nanos   long
+     * @return          double
+     */
+    private static double mibPerSecond(final long bytes, final long nanos) {
+        return bytes / (1024.0 * 1024.0) / (nanos / 1e9);
+    }
+
+    /**
+     * Return the value rounded to two decimal places.
+     *
+     * @param   value   double
+     * @return          double
+     */
+    private static double round(final double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
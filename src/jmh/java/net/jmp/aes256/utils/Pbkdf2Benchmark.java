@@ -0,0 +1,97 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)Pbkdf2Benchmark.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKeyFactory;
+
+import javax.crypto.spec.PBEKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the JCE PBKDF2WithHmacSHA256 secret key
+ * factory with the in-project implementation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class Pbkdf2Benchmark {
+    /** The password. */
+    private static final char[] PASSWORD = "johann_Sebastian%Bach-6(Partitas)".toCharArray();
+
+    /** The salt. */
+    private static final byte[] SALT = "WVcwNWRWbFlVbTlaVnpWM1RtcEtRVm95TVdoaFYzZDFXVEk1ZEE9PQ==".getBytes();
+
+    /** The iteration count. */
+    @Param({"65536"})
+    public int iterations;
+
+    /** The key length in bits. */
+    @Param({"256", "1024"})
+    public int keyLength;
+
+    /**
+     * Derive using the JCE secret key factory.
+     *
+     * @return  byte[]
+     * @throws  java.lang.Exception
+     */
+    @Benchmark
+    public byte[] jce() throws Exception {
+        return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256")
+                .generateSecret(new PBEKeySpec(PASSWORD, SALT, this.iterations, this.keyLength))
+                .getEncoded();
+    }
+
+    /**
+     * Derive using the in-project implementation.
+     *
+     * @return  byte[]
+     */
+    @Benchmark
+    public byte[] inProject() {
+        return new Pbkdf2HmacSha256(PASSWORD).derive(SALT, this.iterations, this.keyLength / 8);
+    }
+}
@@ -0,0 +1,113 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)ScryptBenchmark.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures scrypt across lane counts. Each lane does the
+ * same work, so with enough cores the time per derivation
+ * should stay flat as the lanes increase.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class ScryptBenchmark {
+    /** The password. */
+    private static final byte[] PASSWORD = "johann_Sebastian%Bach-6(Partitas)".getBytes(StandardCharsets.UTF_8);
+
+    /** The salt. */
+    private static final byte[] SALT = "WVcwNWRWbFlVbTlaVnpWM1RtcEtRVm95TVdoaFYzZDFXVEk1ZEE9PQ==".getBytes();
+
+    /** The CPU and memory cost. */
+    @Param({"16384"})
+    public int cost;
+
+    /** The block size. */
+    @Param({"8"})
+    public int blockSize;
+
+    /** The number of lanes. */
+    @Param({"1", "2", "4", "8"})
+    public int lanes;
+
+    /** The pool with one worker per lane. */
+    private ForkJoinPool pool;
+
+    /** The key derivation function. */
+    private ScryptKdf scryptKdf;
+
+    /**
+     * Create the pool and the key derivation function.
+     */
+    @Setup
+    public void setUp() {
+        this.pool = new ForkJoinPool(this.lanes);
+        this.scryptKdf = new ScryptKdf(this.cost, this.blockSize, this.lanes, this.pool);
+    }
+
+    /**
+     * Shut down the pool.
+     */
+    @TearDown
+    public void tearDown() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * Derive a 256-bit key.
+     *
+     * @return  byte[]
+     */
+    @Benchmark
+    public byte[] derive() {
+        return this.scryptKdf.derive(PASSWORD, SALT, 32);
+    }
+}
@@ -0,0 +1,114 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)TraceBenchmark.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * Measures the cost of method tracing when it is disabled.
+ * The traced method is tiny so that any overhead shows: the
+ * guarded trace calls should match the uninstrumented method
+ * while XLogger entry and exit pay for the varargs array and
+ * the level checks. Run without a logback configuration the
+ * root level is DEBUG, so XLogger's TRACE entries are off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+public class TraceBenchmark {
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The data the method works on. */
+    private final byte[] data = new byte[16];
+
+    /** A counter so the work is not constant. */
+    private int counter;
+
+    /**
+     * The method without instrumentation.
+     *
+     * @return  int
+     */
+    @Benchmark
+    public int baseline() {
+        return this.data[this.counter++ & 15] ^ this.counter;
+    }
+
+    /**
+     * The method traced with the static final guard.
+     *
+     * @return  int
+     */
+    @Benchmark
+    public int trace() {
+        Trace.entry(this.logger, this.data);
+
+        final int result = this.data[this.counter++ & 15] ^ this.counter;
+
+        Trace.exit(this.logger);
+
+        return result;
+    }
+
+    /**
+     * The method traced with XLogger directly.
+     *
+     * @return  int
+     */
+    @Benchmark
+    public int xlogger() {
+        this.logger.entry(this.data, this.counter);
+
+        final int result = this.data[this.counter++ & 15] ^ this.counter;
+
+        this.logger.exit(result);
+
+        return result;
+    }
+}
@@ -1,6 +1,7 @@
 package net.jmp.aes256;
 
 /*
+ * (#)Main.java 1.2.0   10/19/2026
  * (#)Main.java 0.5.0   07/19/2024
  * (#)Main.java 0.4.0   07/11/2024
  * (#)Main.java 0.3.0   07/06/2024
@@ -8,7 +9,7 @@ package net.jmp.aes256;
  * (#)Main.java 0.1.0   06/27/2024
  *
  * @author   Jonathan Parker
- * @version  0.5.0
+ * @version  1.2.0
  * @since    0.1.0
  *
  * MIT License
@@ -35,25 +36,46 @@ package net.jmp.aes256;
  */
 
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 
 import java.io.File;
 import java.io.IOException;
 
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import java.time.Duration;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
+import java.util.concurrent.TimeUnit;
+
+import java.util.stream.Stream;
+
 import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.ConfigSnapshot;
+import net.jmp.aes256.config.ConfigWatcher;
 
 import net.jmp.aes256.crypto.CryptographyException;
 import net.jmp.aes256.crypto.Decrypter;
 import net.jmp.aes256.crypto.Encrypter;
+import net.jmp.aes256.crypto.KeyAgent;
+import net.jmp.aes256.crypto.LoadTest;
 
 import net.jmp.aes256.input.*;
 
+import net.jmp.aes256.utils.BatchKeyDeriver;
 import net.jmp.aes256.utils.Builder;
+import net.jmp.aes256.utils.Calibration;
+import net.jmp.aes256.utils.Calibrator;
+import net.jmp.aes256.utils.DerivedKey;
+import net.jmp.aes256.utils.FlightRecording;
 
 import org.apache.commons.cli.CommandLine;
 
@@ -68,6 +90,18 @@ public final class Main implements Runnable {
     /** The default configuration file name. */
     private static final String DEFAULT_APP_CONFIG_FILE = "config/config.json";
 
+    /** The default calibration target in milliseconds. @since 1.2.0 */
+    private static final long DEFAULT_TARGET_MILLIS = 250;
+
+    /** The default number of timed calibration runs. @since 1.2.0 */
+    private static final int DEFAULT_RUNS = 5;
+
+    /** The default load test seed. @since 1.2.0 */
+    private static final long DEFAULT_SEED = 1;
+
+    /** The default load test duration in seconds. @since 1.2.0 */
+    private static final long DEFAULT_DURATION_SECONDS = 60;
+
     /** The logger. */
     private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
 
@@ -80,6 +114,9 @@ public final class Main implements Runnable {
     /** The command line. */
     private CommandLine commandLine;
 
+    /** The configuration file. @since 1.2.0 */
+    private Path configFile;
+
     /**
      * A constructor that takes the
      * command line arguments from
@@ -108,7 +145,11 @@ public final class Main implements Runnable {
             this.processCommandLine();
 
             if (this.commandLine != null) {
-                this.handleCommandLine(appConfig);
+                if (this.commandLine.hasOption("jfr")) {
+                    this.recordCommandLine(appConfig);
+                } else {
+                    this.handleCommandLine(appConfig);
+                }
             }
         }, () -> this.logger.error("No configuration found for {}", Name.NAME_STRING));
 
@@ -116,15 +157,15 @@ public final class Main implements Runnable {
     }
 
     /**
-     * Get the application configuration.
+     * Get the application configuration as a validated snapshot.
      *
-     * @return  java.lang.Optional&lt;net.jmp.aes256.Config&gt;
+     * @return  java.lang.Optional&lt;net.jmp.aes256.config.ConfigSnapshot&gt;
      * @since   0.3.0
      */
-    private Optional<Config> getAppConfig() {
+    private Optional<ConfigSnapshot> getAppConfig() {
         this.logger.entry();
 
-        Config appConfig = null;
+        ConfigSnapshot appConfig = null;
 
         final String appHome = System.getenv("APP_HOME");
 
@@ -133,10 +174,12 @@ public final class Main implements Runnable {
 
             this.logger.debug("Reading the configuration from: {}", configFileName);
 
+            this.configFile = Paths.get(configFileName);
+
             try {
-                appConfig = new Gson().fromJson(Files.readString(Paths.get(configFileName)), Config.class);
-            } catch (final IOException ioe) {
-                this.logger.catching(ioe);
+                appConfig = ConfigSnapshot.read(this.configFile);
+            } catch (final IOException | IllegalArgumentException e) {
+                this.logger.catching(e);
             }
         } else {
             this.logger.error("Environment variable 'APP_HOME' was not set");
@@ -172,23 +215,63 @@ public final class Main implements Runnable {
     /**
      * Handle the command line.
      *
-     * @param   config  net.jmp.aes256.config.Config
+     * @param   config  net.jmp.aes256.config.ConfigSnapshot
      */
-    private void handleCommandLine(final Config config) {
+    private void handleCommandLine(final ConfigSnapshot config) {
         this.logger.entry(config);
 
         assert config != null;
 
-        /* Make sure all required options are provided */
+        /* Calibration needs neither input nor credentials */
 
-        final var optionsHandler = new OptionsHandler(this.commandLine);
+        if (this.commandOperation == CommandOperation.CALIBRATE) {
+            this.calibrate(config.getConfig());
+        } else if (this.commandOperation == CommandOperation.AGENT) {
+            this.agent();
+        } else if (this.commandOperation == CommandOperation.LOADTEST) {
+            this.loadTest();
+        } else {
+            /* Make sure all required options are provided */
 
-        if (optionsHandler.handle()) {
-            if (this.logger.isDebugEnabled()) {
-                this.logger.debug(optionsHandler.toString());
+            final var optionsHandler = new OptionsHandler(this.commandLine);
+
+            if (optionsHandler.handle()) {
+                if (this.logger.isDebugEnabled()) {
+                    this.logger.debug(optionsHandler.toString());
+                }
+
+                this.handleCommandLineOptions(config, optionsHandler);
             }
+        }
 
-            this.handleCommandLineOptions(config, optionsHandler);
+        this.logger.exit();
+    }
+
+    /**
+     * Handle the command line inside a flight recording
+     * that is written to the file named by --jfr when
+     * the command completes.
+     *
+     * @param   config  net.jmp.aes256.config.ConfigSnapshot
+     * @since           1.2.0
+     */
+    private void recordCommandLine(final ConfigSnapshot config) {
+        this.logger.entry(config);
+
+        final Path destination = Paths.get(this.commandLine.getOptionValue("jfr"));
+
+        try {
+            final FlightRecording flightRecording = new FlightRecording(destination);
+
+            try {
+                this.handleCommandLine(config);
+            } finally {
+                flightRecording.close();
+            }
+        } catch (final IOException ioe) {
+            System.err.println("Unable to record to " + destination + ": " + ioe.getMessage());
+
+            this.logger.catching(ioe);
         }
 
         this.logger.exit();
@@ -197,26 +280,57 @@ public final class Main implements Runnable {
     /**
      * Handle the command line options.
      *
-     * @param   config          net.jmp.aes256.config.Config
+     * @param   config          net.jmp.aes256.config.ConfigSnapshot
      * @param   optionsHandler  net.jmp.aes256.OptionsHandler
      */
-    private void handleCommandLineOptions(final Config config, final OptionsHandler optionsHandler) {
+    private void handleCommandLineOptions(final ConfigSnapshot config, final OptionsHandler optionsHandler) {
         this.logger.entry(config, optionsHandler);
 
         assert config != null;
         assert optionsHandler != null;
 
-        final Prompter prompter = new Prompter(config);
-
         final Options options = Builder.of(Options::new)
                 .with(Options::setString, (optionsHandler.containsString()) ? this.commandLine.getOptionValue("s") : null)
                 .with(Options::setInputFile, (optionsHandler.containsInputFile()) ? this.commandLine.getOptionValue("i") : null)
                 .with(Options::setOutputFile, (optionsHandler.containsOutputFile()) ? this.commandLine.getOptionValue("o") : null)
-                .with(Options::setUserId, prompter.promptForUserId((optionsHandler.containsUserId()) ? this.commandLine.getOptionValue("u") : null))
-                .with(Options::setPassword, prompter.promptForPassword(this.commandOperation).orElse(null))
+                .with(Options::setManifest, (optionsHandler.containsManifest()) ? this.commandLine.getOptionValue("m") : null)
+                .with(Options::setArchive, (optionsHandler.containsArchive()) ? this.commandLine.getOptionValue("archive") : null)
+                .with(Options::setExtract, this.commandLine.getOptionValue("extract"))
+                .with(Options::setList, optionsHandler.containsList())
+                .with(Options::setChunkStore, this.commandLine.getOptionValue("chunk-store"))
+                .with(Options::setArmor, this.commandLine.hasOption("armor"))
+                .with(Options::setRecipients, this.commandLine.getOptionValue("recipients"))
+                .with(Options::setDirectIo, this.commandLine.hasOption("direct-io"))
+                .with(Options::setDurability, this.commandLine.getOptionValue("durability"))
+                .with(Options::setIoEngine, this.commandLine.getOptionValue("io-engine"))
+                .with(Options::setProgress, this.commandLine.hasOption("progress"))
+                .with(Options::setQueueDepth, this.getQueueDepth())
+                .with(Options::setInputFiles, (optionsHandler.containsInputFiles()) ? List.of(this.commandLine.getOptionValues("i")) : null)
+                .with(Options::setConcurrency, this.getConcurrency())
+                .with(Options::setFailFast, this.commandLine.hasOption("fail-fast"))
+                .with(Options::setResume, this.commandLine.hasOption("resume"))
                 .build();
 
-        if (options.getPassword() != null) {
+        /* Credentials for a manifest or recipients come from the file itself */
+
+        if (options.getManifest() == null && options.getRecipients() == null) {
+            final Prompter prompter = new Prompter(config.getConfig());
+
+            options.setUserId(prompter.promptForUserId((optionsHandler.containsUserId()) ? this.commandLine.getOptionValue("u") : null));
+
+            /* With a key agent running the password is only prompted for if the agent does not hold the key */
+
+            final Optional<Path> keyAgent = KeyAgent.findSocket();
+
+            if (keyAgent.isPresent() && (this.commandOperation == CommandOperation.ENCRYPT || this.commandOperation == CommandOperation.DECRYPT)) {
+                options.setKeyAgent(keyAgent.get().toString());
+                options.setPasswordSupplier(() -> prompter.promptForPassword(this.commandOperation).orElse(null));
+            } else {
+                options.setPassword(prompter.promptForPassword(this.commandOperation).orElse(null));
+            }
+        }
+
+        if (options.getPassword() != null || options.getKeyAgent() != null || options.getManifest() != null || options.getRecipients() != null) {
             if (this.logger.isDebugEnabled()) {
                 this.logger.debug(options.toString());
             }
@@ -232,10 +346,10 @@ public final class Main implements Runnable {
     /**
      * Handle the operation.
      *
-     * @param   config  net.jmp.aes256.config.Config
+     * @param   config  net.jmp.aes256.config.ConfigSnapshot
      * @param   options net.jmp.aes256.Options
      */
-    private void handleOperation(final Config config, final Options options) {
+    private void handleOperation(final ConfigSnapshot config, final Options options) {
         this.logger.entry(config, options);
 
         assert config != null;
@@ -245,7 +359,16 @@ public final class Main implements Runnable {
 
         switch (this.commandOperation) {
             case DECRYPT:
-                this.decrypt(config, options);
+                if (options.getRecipients() != null) {
+                    System.out.println("Option --recipients is only allowed with encrypt");
+                } else if (options.isResume()) {
+                    System.out.println("Option --resume is only allowed with encrypt");
+                } else {
+                    this.decrypt(config, options);
+                }
+                break;
+            case DERIVE:
+                this.derive(config.getConfig(), options);
                 break;
             case ENCRYPT:
                 this.encrypt(config, options);
@@ -261,18 +384,196 @@ public final class Main implements Runnable {
     }
 
     /**
-     * Decrypt.
+     * Calibrate the key derivation cost for this host and
+     * print the recommended setting with the variation
+     * measured across the timed runs.
      *
      * @param   config  net.jmp.aes256.config.Config
+     * @since           1.2.0
+     */
+    private void calibrate(final Config config) {
+        this.logger.entry(config);
+
+        assert config != null;
+
+        try {
+            final long targetMillis = Long.parseLong(this.commandLine.getOptionValue("target-millis", String.valueOf(DEFAULT_TARGET_MILLIS)));
+            final int runs = Integer.parseInt(this.commandLine.getOptionValue("runs", String.valueOf(DEFAULT_RUNS)));
+            final Calibration calibration = new Calibrator(config).calibrate(targetMillis, runs);
+
+            System.out.println(new GsonBuilder().setPrettyPrinting().create().toJson(calibration));
+            System.out.format("Set %s to %d in the configuration; encrypted files record the value used%n",
+                    calibration.getSetting(),
+                    calibration.getValue());
+
+            if (calibration.isCapped()) {
+                System.out.println("The target was not reached because the value is capped by maximum-iterations or maximum-scrypt-memory");
+            }
+        } catch (final NumberFormatException nfe) {
+            System.out.println("Options --target-millis and --runs must be numbers");
+        } catch (final IllegalArgumentException iae) {
+            System.out.println(iae.getMessage());
+        } catch (final CryptographyException ce) {
+            this.logger.catching(ce);
+        }
+
+        this.logger.exit();
+    }
+
+    /**
+     * Run a load test with synthetic inputs in a temporary
+     * directory and print the report. The I/O options apply
+     * to the files it encrypts and decrypts. The configuration
+     * file is watched for the length of the run and each
+     * operation uses the latest valid configuration.
+     *
+     * @since   1.2.0
+     */
+    private void loadTest() {
+        this.logger.entry();
+
+        assert this.configFile != null;
+
+        try {
+            final long seed = Long.parseLong(this.commandLine.getOptionValue("seed", String.valueOf(DEFAULT_SEED)));
+            final int concurrency = Integer.parseInt(this.commandLine.getOptionValue("concurrency",
+                    String.valueOf(Runtime.getRuntime().availableProcessors())));
+            final Duration duration = Duration.ofSeconds(Long.parseLong(this.commandLine.getOptionValue("duration",
+                    String.valueOf(DEFAULT_DURATION_SECONDS))));
+
+            final Options options = Builder.of(Options::new)
+                    .with(Options::setDirectIo, this.commandLine.hasOption("direct-io"))
+                    .with(Options::setDurability, this.commandLine.getOptionValue("durability"))
+                    .with(Options::setIoEngine, this.commandLine.getOptionValue("io-engine"))
+                    .with(Options::setQueueDepth, this.getQueueDepth())
+                    .build();
+
+            final Path directory = Files.createTempDirectory("aes256-loadtest");
+
+            try (final ConfigWatcher configWatcher = new ConfigWatcher(this.configFile)) {
+                final LoadTest loadTest = new LoadTest(configWatcher::get, options, seed, concurrency, duration);
+
+                System.out.println(new GsonBuilder().setPrettyPrinting().create().toJson(loadTest.run(directory)));
+
+                if (configWatcher.getReloads() > 0) {
+                    this.logger.info("The configuration was reloaded {} time(s) during the load test", configWatcher.getReloads());
+                }
+            } finally {
+                try (final Stream<Path> paths = Files.walk(directory)) {
+                    paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+                }
+            }
+        } catch (final NumberFormatException nfe) {
+            System.out.println("Options --seed, --concurrency and --duration must be numbers");
+        } catch (final IllegalArgumentException iae) {
+            System.out.println(iae.getMessage());
+        } catch (final IOException ioe) {
+            System.err.println(ioe.getMessage());
+
+            this.logger.catching(ioe);
+        } catch (final CryptographyException ce) {
+            this.logger.catching(ce);
+        }
+
+        this.logger.exit();
+    }
+
+    /**
+     * Run the key agent in the foreground until the process
+     * is stopped. The line printed on start sets the socket
+     * in the environment of a shell that evaluates it.
+     *
+     * @since   1.2.0
+     */
+    private void agent() {
+        this.logger.entry();
+
+        try {
+            final Duration timeToLive = this.commandLine.hasOption("ttl")
+                    ? Duration.ofSeconds(Long.parseLong(this.commandLine.getOptionValue("ttl")))
+                    : KeyAgent.DEFAULT_TIME_TO_LIVE;
+
+            final KeyAgent keyAgent = new KeyAgent(KeyAgent.getSocket(), timeToLive);
+
+            try {
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        keyAgent.close();
+                    } catch (final IOException ioe) {
+                        this.logger.catching(ioe);
+                    }
+                }));
+
+                System.out.format("%s=%s; export %s;%n",
+                        KeyAgent.SOCKET_ENVIRONMENT_VARIABLE,
+                        KeyAgent.getSocket().toAbsolutePath(),
+                        KeyAgent.SOCKET_ENVIRONMENT_VARIABLE);
+                System.out.flush();
+
+                keyAgent.serve();
+            } finally {
+                keyAgent.close();
+            }
+        } catch (final NumberFormatException nfe) {
+            System.out.println("Option --ttl must be a number");
+        } catch (final IllegalArgumentException iae) {
+            System.out.println(iae.getMessage());
+        } catch (final IOException ioe) {
+            System.err.println(ioe.getMessage());
+
+            this.logger.catching(ioe);
+        }
+
+        this.logger.exit();
+    }
+
+    /**
+     * Return the queue depth option or zero when
+     * it is absent.
+     *
+     * @return  int
+     * @since   1.2.0
+     */
+    private int getQueueDepth() {
+        final String queueDepth = this.commandLine.getOptionValue("queue-depth");
+
+        try {
+            return queueDepth != null ? Integer.parseInt(queueDepth) : 0;
+        } catch (final NumberFormatException nfe) {
+            throw new IllegalArgumentException("Option --queue-depth must be a number: " + queueDepth, nfe);
+        }
+    }
+
+    /**
+     * Return the concurrency for many input files from the
+     * command line, or zero to use the default.
+     *
+     * @return  int
+     * @since   1.2.0
+     */
+    private int getConcurrency() {
+        final String concurrency = this.commandLine.getOptionValue("concurrency");
+
+        try {
+            return concurrency != null ? Integer.parseInt(concurrency) : 0;
+        } catch (final NumberFormatException nfe) {
+            throw new IllegalArgumentException("Option --concurrency must be a number: " + concurrency, nfe);
+        }
+    }
+
+    /**
+     * Decrypt.
+     *
+     * @param   config  net.jmp.aes256.config.ConfigSnapshot
      * @param   options net.jmp.aes256.Options
      */
-    private void decrypt(final Config config, final Options options) {
+    private void decrypt(final ConfigSnapshot config, final Options options) {
         this.logger.entry(config, options);
 
         assert config != null;
         assert options != null;
 
-        final Decrypter decrypter = new Decrypter(config, options);
+        final Decrypter decrypter = Decrypter.of(config, options);
 
         Optional<String> result;
 
@@ -290,18 +591,74 @@ public final class Main implements Runnable {
     }
 
     /**
-     * Encrypt.
+     * Derive the keys for every credential in the manifest
+     * in parallel. One JSON line is written per credential
+     * as its derivation completes. The keys themselves are
+     * never written; a short check value identifies them.
      *
      * @param   config  net.jmp.aes256.config.Config
      * @param   options net.jmp.aes256.Options
+     * @since           1.2.0
+     */
+    private void derive(final Config config, final Options options) {
+        this.logger.entry(config, options);
+
+        assert config != null;
+        assert options != null;
+
+        if (options.getManifest() == null) {
+            System.out.println("Option --manifest is required with derive");
+        } else {
+            final Gson gson = new Gson();
+
+            try (final BatchKeyDeriver batchKeyDeriver = new BatchKeyDeriver(config)) {
+                final CredentialsManifest manifest = CredentialsManifest.read(Paths.get(options.getManifest()));
+
+                batchKeyDeriver.derive(manifest.getCredentials(), derivedKey -> System.out.println(gson.toJson(this.toStatus(derivedKey))));
+            } catch (final IOException ioe) {
+                System.err.println(ioe.getMessage());
+
+                this.logger.catching(ioe);
+            }
+        }
+
+        this.logger.exit();
+    }
+
+    /**
+     * Convert a derived key into a status map for output.
+     *
+     * @param   derivedKey  net.jmp.aes256.utils.DerivedKey
+     * @return              java.util.Map&lt;java.lang.String, java.lang.Object&gt;
+     * @since               1.2.0
+     */
+    private Map<String, Object> toStatus(final DerivedKey derivedKey) {
+        final Map<String, Object> status = new LinkedHashMap<>();
+
+        status.put("user-id", derivedKey.getUserId());
+        status.put("status", derivedKey.isSuccessful() ? "ok" : "failed");
+
+        derivedKey.getKeyCheckValue().ifPresent(value -> status.put("key-check", value));
+        derivedKey.getFailure().ifPresent(failure -> status.put("error", failure.getMessage()));
+
+        status.put("millis", TimeUnit.NANOSECONDS.toMillis(derivedKey.getElapsedNanos()));
+
+        return status;
+    }
+
+    /**
+     * Encrypt.
+     *
+     * @param   config  net.jmp.aes256.config.ConfigSnapshot
+     * @param   options net.jmp.aes256.Options
      */
-    private void encrypt(final Config config, final Options options) {
+    private void encrypt(final ConfigSnapshot config, final Options options) {
         this.logger.entry(config, options);
 
         assert config != null;
         assert options != null;
 
-        final Encrypter encrypter = new Encrypter(config, options);
+        final Encrypter encrypter = Encrypter.of(config, options);
 
         Optional<String> result;
 
@@ -1,6 +1,7 @@
 package net.jmp.aes256;
 
 /*
+ * (#)Version.java  1.2.0   10/19/2026
  * (#)Version.java  1.1.0   08/01/2024
  * (#)Version.java  1.0.0   07/24/2024
  * (#)Version.java  0.5.0   07/13/2024
@@ -10,7 +11,7 @@ package net.jmp.aes256;
  * (#)Version.java  0.1.0   06/27/2024
  *
  * @author    Jonathan Parker
- * @version   1.1.0
+ * @version   1.2.0
  * @since     0.1.0
  *
  * MIT License
@@ -41,7 +42,7 @@ package net.jmp.aes256;
  */
 final class Version {
     /** The version. */
-    static final String VERSION_STRING = "1.1.0";
+    static final String VERSION_STRING = "1.2.0";
 
     /**
      * The default constructor.
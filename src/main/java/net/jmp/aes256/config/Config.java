@@ -1,12 +1,13 @@
 package net.jmp.aes256.config;
 
 /*
+ * (#)Config.java   1.2.0   10/19/2026
  * (#)Config.java   0.5.0   07/20/2024
  * (#)Config.java   0.4.0   07/12/2024
  * (#)Config.java   0.3.0   07/08/2024
  *
  * @author    Jonathan Parker
- * @version   0.5.0
+ * @version   1.2.0
  * @since     0.3.0
  *
  * MIT License
@@ -38,6 +39,8 @@ import org.slf4j.ext.XLogger;
 
 import java.util.Objects;
 
+import net.jmp.aes256.utils.SecretKeySpecBuilder;
+
 /**
  * The configuration class.
  */
@@ -45,6 +48,12 @@ public final class Config {
     /** The size of the initialization vector. */
     public static int INITIALIZATION_VECTOR_SIZE = 16;
 
+    /** The default maximum number of PBKDF2 iterations. @since 1.2.0 */
+    public static final int DEFAULT_MAXIMUM_ITERATIONS = 10_000_000;
+
+    /** The default maximum scrypt memory, 128 * r * N * p, in bytes. @since 1.2.0 */
+    public static final long DEFAULT_MAXIMUM_SCRYPT_MEMORY = 1L << 31;
+
     /** The cipher component. */
     @SerializedName("cipher")
     private Cipher cipher;
@@ -53,6 +62,10 @@ public final class Config {
     @SerializedName("salter")
     private Salter salter;
 
+    /** The scrypt component. @since 1.2.0 */
+    @SerializedName("scrypt")
+    private Scrypt scrypt;
+
     /** The minimum password length. @since 0.4.0 */
     @SerializedName("password-minimum-length")
     private int passwordMinimumLength;
@@ -73,6 +86,14 @@ public final class Config {
     @SerializedName("secret-key-spec-algorithm")
     private String secretKeySpecAlgorithm;
 
+    /** The maximum number of PBKDF2 iterations, zero for the default. @since 1.2.0 */
+    @SerializedName("maximum-iterations")
+    private int maximumIterations;
+
+    /** The maximum scrypt memory in bytes, zero for the default. @since 1.2.0 */
+    @SerializedName("maximum-scrypt-memory")
+    private long maximumScryptMemory;
+
     /**
      * Return the cipher component.
      *
@@ -109,6 +130,26 @@ public final class Config {
         this.salter = salter;
     }
 
+    /**
+     * Return the scrypt component.
+     *
+     * @return  net.jmp.aes256.config.Scrypt
+     * @since   1.2.0
+     */
+    public Scrypt getScrypt() {
+        return this.scrypt;
+    }
+
+    /**
+     * Set the scrypt component.
+     *
+     * @param   scrypt  net.jmp.aes256.config.Scrypt
+     * @since           1.2.0
+     */
+    public void setScrypt(final Scrypt scrypt) {
+        this.scrypt = scrypt;
+    }
+
     /**
      * Return the minimum password length.
      *
@@ -201,6 +242,50 @@ public final class Config {
         this.secretKeySpecAlgorithm = secretKeySpecAlgorithm;
     }
 
+    /**
+     * Return the maximum number of PBKDF2 iterations
+     * accepted from a file header. The default is
+     * returned when no maximum has been set.
+     *
+     * @return  int
+     * @since   1.2.0
+     */
+    public int getMaximumIterations() {
+        return this.maximumIterations > 0 ? this.maximumIterations : DEFAULT_MAXIMUM_ITERATIONS;
+    }
+
+    /**
+     * Set the maximum number of PBKDF2 iterations.
+     *
+     * @param   maximumIterations   int
+     * @since                       1.2.0
+     */
+    public void setMaximumIterations(final int maximumIterations) {
+        this.maximumIterations = maximumIterations;
+    }
+
+    /**
+     * Return the maximum scrypt memory, 128 * r * N * p,
+     * in bytes accepted from a file header. The default
+     * is returned when no maximum has been set.
+     *
+     * @return  long
+     * @since   1.2.0
+     */
+    public long getMaximumScryptMemory() {
+        return this.maximumScryptMemory > 0 ? this.maximumScryptMemory : DEFAULT_MAXIMUM_SCRYPT_MEMORY;
+    }
+
+    /**
+     * Set the maximum scrypt memory in bytes.
+     *
+     * @param   maximumScryptMemory long
+     * @since                       1.2.0
+     */
+    public void setMaximumScryptMemory(final long maximumScryptMemory) {
+        this.maximumScryptMemory = maximumScryptMemory;
+    }
+
     /**
      * Validate the configuration. Certain
      * settings cannot be changed without testing.
@@ -228,8 +313,29 @@ public final class Config {
             throw new IllegalArgumentException("The secret key spec algorithm must be AES");
         }
 
-        if (!"PBKDF2WithHmacSHA256".equalsIgnoreCase(this.secretKeyFactoryInstance)) {
-            throw new IllegalArgumentException("The secret key factory instance must be PBKDF2WithHmacSHA256");
+        if (this.maximumIterations < 0) {
+            throw new IllegalArgumentException("The maximum iterations must not be negative");
+        }
+
+        if (this.maximumScryptMemory < 0) {
+            throw new IllegalArgumentException("The maximum scrypt memory must not be negative");
+        }
+
+        if (SecretKeySpecBuilder.SCRYPT.equalsIgnoreCase(this.secretKeyFactoryInstance)) {
+            if (this.scrypt == null) {
+                throw new IllegalArgumentException("No scrypt section has been provided");
+            }
+
+            this.scrypt.validate();
+
+            if (this.scrypt.getMemoryPerLane() > this.getMaximumScryptMemory() / this.scrypt.getParallelization()) {
+                throw new IllegalArgumentException("The scrypt memory exceeds the maximum of " + this.getMaximumScryptMemory() + " bytes");
+            }
+        } else if (this.pbeKeySpecIterations > this.getMaximumIterations()) {
+            throw new IllegalArgumentException("PBE key spec iterations exceed the maximum of " + this.getMaximumIterations());
+        } else if (!"PBKDF2WithHmacSHA256".equalsIgnoreCase(this.secretKeyFactoryInstance) &&
+                !"PBKDF2-HMAC-SHA256".equalsIgnoreCase(this.secretKeyFactoryInstance)) {
+            throw new IllegalArgumentException("The secret key factory instance must be PBKDF2WithHmacSHA256, PBKDF2-HMAC-SHA256 or Scrypt");
         }
 
         if (this.salter == null) {
@@ -237,6 +343,80 @@ public final class Config {
         }
     }
 
+    /**
+     * Return a deep copy of this configuration.
+     *
+     * @return  net.jmp.aes256.config.Config
+     * @since   1.2.0
+     */
+    public Config copy() {
+        final Config config = new Config();
+
+        if (this.cipher != null) {
+            final Cipher cipherCopy = new Cipher();
+
+            cipherCopy.setCharacterSet(this.cipher.getCharacterSet());
+            cipherCopy.setInstance(this.cipher.getInstance());
+
+            config.cipher = cipherCopy;
+        }
+
+        if (this.salter != null) {
+            final Salter salterCopy = new Salter();
+
+            salterCopy.setCharacterSet(this.salter.getCharacterSet());
+            salterCopy.setIterations(this.salter.getIterations());
+
+            config.salter = salterCopy;
+        }
+
+        if (this.scrypt != null) {
+            final Scrypt scryptCopy = new Scrypt();
+
+            scryptCopy.setCost(this.scrypt.getCost());
+            scryptCopy.setBlockSize(this.scrypt.getBlockSize());
+            scryptCopy.setParallelization(this.scrypt.getParallelization());
+
+            config.scrypt = scryptCopy;
+        }
+
+        config.passwordMinimumLength = this.passwordMinimumLength;
+        config.pbeKeySpecIterations = this.pbeKeySpecIterations;
+        config.pbeKeySpecKeyLength = this.pbeKeySpecKeyLength;
+        config.secretKeyFactoryInstance = this.secretKeyFactoryInstance;
+        config.secretKeySpecAlgorithm = this.secretKeySpecAlgorithm;
+        config.maximumIterations = this.maximumIterations;
+        config.maximumScryptMemory = this.maximumScryptMemory;
+
+        return config;
+    }
+
+    /**
+     * Return the settings that decide which key a user
+     * identifier and password derive, as a string. Two
+     * configurations with equal strings derive equal keys.
+     *
+     * @return  java.lang.String
+     * @since   1.2.0
+     */
+    public String getKeyDerivationSettings() {
+        final StringBuilder settings = new StringBuilder()
+                .append(this.secretKeyFactoryInstance).append(':')
+                .append(this.secretKeySpecAlgorithm).append(':')
+                .append(this.pbeKeySpecKeyLength).append(':')
+                .append(this.pbeKeySpecIterations);
+
+        if (this.salter != null) {
+            settings.append(':').append(this.salter.getCharacterSet()).append(':').append(this.salter.getIterations());
+        }
+
+        if (this.scrypt != null) {
+            settings.append(':').append(this.scrypt.getCost()).append(':').append(this.scrypt.getBlockSize()).append(':').append(this.scrypt.getParallelization());
+        }
+
+        return settings.toString();
+    }
+
     /**
      * Log the cryptography settings.
      *
@@ -251,6 +431,10 @@ public final class Config {
             logger.debug("Cipher character set       : '{}'", this.cipher.getCharacterSet());
             logger.debug("PBE key spec iterations    : {}", this.pbeKeySpecIterations);
             logger.debug("PBE key length             : {}", this.pbeKeySpecKeyLength);
+
+            if (this.scrypt != null) {
+                logger.debug("Scrypt                     : {}", this.scrypt);
+            }
         }
     }
 
@@ -271,8 +455,11 @@ public final class Config {
         return this.passwordMinimumLength == config.passwordMinimumLength &&
                 this.pbeKeySpecIterations == config.pbeKeySpecIterations &&
                 this.pbeKeySpecKeyLength == config.pbeKeySpecKeyLength &&
+                this.maximumIterations == config.maximumIterations &&
+                this.maximumScryptMemory == config.maximumScryptMemory &&
                 Objects.equals(this.cipher, config.cipher) &&
                 Objects.equals(this.salter, config.salter) &&
+                Objects.equals(this.scrypt, config.scrypt) &&
                 Objects.equals(this.secretKeyFactoryInstance, config.secretKeyFactoryInstance) &&
                 Objects.equals(this.secretKeySpecAlgorithm, config.secretKeySpecAlgorithm);
     }
@@ -286,11 +473,14 @@ public final class Config {
     public int hashCode() {
         return Objects.hash(this.cipher,
                 this.salter,
+                this.scrypt,
                 this.passwordMinimumLength,
                 this.pbeKeySpecIterations,
                 this.pbeKeySpecKeyLength,
                 this.secretKeyFactoryInstance,
-                this.secretKeySpecAlgorithm);
+                this.secretKeySpecAlgorithm,
+                this.maximumIterations,
+                this.maximumScryptMemory);
     }
 
     /**
@@ -303,11 +493,14 @@ public final class Config {
         return "Config{" +
                 "cipher=" + this.cipher +
                 ", salter=" + this.salter +
+                ", scrypt=" + this.scrypt +
                 ", passwordMinimumLength=" + this.passwordMinimumLength +
                 ", pbeKeySpecIterations=" + this.pbeKeySpecIterations +
                 ", pbeKeySpecKeyLength=" + this.pbeKeySpecKeyLength +
                 ", secretKeyFactoryInstance='" + this.secretKeyFactoryInstance + '\'' +
                 ", secretKeySpecAlgorithm='" + this.secretKeySpecAlgorithm + '\'' +
+                ", maximumIterations=" + this.maximumIterations +
+                ", maximumScryptMemory=" + this.maximumScryptMemory +
                 '}';
     }
 }
\ No newline at end of file
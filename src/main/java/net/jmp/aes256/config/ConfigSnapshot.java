@@ -0,0 +1,132 @@
+package net.jmp.aes256.config;
+
+/*
+ * (#)ConfigSnapshot.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Objects;
+
+/**
+ * An immutable, validated copy of the configuration. The
+ * configuration it holds is never handed out, only copies
+ * of it, so a snapshot can be shared between threads and
+ * operations that use it need not validate it again.
+ */
+public final class ConfigSnapshot {
+    /** The validated configuration. */
+    private final Config config;
+
+    /**
+     * The default constructor.
+     */
+    private ConfigSnapshot() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the configuration,
+     * which must already be a validated private copy.
+     *
+     * @param   config  net.jmp.aes256.config.Config
+     */
+    private ConfigSnapshot(final Config config) {
+        super();
+
+        this.config = config;
+    }
+
+    /**
+     * Return a snapshot of the configuration. It is
+     * copied first so later changes to it are not seen.
+     *
+     * @param   config  net.jmp.aes256.config.Config
+     * @return          net.jmp.aes256.config.ConfigSnapshot
+     * @throws          java.lang.IllegalArgumentException  When the configuration is not valid
+     */
+    public static ConfigSnapshot of(final Config config) {
+        final Config copy = Objects.requireNonNull(config).copy();
+
+        copy.validate();
+
+        return new ConfigSnapshot(copy);
+    }
+
+    /**
+     * Read, parse and validate the configuration file.
+     *
+     * @param   file    java.nio.file.Path
+     * @return          net.jmp.aes256.config.ConfigSnapshot
+     * @throws          java.io.IOException                 When the file cannot be read or parsed
+     * @throws          java.lang.IllegalArgumentException  When the configuration is not valid
+     */
+    public static ConfigSnapshot read(final Path file) throws IOException {
+        final Config config;
+
+        try {
+            config = new Gson().fromJson(Files.readString(file), Config.class);
+        } catch (final JsonParseException jpe) {
+            throw new IOException("Unable to parse the configuration: " + file, jpe);
+        }
+
+        if (config == null) {
+            throw new IOException("The configuration is empty: " + file);
+        }
+
+        config.validate();
+
+        return new ConfigSnapshot(config);
+    }
+
+    /**
+     * Return a copy of the configuration.
+     *
+     * @return  net.jmp.aes256.config.Config
+     */
+    public Config getConfig() {
+        return this.config.copy();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "ConfigSnapshot{" +
+                "config=" + this.config +
+                '}';
+    }
+}
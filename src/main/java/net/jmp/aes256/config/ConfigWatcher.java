@@ -0,0 +1,206 @@
+package net.jmp.aes256.config;
+
+/*
+ * (#)ConfigWatcher.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import java.util.Objects;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * Holds the current configuration snapshot of a long-running
+ * process and replaces it when the configuration file changes.
+ * A watcher thread parses and validates the new file and swaps
+ * the snapshot in atomically, so readers never lock and never
+ * see a configuration that failed to validate. An operation
+ * that took a snapshot keeps using it; the next one sees the
+ * update. An invalid file is logged and the current snapshot
+ * is kept.
+ */
+public final class ConfigWatcher implements AutoCloseable {
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The configuration file. */
+    private final Path file;
+
+    /** The current snapshot. */
+    private final AtomicReference<ConfigSnapshot> snapshot;
+
+    /** The number of snapshots swapped in after the first. */
+    private final AtomicLong reloads = new AtomicLong();
+
+    /** The watch service. */
+    private final WatchService watchService;
+
+    /** The watcher thread. */
+    private final Thread thread;
+
+    /**
+     * The default constructor.
+     */
+    private ConfigWatcher() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the configuration file. It
+     * is read now and then watched for changes.
+     *
+     * @param   file    java.nio.file.Path
+     * @throws          java.io.IOException                 When the file cannot be read or watched
+     * @throws          java.lang.IllegalArgumentException  When the configuration is not valid
+     */
+    public ConfigWatcher(final Path file) throws IOException {
+        super();
+
+        this.file = Objects.requireNonNull(file).toAbsolutePath();
+        this.snapshot = new AtomicReference<>(ConfigSnapshot.read(this.file));
+        this.watchService = this.file.getFileSystem().newWatchService();
+
+        try {
+            /* Editors often replace the file rather than modify it so watch for both */
+
+            this.file.getParent().register(this.watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (final IOException ioe) {
+            this.watchService.close();
+
+            throw ioe;
+        }
+
+        this.thread = Thread.ofPlatform().name("aes256-config-watcher").daemon(true).start(this::run);
+    }
+
+    /**
+     * Return the current snapshot.
+     *
+     * @return  net.jmp.aes256.config.ConfigSnapshot
+     */
+    public ConfigSnapshot get() {
+        return this.snapshot.get();
+    }
+
+    /**
+     * Return the number of times a new snapshot was swapped in.
+     *
+     * @return  long
+     */
+    public long getReloads() {
+        return this.reloads.get();
+    }
+
+    /**
+     * Stop watching the file.
+     *
+     * @throws  java.io.IOException
+     */
+    @Override
+    public void close() throws IOException {
+        this.watchService.close();
+
+        try {
+            this.thread.join();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wait for changes to the file and reload it.
+     */
+    private void run() {
+        try {
+            while (true) {
+                final WatchKey key = this.watchService.take();
+
+                boolean changed = false;
+
+                for (final WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || this.file.getFileName().equals(event.context())) {
+                        changed = true;
+                    }
+                }
+
+                if (changed) {
+                    this.reload();
+                }
+
+                if (!key.reset()) {
+                    this.logger.warn("The configuration directory can no longer be watched: {}", this.file.getParent());
+
+                    break;
+                }
+            }
+        } catch (final ClosedWatchServiceException | InterruptedException e) {
+            this.logger.debug("Stopped watching the configuration: {}", this.file);
+        }
+    }
+
+    /**
+     * Read the file and swap in the new snapshot if it is
+     * valid and differs from the current one.
+     */
+    private void reload() {
+        this.logger.entry();
+
+        try {
+            final ConfigSnapshot current = this.snapshot.get();
+            final ConfigSnapshot next = ConfigSnapshot.read(this.file);
+
+            if (!next.getConfig().equals(current.getConfig()) && this.snapshot.compareAndSet(current, next)) {
+                this.reloads.incrementAndGet();
+
+                this.logger.info("Reloaded the configuration: {}", this.file);
+            }
+        } catch (final IOException | IllegalArgumentException e) {
+            /* A partly written file is read again on its next change */
+
+            this.logger.warn("Keeping the current configuration; unable to reload {}: {}", this.file, e.getMessage());
+        }
+
+        this.logger.exit();
+    }
+}
@@ -0,0 +1,198 @@
+package net.jmp.aes256.config;
+
+/*
+ * (#)Scrypt.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Objects;
+
+/**
+ * The scrypt component of the configuration class. It is
+ * used when the secret key factory instance is Scrypt.
+ */
+public class Scrypt {
+    /** The CPU and memory cost, N. */
+    @SerializedName("cost")
+    private int cost;
+
+    /** The block size, r. */
+    @SerializedName("block-size")
+    private int blockSize;
+
+    /** The parallelization, p, which is the number of lanes. */
+    @SerializedName("parallelization")
+    private int parallelization;
+
+    /**
+     * Return the CPU and memory cost.
+     *
+     * @return  int
+     */
+    public int getCost() {
+        return this.cost;
+    }
+
+    /**
+     * Set the CPU and memory cost.
+     *
+     * @param   cost    int
+     */
+    public void setCost(final int cost) {
+        this.cost = cost;
+    }
+
+    /**
+     * Return the block size.
+     *
+     * @return  int
+     */
+    public int getBlockSize() {
+        return this.blockSize;
+    }
+
+    /**
+     * Set the block size.
+     *
+     * @param   blockSize   int
+     */
+    public void setBlockSize(final int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Return the parallelization.
+     *
+     * @return  int
+     */
+    public int getParallelization() {
+        return this.parallelization;
+    }
+
+    /**
+     * Set the parallelization.
+     *
+     * @param   parallelization int
+     */
+    public void setParallelization(final int parallelization) {
+        this.parallelization = parallelization;
+    }
+
+    /**
+     * Return the number of bytes of memory used by each lane.
+     *
+     * @return  long
+     */
+    public long getMemoryPerLane() {
+        return 128L * this.blockSize * this.cost;
+    }
+
+    /**
+     * Validate the cost parameters.
+     *
+     * @throws  java.lang.IllegalArgumentException  When a parameter is out of range
+     */
+    public void validate() {
+        validate(this.cost, this.blockSize, this.parallelization);
+    }
+
+    /**
+     * Validate the cost parameters.
+     *
+     * @param   cost            int
+     * @param   blockSize       int
+     * @param   parallelization int
+     * @throws  java.lang.IllegalArgumentException  When a parameter is out of range
+     */
+    public static void validate(final int cost, final int blockSize, final int parallelization) {
+        if (cost < 2 || Integer.bitCount(cost) != 1) {
+            throw new IllegalArgumentException("The scrypt cost must be a power of two greater than one: " + cost);
+        }
+
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("The scrypt block size must be positive: " + blockSize);
+        }
+
+        if (parallelization < 1) {
+            throw new IllegalArgumentException("The scrypt parallelization must be positive: " + parallelization);
+        }
+
+        if ((long) blockSize * parallelization >= 1 << 30) {
+            throw new IllegalArgumentException("The scrypt block size times parallelization must be less than 2^30");
+        }
+
+        if (32L * blockSize * cost > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("The scrypt memory per lane must be less than 8 GB");
+        }
+    }
+
+    /**
+     * The equals method.
+     *
+     * @param   o   java.lang.Object
+     * @return      boolean
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+
+        if (o == null || getClass() != o.getClass()) return false;
+
+        final Scrypt scrypt = (Scrypt) o;
+
+        return this.cost == scrypt.cost &&
+                this.blockSize == scrypt.blockSize &&
+                this.parallelization == scrypt.parallelization;
+    }
+
+    /**
+     * The hash-code method.
+     *
+     * @return  int
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.cost, this.blockSize, this.parallelization);
+    }
+
+    /**
+     * The to-string method.
+     *
+     * @return  java.lang.String
+     */
+    @Override
+    public String toString() {
+        return "Scrypt{" +
+                "cost=" + this.cost +
+                ", blockSize=" + this.blockSize +
+                ", parallelization=" + this.parallelization +
+                '}';
+    }
+}
@@ -0,0 +1,151 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)Archive.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Path;
+
+/**
+ * The layout of the plain text of an encrypted archive,
+ * a tar-like stream of records that is encrypted as one
+ * file after the usual file header.
+ *
+ * <p>The stream starts with a 16 byte preamble, the magic
+ * bytes "AES256AR", a version and seven zero bytes. Each
+ * record then holds, in big-endian order:
+ * <pre>
+ *   type                   1 byte   0 = end, 1 = file, 2 = directory
+ *   path length            2 bytes
+ *   path                   UTF-8, relative with '/' separators
+ *   size                   8 bytes  zero for directories
+ *   last modified          8 bytes  milliseconds since the epoch
+ *   data                   size bytes
+ * </pre>
+ * and is padded with zeros to a multiple of the cipher
+ * block size. The stream ends with an end record. Since every
+ * record starts on a block boundary its offset in the plain
+ * text is also its offset in the cipher text, which the
+ * {@link ArchiveIndex} relies on.
+ */
+final class Archive {
+    /** The magic bytes. */
+    static final byte[] MAGIC = "AES256AR".getBytes(StandardCharsets.US_ASCII);
+
+    /** The archive version; version 2 adds the index. */
+    static final int VERSION = 2;
+
+    /** The alignment of the preamble and every record. */
+    static final int ALIGNMENT = 16;
+
+    /** The end record type. */
+    static final int TYPE_END = 0;
+
+    /** The file record type. */
+    static final int TYPE_FILE = 1;
+
+    /** The directory record type. */
+    static final int TYPE_DIRECTORY = 2;
+
+    /** The longest path in bytes. */
+    static final int MAXIMUM_PATH_LENGTH = 65535;
+
+    /**
+     * The default constructor.
+     */
+    private Archive() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * Return the number of zero bytes needed to pad
+     * the position to the alignment.
+     *
+     * @param   position    long
+     * @return              int
+     */
+    static int padding(final long position) {
+        return (int) ((ALIGNMENT - position % ALIGNMENT) % ALIGNMENT);
+    }
+
+    /**
+     * Return the archive path of a file relative to the
+     * root, always using '/' as the separator.
+     *
+     * @param   root    java.nio.file.Path
+     * @param   file    java.nio.file.Path
+     * @return          java.lang.String
+     */
+    static String toArchivePath(final Path root, final Path file) {
+        final StringBuilder path = new StringBuilder();
+
+        for (final Path name : root.relativize(file)) {
+            if (!path.isEmpty()) {
+                path.append('/');
+            }
+
+            path.append(name);
+        }
+
+        return path.toString();
+    }
+
+    /**
+     * Resolve an archive path against the target directory,
+     * refusing paths that are absolute, empty or that would
+     * escape the directory.
+     *
+     * @param   target  java.nio.file.Path
+     * @param   path    java.lang.String
+     * @return          java.nio.file.Path
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     */
+    static Path resolve(final Path target, final String path) throws CryptographyException {
+        if (path.isEmpty() || path.startsWith("/") || path.contains("\\") || path.contains(":")) {
+            throw new CryptographyException("Invalid path in archive: " + path);
+        }
+
+        for (final String name : path.split("/")) {
+            if (name.isEmpty() || name.equals(".") || name.equals("..")) {
+                throw new CryptographyException("Invalid path in archive: " + path);
+            }
+        }
+
+        final Path root = target.toAbsolutePath().normalize();
+        final Path resolved = root.resolve(path).normalize();
+
+        if (!resolved.startsWith(root) || resolved.equals(root)) {
+            throw new CryptographyException("Invalid path in archive: " + path);
+        }
+
+        return resolved;
+    }
+}
@@ -0,0 +1,415 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)ArchiveIndex.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The central index of an archive. It lists every member
+ * with the position of its record in the cipher text and
+ * the cipher block that precedes the record, which serves
+ * as the initialization vector for decrypting the record
+ * on its own. It is encrypted separately after the main
+ * cipher text and located through a plain trailer at the
+ * very end of the file.
+ *
+ * <p>The index plain text, in big-endian order, is:
+ * <pre>
+ *   magic                  8 bytes  "AES256IX"
+ *   count                  4 bytes
+ *   per member:
+ *     type                 1 byte
+ *     path length          2 bytes
+ *     path                 UTF-8
+ *     size                 8 bytes
+ *     last modified        8 bytes
+ *     record offset        8 bytes  from the start of the cipher text
+ *     record length        8 bytes
+ *     nonce               16 bytes  the preceding cipher block
+ * </pre>
+ * padded with zeros to a multiple of 4 KiB so that its length
+ * reveals little about the number of members. The trailer is
+ * the magic bytes, the file offset and length of the encrypted
+ * index and the initialization vector used to encrypt it.
+ */
+final class ArchiveIndex {
+    /** The magic bytes of the index and trailer. */
+    static final byte[] MAGIC = "AES256IX".getBytes(StandardCharsets.US_ASCII);
+
+    /** The size of the trailer in bytes. */
+    static final int TRAILER_SIZE = 8 + 8 + 8 + 16;
+
+    /** The index plain text is padded to a multiple of this. */
+    private static final int PADDING_UNIT = 4096;
+
+    /** The members. */
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * The default constructor.
+     */
+    ArchiveIndex() {
+        super();
+    }
+
+    /**
+     * Add a member.
+     *
+     * @param   entry   net.jmp.aes256.crypto.ArchiveIndex.Entry
+     */
+    void add(final Entry entry) {
+        this.entries.add(entry);
+    }
+
+    /**
+     * Return the members in archive order.
+     *
+     * @return  java.util.List&lt;net.jmp.aes256.crypto.ArchiveIndex.Entry&gt;
+     */
+    List<Entry> getEntries() {
+        return Collections.unmodifiableList(this.entries);
+    }
+
+    /**
+     * Return the members that are the path or, when the
+     * path names a directory, lie beneath it.
+     *
+     * @param   path    java.lang.String
+     * @return          java.util.List&lt;net.jmp.aes256.crypto.ArchiveIndex.Entry&gt;
+     */
+    List<Entry> select(final String path) {
+        final String prefix = path.endsWith("/") ? path : path + "/";
+
+        return this.entries.stream()
+                .filter(entry -> entry.getPath().equals(path) || entry.getPath().startsWith(prefix))
+                .toList();
+    }
+
+    /**
+     * Return the index as padded plain text.
+     *
+     * @return  byte[]
+     */
+    byte[] toByteArray() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (final DataOutputStream outputStream = new DataOutputStream(bytes)) {
+            outputStream.write(MAGIC);
+            outputStream.writeInt(this.entries.size());
+
+            for (final Entry entry : this.entries) {
+                final byte[] pathBytes = entry.getPath().getBytes(StandardCharsets.UTF_8);
+
+                outputStream.writeByte(entry.getType());
+                outputStream.writeShort(pathBytes.length);
+                outputStream.write(pathBytes);
+                outputStream.writeLong(entry.getSize());
+                outputStream.writeLong(entry.getLastModified());
+                outputStream.writeLong(entry.getOffset());
+                outputStream.writeLong(entry.getLength());
+                outputStream.write(entry.nonce);
+            }
+
+            outputStream.write(new byte[(PADDING_UNIT - bytes.size() % PADDING_UNIT) % PADDING_UNIT]);
+        } catch (final IOException ioe) {
+            throw new IllegalStateException("Unable to write to memory", ioe);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Parse the index from its plain text.
+     *
+     * @param   bytes   byte[]
+     * @return          net.jmp.aes256.crypto.ArchiveIndex
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     */
+    static ArchiveIndex parse(final byte[] bytes) throws CryptographyException {
+        if (bytes.length < MAGIC.length || !Arrays.equals(bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            throw new CryptographyException("The archive index is invalid");
+        }
+
+        final ArchiveIndex archiveIndex = new ArchiveIndex();
+
+        try (final DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(bytes, MAGIC.length, bytes.length - MAGIC.length))) {
+            final int count = inputStream.readInt();
+
+            for (int i = 0; i < count; i++) {
+                final int type = inputStream.readUnsignedByte();
+                final String path = new String(inputStream.readNBytes(inputStream.readUnsignedShort()), StandardCharsets.UTF_8);
+                final long size = inputStream.readLong();
+                final long lastModified = inputStream.readLong();
+                final long offset = inputStream.readLong();
+                final long length = inputStream.readLong();
+                final byte[] nonce = inputStream.readNBytes(Archive.ALIGNMENT);
+
+                if (nonce.length != Archive.ALIGNMENT || offset % Archive.ALIGNMENT != 0 || length % Archive.ALIGNMENT != 0) {
+                    throw new CryptographyException("The archive index is invalid");
+                }
+
+                archiveIndex.add(new Entry(type, path, size, lastModified, offset, length, nonce));
+            }
+        } catch (final IOException ioe) {
+            throw new CryptographyException("The archive index is truncated", ioe);
+        }
+
+        return archiveIndex;
+    }
+
+    /**
+     * Return the trailer locating the encrypted index.
+     *
+     * @param   offset                  long
+     * @param   length                  long
+     * @param   initializationVector    byte[]
+     * @return                          byte[]
+     */
+    static byte[] trailer(final long offset, final long length, final byte[] initializationVector) {
+        return ByteBuffer.allocate(TRAILER_SIZE)
+                .put(MAGIC)
+                .putLong(offset)
+                .putLong(length)
+                .put(initializationVector)
+                .array();
+    }
+
+    /**
+     * Parse the trailer from the last bytes of a file. An
+     * empty optional is returned if the bytes are not a
+     * trailer, as with archives written without an index.
+     *
+     * @param   bytes   byte[]
+     * @return          java.util.Optional&lt;net.jmp.aes256.crypto.ArchiveIndex.Trailer&gt;
+     */
+    static Optional<Trailer> parseTrailer(final byte[] bytes) {
+        if (bytes.length != TRAILER_SIZE || !Arrays.equals(bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            return Optional.empty();
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes, MAGIC.length, TRAILER_SIZE - MAGIC.length);
+        final long offset = buffer.getLong();
+        final long length = buffer.getLong();
+        final byte[] initializationVector = new byte[Archive.ALIGNMENT];
+
+        buffer.get(initializationVector);
+
+        return Optional.of(new Trailer(offset, length, initializationVector));
+    }
+
+    /**
+     * A member of the archive.
+     */
+    static final class Entry {
+        /** The record type. */
+        private final int type;
+
+        /** The path. */
+        private final String path;
+
+        /** The size of the data. */
+        private final long size;
+
+        /** The last modified time in milliseconds. */
+        private final long lastModified;
+
+        /** The offset of the record in the cipher text. */
+        private final long offset;
+
+        /** The length of the record including padding. */
+        private final long length;
+
+        /** The cipher block preceding the record. */
+        private final byte[] nonce;
+
+        /**
+         * A constructor that takes all the fields.
+         *
+         * @param   type            int
+         * @param   path            java.lang.String
+         * @param   size            long
+         * @param   lastModified    long
+         * @param   offset          long
+         * @param   length          long
+         * @param   nonce           byte[]
+         */
+        Entry(final int type,
+              final String path,
+              final long size,
+              final long lastModified,
+              final long offset,
+              final long length,
+              final byte[] nonce) {
+            super();
+
+            this.type = type;
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.offset = offset;
+            this.length = length;
+            this.nonce = nonce.clone();
+        }
+
+        /**
+         * Return the record type.
+         *
+         * @return  int
+         */
+        int getType() {
+            return this.type;
+        }
+
+        /**
+         * Return the path.
+         *
+         * @return  java.lang.String
+         */
+        String getPath() {
+            return this.path;
+        }
+
+        /**
+         * Return the size of the data.
+         *
+         * @return  long
+         */
+        long getSize() {
+            return this.size;
+        }
+
+        /**
+         * Return the last modified time in milliseconds.
+         *
+         * @return  long
+         */
+        long getLastModified() {
+            return this.lastModified;
+        }
+
+        /**
+         * Return the offset of the record in the cipher text.
+         *
+         * @return  long
+         */
+        long getOffset() {
+            return this.offset;
+        }
+
+        /**
+         * Return the length of the record including padding.
+         *
+         * @return  long
+         */
+        long getLength() {
+            return this.length;
+        }
+
+        /**
+         * Return the cipher block preceding the record.
+         *
+         * @return  byte[]
+         */
+        byte[] getNonce() {
+            return this.nonce.clone();
+        }
+    }
+
+    /**
+     * The location of the encrypted index.
+     */
+    static final class Trailer {
+        /** The file offset of the encrypted index. */
+        private final long offset;
+
+        /** The length of the encrypted index. */
+        private final long length;
+
+        /** The initialization vector of the index. */
+        private final byte[] initializationVector;
+
+        /**
+         * A constructor that takes all the fields.
+         *
+         * @param   offset                  long
+         * @param   length                  long
+         * @param   initializationVector    byte[]
+         */
+        private Trailer(final long offset, final long length, final byte[] initializationVector) {
+            super();
+
+            this.offset = offset;
+            this.length = length;
+            this.initializationVector = initializationVector;
+        }
+
+        /**
+         * Return the file offset of the encrypted index.
+         *
+         * @return  long
+         */
+        long getOffset() {
+            return this.offset;
+        }
+
+        /**
+         * Return the length of the encrypted index.
+         *
+         * @return  long
+         */
+        long getLength() {
+            return this.length;
+        }
+
+        /**
+         * Return the initialization vector of the index.
+         *
+         * @return  byte[]
+         */
+        byte[] getInitializationVector() {
+            return this.initializationVector.clone();
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)ArchiveReader.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.nio.file.attribute.FileTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * Extracts the plain text of an archive into a directory.
+ * The stream is read and decrypted in order by the calling
+ * thread, which hands each chunk of file data to the writer
+ * executor to be written at its position. Files are thus
+ * written in parallel while the number of chunks waiting
+ * to be written, and so the memory used, stays bounded.
+ */
+final class ArchiveReader {
+    /** The size of each chunk handed to a writer. */
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    /** The number of chunks that may wait to be written. */
+    static final int MAXIMUM_CHUNKS_IN_FLIGHT = 64;
+
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The plain text input stream. */
+    private final DataInputStream inputStream;
+
+    /** Permits for the chunks waiting to be written. */
+    private final Semaphore permits = new Semaphore(MAXIMUM_CHUNKS_IN_FLIGHT);
+
+    /** The position in the plain text. */
+    private long position;
+
+    /** The number of members extracted. */
+    private int members;
+
+    /**
+     * The default constructor.
+     */
+    private ArchiveReader() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the plain text input stream.
+     *
+     * @param   inputStream java.io.InputStream
+     */
+    ArchiveReader(final InputStream inputStream) {
+        super();
+
+        this.inputStream = new DataInputStream(inputStream);
+    }
+
+    /**
+     * Extract every member into the target directory. False
+     * is returned if the operation was cancelled before it
+     * completed; the writes already started still finish.
+     *
+     * @param   target      java.nio.file.Path
+     * @param   writers     java.util.concurrent.Executor
+     * @param   cancelled   java.util.concurrent.atomic.AtomicBoolean
+     * @return              boolean
+     * @throws              java.io.IOException
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     */
+    boolean extract(final Path target, final Executor writers, final AtomicBoolean cancelled) throws IOException, CryptographyException {
+        this.logger.entry(target, writers, cancelled);
+
+        final List<CompletableFuture<Void>> files = new ArrayList<>();
+        final Map<Path, Long> directories = new LinkedHashMap<>();
+
+        boolean completed = false;
+
+        try {
+            this.readPreamble();
+
+            Files.createDirectories(target);
+
+            while (!cancelled.get()) {
+                if (!this.extractRecord(target, writers, files, directories)) {
+                    completed = true;
+
+                    break;
+                }
+            }
+        } catch (final EOFException eofe) {
+            throw new CryptographyException("The archive is truncated", eofe);
+        } finally {
+            awaitAll(files);
+        }
+
+        if (completed) {
+            setLastModifiedTimes(directories);
+        }
+
+        if (this.logger.isDebugEnabled()) {
+            this.logger.debug("Extracted {} members", this.members);
+        }
+
+        this.logger.exit(completed);
+
+        return completed;
+    }
+
+    /**
+     * Extract the single record the stream is positioned
+     * at into the target directory. This is how a member
+     * located through the archive index is extracted.
+     *
+     * @param   target      java.nio.file.Path
+     * @param   writers     java.util.concurrent.Executor
+     * @throws              java.io.IOException
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     */
+    void extractMember(final Path target, final Executor writers) throws IOException, CryptographyException {
+        this.logger.entry(target, writers);
+
+        final List<CompletableFuture<Void>> files = new ArrayList<>();
+        final Map<Path, Long> directories = new LinkedHashMap<>();
+
+        try {
+            if (!this.extractRecord(target, writers, files, directories)) {
+                throw new CryptographyException("The archive index does not locate a member");
+            }
+        } catch (final EOFException eofe) {
+            throw new CryptographyException("The archive is truncated", eofe);
+        } finally {
+            awaitAll(files);
+        }
+
+        setLastModifiedTimes(directories);
+
+        this.logger.exit();
+    }
+
+    /**
+     * Return the number of members extracted.
+     *
+     * @return  int
+     */
+    int getMembers() {
+        return this.members;
+    }
+
+    /**
+     * Read and check the preamble.
+     *
+     * @throws  java.io.IOException
+     * @throws  net.jmp.aes256.crypto.CryptographyException
+     */
+    private void readPreamble() throws IOException, CryptographyException {
+        final byte[] preamble = this.inputStream.readNBytes(Archive.ALIGNMENT);
+
+        if (preamble.length < Archive.ALIGNMENT || !Arrays.equals(preamble, 0, Archive.MAGIC.length, Archive.MAGIC, 0, Archive.MAGIC.length)) {
+            throw new CryptographyException("The input file is not an archive");
+        }
+
+        if (preamble[Archive.MAGIC.length] < 1 || preamble[Archive.MAGIC.length] > Archive.VERSION) {
+            throw new CryptographyException("Unsupported archive version: " + preamble[Archive.MAGIC.length]);
+        }
+
+        this.position += preamble.length;
+    }
+
+    /**
+     * Read the next record and extract it into the target
+     * directory. False is returned for the end record.
+     *
+     * @param   target      java.nio.file.Path
+     * @param   writers     java.util.concurrent.Executor
+     * @param   files       java.util.List&lt;java.util.concurrent.CompletableFuture&lt;java.lang.Void&gt;&gt;
+     * @param   directories java.util.Map&lt;java.nio.file.Path, java.lang.Long&gt;
+     * @return              boolean
+     * @throws              java.io.IOException
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     */
+    private boolean extractRecord(final Path target,
+                                  final Executor writers,
+                                  final List<CompletableFuture<Void>> files,
+                                  final Map<Path, Long> directories) throws IOException, CryptographyException {
+        final int type = this.inputStream.readUnsignedByte();
+        final byte[] pathBytes = this.inputStream.readNBytes(this.inputStream.readUnsignedShort());
+        final long size = this.inputStream.readLong();
+        final long lastModified = this.inputStream.readLong();
+
+        this.position += 1 + 2 + pathBytes.length + 8 + 8;
+
+        if (type == Archive.TYPE_END) {
+            return false;
+        }
+
+        final String path = new String(pathBytes, StandardCharsets.UTF_8);
+        final Path resolved = Archive.resolve(target, path);
+
+        if (type == Archive.TYPE_DIRECTORY) {
+            Files.createDirectories(resolved);
+
+            directories.put(resolved, lastModified);
+        } else if (type == Archive.TYPE_FILE && size >= 0) {
+            Files.createDirectories(resolved.getParent());
+
+            files.add(this.extractFile(resolved, size, lastModified, writers));
+        } else {
+            throw new CryptographyException("Invalid record in archive: " + path);
+        }
+
+        this.skipPadding();
+
+        this.members++;
+
+        return true;
+    }
+
+    /**
+     * Read the data of a file member and hand it to the
+     * writers chunk by chunk. The returned future completes
+     * once every chunk is written and the file is closed.
+     *
+     * @param   file            java.nio.file.Path
+     * @param   size            long
+     * @param   lastModified    long
+     * @param   writers         java.util.concurrent.Executor
+     * @return                  java.util.concurrent.CompletableFuture&lt;java.lang.Void&gt;
+     * @throws                  java.io.IOException
+     */
+    private CompletableFuture<Void> extractFile(final Path file,
+                                                final long size,
+                                                final long lastModified,
+                                                final Executor writers) throws IOException {
+        final FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        final List<CompletableFuture<Void>> writes = new ArrayList<>();
+
+        try {
+            for (long offset = 0; offset < size; ) {
+                final int length = (int) Math.min(CHUNK_SIZE, size - offset);
+                final long chunkOffset = offset;
+
+                this.acquirePermit();
+
+                final byte[] chunk;
+
+                try {
+                    chunk = this.inputStream.readNBytes(length);
+                } catch (final IOException ioe) {
+                    this.permits.release();
+
+                    throw ioe;
+                }
+
+                if (chunk.length != length) {
+                    this.permits.release();
+
+                    throw new EOFException("The archive ends in the middle of " + file);
+                }
+
+                writes.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        writeFully(channel, ByteBuffer.wrap(chunk), chunkOffset);
+                    } catch (final IOException ioe) {
+                        throw new UncheckedIOException(ioe);
+                    } finally {
+                        this.permits.release();
+                    }
+                }, writers));
+
+                offset += length;
+            }
+
+            this.position += size;
+        } catch (final IOException ioe) {
+            /* Let the writes already started finish before closing the file */
+
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).exceptionally(throwable -> null).join();
+
+            channel.close();
+
+            throw ioe;
+        }
+
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0]))
+                .handle((result, throwable) -> {
+                    Throwable failure = throwable;
+
+                    try {
+                        channel.close();
+
+                        if (failure == null) {
+                            Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+                        }
+                    } catch (final IOException ioe) {
+                        failure = failure == null ? ioe : failure;
+                    }
+
+                    if (failure != null) {
+                        throw failure instanceof CompletionException ce ? ce : new CompletionException(failure);
+                    }
+
+                    return null;
+                });
+    }
+
+    /**
+     * Skip the padding after a record.
+     *
+     * @throws  java.io.IOException
+     */
+    private void skipPadding() throws IOException {
+        final int padding = Archive.padding(this.position);
+
+        this.inputStream.skipNBytes(padding);
+        this.position += padding;
+    }
+
+    /**
+     * Wait for a chunk to be allowed in flight.
+     *
+     * @throws  java.io.IOException
+     */
+    private void acquirePermit() throws IOException {
+        try {
+            this.permits.acquire();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted waiting for file writes");
+        }
+    }
+
+    /**
+     * Set the last modified times of the directories. Children
+     * change the time of their directory so this is done last.
+     *
+     * @param   directories java.util.Map&lt;java.nio.file.Path, java.lang.Long&gt;
+     * @throws              java.io.IOException
+     */
+    private static void setLastModifiedTimes(final Map<Path, Long> directories) throws IOException {
+        for (final Map.Entry<Path, Long> entry : directories.entrySet()) {
+            Files.setLastModifiedTime(entry.getKey(), FileTime.fromMillis(entry.getValue()));
+        }
+    }
+
+    /**
+     * Wait for all the files to be written and throw
+     * the first failure.
+     *
+     * @param   files   java.util.List&lt;java.util.concurrent.CompletableFuture&lt;java.lang.Void&gt;&gt;
+     * @throws          java.io.IOException
+     */
+    private static void awaitAll(final List<CompletableFuture<Void>> files) throws IOException {
+        IOException failure = null;
+
+        for (final CompletableFuture<Void> file : files) {
+            try {
+                file.join();
+            } catch (final CompletionException ce) {
+                if (failure == null) {
+                    failure = ce.getCause() instanceof UncheckedIOException uioe
+                            ? uioe.getCause()
+                            : ce.getCause() instanceof IOException ioe ? ioe : new IOException(ce.getCause());
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Write the whole buffer at the position.
+     *
+     * @param   channel     java.nio.channels.FileChannel
+     * @param   buffer      java.nio.ByteBuffer
+     * @param   position    long
+     * @throws              java.io.IOException
+     */
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        long offset = position;
+
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+}
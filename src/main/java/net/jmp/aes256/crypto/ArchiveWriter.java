@@ -0,0 +1,423 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)ArchiveWriter.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+import java.nio.ByteBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.Set;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import java.util.function.Supplier;
+
+import java.util.stream.Collectors;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * Writes a directory tree as the plain text of an archive.
+ * A virtual thread walks the tree and queues the paths it
+ * finds while the calling thread writes the records, so
+ * walking a large tree overlaps with encrypting the files
+ * already found. Symbolic links and special files are
+ * skipped.
+ */
+final class ArchiveWriter {
+    /** The size of the copy buffer. */
+    static final int BUFFER_SIZE = 1024 * 1024;
+
+    /** The number of paths the walker may run ahead. */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The plain text output stream. */
+    private final OutputStream outputStream;
+
+    /** The files never archived, such as the archive itself. */
+    private final Set<Path> excluded;
+
+    /** Supplies the cipher block preceding the next record. */
+    private final Supplier<byte[]> chainingBlock;
+
+    /** The index of the members written. */
+    private final ArchiveIndex archiveIndex = new ArchiveIndex();
+
+    /** The copy buffer. */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /** The position in the plain text. */
+    private long position;
+
+    /** The number of members written. */
+    private int members;
+
+    /**
+     * The default constructor.
+     */
+    private ArchiveWriter() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the plain text output stream,
+     * the files to leave out and the supplier of the cipher
+     * block preceding each record for the index.
+     *
+     * @param   outputStream    java.io.OutputStream
+     * @param   excluded        java.util.Set&lt;java.nio.file.Path&gt;
+     * @param   chainingBlock   java.util.function.Supplier&lt;byte[]&gt;
+     */
+    ArchiveWriter(final OutputStream outputStream, final Set<Path> excluded, final Supplier<byte[]> chainingBlock) {
+        super();
+
+        this.outputStream = outputStream;
+        this.chainingBlock = chainingBlock;
+        this.excluded = excluded.stream()
+                .map(path -> path.toAbsolutePath().normalize())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Write the tree under the root. False is returned
+     * if the operation was cancelled before it completed.
+     *
+     * @param   root        java.nio.file.Path
+     * @param   cancelled   java.util.concurrent.atomic.AtomicBoolean
+     * @return              boolean
+     * @throws              java.io.IOException
+     */
+    boolean write(final Path root, final AtomicBoolean cancelled) throws IOException {
+        this.logger.entry(root, cancelled);
+
+        final BlockingQueue<Path> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        final AtomicReference<IOException> walkFailure = new AtomicReference<>();
+
+        /* The root is never queued as a member so it marks the end of the walk */
+
+        final Thread walker = Thread.ofVirtual().name("aes256-archive-walker").start(() -> {
+            try {
+                Files.walkFileTree(root, new Walker(root, queue));
+            } catch (final IOException ioe) {
+                walkFailure.set(ioe);
+            }
+
+            try {
+                queue.put(root);
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        boolean completed = true;
+
+        try {
+            this.writePreamble();
+
+            Path path;
+
+            while ((path = queue.take()) != root) {
+                if (cancelled.get()) {
+                    completed = false;
+
+                    break;
+                }
+
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    this.writeDirectory(root, path);
+                } else {
+                    this.writeFile(root, path);
+                }
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted waiting for the directory walk");
+        } finally {
+            walker.interrupt();
+        }
+
+        /* The walk has finished once the root was taken */
+
+        if (completed && walkFailure.get() != null) {
+            throw walkFailure.get();
+        }
+
+        if (completed) {
+            this.writeRecordHeader(Archive.TYPE_END, "", 0, 0);
+            this.pad();
+        }
+
+        if (this.logger.isDebugEnabled()) {
+            this.logger.debug("Archived {} members in {} bytes", this.members, this.position);
+        }
+
+        this.logger.exit(completed);
+
+        return completed;
+    }
+
+    /**
+     * Return the index of the members written.
+     *
+     * @return  net.jmp.aes256.crypto.ArchiveIndex
+     */
+    ArchiveIndex getArchiveIndex() {
+        return this.archiveIndex;
+    }
+
+    /**
+     * Return the number of members written.
+     *
+     * @return  int
+     */
+    int getMembers() {
+        return this.members;
+    }
+
+    /**
+     * Write the preamble.
+     *
+     * @throws  java.io.IOException
+     */
+    private void writePreamble() throws IOException {
+        final byte[] preamble = new byte[Archive.ALIGNMENT];
+
+        System.arraycopy(Archive.MAGIC, 0, preamble, 0, Archive.MAGIC.length);
+
+        preamble[Archive.MAGIC.length] = (byte) Archive.VERSION;
+
+        this.outputStream.write(preamble);
+        this.position += preamble.length;
+    }
+
+    /**
+     * Write a directory record.
+     *
+     * @param   root        java.nio.file.Path
+     * @param   directory   java.nio.file.Path
+     * @throws              java.io.IOException
+     */
+    private void writeDirectory(final Path root, final Path directory) throws IOException {
+        final long offset = this.position;
+        final byte[] nonce = this.chainingBlock.get();
+        final String path = Archive.toArchivePath(root, directory);
+        final long lastModified = Files.getLastModifiedTime(directory).toMillis();
+
+        this.writeRecordHeader(Archive.TYPE_DIRECTORY, path, 0, lastModified);
+        this.pad();
+
+        this.archiveIndex.add(new ArchiveIndex.Entry(Archive.TYPE_DIRECTORY, path, 0, lastModified, offset, this.position - offset, nonce));
+
+        this.members++;
+    }
+
+    /**
+     * Write a file record. The size is taken once the file
+     * is open and exactly that many bytes are copied, so a
+     * file growing while it is archived is cut off at that
+     * size while one that shrinks is an error.
+     *
+     * @param   root    java.nio.file.Path
+     * @param   file    java.nio.file.Path
+     * @throws          java.io.IOException
+     */
+    private void writeFile(final Path root, final Path file) throws IOException {
+        final long offset = this.position;
+        final byte[] nonce = this.chainingBlock.get();
+        final String path = Archive.toArchivePath(root, file);
+
+        long size;
+        long lastModified;
+
+        try (final InputStream inputStream = Files.newInputStream(file)) {
+            final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+
+            size = attributes.size();
+            lastModified = attributes.lastModifiedTime().toMillis();
+
+            this.writeRecordHeader(Archive.TYPE_FILE, path, size, lastModified);
+
+            long remaining = size;
+
+            while (remaining > 0) {
+                final int bytesRead = inputStream.read(this.buffer, 0, (int) Math.min(this.buffer.length, remaining));
+
+                if (bytesRead == -1) {
+                    throw new IOException("File shrank while being archived: " + file);
+                }
+
+                this.outputStream.write(this.buffer, 0, bytesRead);
+
+                remaining -= bytesRead;
+            }
+
+            this.position += size;
+        }
+
+        this.pad();
+
+        this.archiveIndex.add(new ArchiveIndex.Entry(Archive.TYPE_FILE, path, size, lastModified, offset, this.position - offset, nonce));
+
+        this.members++;
+    }
+
+    /**
+     * Write the header of a record.
+     *
+     * @param   type            int
+     * @param   path            java.lang.String
+     * @param   size            long
+     * @param   lastModified    long
+     * @throws                  java.io.IOException
+     */
+    private void writeRecordHeader(final int type, final String path, final long size, final long lastModified) throws IOException {
+        final byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+
+        if (pathBytes.length > Archive.MAXIMUM_PATH_LENGTH) {
+            throw new IOException("Path is too long to archive: " + path);
+        }
+
+        final ByteBuffer header = ByteBuffer.allocate(1 + 2 + pathBytes.length + 8 + 8);
+
+        header.put((byte) type);
+        header.putShort((short) pathBytes.length);
+        header.put(pathBytes);
+        header.putLong(size);
+        header.putLong(lastModified);
+
+        this.outputStream.write(header.array());
+        this.position += header.capacity();
+    }
+
+    /**
+     * Pad the current record to the alignment.
+     *
+     * @throws  java.io.IOException
+     */
+    private void pad() throws IOException {
+        final int padding = Archive.padding(this.position);
+
+        this.outputStream.write(new byte[padding]);
+        this.position += padding;
+    }
+
+    /**
+     * The visitor that queues the directories and
+     * regular files under the root.
+     */
+    private final class Walker extends SimpleFileVisitor<Path> {
+        /** The root. */
+        private final Path root;
+
+        /** The queue. */
+        private final BlockingQueue<Path> queue;
+
+        /**
+         * A constructor that takes the root and queue.
+         *
+         * @param   root    java.nio.file.Path
+         * @param   queue   java.util.concurrent.BlockingQueue&lt;java.nio.file.Path&gt;
+         */
+        private Walker(final Path root, final BlockingQueue<Path> queue) {
+            super();
+
+            this.root = root;
+            this.queue = queue;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public FileVisitResult preVisitDirectory(final Path directory, final BasicFileAttributes attributes) throws IOException {
+            if (!directory.equals(this.root)) {
+                this.enqueue(directory);
+            }
+
+            return FileVisitResult.CONTINUE;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) throws IOException {
+            if (ArchiveWriter.this.excluded.contains(file.toAbsolutePath().normalize())) {
+                ArchiveWriter.this.logger.debug("Skipping excluded file: {}", file);
+            } else if (attributes.isRegularFile()) {
+                this.enqueue(file);
+            } else if (ArchiveWriter.this.logger.isDebugEnabled()) {
+                ArchiveWriter.this.logger.debug("Skipping file that is not a regular file: {}", file);
+            }
+
+            return FileVisitResult.CONTINUE;
+        }
+
+        /**
+         * Queue a path, waiting while the writer catches up.
+         *
+         * @param   path    java.nio.file.Path
+         * @throws          java.io.IOException
+         */
+        private void enqueue(final Path path) throws IOException {
+            try {
+                this.queue.put(path);
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+
+                throw new InterruptedIOException("Interrupted queueing " + path);
+            }
+        }
+    }
+}
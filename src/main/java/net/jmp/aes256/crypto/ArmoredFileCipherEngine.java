@@ -0,0 +1,158 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)ArmoredFileCipherEngine.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.security.GeneralSecurityException;
+
+import java.util.Base64;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.crypto.Cipher;
+
+import net.jmp.aes256.utils.ProgressMonitor;
+
+/**
+ * The file cipher engine that reads or writes Base64 MIME
+ * armored files. When encoding, the cipher output, prefix
+ * included, is encoded on its way to the output file. When
+ * decoding, the input file is decoded on its way into the
+ * cipher and the offset counts decoded bytes. Both sides
+ * stream through fixed buffers so memory use does not grow
+ * with the size of the file.
+ */
+final class ArmoredFileCipherEngine implements FileCipherEngine {
+    /** The number of encoded characters on a MIME line. */
+    static final int LINE_LENGTH = 76;
+
+    /** The number of decoded bytes on a full MIME line. */
+    private static final int LINE_BYTES = LINE_LENGTH / 4 * 3;
+
+    /** The number of encoded bytes on a full MIME line, separator included. */
+    private static final int ENCODED_LINE_BYTES = LINE_LENGTH + 2;
+
+    /** True when the output is armored, false when the input is. */
+    private final boolean encoding;
+
+    /**
+     * The default constructor.
+     */
+    private ArmoredFileCipherEngine() {
+        super();
+
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the direction.
+     *
+     * @param   encoding    boolean
+     */
+    ArmoredFileCipherEngine(final boolean encoding) {
+        super();
+
+        this.encoding = encoding;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean transform(final Cipher cipher,
+                             final Path input,
+                             final long inputOffset,
+                             final Path output,
+                             final byte[] prefix,
+                             final ProgressMonitor progressMonitor,
+                             final AtomicBoolean cancelled) throws IOException, GeneralSecurityException {
+        final InputStream fileInputStream = Files.newInputStream(input);
+
+        try (final InputStream inputStream = this.encoding ? fileInputStream : decode(fileInputStream);
+             final OutputStream outputStream = this.encoding ? encode(Files.newOutputStream(output)) : Files.newOutputStream(output)) {
+            try {
+                inputStream.skipNBytes(inputOffset);
+            } catch (final IOException ioe) {
+                throw new IOException("Unable to read beyond offset " + inputOffset + ": " + input, ioe);
+            }
+
+            return StreamFileCipherEngine.transform(cipher, inputStream, outputStream, prefix, progressMonitor, cancelled, "armored");
+        }
+    }
+
+    /**
+     * Wrap the output stream so that bytes written to it
+     * are Base64 MIME encoded. Closing the returned stream
+     * writes any padding and closes the wrapped stream.
+     *
+     * @param   outputStream    java.io.OutputStream
+     * @return                  java.io.OutputStream
+     */
+    static OutputStream encode(final OutputStream outputStream) {
+        return Base64.getMimeEncoder().wrap(new BufferedOutputStream(outputStream, StreamFileCipherEngine.BUFFER_SIZE));
+    }
+
+    /**
+     * Wrap the input stream so that bytes read from it
+     * are Base64 MIME decoded. Line separators and other
+     * characters outside the Base64 alphabet are ignored.
+     *
+     * @param   inputStream java.io.InputStream
+     * @return              java.io.InputStream
+     */
+    static InputStream decode(final InputStream inputStream) {
+        return Base64.getMimeDecoder().wrap(new BufferedInputStream(inputStream, StreamFileCipherEngine.BUFFER_SIZE));
+    }
+
+    /**
+     * Return the number of decoded bytes in an armored
+     * file of the given length. The result is exact for
+     * whole lines and may overstate the last line by its
+     * padding, which is all the progress monitor needs.
+     *
+     * @param   encodedLength   long
+     * @return                  long
+     */
+    static long decodedLength(final long encodedLength) {
+        final long lines = encodedLength / ENCODED_LINE_BYTES;
+        final long remainder = encodedLength % ENCODED_LINE_BYTES;
+
+        return lines * LINE_BYTES + remainder / 4 * 3;
+    }
+}
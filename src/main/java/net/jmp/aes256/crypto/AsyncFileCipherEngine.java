@@ -0,0 +1,430 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)AsyncFileCipherEngine.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.AsynchronousFileChannel;
+
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.security.GeneralSecurityException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.crypto.Cipher;
+
+import net.jmp.aes256.utils.FileCipherEvent;
+import net.jmp.aes256.utils.ProgressMonitor;
+
+/**
+ * The file cipher engine that keeps several reads and
+ * writes in flight on asynchronous file channels. The
+ * input is divided into chunks held in a ring of slots
+ * as deep as the queue. Every slot starts with a read
+ * outstanding at an increasing offset; the cipher takes
+ * the slots in file order, queues the write of its output
+ * and immediately reuses the slot for the read one queue
+ * depth further on. Storage with high latency but many
+ * parallel queues is kept busy while the single cipher,
+ * which must see the data in order, never waits for more
+ * than one chunk.
+ */
+final class AsyncFileCipherEngine implements FileCipherEngine {
+    /** The default number of reads and writes in flight. */
+    static final int DEFAULT_QUEUE_DEPTH = 8;
+
+    /** The largest queue depth. */
+    static final int MAXIMUM_QUEUE_DEPTH = 256;
+
+    /** The size of each chunk. */
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    /** The number of reads and writes in flight. */
+    private final int queueDepth;
+
+    /** The size of each chunk. */
+    private final int chunkSize;
+
+    /**
+     * The default constructor.
+     */
+    AsyncFileCipherEngine() {
+        this(DEFAULT_QUEUE_DEPTH);
+    }
+
+    /**
+     * A constructor that takes the queue depth.
+     *
+     * @param   queueDepth  int
+     */
+    AsyncFileCipherEngine(final int queueDepth) {
+        this(queueDepth, CHUNK_SIZE);
+    }
+
+    /**
+     * A constructor that takes the queue depth and chunk size.
+     *
+     * @param   queueDepth  int
+     * @param   chunkSize   int
+     */
+    AsyncFileCipherEngine(final int queueDepth, final int chunkSize) {
+        super();
+
+        if (queueDepth < 1 || queueDepth > MAXIMUM_QUEUE_DEPTH) {
+            throw new IllegalArgumentException("The queue depth must be from 1 to " + MAXIMUM_QUEUE_DEPTH + ": " + queueDepth);
+        }
+
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be positive: " + chunkSize);
+        }
+
+        this.queueDepth = queueDepth;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean transform(final Cipher cipher,
+                             final Path input,
+                             final long inputOffset,
+                             final Path output,
+                             final byte[] prefix,
+                             final ProgressMonitor progressMonitor,
+                             final AtomicBoolean cancelled) throws IOException, GeneralSecurityException {
+        final FileCipherEvent event = new FileCipherEvent();
+
+        event.begin();
+
+        try {
+            return this.transform(cipher, input, inputOffset, output, prefix, progressMonitor, cancelled, event);
+        } finally {
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.setEngine("async");
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Transform the input file into the output file,
+     * adding byte counts and phase times to the event.
+     *
+     * @param   cipher          javax.crypto.Cipher
+     * @param   input           java.nio.file.Path
+     * @param   inputOffset     long
+     * @param   output          java.nio.file.Path
+     * @param   prefix          byte[]
+     * @param   progressMonitor net.jmp.aes256.utils.ProgressMonitor
+     * @param   cancelled       java.util.concurrent.atomic.AtomicBoolean
+     * @param   event           net.jmp.aes256.utils.FileCipherEvent
+     * @return                  boolean
+     * @throws                  java.io.IOException
+     * @throws                  java.security.GeneralSecurityException
+     * @since                   1.2.0
+     */
+    private boolean transform(final Cipher cipher,
+                              final Path input,
+                              final long inputOffset,
+                              final Path output,
+                              final byte[] prefix,
+                              final ProgressMonitor progressMonitor,
+                              final AtomicBoolean cancelled,
+                              final FileCipherEvent event) throws IOException, GeneralSecurityException {
+        final boolean timed = event.isEnabled();
+
+        try (final AsynchronousFileChannel inputChannel = AsynchronousFileChannel.open(input, StandardOpenOption.READ);
+             final AsynchronousFileChannel outputChannel = AsynchronousFileChannel.open(output,
+                     StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.WRITE)) {
+            final long size = inputChannel.size();
+            final Slot[] slots = new Slot[this.queueDepth];
+
+            long readPosition = inputOffset;
+            long writePosition = 0;
+
+            writeFully(outputChannel, ByteBuffer.wrap(prefix), writePosition);
+
+            writePosition += prefix.length;
+
+            event.write(prefix.length, 0);
+
+            /* Fill the queue with reads */
+
+            /* A decrypting cipher may hold back a block, so allow for one more */
+
+            final int outputSize = cipher.getOutputSize(this.chunkSize) + cipher.getBlockSize();
+
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = new Slot(this.chunkSize, outputSize);
+
+                readPosition = slots[i].read(inputChannel, readPosition, size);
+            }
+
+            progressMonitor.stage(ProgressMonitor.Stage.CIPHER);
+
+            /* Consume the slots in file order */
+
+            for (int i = 0; slots[i].isReading(); i = (i + 1) % slots.length) {
+                if (cancelled.get()) {
+                    return false;
+                }
+
+                final Slot slot = slots[i];
+                final long start = timed ? System.nanoTime() : 0;
+                final ByteBuffer data = slot.awaitRead(inputChannel);
+                final int length = data.remaining();
+                final long read = timed ? System.nanoTime() : 0;
+
+                slot.awaitWrite(outputChannel);
+
+                final long ciphering = timed ? System.nanoTime() : 0;
+
+                cipher.update(data, slot.output.clear());
+
+                final long ciphered = timed ? System.nanoTime() : 0;
+                final int bytesWritten = slot.write(outputChannel, writePosition);
+
+                writePosition += bytesWritten;
+
+                event.read(length, read - start);
+                event.cipher(ciphered - ciphering);
+                event.write(bytesWritten, ciphering - read);
+                readPosition = slot.read(inputChannel, readPosition, size);
+
+                progressMonitor.add(length);
+            }
+
+            for (final Slot slot : slots) {
+                slot.awaitWrite(outputChannel);
+            }
+
+            progressMonitor.stage(ProgressMonitor.Stage.IO);
+
+            final byte[] last = cipher.doFinal();
+
+            if (last != null) {
+                writeFully(outputChannel, ByteBuffer.wrap(last), writePosition);
+
+                event.write(last.length, 0);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Write the whole buffer and wait for it to complete.
+     *
+     * @param   channel     java.nio.channels.AsynchronousFileChannel
+     * @param   buffer      java.nio.ByteBuffer
+     * @param   position    long
+     * @throws              java.io.IOException
+     */
+    private static void writeFully(final AsynchronousFileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        long offset = position;
+
+        while (buffer.hasRemaining()) {
+            offset += await(channel.write(buffer, offset));
+        }
+    }
+
+    /**
+     * Wait for an I/O operation and return its result.
+     *
+     * @param   future  java.util.concurrent.Future&lt;java.lang.Integer&gt;
+     * @return          int
+     * @throws          java.io.IOException
+     */
+    private static int await(final Future<Integer> future) throws IOException {
+        try {
+            return future.get();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted waiting for file I/O");
+        } catch (final ExecutionException ee) {
+            if (ee.getCause() instanceof IOException ioe) {
+                throw ioe;
+            }
+
+            throw new IOException(ee.getCause());
+        }
+    }
+
+    /**
+     * One chunk in the ring: an input buffer with its
+     * outstanding read and an output buffer with its
+     * outstanding write.
+     */
+    private static final class Slot {
+        /** The input buffer. */
+        private final ByteBuffer input;
+
+        /** The output buffer. */
+        private final ByteBuffer output;
+
+        /** The outstanding read or null. */
+        private Future<Integer> read;
+
+        /** The file position of the outstanding read. */
+        private long readPosition;
+
+        /** The number of bytes the outstanding read must return. */
+        private int readLength;
+
+        /** The outstanding write or null. */
+        private Future<Integer> write;
+
+        /** The file position of the outstanding write. */
+        private long writePosition;
+
+        /**
+         * A constructor that takes the buffer sizes.
+         *
+         * @param   inputSize   int
+         * @param   outputSize  int
+         */
+        private Slot(final int inputSize, final int outputSize) {
+            super();
+
+            this.input = ByteBuffer.allocateDirect(inputSize);
+            this.output = ByteBuffer.allocateDirect(outputSize);
+        }
+
+        /**
+         * Return true if a read is outstanding.
+         *
+         * @return  boolean
+         */
+        private boolean isReading() {
+            return this.read != null;
+        }
+
+        /**
+         * Start reading the chunk at the position unless it
+         * is beyond the end of the file. The position of the
+         * following chunk is returned.
+         *
+         * @param   channel     java.nio.channels.AsynchronousFileChannel
+         * @param   position    long
+         * @param   size        long
+         * @return              long
+         */
+        private long read(final AsynchronousFileChannel channel, final long position, final long size) {
+            if (position >= size) {
+                this.read = null;
+
+                return position;
+            }
+
+            this.readPosition = position;
+            this.readLength = (int) Math.min(this.input.capacity(), size - position);
+            this.read = channel.read(this.input.clear().limit(this.readLength), position);
+
+            return position + this.readLength;
+        }
+
+        /**
+         * Wait for the outstanding read, completing a short
+         * read if necessary, and return the data.
+         *
+         * @param   channel     java.nio.channels.AsynchronousFileChannel
+         * @return              java.nio.ByteBuffer
+         * @throws              java.io.IOException
+         */
+        private ByteBuffer awaitRead(final AsynchronousFileChannel channel) throws IOException {
+            int total = await(this.read);
+
+            while (total < this.readLength) {
+                if (total < 0) {
+                    throw new IOException("The input file was truncated at position " + this.readPosition);
+                }
+
+                final int bytesRead = await(channel.read(this.input, this.readPosition + total));
+
+                total = bytesRead < 0 ? -1 : total + bytesRead;
+            }
+
+            this.read = null;
+
+            return this.input.flip();
+        }
+
+        /**
+         * Start writing the output buffer at the position
+         * and return the number of bytes being written.
+         *
+         * @param   channel     java.nio.channels.AsynchronousFileChannel
+         * @param   position    long
+         * @return              int
+         */
+        private int write(final AsynchronousFileChannel channel, final long position) {
+            this.output.flip();
+
+            final int length = this.output.remaining();
+
+            this.writePosition = position;
+            this.write = channel.write(this.output, position);
+
+            return length;
+        }
+
+        /**
+         * Wait for the outstanding write, completing
+         * a short write if necessary.
+         *
+         * @param   channel     java.nio.channels.AsynchronousFileChannel
+         * @throws              java.io.IOException
+         */
+        private void awaitWrite(final AsynchronousFileChannel channel) throws IOException {
+            if (this.write != null) {
+                final int written = await(this.write);
+
+                this.write = null;
+
+                writeFully(channel, this.output, this.writePosition + written);
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)AsyncOperation.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.Objects;
+import java.util.Optional;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A package-private helper that chains the key derivation
+ * and cipher stages of an asynchronous operation onto the
+ * appropriate executors. Cancellation is cooperative: a
+ * key derivation already running completes, but no later
+ * stage is started and file loops stop at the next buffer.
+ */
+final class AsyncOperation {
+    /**
+     * A supplier that may throw a cryptography exception.
+     *
+     * @param   <T> The type of the supplied value
+     */
+    @FunctionalInterface
+    interface CryptographySupplier<T> {
+        T get() throws CryptographyException;
+    }
+
+    /**
+     * A function that may throw a cryptography exception.
+     *
+     * @param   <T> The type of the argument
+     * @param   <R> The type of the result
+     */
+    @FunctionalInterface
+    interface CryptographyFunction<T, R> {
+        R apply(T t) throws CryptographyException;
+    }
+
+    /**
+     * The default constructor.
+     */
+    private AsyncOperation() {
+        super();
+    }
+
+    /**
+     * Submit the operation and return the future result.
+     * The key is derived on the key derivation executor.
+     * The operation then runs on the I/O executor for files
+     * and on the cipher executor for strings.
+     *
+     * @param   executors       net.jmp.aes256.crypto.CryptographyExecutors
+     * @param   keySupplier     net.jmp.aes256.crypto.AsyncOperation.CryptographySupplier&lt;K&gt;
+     * @param   operation       net.jmp.aes256.crypto.AsyncOperation.CryptographyFunction&lt;K, java.util.Optional&lt;java.lang.String&gt;&gt;
+     * @param   isFileOperation boolean
+     * @param   cancelled       java.util.concurrent.atomic.AtomicBoolean
+     * @return                  java.util.concurrent.CompletableFuture&lt;java.util.Optional&lt;java.lang.String&gt;&gt;
+     * @param   <K>             The type of the key
+     */
+    static <K> CompletableFuture<Optional<String>> submit(final CryptographyExecutors executors,
+                                                         final CryptographySupplier<K> keySupplier,
+                                                         final CryptographyFunction<K, Optional<String>> operation,
+                                                         final boolean isFileOperation,
+                                                         final AtomicBoolean cancelled) {
+        Objects.requireNonNull(executors);
+        Objects.requireNonNull(keySupplier);
+        Objects.requireNonNull(operation);
+        Objects.requireNonNull(cancelled);
+
+        final Executor operationExecutor = isFileOperation ? executors.getIoExecutor() : executors.getCipherExecutor();
+        final CompletableFuture<Optional<String>> result = new CompletableFuture<>();
+
+        final CompletableFuture<Optional<String>> stages = CompletableFuture
+                .supplyAsync(() -> {
+                    checkCancelled(cancelled);
+
+                    return get(keySupplier);
+                }, executors.getKeyDerivationExecutor())
+                .thenApplyAsync(key -> {
+                    checkCancelled(cancelled);
+
+                    return apply(operation, key);
+                }, operationExecutor);
+
+        stages.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(unwrap(throwable));
+            }
+        });
+
+        result.whenComplete((value, throwable) -> {
+            if (result.isCancelled()) {
+                cancelled.set(true);
+                stages.cancel(false);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Throw a cancellation exception if the operation has been cancelled.
+     *
+     * @param   cancelled   java.util.concurrent.atomic.AtomicBoolean
+     */
+    private static void checkCancelled(final AtomicBoolean cancelled) {
+        if (cancelled.get()) {
+            throw new CancellationException("The operation was cancelled");
+        }
+    }
+
+    /**
+     * Invoke the supplier, wrapping any cryptography exception.
+     *
+     * @param   supplier    net.jmp.aes256.crypto.AsyncOperation.CryptographySupplier&lt;T&gt;
+     * @return              T
+     * @param   <T>         The type of the supplied value
+     */
+    private static <T> T get(final CryptographySupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (final CryptographyException ce) {
+            throw new CompletionException(ce);
+        }
+    }
+
+    /**
+     * Invoke the function, wrapping any cryptography exception.
+     *
+     * @param   function    net.jmp.aes256.crypto.AsyncOperation.CryptographyFunction&lt;T, R&gt;
+     * @param   t           T
+     * @return              R
+     * @param   <T>         The type of the argument
+     * @param   <R>         The type of the result
+     */
+    private static <T, R> R apply(final CryptographyFunction<T, R> function, final T t) {
+        try {
+            return function.apply(t);
+        } catch (final CryptographyException ce) {
+            throw new CompletionException(ce);
+        }
+    }
+
+    /**
+     * Remove the completion exception wrapper, if any.
+     *
+     * @param   throwable   java.lang.Throwable
+     * @return              java.lang.Throwable
+     */
+    private static Throwable unwrap(final Throwable throwable) {
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            return throwable.getCause();
+        }
+
+        return throwable;
+    }
+}
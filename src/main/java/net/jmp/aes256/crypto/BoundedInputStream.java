@@ -0,0 +1,129 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)BoundedInputStream.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads at most a given number of bytes from the underlying
+ * stream. It is used to decrypt a range of cipher text, where
+ * the cipher must see the end of the range as the end of the
+ * stream. Closing this stream closes the underlying one.
+ */
+final class BoundedInputStream extends FilterInputStream {
+    /** The number of bytes left to read. */
+    private long remaining;
+
+    /**
+     * A constructor that takes the underlying stream
+     * and the number of bytes that may be read.
+     *
+     * @param   inputStream java.io.InputStream
+     * @param   length      long
+     */
+    BoundedInputStream(final InputStream inputStream, final long length) {
+        super(inputStream);
+
+        this.remaining = length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException {
+        if (this.remaining <= 0) {
+            return -1;
+        }
+
+        final int b = this.in.read();
+
+        if (b >= 0) {
+            this.remaining--;
+        }
+
+        return b;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+
+        if (this.remaining <= 0) {
+            return -1;
+        }
+
+        final int bytesRead = this.in.read(bytes, offset, (int) Math.min(length, this.remaining));
+
+        if (bytesRead > 0) {
+            this.remaining -= bytesRead;
+        }
+
+        return bytesRead;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long skip(final long n) throws IOException {
+        final long skipped = this.in.skip(Math.min(n, this.remaining));
+
+        this.remaining -= skipped;
+
+        return skipped;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(this.in.available(), this.remaining);
+    }
+
+    /**
+     * Marking is not supported.
+     *
+     * @return  boolean
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
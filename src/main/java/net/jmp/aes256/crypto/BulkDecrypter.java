@@ -0,0 +1,511 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)BulkDecrypter.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.ConfigSnapshot;
+
+import net.jmp.aes256.input.Credential;
+import net.jmp.aes256.input.CredentialsManifest;
+import net.jmp.aes256.input.FileEntry;
+import net.jmp.aes256.input.Options;
+
+import net.jmp.aes256.utils.Builder;
+import net.jmp.aes256.utils.Salter;
+import net.jmp.aes256.utils.SecretKeySpecBuilder;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * Decrypts the files in a manifest on a pool of workers.
+ * Entries are grouped by credential and each distinct key
+ * is derived once, by the first worker that needs it, while
+ * the others wait for it. One JSON line is written per entry
+ * as it completes.
+ *
+ * <p>When a status journal is given, each entry that completes
+ * is appended to it with the size and modification time of its
+ * input and output. An entry is skipped only when the journal
+ * holds it and both files are unchanged since, so running the
+ * same manifest again resumes an interrupted restore without
+ * trusting an output file that some other process wrote.
+ */
+public final class BulkDecrypter {
+    /** The suffix added to the manifest file name to name its status journal. */
+    public static final String STATUS_JOURNAL_SUFFIX = ".status";
+
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The configuration snapshot. */
+    private final ConfigSnapshot configSnapshot;
+
+    /** The configuration. */
+    private final Config config;
+
+    /** The options shared by every entry. */
+    private final Options options;
+
+    /** The number of workers. */
+    private final int workers;
+
+    /** The keys by user identifier and key derivation settings. */
+    private final Map<String, CompletableFuture<SecretKeySpec>> keys = new ConcurrentHashMap<>();
+
+    /** The number of keys derived. */
+    private final AtomicInteger derivations = new AtomicInteger();
+
+    /**
+     * The default constructor.
+     */
+    private BulkDecrypter() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the configuration snapshot and the
+     * options, with one worker per available processor. Only the
+     * I/O options apply; the files come from the manifest.
+     *
+     * @param   configSnapshot  net.jmp.aes256.config.ConfigSnapshot
+     * @param   options         net.jmp.aes256.input.Options
+     */
+    public BulkDecrypter(final ConfigSnapshot configSnapshot, final Options options) {
+        this(configSnapshot, options, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * A constructor that takes the configuration
+     * snapshot, the options and the number of workers.
+     *
+     * @param   configSnapshot  net.jmp.aes256.config.ConfigSnapshot
+     * @param   options         net.jmp.aes256.input.Options
+     * @param   workers         int
+     */
+    public BulkDecrypter(final ConfigSnapshot configSnapshot, final Options options, final int workers) {
+        super();
+
+        if (workers < 1) {
+            throw new IllegalArgumentException("The number of workers must be positive: " + workers);
+        }
+
+        this.configSnapshot = Objects.requireNonNull(configSnapshot);
+        this.config = configSnapshot.getConfig();
+        this.options = Objects.requireNonNull(options);
+        this.workers = workers;
+    }
+
+    /**
+     * Decrypt the files in the manifest, writing the status of
+     * each to the print stream. The number of files that could
+     * not be decrypted is returned. Every entry is decrypted.
+     *
+     * @param   manifest    net.jmp.aes256.input.CredentialsManifest
+     * @param   out         java.io.PrintStream
+     * @return              int
+     */
+    public int decrypt(final CredentialsManifest manifest, final PrintStream out) {
+        return this.decrypt(manifest, null, out);
+    }
+
+    /**
+     * Decrypt the files in the manifest, writing the status of
+     * each to the print stream and recording the completed ones
+     * in the status journal. Entries the journal shows to have
+     * completed, with their files unchanged since, are skipped.
+     * The number of files that could not be decrypted is returned.
+     *
+     * @param   manifest    net.jmp.aes256.input.CredentialsManifest
+     * @param   journal     java.nio.file.Path
+     * @param   out         java.io.PrintStream
+     * @return              int
+     */
+    public int decrypt(final CredentialsManifest manifest, final Path journal, final PrintStream out) {
+        this.logger.entry(manifest, journal, out);
+
+        Objects.requireNonNull(manifest);
+        Objects.requireNonNull(out);
+
+        final Gson gson = new Gson();
+        final Map<String, Completion> completions = journal != null ? this.readJournal(gson, journal) : Map.of();
+
+        /* Resolve each password once */
+
+        final Map<String, String> passwords = new HashMap<>();
+        final Map<String, String> errors = new HashMap<>();
+
+        for (final Credential credential : manifest.getCredentials()) {
+            try {
+                passwords.put(credential.getUserId(), credential.resolvePassword());
+            } catch (final IOException ioe) {
+                errors.put(credential.getUserId(), ioe.getMessage());
+            }
+        }
+
+        /* Queue the entries group by group so each key is needed by adjacent entries */
+
+        final Map<String, List<FileEntry>> groups = new LinkedHashMap<>();
+
+        for (final FileEntry entry : manifest.getFiles()) {
+            groups.computeIfAbsent(String.valueOf(entry.getUserId()), userId -> new ArrayList<>()).add(entry);
+        }
+
+        final AtomicInteger failures = new AtomicInteger();
+
+        try (final BufferedWriter journalWriter = journal != null ? Files.newBufferedWriter(journal,
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND) : null) {
+            try (final ExecutorService executor = Executors.newFixedThreadPool(this.workers)) {
+                for (final List<FileEntry> group : groups.values()) {
+                    for (final FileEntry entry : group) {
+                        executor.submit(() -> {
+                            final Map<String, Object> status = this.decrypt(entry, passwords, errors, completions);
+
+                            if ("failed".equals(status.get("status"))) {
+                                failures.incrementAndGet();
+                            } else if (journalWriter != null && "ok".equals(status.get("status"))) {
+                                this.record(gson, journalWriter, entry);
+                            }
+
+                            synchronized (out) {
+                                out.println(gson.toJson(status));
+                            }
+                        });
+                    }
+                }
+            }
+        } catch (final IOException ioe) {
+            this.logger.warn("Unable to write the status journal {}: {}", journal, ioe.getMessage());
+        }
+
+        this.logger.exit(failures.get());
+
+        return failures.get();
+    }
+
+    /**
+     * Return the completions in the status journal by output
+     * file. A missing or unreadable journal holds none, and a
+     * line that cannot be parsed, such as one cut short by a
+     * crash, is ignored.
+     *
+     * @param   gson    com.google.gson.Gson
+     * @param   journal java.nio.file.Path
+     * @return          java.util.Map&lt;java.lang.String, net.jmp.aes256.crypto.BulkDecrypter.Completion&gt;
+     */
+    private Map<String, Completion> readJournal(final Gson gson, final Path journal) {
+        final Map<String, Completion> completions = new HashMap<>();
+
+        if (Files.exists(journal)) {
+            try {
+                for (final String line : Files.readAllLines(journal, StandardCharsets.UTF_8)) {
+                    try {
+                        final Completion completion = gson.fromJson(line, Completion.class);
+
+                        if (completion != null && completion.outputFile != null) {
+                            completions.put(completion.outputFile, completion);
+                        }
+                    } catch (final JsonParseException jpe) {
+                        /* A partly written last line; the entry is decrypted again */
+                    }
+                }
+            } catch (final IOException ioe) {
+                this.logger.warn("Unable to read the status journal {}; decrypting every entry: {}", journal, ioe.getMessage());
+
+                completions.clear();
+            }
+        }
+
+        return completions;
+    }
+
+    /**
+     * Append the completion of the entry to the status journal.
+     * A failure to record it only means the entry is decrypted
+     * again by the next run.
+     *
+     * @param   gson            com.google.gson.Gson
+     * @param   journalWriter   java.io.BufferedWriter
+     * @param   entry           net.jmp.aes256.input.FileEntry
+     */
+    private void record(final Gson gson, final BufferedWriter journalWriter, final FileEntry entry) {
+        try {
+            final String line = gson.toJson(Completion.of(entry));
+
+            synchronized (journalWriter) {
+                journalWriter.write(line);
+                journalWriter.newLine();
+                journalWriter.flush();
+            }
+        } catch (final IOException ioe) {
+            this.logger.warn("Unable to record {} in the status journal: {}", entry.getOutputFile(), ioe.getMessage());
+        }
+    }
+
+    /**
+     * Return the number of keys derived so far.
+     *
+     * @return  int
+     */
+    public int getDerivations() {
+        return this.derivations.get();
+    }
+
+    /**
+     * Decrypt one entry and return its status.
+     *
+     * @param   entry       net.jmp.aes256.input.FileEntry
+     * @param   passwords   java.util.Map&lt;java.lang.String, java.lang.String&gt;
+     * @param   errors      java.util.Map&lt;java.lang.String, java.lang.String&gt;
+     * @param   completions java.util.Map&lt;java.lang.String, net.jmp.aes256.crypto.BulkDecrypter.Completion&gt;
+     * @return              java.util.Map&lt;java.lang.String, java.lang.Object&gt;
+     */
+    private Map<String, Object> decrypt(final FileEntry entry,
+                                        final Map<String, String> passwords,
+                                        final Map<String, String> errors,
+                                        final Map<String, Completion> completions) {
+        final long start = System.nanoTime();
+        final Map<String, Object> status = new LinkedHashMap<>();
+
+        status.put("input-file", entry.getInputFile());
+        status.put("output-file", entry.getOutputFile());
+        status.put("user-id", entry.getUserId());
+
+        try {
+            if (entry.getInputFile() == null || entry.getOutputFile() == null || entry.getUserId() == null) {
+                throw new CryptographyException("Each file needs an input-file, an output-file and a user-id");
+            }
+
+            final Path input = Paths.get(entry.getInputFile());
+            final Path output = Paths.get(entry.getOutputFile());
+
+            if (!Files.exists(input)) {
+                throw new CryptographyException("Input file does not exist");
+            }
+
+            final Completion completion = completions.get(entry.getOutputFile());
+
+            if (completion != null && Files.exists(output) && completion.equals(Completion.of(entry))) {
+                status.put("status", "skipped");
+            } else {
+                final String userId = entry.getUserId();
+                final String password = passwords.get(userId);
+
+                if (password == null) {
+                    throw new CryptographyException(errors.getOrDefault(userId, "No credential for user ID"));
+                }
+
+                final Options entryOptions = Builder.of(Options::new)
+                        .with(Options::setInputFile, entry.getInputFile())
+                        .with(Options::setOutputFile, entry.getOutputFile())
+                        .with(Options::setUserId, userId)
+                        .with(Options::setPassword, password)
+                        .with(Options::setArmor, this.options.isArmor())
+                        .with(Options::setDirectIo, this.options.isDirectIo())
+                        .with(Options::setDurability, this.options.getDurability())
+                        .with(Options::setIoEngine, this.options.getIoEngine())
+                        .with(Options::setQueueDepth, this.options.getQueueDepth())
+                        .build();
+
+                Decrypter.of(this.configSnapshot, entryOptions).decryptFile(keyConfig -> this.deriveKey(userId, password, keyConfig));
+
+                status.put("status", "ok");
+            }
+        } catch (final CryptographyException | IOException | RuntimeException e) {
+            this.logger.catching(e);
+
+            status.put("status", "failed");
+            status.put("error", e.getMessage());
+        }
+
+        status.put("millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        return status;
+    }
+
+    /**
+     * Return the key for the user and the key derivation
+     * settings, deriving it if no other worker has.
+     *
+     * @param   userId      java.lang.String
+     * @param   password    java.lang.String
+     * @param   keyConfig   net.jmp.aes256.config.Config
+     * @return              javax.crypto.spec.SecretKeySpec
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     */
+    private SecretKeySpec deriveKey(final String userId, final String password, final Config keyConfig) throws CryptographyException {
+        final CompletableFuture<SecretKeySpec> derivation = new CompletableFuture<>();
+        final CompletableFuture<SecretKeySpec> existing = this.keys.putIfAbsent(userId + '\n' + keyConfig.getKeyDerivationSettings(), derivation);
+
+        if (existing == null) {
+            this.derivations.incrementAndGet();
+
+            try {
+                derivation.complete(new SecretKeySpecBuilder(keyConfig).build(password, new Salter(this.config).getSalt(userId)));
+            } catch (final CryptographyException | RuntimeException e) {
+                derivation.completeExceptionally(e);
+            }
+        }
+
+        try {
+            return (existing != null ? existing : derivation).join();
+        } catch (final CompletionException ce) {
+            throw new CryptographyException("Unable to derive key for user ID: " + userId, ce.getCause());
+        }
+    }
+
+    /**
+     * A completed entry as recorded in the status journal.
+     */
+    static final class Completion {
+        /** The input file. */
+        @SerializedName("input-file")
+        private String inputFile;
+
+        /** The output file. */
+        @SerializedName("output-file")
+        private String outputFile;
+
+        /** The user identifier. */
+        @SerializedName("user-id")
+        private String userId;
+
+        /** The input file size. */
+        @SerializedName("input-size")
+        private long inputSize;
+
+        /** The input file modification time in milliseconds. */
+        @SerializedName("input-modified")
+        private long inputModified;
+
+        /** The output file size. */
+        @SerializedName("output-size")
+        private long outputSize;
+
+        /** The output file modification time in milliseconds. */
+        @SerializedName("output-modified")
+        private long outputModified;
+
+        /**
+         * Return the completion describing the entry and
+         * the current state of its input and output files.
+         *
+         * @param   entry   net.jmp.aes256.input.FileEntry
+         * @return          net.jmp.aes256.crypto.BulkDecrypter.Completion
+         * @throws          java.io.IOException
+         */
+        static Completion of(final FileEntry entry) throws IOException {
+            final Path input = Paths.get(entry.getInputFile());
+            final Path output = Paths.get(entry.getOutputFile());
+            final Completion completion = new Completion();
+
+            completion.inputFile = entry.getInputFile();
+            completion.outputFile = entry.getOutputFile();
+            completion.userId = entry.getUserId();
+            completion.inputSize = Files.size(input);
+            completion.inputModified = Files.getLastModifiedTime(input).toMillis();
+            completion.outputSize = Files.size(output);
+            completion.outputModified = Files.getLastModifiedTime(output).toMillis();
+
+            return completion;
+        }
+
+        /**
+         * The equals method.
+         *
+         * @param   o   java.lang.Object
+         * @return      boolean
+         */
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+
+            if (o == null || getClass() != o.getClass()) return false;
+
+            final Completion completion = (Completion) o;
+
+            return this.inputSize == completion.inputSize &&
+                    this.inputModified == completion.inputModified &&
+                    this.outputSize == completion.outputSize &&
+                    this.outputModified == completion.outputModified &&
+                    Objects.equals(this.inputFile, completion.inputFile) &&
+                    Objects.equals(this.outputFile, completion.outputFile) &&
+                    Objects.equals(this.userId, completion.userId);
+        }
+
+        /**
+         * The hash-code method.
+         *
+         * @return  int
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.inputFile, this.outputFile, this.userId, this.inputSize, this.inputModified, this.outputSize, this.outputModified);
+        }
+    }
+}
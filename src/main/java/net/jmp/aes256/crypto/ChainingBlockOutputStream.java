@@ -0,0 +1,123 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)ChainingBlockOutputStream.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Passes cipher text through to the underlying stream while
+ * remembering the last block written and counting the bytes.
+ * In CBC mode the last block is the initialization vector for
+ * whatever is encrypted next, which is what lets a record in
+ * an archive be decrypted on its own. Closing this stream
+ * flushes but leaves the underlying stream open so more can
+ * be written after the cipher is finished.
+ */
+final class ChainingBlockOutputStream extends FilterOutputStream {
+    /** The last block written. */
+    private final byte[] lastBlock;
+
+    /** The number of bytes written. */
+    private long count;
+
+    /**
+     * A constructor that takes the underlying stream and
+     * the initialization vector, which stands in as the
+     * last block until a whole block has been written.
+     *
+     * @param   outputStream            java.io.OutputStream
+     * @param   initializationVector    byte[]
+     */
+    ChainingBlockOutputStream(final OutputStream outputStream, final byte[] initializationVector) {
+        super(outputStream);
+
+        this.lastBlock = initializationVector.clone();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final int b) throws IOException {
+        this.write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        this.out.write(bytes, offset, length);
+
+        /* Shift in the newest bytes so the array always holds the last block */
+
+        final int blockSize = this.lastBlock.length;
+
+        if (length >= blockSize) {
+            System.arraycopy(bytes, offset + length - blockSize, this.lastBlock, 0, blockSize);
+        } else {
+            System.arraycopy(this.lastBlock, length, this.lastBlock, 0, blockSize - length);
+            System.arraycopy(bytes, offset, this.lastBlock, blockSize - length, length);
+        }
+
+        this.count += length;
+    }
+
+    /**
+     * Flush without closing the underlying stream.
+     *
+     * @throws  java.io.IOException
+     */
+    @Override
+    public void close() throws IOException {
+        this.flush();
+    }
+
+    /**
+     * Return a copy of the last block written.
+     *
+     * @return  byte[]
+     */
+    byte[] getLastBlock() {
+        return this.lastBlock.clone();
+    }
+
+    /**
+     * Return the number of bytes written.
+     *
+     * @return  long
+     */
+    long getCount() {
+        return this.count;
+    }
+}
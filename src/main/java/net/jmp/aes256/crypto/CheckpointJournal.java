@@ -0,0 +1,370 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)CheckpointJournal.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+import java.util.zip.CRC32C;
+
+/**
+ * The journal of a resumable encryption. It records the last
+ * durable checkpoint: the segment boundary reached in the input
+ * and the output, the cipher state needed to continue from it,
+ * and enough about the input, the key and the tail of the output
+ * to tell whether the partial output can still be trusted.
+ *
+ * <p>In CBC mode the cipher state at a block boundary is the last
+ * cipher text block, which is the initialization vector of the
+ * rest of the file. The journal is replaced atomically at each
+ * checkpoint, after the output up to it has been forced to disk.
+ *
+ * <p>The journal, in big-endian order, is:
+ * <pre>
+ *   magic                  8 bytes  "AES256CJ"
+ *   input size             8 bytes
+ *   input modified         8 bytes  milliseconds since the epoch
+ *   key check              4 bytes  first bytes of the SHA-256 of the key
+ *   header length          4 bytes
+ *   header                 n bytes  the file header, ending with the IV
+ *   input offset           8 bytes
+ *   output length          8 bytes
+ *   tail offset            8 bytes  start of the last segment in the output
+ *   tail digest           32 bytes  SHA-256 of the last segment
+ *   chain block           16 bytes  last cipher text block
+ *   checksum               4 bytes  CRC32C of everything above
+ * </pre>
+ */
+final class CheckpointJournal {
+    /** The magic bytes. */
+    static final byte[] MAGIC = "AES256CJ".getBytes(StandardCharsets.US_ASCII);
+
+    /** The size of the key check. */
+    static final int KEY_CHECK_SIZE = 4;
+
+    /** The size of the tail digest. */
+    static final int DIGEST_SIZE = 32;
+
+    /** The size of the input file. */
+    private final long inputSize;
+
+    /** The last modified time of the input file in milliseconds. */
+    private final long inputModified;
+
+    /** The key check. */
+    private final byte[] keyCheck;
+
+    /** The file header. */
+    private final byte[] header;
+
+    /** The offset in the input of the checkpoint. */
+    private final long inputOffset;
+
+    /** The length of the output at the checkpoint. */
+    private final long outputLength;
+
+    /** The offset in the output of the last segment. */
+    private final long tailOffset;
+
+    /** The digest of the last segment. */
+    private final byte[] tailDigest;
+
+    /** The last cipher text block. */
+    private final byte[] chainBlock;
+
+    /**
+     * The default constructor.
+     */
+    private CheckpointJournal() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes all the fields.
+     *
+     * @param   inputSize       long
+     * @param   inputModified   long
+     * @param   keyCheck        byte[]
+     * @param   header          byte[]
+     * @param   inputOffset     long
+     * @param   outputLength    long
+     * @param   tailOffset      long
+     * @param   tailDigest      byte[]
+     * @param   chainBlock      byte[]
+     */
+    CheckpointJournal(final long inputSize,
+                      final long inputModified,
+                      final byte[] keyCheck,
+                      final byte[] header,
+                      final long inputOffset,
+                      final long outputLength,
+                      final long tailOffset,
+                      final byte[] tailDigest,
+                      final byte[] chainBlock) {
+        super();
+
+        this.inputSize = inputSize;
+        this.inputModified = inputModified;
+        this.keyCheck = Objects.requireNonNull(keyCheck).clone();
+        this.header = Objects.requireNonNull(header).clone();
+        this.inputOffset = inputOffset;
+        this.outputLength = outputLength;
+        this.tailOffset = tailOffset;
+        this.tailDigest = Objects.requireNonNull(tailDigest).clone();
+        this.chainBlock = Objects.requireNonNull(chainBlock).clone();
+    }
+
+    /**
+     * Read the journal from the file. An empty optional is
+     * returned if there is no journal.
+     *
+     * @param   file    java.nio.file.Path
+     * @return          java.util.Optional&lt;net.jmp.aes256.crypto.CheckpointJournal&gt;
+     * @throws          java.io.IOException
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     */
+    static Optional<CheckpointJournal> read(final Path file) throws IOException, CryptographyException {
+        Optional<CheckpointJournal> journal = Optional.empty();
+
+        if (Files.exists(file)) {
+            journal = Optional.of(parse(Files.readAllBytes(file)));
+        }
+
+        return journal;
+    }
+
+    /**
+     * Write the journal durably, replacing any earlier one
+     * atomically so that a crash leaves either the old or
+     * the new checkpoint and never a torn one.
+     *
+     * @param   file    java.nio.file.Path
+     * @throws          java.io.IOException
+     */
+    void write(final Path file) throws IOException {
+        final Path temporary = OutputFiles.createTemporaryFile(file);
+
+        try {
+            Files.write(temporary, this.toByteArray());
+
+            OutputFiles.commit(temporary, file, Durability.FILE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Return the journal as bytes.
+     *
+     * @return  byte[]
+     */
+    byte[] toByteArray() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (final DataOutputStream outputStream = new DataOutputStream(bytes)) {
+            outputStream.write(MAGIC);
+            outputStream.writeLong(this.inputSize);
+            outputStream.writeLong(this.inputModified);
+            outputStream.write(this.keyCheck);
+            outputStream.writeInt(this.header.length);
+            outputStream.write(this.header);
+            outputStream.writeLong(this.inputOffset);
+            outputStream.writeLong(this.outputLength);
+            outputStream.writeLong(this.tailOffset);
+            outputStream.write(this.tailDigest);
+            outputStream.write(this.chainBlock);
+            outputStream.writeInt((int) checksum(bytes.toByteArray(), bytes.size()));
+        } catch (final IOException ioe) {
+            throw new IllegalStateException("Unable to write to memory", ioe);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Parse the journal from its bytes.
+     *
+     * @param   bytes   byte[]
+     * @return          net.jmp.aes256.crypto.CheckpointJournal
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     */
+    static CheckpointJournal parse(final byte[] bytes) throws CryptographyException {
+        if (bytes.length < MAGIC.length + Integer.BYTES || !Arrays.equals(bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            throw new CryptographyException("The file is not a checkpoint journal");
+        }
+
+        final int length = bytes.length - Integer.BYTES;
+        if ((int) checksum(bytes, length) != ByteBuffer.wrap(bytes, length, Integer.BYTES).getInt()) {
+            throw new CryptographyException("The checkpoint journal is corrupt");
+        }
+
+        try (final DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(bytes, MAGIC.length, length - MAGIC.length))) {
+            final long inputSize = inputStream.readLong();
+            final long inputModified = inputStream.readLong();
+            final byte[] keyCheck = new byte[KEY_CHECK_SIZE];
+
+            inputStream.readFully(keyCheck);
+
+            final int headerLength = inputStream.readInt();
+
+            if (headerLength < FileHeader.SIZE || headerLength > length) {
+                throw new CryptographyException("The checkpoint journal is corrupt");
+            }
+
+            final byte[] header = new byte[headerLength];
+
+            inputStream.readFully(header);
+
+            final long inputOffset = inputStream.readLong();
+            final long outputLength = inputStream.readLong();
+            final long tailOffset = inputStream.readLong();
+            final byte[] tailDigest = new byte[DIGEST_SIZE];
+            final byte[] chainBlock = new byte[ResumableFileEncrypter.BLOCK_SIZE];
+
+            inputStream.readFully(tailDigest);
+            inputStream.readFully(chainBlock);
+
+            return new CheckpointJournal(inputSize, inputModified, keyCheck, header, inputOffset, outputLength, tailOffset, tailDigest, chainBlock);
+        } catch (final IOException ioe) {
+            throw new CryptographyException("The checkpoint journal is truncated", ioe);
+        }
+    }
+
+    /**
+     * Return the CRC32C of the first bytes.
+     *
+     * @param   bytes   byte[]
+     * @param   length  int
+     * @return          long
+     */
+    private static long checksum(final byte[] bytes, final int length) {
+        final CRC32C crc = new CRC32C();
+
+        crc.update(bytes, 0, length);
+
+        return crc.getValue();
+    }
+
+    /**
+     * Return the size of the input file.
+     *
+     * @return  long
+     */
+    long getInputSize() {
+        return this.inputSize;
+    }
+
+    /**
+     * Return the last modified time of the input file.
+     *
+     * @return  long
+     */
+    long getInputModified() {
+        return this.inputModified;
+    }
+
+    /**
+     * Return the key check.
+     *
+     * @return  byte[]
+     */
+    byte[] getKeyCheck() {
+        return this.keyCheck.clone();
+    }
+
+    /**
+     * Return the file header.
+     *
+     * @return  byte[]
+     */
+    byte[] getHeader() {
+        return this.header.clone();
+    }
+
+    /**
+     * Return the offset in the input of the checkpoint.
+     *
+     * @return  long
+     */
+    long getInputOffset() {
+        return this.inputOffset;
+    }
+
+    /**
+     * Return the length of the output at the checkpoint.
+     *
+     * @return  long
+     */
+    long getOutputLength() {
+        return this.outputLength;
+    }
+
+    /**
+     * Return the offset in the output of the last segment.
+     *
+     * @return  long
+     */
+    long getTailOffset() {
+        return this.tailOffset;
+    }
+
+    /**
+     * Return the digest of the last segment.
+     *
+     * @return  byte[]
+     */
+    byte[] getTailDigest() {
+        return this.tailDigest.clone();
+    }
+
+    /**
+     * Return the last cipher text block.
+     *
+     * @return  byte[]
+     */
+    byte[] getChainBlock() {
+        return this.chainBlock.clone();
+    }
+}
@@ -0,0 +1,203 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)ChunkManifest.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The ordered list of chunks that make up a file encrypted
+ * into a chunk store. It is what the output file of such an
+ * encryption holds, encrypted like any other file.
+ *
+ * <p>The manifest plain text, in big-endian order, is:
+ * <pre>
+ *   magic                  8 bytes  "AES256CM"
+ *   count                  4 bytes
+ *   per chunk:
+ *     fingerprint         32 bytes
+ *     length               4 bytes
+ * </pre>
+ */
+final class ChunkManifest {
+    /** The magic bytes. */
+    static final byte[] MAGIC = "AES256CM".getBytes(StandardCharsets.US_ASCII);
+
+    /** The chunks. */
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    /**
+     * The default constructor.
+     */
+    ChunkManifest() {
+        super();
+    }
+
+    /**
+     * Add a chunk.
+     *
+     * @param   fingerprint byte[]
+     * @param   length      int
+     */
+    void add(final byte[] fingerprint, final int length) {
+        this.chunks.add(new Chunk(fingerprint, length));
+    }
+
+    /**
+     * Return the chunks in file order.
+     *
+     * @return  java.util.List&lt;net.jmp.aes256.crypto.ChunkManifest.Chunk&gt;
+     */
+    List<Chunk> getChunks() {
+        return Collections.unmodifiableList(this.chunks);
+    }
+
+    /**
+     * Return the size of the file.
+     *
+     * @return  long
+     */
+    long getSize() {
+        return this.chunks.stream().mapToLong(Chunk::getLength).sum();
+    }
+
+    /**
+     * Return the manifest as plain text.
+     *
+     * @return  byte[]
+     */
+    byte[] toByteArray() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (final DataOutputStream outputStream = new DataOutputStream(bytes)) {
+            outputStream.write(MAGIC);
+            outputStream.writeInt(this.chunks.size());
+
+            for (final Chunk chunk : this.chunks) {
+                outputStream.write(chunk.fingerprint);
+                outputStream.writeInt(chunk.length);
+            }
+        } catch (final IOException ioe) {
+            throw new IllegalStateException("Unable to write to memory", ioe);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Parse the manifest from its plain text.
+     *
+     * @param   bytes   byte[]
+     * @return          net.jmp.aes256.crypto.ChunkManifest
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     */
+    static ChunkManifest parse(final byte[] bytes) throws CryptographyException {
+        if (bytes.length < MAGIC.length || !Arrays.equals(bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            throw new CryptographyException("The input file is not a chunk manifest");
+        }
+
+        final ChunkManifest chunkManifest = new ChunkManifest();
+
+        try (final DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(bytes, MAGIC.length, bytes.length - MAGIC.length))) {
+            final int count = inputStream.readInt();
+
+            for (int i = 0; i < count; i++) {
+                final byte[] fingerprint = new byte[ChunkStore.FINGERPRINT_SIZE];
+
+                inputStream.readFully(fingerprint);
+
+                final int length = inputStream.readInt();
+
+                if (length <= 0 || length > ContentDefinedChunker.MAXIMUM_SIZE) {
+                    throw new CryptographyException("The chunk manifest is invalid");
+                }
+
+                chunkManifest.add(fingerprint, length);
+            }
+        } catch (final IOException ioe) {
+            throw new CryptographyException("The chunk manifest is truncated", ioe);
+        }
+
+        return chunkManifest;
+    }
+
+    /**
+     * A chunk of the file.
+     */
+    static final class Chunk {
+        /** The fingerprint. */
+        private final byte[] fingerprint;
+
+        /** The length of the plain text. */
+        private final int length;
+
+        /**
+         * A constructor that takes all the fields.
+         *
+         * @param   fingerprint byte[]
+         * @param   length      int
+         */
+        private Chunk(final byte[] fingerprint, final int length) {
+            super();
+
+            this.fingerprint = fingerprint.clone();
+            this.length = length;
+        }
+
+        /**
+         * Return the fingerprint.
+         *
+         * @return  byte[]
+         */
+        byte[] getFingerprint() {
+            return this.fingerprint.clone();
+        }
+
+        /**
+         * Return the length of the plain text.
+         *
+         * @return  int
+         */
+        int getLength() {
+            return this.length;
+        }
+    }
+}
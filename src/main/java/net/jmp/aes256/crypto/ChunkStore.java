@@ -0,0 +1,184 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)ChunkStore.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.security.GeneralSecurityException;
+
+import java.util.HexFormat;
+
+import javax.crypto.Mac;
+
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * A directory of encrypted chunks named by their fingerprints.
+ * A fingerprint is an HMAC of the chunk's plain text under a
+ * key derived from the encryption key, so equal chunks share
+ * a name without the names revealing their contents to anyone
+ * without the key. Each chunk file holds its initialization
+ * vector followed by its cipher text, and chunks are spread
+ * over subdirectories named by the first fingerprint byte.
+ */
+final class ChunkStore {
+    /** The size of a fingerprint in bytes. */
+    static final int FINGERPRINT_SIZE = 32;
+
+    /** The algorithm of the fingerprint. */
+    private static final String FINGERPRINT_ALGORITHM = "HmacSHA256";
+
+    /** The label from which the fingerprint key is derived. */
+    private static final byte[] FINGERPRINT_LABEL = "net.jmp.aes256.chunk-fingerprint".getBytes(StandardCharsets.US_ASCII);
+
+    /** The root directory. */
+    private final Path root;
+
+    /** The durability of the chunk files. */
+    private final Durability durability;
+
+    /**
+     * The default constructor.
+     */
+    private ChunkStore() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the root directory and
+     * the durability of the chunk files.
+     *
+     * @param   root        java.nio.file.Path
+     * @param   durability  net.jmp.aes256.crypto.Durability
+     */
+    ChunkStore(final Path root, final Durability durability) {
+        super();
+
+        this.root = root;
+        this.durability = durability;
+    }
+
+    /**
+     * Return true if the store holds the chunk.
+     *
+     * @param   fingerprint byte[]
+     * @return              boolean
+     */
+    boolean contains(final byte[] fingerprint) {
+        return Files.isRegularFile(this.pathOf(fingerprint));
+    }
+
+    /**
+     * Write a chunk. Like the output files it is written to
+     * a temporary file first so a chunk is never seen partly
+     * written under its name.
+     *
+     * @param   fingerprint             byte[]
+     * @param   initializationVector    byte[]
+     * @param   cipherText              byte[]
+     * @throws                          java.io.IOException
+     */
+    void write(final byte[] fingerprint, final byte[] initializationVector, final byte[] cipherText) throws IOException {
+        final Path path = this.pathOf(fingerprint);
+
+        Files.createDirectories(path.getParent());
+
+        final Path temporary = OutputFiles.createTemporaryFile(path);
+
+        boolean committed = false;
+
+        try {
+            try (final OutputStream outputStream = Files.newOutputStream(temporary)) {
+                outputStream.write(initializationVector);
+                outputStream.write(cipherText);
+            }
+
+            OutputFiles.commit(temporary, path, this.durability);
+
+            committed = true;
+        } finally {
+            if (!committed) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    /**
+     * Read a chunk file, its initialization vector
+     * followed by its cipher text.
+     *
+     * @param   fingerprint byte[]
+     * @return              byte[]
+     * @throws              java.io.IOException
+     */
+    byte[] read(final byte[] fingerprint) throws IOException {
+        return Files.readAllBytes(this.pathOf(fingerprint));
+    }
+
+    /**
+     * Return the path of a chunk.
+     *
+     * @param   fingerprint byte[]
+     * @return              java.nio.file.Path
+     */
+    Path pathOf(final byte[] fingerprint) {
+        final String name = HexFormat.of().formatHex(fingerprint);
+
+        return this.root.resolve(name.substring(0, 2)).resolve(name);
+    }
+
+    /**
+     * Create the MAC that fingerprints chunks. Its key is
+     * derived from the encryption key so the encryption key
+     * itself is never used for anything but the cipher.
+     *
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @return                  javax.crypto.Mac
+     * @throws                  java.security.GeneralSecurityException
+     */
+    static Mac createFingerprintMac(final SecretKeySpec secretKeySpec) throws GeneralSecurityException {
+        final Mac derivation = Mac.getInstance(FINGERPRINT_ALGORITHM);
+
+        derivation.init(new SecretKeySpec(secretKeySpec.getEncoded(), FINGERPRINT_ALGORITHM));
+
+        final Mac mac = Mac.getInstance(FINGERPRINT_ALGORITHM);
+
+        mac.init(new SecretKeySpec(derivation.doFinal(FINGERPRINT_LABEL), FINGERPRINT_ALGORITHM));
+
+        return mac;
+    }
+}
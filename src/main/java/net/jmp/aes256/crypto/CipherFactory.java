@@ -0,0 +1,135 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)CipherFactory.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.Objects;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+
+import net.jmp.aes256.utils.CipherInitEvent;
+
+/**
+ * A package-private factory that creates and initializes the
+ * cipher described by the configuration. It is shared by
+ * the encrypter, the decrypter and the stream processors.
+ */
+final class CipherFactory {
+    /**
+     * The default constructor.
+     */
+    private CipherFactory() {
+        super();
+    }
+
+    /**
+     * Create and return the initialized cipher.
+     *
+     * @param   config          net.jmp.aes256.config.Config
+     * @param   mode            int
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @param   ivParameterSpec javax.crypto.spec.IvParameterSpec
+     * @return                  javax.crypto.Cipher
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     */
+    static Cipher createCipher(final Config config,
+                               final int mode,
+                               final SecretKeySpec secretKeySpec,
+                               final IvParameterSpec ivParameterSpec) throws CryptographyException {
+        Objects.requireNonNull(config);
+        Objects.requireNonNull(secretKeySpec);
+        Objects.requireNonNull(ivParameterSpec);
+
+        final CipherInitEvent event = new CipherInitEvent();
+
+        event.begin();
+
+        Cipher cipher;
+
+        try {
+            cipher = Cipher.getInstance(config.getCipher().getInstance());
+        } catch (final NoSuchAlgorithmException | NoSuchPaddingException e) {
+            throw new CryptographyException("Unable to instantiate cipher: " + config.getCipher().getInstance(), e);
+        }
+
+        try {
+            cipher.init(mode, secretKeySpec, ivParameterSpec);
+        } catch (final InvalidKeyException | InvalidAlgorithmParameterException e) {
+            throw new CryptographyException("Unable to initialize cipher", e);
+        }
+
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.set(config.getCipher().getInstance(), mode == Cipher.ENCRYPT_MODE);
+            event.commit();
+        }
+
+        return cipher;
+    }
+
+    /**
+     * Create and return the initialized cipher using the
+     * configured algorithm and mode without padding. It
+     * decrypts a block-aligned range from the middle of
+     * a cipher text, where there is no padding to remove.
+     *
+     * @param   config          net.jmp.aes256.config.Config
+     * @param   mode            int
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @param   ivParameterSpec javax.crypto.spec.IvParameterSpec
+     * @return                  javax.crypto.Cipher
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     */
+    static Cipher createUnpaddedCipher(final Config config,
+                                       final int mode,
+                                       final SecretKeySpec secretKeySpec,
+                                       final IvParameterSpec ivParameterSpec) throws CryptographyException {
+        Objects.requireNonNull(config);
+
+        final String instance = config.getCipher().getInstance();
+        final int slash = instance.lastIndexOf('/');
+        final Config unpaddedConfig = config.copy();
+
+        unpaddedConfig.getCipher().setInstance((slash == -1 ? instance : instance.substring(0, slash)) + "/NoPadding");
+
+        return createCipher(unpaddedConfig, mode, secretKeySpec, ivParameterSpec);
+    }
+}
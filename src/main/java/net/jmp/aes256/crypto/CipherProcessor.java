@@ -0,0 +1,453 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)CipherProcessor.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.nio.ByteBuffer;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+
+import net.jmp.aes256.config.Config;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * The base class of the encrypting and decrypting
+ * flow processors. Upstream items are requested one
+ * at a time and only while the subscriber has demand
+ * and fewer than the configured number of bytes are
+ * waiting to be delivered, so that memory is bounded
+ * by that limit plus one upstream buffer regardless
+ * of the payload size.
+ *
+ * <p>Subscribers that are done with a delivered buffer
+ * may hand it back with {@link #release(ByteBuffer)} so
+ * that it is reused for later output.
+ */
+public abstract class CipherProcessor implements Flow.Processor<ByteBuffer, ByteBuffer>, Flow.Subscription {
+    /** The logger. */
+    protected final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The configuration. */
+    protected final Config config;
+
+    /** The maximum number of bytes waiting to be delivered. */
+    private final int maxBytesInFlight;
+
+    /** The output buffers waiting to be delivered. */
+    private final Queue<ByteBuffer> pending = new ConcurrentLinkedQueue<>();
+
+    /** The released buffers available for reuse. */
+    private final Queue<ByteBuffer> pool = new ConcurrentLinkedQueue<>();
+
+    /** The number of bytes waiting to be delivered. */
+    private final AtomicLong pendingBytes = new AtomicLong();
+
+    /** The number of bytes held by the buffer pool. */
+    private final AtomicLong pooledBytes = new AtomicLong();
+
+    /** The outstanding subscriber demand. */
+    private final AtomicLong demand = new AtomicLong();
+
+    /** The work-in-progress counter that serializes draining. */
+    private final AtomicInteger workInProgress = new AtomicInteger();
+
+    /** True while an upstream item has been requested but not received. */
+    private final AtomicBoolean upstreamRequested = new AtomicBoolean();
+
+    /** The upstream subscription. */
+    private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+
+    /** The downstream subscriber. */
+    private final AtomicReference<Flow.Subscriber<? super ByteBuffer>> downstream = new AtomicReference<>();
+
+    /** The terminal error, if any. */
+    private volatile Throwable error;
+
+    /** True once upstream has completed and the final block has been queued. */
+    private volatile boolean upstreamDone;
+
+    /** True once the subscriber has been signalled or has cancelled. */
+    private volatile boolean terminated;
+
+    /**
+     * A constructor that takes the configuration
+     * and the maximum number of bytes in flight.
+     *
+     * @param   config              net.jmp.aes256.config.Config
+     * @param   maxBytesInFlight    int
+     */
+    CipherProcessor(final Config config, final int maxBytesInFlight) {
+        super();
+
+        if (maxBytesInFlight <= 0) {
+            throw new IllegalArgumentException("The maximum number of bytes in flight must be positive: " + maxBytesInFlight);
+        }
+
+        this.config = Objects.requireNonNull(config);
+        this.maxBytesInFlight = maxBytesInFlight;
+
+        this.config.validate();
+    }
+
+    /**
+     * Transform one upstream item, queueing any output.
+     *
+     * @param   item    java.nio.ByteBuffer
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     */
+    protected abstract void transform(ByteBuffer item) throws CryptographyException;
+
+    /**
+     * Finish the transformation, queueing any final output.
+     *
+     * @throws  net.jmp.aes256.crypto.CryptographyException
+     */
+    protected abstract void finish() throws CryptographyException;
+
+    /**
+     * Subscribe the downstream subscriber. Only one
+     * subscriber is supported.
+     *
+     * @param   subscriber  java.util.concurrent.Flow.Subscriber&lt;? super java.nio.ByteBuffer&gt;
+     */
+    @Override
+    public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+        Objects.requireNonNull(subscriber);
+
+        if (this.downstream.compareAndSet(null, subscriber)) {
+            subscriber.onSubscribe(this);
+
+            this.drain();
+        } else {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+
+            subscriber.onError(new IllegalStateException("Only one subscriber is supported"));
+        }
+    }
+
+    /**
+     * Receive the upstream subscription.
+     *
+     * @param   subscription    java.util.concurrent.Flow.Subscription
+     */
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription);
+
+        if (this.upstream.compareAndSet(null, subscription)) {
+            this.drain();
+        } else {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Receive an upstream item.
+     *
+     * @param   item    java.nio.ByteBuffer
+     */
+    @Override
+    public void onNext(final ByteBuffer item) {
+        Objects.requireNonNull(item);
+
+        if (!this.terminated) {
+            try {
+                this.transform(item);
+            } catch (final CryptographyException ce) {
+                this.fail(ce);
+            }
+        }
+
+        this.upstreamRequested.set(false);
+
+        this.drain();
+    }
+
+    /**
+     * Receive an upstream error.
+     *
+     * @param   throwable   java.lang.Throwable
+     */
+    @Override
+    public void onError(final Throwable throwable) {
+        this.error = Objects.requireNonNull(throwable);
+
+        this.drain();
+    }
+
+    /**
+     * Receive the upstream completion
+     * and queue the final block.
+     */
+    @Override
+    public void onComplete() {
+        if (!this.terminated) {
+            try {
+                this.finish();
+            } catch (final CryptographyException ce) {
+                this.fail(ce);
+            }
+        }
+
+        this.upstreamDone = true;
+
+        this.drain();
+    }
+
+    /**
+     * Add to the subscriber demand.
+     *
+     * @param   n   long
+     */
+    @Override
+    public void request(final long n) {
+        if (n <= 0) {
+            this.fail(new IllegalArgumentException("The requested number of items must be positive: " + n));
+        } else {
+            this.demand.getAndUpdate(current -> {
+                final long sum = current + n;
+
+                return sum < 0 ? Long.MAX_VALUE : sum;
+            });
+        }
+
+        this.drain();
+    }
+
+    /**
+     * Cancel the subscription, cancelling
+     * upstream and discarding pending output.
+     */
+    @Override
+    public void cancel() {
+        this.terminated = true;
+
+        final Flow.Subscription subscription = this.upstream.get();
+
+        if (subscription != null) {
+            subscription.cancel();
+        }
+
+        this.pending.clear();
+        this.pendingBytes.set(0);
+    }
+
+    /**
+     * Return a delivered buffer for reuse. Buffers
+     * beyond the in-flight limit are not retained.
+     *
+     * @param   buffer  java.nio.ByteBuffer
+     */
+    public void release(final ByteBuffer buffer) {
+        Objects.requireNonNull(buffer);
+
+        /* Reserve the room before offering so concurrent releases cannot overshoot the limit */
+
+        final int capacity = buffer.capacity();
+
+        long pooled = this.pooledBytes.get();
+        boolean reserved = false;
+
+        while (!reserved && pooled + capacity <= this.maxBytesInFlight) {
+            reserved = this.pooledBytes.compareAndSet(pooled, pooled + capacity);
+
+            if (!reserved) {
+                pooled = this.pooledBytes.get();
+            }
+        }
+
+        if (reserved) {
+            this.pool.offer(buffer.clear());
+        }
+    }
+
+    /**
+     * Return the number of bytes waiting to be delivered.
+     *
+     * @return  long
+     */
+    public long getPendingBytes() {
+        return this.pendingBytes.get();
+    }
+
+    /**
+     * Run the cipher update over the item
+     * and queue the output, if any.
+     *
+     * @param   cipher  javax.crypto.Cipher
+     * @param   item    java.nio.ByteBuffer
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     */
+    protected final void update(final Cipher cipher, final ByteBuffer item) throws CryptographyException {
+        final ByteBuffer output = this.acquire(cipher.getOutputSize(item.remaining()));
+
+        try {
+            cipher.update(item, output);
+        } catch (final ShortBufferException sbe) {
+            throw new CryptographyException("Unable to transform data", sbe);
+        }
+
+        this.enqueue(output.flip());
+    }
+
+    /**
+     * Queue a buffer for delivery. Empty
+     * buffers are returned to the pool.
+     *
+     * @param   buffer  java.nio.ByteBuffer
+     */
+    protected final void enqueue(final ByteBuffer buffer) {
+        if (buffer.hasRemaining()) {
+            this.pendingBytes.addAndGet(buffer.remaining());
+            this.pending.offer(buffer);
+        } else {
+            this.release(buffer);
+        }
+    }
+
+    /**
+     * Return a buffer of at least the requested
+     * capacity, reusing a pooled buffer if possible.
+     *
+     * @param   capacity    int
+     * @return              java.nio.ByteBuffer
+     */
+    protected final ByteBuffer acquire(final int capacity) {
+        final Iterator<ByteBuffer> iterator = this.pool.iterator();
+
+        while (iterator.hasNext()) {
+            final ByteBuffer buffer = iterator.next();
+
+            if (buffer.capacity() >= capacity && this.pool.remove(buffer)) {
+                this.pooledBytes.addAndGet(-buffer.capacity());
+
+                return buffer.clear();
+            }
+        }
+
+        return ByteBuffer.allocate(Math.max(capacity, 1));
+    }
+
+    /**
+     * Fail the processor, cancelling upstream.
+     *
+     * @param   throwable   java.lang.Throwable
+     */
+    private void fail(final Throwable throwable) {
+        this.logger.catching(throwable);
+
+        this.error = throwable;
+
+        final Flow.Subscription subscription = this.upstream.get();
+
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * Deliver pending output against the subscriber
+     * demand, signal termination and request more
+     * upstream data when there is room. Only one
+     * thread drains at a time.
+     */
+    private void drain() {
+        if (this.workInProgress.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+
+        do {
+            final Flow.Subscriber<? super ByteBuffer> subscriber = this.downstream.get();
+
+            if (subscriber != null && !this.terminated) {
+                if (this.error != null) {
+                    this.terminated = true;
+                    this.pending.clear();
+
+                    subscriber.onError(this.error);
+                } else {
+                    while (this.demand.get() > 0 && !this.pending.isEmpty()) {
+                        final ByteBuffer buffer = this.pending.poll();
+
+                        this.pendingBytes.addAndGet(-buffer.remaining());
+                        this.demand.decrementAndGet();
+
+                        subscriber.onNext(buffer);
+                    }
+
+                    if (this.upstreamDone && this.pending.isEmpty() && !this.terminated) {
+                        this.terminated = true;
+
+                        subscriber.onComplete();
+                    }
+
+                    final Flow.Subscription subscription = this.upstream.get();
+
+                    if (subscription != null &&
+                            !this.upstreamDone &&
+                            !this.terminated &&
+                            this.demand.get() > 0 &&
+                            this.pendingBytes.get() < this.maxBytesInFlight &&
+                            this.upstreamRequested.compareAndSet(false, true)) {
+                        subscription.request(1);
+                    }
+                }
+            }
+
+            missed = this.workInProgress.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
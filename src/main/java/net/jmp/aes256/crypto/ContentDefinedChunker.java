@@ -0,0 +1,184 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)ContentDefinedChunker.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Splits a stream into chunks whose boundaries depend on
+ * the content rather than on offsets. A gear rolling hash
+ * is computed over the bytes and a chunk ends where the
+ * top bits of the hash are all zero, so an insertion or
+ * deletion only moves the boundaries near it and the
+ * chunks after it are found again unchanged.
+ */
+final class ContentDefinedChunker {
+    /** The minimum chunk size, except for the last chunk. */
+    static final int MINIMUM_SIZE = 256 * 1024;
+
+    /** The average chunk size. */
+    static final int AVERAGE_SIZE = 1024 * 1024;
+
+    /** The maximum chunk size. */
+    static final int MAXIMUM_SIZE = 4 * 1024 * 1024;
+
+    /** The hash bits that must be zero at a boundary; 20 bits for a 1 MiB average. */
+    private static final long MASK = -1L << (Long.SIZE - Integer.numberOfTrailingZeros(AVERAGE_SIZE));
+
+    /** The seed of the gear table, which must never change. */
+    private static final long GEAR_SEED = 0x4145_5332_3536_4344L;
+
+    /** A random value for each byte value. */
+    private static final long[] GEAR = new long[256];
+
+    static {
+        final Random random = new Random(GEAR_SEED);
+
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    /** The input stream. */
+    private final InputStream inputStream;
+
+    /** The buffer, which holds up to one maximum chunk. */
+    private final byte[] buffer = new byte[MAXIMUM_SIZE];
+
+    /** The start of the unread bytes in the buffer. */
+    private int start;
+
+    /** The end of the bytes in the buffer. */
+    private int end;
+
+    /** True once the input stream is exhausted. */
+    private boolean eof;
+
+    /**
+     * The default constructor.
+     */
+    private ContentDefinedChunker() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the input stream.
+     *
+     * @param   inputStream java.io.InputStream
+     */
+    ContentDefinedChunker(final InputStream inputStream) {
+        super();
+
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * Return the next chunk or null at the end of the stream.
+     *
+     * @return  byte[]
+     * @throws  java.io.IOException
+     */
+    byte[] next() throws IOException {
+        this.fill();
+
+        if (this.start == this.end) {
+            return null;
+        }
+
+        final int length = boundary(this.buffer, this.start, this.end);
+        final byte[] chunk = Arrays.copyOfRange(this.buffer, this.start, this.start + length);
+
+        this.start += length;
+
+        return chunk;
+    }
+
+    /**
+     * Move the unread bytes to the front of the buffer
+     * and fill the rest from the input stream.
+     *
+     * @throws  java.io.IOException
+     */
+    private void fill() throws IOException {
+        if (this.start > 0) {
+            System.arraycopy(this.buffer, this.start, this.buffer, 0, this.end - this.start);
+
+            this.end -= this.start;
+            this.start = 0;
+        }
+
+        while (!this.eof && this.end < this.buffer.length) {
+            final int bytesRead = this.inputStream.read(this.buffer, this.end, this.buffer.length - this.end);
+
+            if (bytesRead < 0) {
+                this.eof = true;
+            } else {
+                this.end += bytesRead;
+            }
+        }
+    }
+
+    /**
+     * Return the length of the chunk starting at the offset.
+     * The bytes before the minimum size are not hashed, both
+     * to save time and because no boundary may fall there.
+     *
+     * @param   bytes   byte[]
+     * @param   offset  int
+     * @param   limit   int
+     * @return          int
+     */
+    static int boundary(final byte[] bytes, final int offset, final int limit) {
+        final int available = limit - offset;
+
+        if (available <= MINIMUM_SIZE) {
+            return available;
+        }
+
+        final int last = offset + Math.min(available, MAXIMUM_SIZE);
+
+        long hash = 0;
+
+        for (int i = offset + MINIMUM_SIZE; i < last; i++) {
+            hash = (hash << 1) + GEAR[bytes[i] & 0xff];
+
+            if ((hash & MASK) == 0) {
+                return i + 1 - offset;
+            }
+        }
+
+        return last - offset;
+    }
+}
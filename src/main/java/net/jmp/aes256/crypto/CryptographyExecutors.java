@@ -0,0 +1,135 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)CryptographyExecutors.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.Objects;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The executors used by the asynchronous encryption and
+ * decryption methods. Key derivation runs on its own
+ * bounded pool of platform threads so that expensive
+ * derivations cannot starve the smaller cipher operations,
+ * which run on a second bounded pool. File I/O runs on
+ * virtual threads by default.
+ */
+public final class CryptographyExecutors implements AutoCloseable {
+    /** The key derivation executor. */
+    private final ExecutorService keyDerivationExecutor;
+
+    /** The cipher executor. */
+    private final ExecutorService cipherExecutor;
+
+    /** The I/O executor. */
+    private final ExecutorService ioExecutor;
+
+    /**
+     * The default constructor.
+     */
+    private CryptographyExecutors() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the three executors.
+     *
+     * @param   keyDerivationExecutor   java.util.concurrent.ExecutorService
+     * @param   cipherExecutor          java.util.concurrent.ExecutorService
+     * @param   ioExecutor              java.util.concurrent.ExecutorService
+     */
+    public CryptographyExecutors(final ExecutorService keyDerivationExecutor,
+                                 final ExecutorService cipherExecutor,
+                                 final ExecutorService ioExecutor) {
+        super();
+
+        this.keyDerivationExecutor = Objects.requireNonNull(keyDerivationExecutor);
+        this.cipherExecutor = Objects.requireNonNull(cipherExecutor);
+        this.ioExecutor = Objects.requireNonNull(ioExecutor);
+    }
+
+    /**
+     * Create and return the default executors. The
+     * key derivation pool is sized to half of the
+     * available processors, the cipher pool to all
+     * of them, and I/O uses a virtual thread per task.
+     *
+     * @return  net.jmp.aes256.crypto.CryptographyExecutors
+     */
+    public static CryptographyExecutors newDefaultExecutors() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+
+        return new CryptographyExecutors(
+                Executors.newFixedThreadPool(Math.max(1, processors / 2), Thread.ofPlatform().name("aes256-kdf-", 0).daemon(true).factory()),
+                Executors.newFixedThreadPool(processors, Thread.ofPlatform().name("aes256-cipher-", 0).daemon(true).factory()),
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("aes256-io-", 0).factory())
+        );
+    }
+
+    /**
+     * Return the key derivation executor.
+     *
+     * @return  java.util.concurrent.ExecutorService
+     */
+    public ExecutorService getKeyDerivationExecutor() {
+        return this.keyDerivationExecutor;
+    }
+
+    /**
+     * Return the cipher executor.
+     *
+     * @return  java.util.concurrent.ExecutorService
+     */
+    public ExecutorService getCipherExecutor() {
+        return this.cipherExecutor;
+    }
+
+    /**
+     * Return the I/O executor.
+     *
+     * @return  java.util.concurrent.ExecutorService
+     */
+    public ExecutorService getIoExecutor() {
+        return this.ioExecutor;
+    }
+
+    /**
+     * Shut down all three executors. Tasks
+     * already submitted are allowed to finish.
+     */
+    @Override
+    public void close() {
+        this.keyDerivationExecutor.shutdown();
+        this.cipherExecutor.shutdown();
+        this.ioExecutor.shutdown();
+    }
+}
@@ -1,13 +1,14 @@
 package net.jmp.aes256.crypto;
 
 /*
+ * (#)Decrypter.java    1.2.0   10/19/2026
  * (#)Decrypter.java    0.5.0   07/13/2024
  * (#)Decrypter.java    0.4.0   07/12/2024
  * (#)Decrypter.java    0.3.0   07/06/2024
  * (#)Decrypter.java    0.2.0   07/05/2024
  *
  * @author   Jonathan Parker
- * @version  0.5.0
+ * @version  1.2.0
  * @since    0.2.0
  *
  * MIT License
@@ -35,25 +36,47 @@ package net.jmp.aes256.crypto;
 
 import java.io.*;
 
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.nio.ByteBuffer;
+
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+import java.time.Instant;
 
 import java.util.Base64;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import javax.crypto.*;
 
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
 import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.ConfigSnapshot;
 
+import net.jmp.aes256.input.CredentialsManifest;
 import net.jmp.aes256.input.Options;
 
+import net.jmp.aes256.utils.ProgressMonitor;
 import net.jmp.aes256.utils.Salter;
 import net.jmp.aes256.utils.SecretKeySpecBuilder;
+import net.jmp.aes256.utils.Trace;
 
 import org.slf4j.LoggerFactory;
 
@@ -72,6 +95,12 @@ public final class Decrypter {
     /** The options. */
     private final Options options;
 
+    /** The engine that moves file data through the cipher. @since 1.2.0 */
+    private final FileCipherEngine fileCipherEngine;
+
+    /** The durability of output files. @since 1.2.0 */
+    private final Durability durability;
+
     /**
      * The default constructor.
      */
@@ -86,12 +115,44 @@ public final class Decrypter {
      * @param   options net.jmp.aes256.input.Options
      */
     public Decrypter(final Config config, final Options options) {
+        this(Objects.requireNonNull(config), options, true);
+    }
+
+    /**
+     * A constructor that takes the configuration, options
+     * and whether the configuration must be validated.
+     *
+     * @param   config      net.jmp.aes256.config.Config
+     * @param   options     net.jmp.aes256.input.Options
+     * @param   validate    boolean
+     * @since               1.2.0
+     */
+    private Decrypter(final Config config, final Options options, final boolean validate) {
         super();
 
-        this.config = Objects.requireNonNull(config);
+        this.config = config;
         this.options = Objects.requireNonNull(options);
 
-        this.config.validate();
+        if (validate) {
+            this.config.validate();
+        }
+
+        this.fileCipherEngine = FileCipherEngine.of(this.options, false);
+        this.durability = Durability.of(this.options.getDurability());
+    }
+
+    /**
+     * Return a decrypter for a configuration snapshot. The
+     * snapshot is already validated so this is the cheaper way
+     * to create one for each of many operations.
+     *
+     * @param   configSnapshot  net.jmp.aes256.config.ConfigSnapshot
+     * @param   options         net.jmp.aes256.input.Options
+     * @return                  net.jmp.aes256.crypto.Decrypter
+     * @since                   1.2.0
+     */
+    public static Decrypter of(final ConfigSnapshot configSnapshot, final Options options) {
+        return new Decrypter(configSnapshot.getConfig(), options, false);
     }
 
     /**
@@ -103,56 +164,217 @@ public final class Decrypter {
      * @throws  net.jmp.aes256.crypto.CryptographyException
      */
     public Optional<String> decrypt() throws CryptographyException {
-        this.logger.entry();
+        Trace.entry(this.logger);
+
+        /* A synchronous operation is never cancelled */
+
+        final AtomicBoolean cancelled = new AtomicBoolean();
 
         Optional<String> result = Optional.empty();
 
         if (this.options.getString() != null) {
-            result = Optional.of(this.decryptString());
+            /* Unpadding without an error proves nothing about the key, so it is not given to the agent */
+
+            result = Optional.of(this.decryptString(this.createPendingKey(this.config).getSecretKeySpec()));
         }
 
         if (this.options.getInputFile() != null && this.options.getOutputFile() != null) {
-            this.decryptFile();
+            if (this.options.getChunkStore() != null) {
+                this.decryptChunks(cancelled);
+            } else {
+                this.decryptFile(cancelled);
+            }
+        }
+
+        if (this.options.getInputFile() != null && this.options.getArchive() != null) {
+            if (this.options.getExtract() != null) {
+                this.extractArchiveMembers(cancelled);
+            } else {
+                this.decryptArchive(cancelled);
+            }
+        }
+
+        if (this.options.getInputFile() != null && this.options.isList()) {
+            this.listArchive();
+        }
+
+        if (this.options.getManifest() != null) {
+            this.decryptManifest();
+        }
+
+        if (this.options.getInputFiles() != null) {
+            this.decryptFiles();
         }
 
         if (this.logger.isDebugEnabled()) {
             this.logger.debug("End decryption");
         }
 
-        this.logger.exit(result);
+        Trace.exit(this.logger);
+
+        return result;
+    }
+
+    /**
+     * The asynchronous decrypt method. The key is derived
+     * on the key derivation executor, a string is then
+     * decrypted on the cipher executor and a file on the
+     * I/O executor. Cancelling the returned future stops
+     * the operation at the next stage or buffer. Each call
+     * has its own cancellation, so the decrypter can be used
+     * again after a cancelled operation. Archives, manifests
+     * and multiple input files are only decrypted synchronously;
+     * for them the returned future fails.
+     *
+     * @param   executors   net.jmp.aes256.crypto.CryptographyExecutors
+     * @return              java.util.concurrent.CompletableFuture&lt;java.util.Optional&lt;java.lang.String&gt;&gt;
+     * @since               1.2.0
+     */
+    public CompletableFuture<Optional<String>> decryptAsync(final CryptographyExecutors executors) {
+        Trace.entry(this.logger, executors);
+
+        Objects.requireNonNull(executors);
+
+        final AtomicBoolean cancelled = new AtomicBoolean();
+
+        CompletableFuture<Optional<String>> result;
+
+        if (this.options.getString() != null) {
+            result = AsyncOperation.submit(
+                    executors,
+                    () -> this.createPendingKey(this.config),
+                    pendingKey -> Optional.of(this.decryptString(pendingKey.getSecretKeySpec())),
+                    false,
+                    cancelled
+            );
+        } else if (this.options.getArchive() != null || this.options.isList()) {
+            result = CompletableFuture.failedFuture(new CryptographyException("Decryption of an archive is not supported asynchronously"));
+        } else if (this.options.getManifest() != null) {
+            result = CompletableFuture.failedFuture(new CryptographyException("Decryption of a manifest is not supported asynchronously"));
+        } else if (this.options.getInputFiles() != null) {
+            result = CompletableFuture.failedFuture(new CryptographyException("Decryption of multiple files is not supported asynchronously"));
+        } else if (this.options.getInputFile() != null
+                && this.options.getOutputFile() != null
+                && this.options.getChunkStore() != null
+                && this.doesInputFileExist()) {
+            result = AsyncOperation.submit(
+                    executors,
+                    () -> this.createPendingKey(this.readChunkManifestHeader().applyTo(this.config)),
+                    pendingKey -> {
+                        this.decryptChunks(pendingKey.getSecretKeySpec(), cancelled);
+
+                        pendingKey.commit();
+
+                        return Optional.empty();
+                    },
+                    true,
+                    cancelled
+            );
+        } else if (this.options.getInputFile() != null && this.options.getOutputFile() != null && this.doesInputFileExist()) {
+            result = AsyncOperation.submit(
+                    executors,
+                    () -> this.createPendingKey(this.createFileKeyConfig()),
+                    pendingKey -> {
+                        if (this.decryptFile(pendingKey.getSecretKeySpec(), ProgressMonitor.disabled(), cancelled)) {
+                            pendingKey.commit();
+                        }
+
+                        return Optional.empty();
+                    },
+                    true,
+                    cancelled
+            );
+        } else {
+            result = CompletableFuture.failedFuture(new CryptographyException("Nothing to decrypt or input file does not exist"));
+        }
+
+        Trace.exit(this.logger);
+
+        return result;
+    }
+
+    /**
+     * Decrypt the string or the input file in the options
+     * with a key that has already been derived. The load
+     * test uses it so that it measures the cipher and the
+     * file I/O rather than the key derivation.
+     *
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @return                  java.util.Optional&lt;java.lang.String&gt;
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     * @since                   1.2.0
+     */
+    Optional<String> decrypt(final SecretKeySpec secretKeySpec) throws CryptographyException {
+        Optional<String> result = Optional.empty();
+
+        if (this.options.getString() != null) {
+            result = Optional.of(this.decryptString(secretKeySpec));
+        }
+
+        if (this.options.getInputFile() != null && this.options.getOutputFile() != null) {
+            this.decryptFile(secretKeySpec, ProgressMonitor.disabled(), new AtomicBoolean());
+        }
 
         return result;
     }
 
+    /**
+     * Create the secret key spec from the user identifier
+     * and password in the options using the key derivation
+     * settings in the specified configuration, or take it
+     * from the key agent if one holds it. The pending key is
+     * committed to the agent only once a check with real
+     * integrity has accepted it: the recipient table, the
+     * archive magic or the chunk manifest.
+     *
+     * @param   keyConfig   net.jmp.aes256.config.Config
+     * @return              net.jmp.aes256.crypto.KeyAgentClient.PendingKey
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     * @since               1.2.0
+     */
+    private KeyAgentClient.PendingKey createPendingKey(final Config keyConfig) throws CryptographyException {
+        Trace.entry(this.logger, keyConfig);
+
+        assert keyConfig != null;
+
+        final KeyAgentClient.PendingKey pendingKey = KeyAgentClient.getOrDerive(this.options, keyConfig, password -> {
+            final Salter salter = new Salter(this.config);
+            final String salt = salter.getSalt(this.options.getUserId());
+
+            final SecretKeySpecBuilder secretKeySpecBuilder = new SecretKeySpecBuilder(keyConfig);
+
+            return secretKeySpecBuilder.build(password, salt);
+        });
+
+        Trace.exit(this.logger);
+
+        return pendingKey;
+    }
+
     /**
      * Decrypt a string.
      *
-     * @return  java.lang.String
-     * @throws  net.jmp.aes256.crypto.CryptographyException
-     * @since   0.3.0
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @return                  java.lang.String
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     * @since                   0.3.0
      */
-    private String decryptString() throws CryptographyException {
-        this.logger.entry();
+    private String decryptString(final SecretKeySpec secretKeySpec) throws CryptographyException {
+        Trace.entry(this.logger);
+
+        assert secretKeySpec != null;
 
         if (this.logger.isDebugEnabled()) {
-            this.logger.debug("Begin decrypting string    : '{}'", this.options.getString());
+            this.logger.debug("Begin decrypting string of {} characters", this.options.getString().length());
             this.config.logCryptoSettings(this.logger);
         }
 
-        final Salter salter = new Salter(this.config);
-        final String salt = salter.getSalt(this.options.getUserId());
-
         final byte[] encryptedData = Base64.getDecoder().decode(this.options.getString());
 
         /* Set up the initialization vector from the previously encrypted data */
 
         final IvParameterSpec ivParameterSpec = this.createIvParameterSpecFromString(encryptedData);
 
-        /* Set up the secret key spec */
-
-        final SecretKeySpecBuilder secretKeySpecBuilder = new SecretKeySpecBuilder(this.config);
-        final SecretKeySpec secretKeySpec = secretKeySpecBuilder.build(this.options.getPassword(), salt);
-
         /* Set up the cipher */
 
         final Cipher cipher = this.createCipher(secretKeySpec, ivParameterSpec);
@@ -179,7 +401,7 @@ public final class Decrypter {
             throw new CryptographyException("Unable to stringify decrypted data", uee);
         }
 
-        this.logger.exit(result);
+        Trace.exit(this.logger);
 
         return result;
     }
@@ -193,7 +415,7 @@ public final class Decrypter {
      * @since                   0.5.0
      */
     private IvParameterSpec createIvParameterSpecFromString(final byte[] encryptedData) {
-        this.logger.entry(encryptedData);
+        Trace.entry(this.logger);
 
         assert encryptedData != null;
 
@@ -203,7 +425,7 @@ public final class Decrypter {
 
         final IvParameterSpec ivParameterSpec = new IvParameterSpec(initializationVector);
 
-        this.logger.exit(ivParameterSpec);
+        Trace.exit(this.logger);
 
         return ivParameterSpec;
     }
@@ -211,126 +433,611 @@ public final class Decrypter {
     /**
      * Decrypt a file.
      *
-     * @since   0.3.0
-     * @throws  net.jmp.aes256.crypto.CryptographyException
+     * @param   cancelled   java.util.concurrent.atomic.AtomicBoolean
+     * @since               0.3.0
+     * @throws              net.jmp.aes256.crypto.CryptographyException
      */
-    private void decryptFile() throws CryptographyException {
-        this.logger.entry();
+    private void decryptFile(final AtomicBoolean cancelled) throws CryptographyException {
+        Trace.entry(this.logger);
 
         if (this.logger.isDebugEnabled()) {
             this.logger.debug("Begin decrypting file: '{}'", this.options.getInputFile());
         }
 
         if (this.doesInputFileExist()) {
-            final Salter salter = new Salter(this.config);
-            final String salt = salter.getSalt(this.options.getUserId());
+            try (final ProgressMonitor progressMonitor = ProgressMonitor.of(this.options.isProgress(), System.out)) {
+                final long length = new File(this.options.getInputFile()).length();
+
+                progressMonitor.start(this.options.isArmor() ? ArmoredFileCipherEngine.decodedLength(length) : length);
+                progressMonitor.stage(ProgressMonitor.Stage.KDF);
+
+                final KeyAgentClient.PendingKey pendingKey = this.createPendingKey(this.createFileKeyConfig());
+
+                if (this.decryptFile(pendingKey.getSecretKeySpec(), progressMonitor, cancelled)) {
+                    pendingKey.commit();
+                }
+            }
+        } else {
+            System.out.format("Input file '%s' does not exist%n", this.options.getInputFile());
+        }
+        
+        Trace.exit(this.logger);
+    }
+
+    /**
+     * Decrypt a file using the secret key spec. True is
+     * returned if the key was verified by unwrapping the
+     * data key from the recipient table, whose integrity
+     * check a wrong key fails. Without a recipient table
+     * only the padding is checked, which a wrong key
+     * passes about one time in 256.
+     *
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @param   progressMonitor net.jmp.aes256.utils.ProgressMonitor
+     * @param   cancelled       java.util.concurrent.atomic.AtomicBoolean
+     * @return                  boolean
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     * @since                   1.2.0
+     */
+    private boolean decryptFile(final SecretKeySpec secretKeySpec,
+                             final ProgressMonitor progressMonitor,
+                             final AtomicBoolean cancelled) throws CryptographyException {
+        Trace.entry(this.logger, progressMonitor);
+
+        assert secretKeySpec != null;
+        assert progressMonitor != null;
+
+        progressMonitor.stage(ProgressMonitor.Stage.IO);
+
+        /* Set up the initialization vector from the header or, for older files, the first bytes */
 
-            /* Set up the initialization vector from the previously encrypted data */
+        final Optional<FileHeader> fileHeader = this.readFileHeader();
 
-            final IvParameterSpec ivParameterSpec = this.createIvParameterSpecFromFile();
+        final IvParameterSpec ivParameterSpec = fileHeader.isPresent()
+                ? new IvParameterSpec(fileHeader.get().getInitializationVector())
+                : this.createIvParameterSpecFromFile();
 
-            /* Set up the secret key spec */
+        int dataOffset = fileHeader.isPresent() ? FileHeader.SIZE : Config.INITIALIZATION_VECTOR_SIZE;
 
-            final SecretKeySpecBuilder secretKeySpecBuilder = new SecretKeySpecBuilder(this.config);
-            final SecretKeySpec secretKeySpec = secretKeySpecBuilder.build(this.options.getPassword(), salt);
+        /* A file for many recipients is encrypted under the data key wrapped in the user's slot */
 
-            /* Set up the cipher */
+        SecretKeySpec dataKeySpec = secretKeySpec;
 
-            final Cipher cipher = this.createCipher(secretKeySpec, ivParameterSpec);
+        final boolean verified = fileHeader.isPresent() && fileHeader.get().hasRecipients();
 
-            /* Perform the decryption */
+        if (verified) {
+            final RecipientTable.Match match = this.findRecipient();
+            final byte[] wrappedKey = match.getWrappedKey()
+                    .orElseThrow(() -> new CryptographyException("User ID is not a recipient of file: " + this.options.getInputFile()));
 
-            try (final FileInputStream inputStream = new FileInputStream(this.options.getInputFile())) {
-                this.decryptFileData(cipher, inputStream);
+            dataKeySpec = RecipientTable.unwrap(wrappedKey, secretKeySpec);
+            dataOffset += match.getTableSize();
+        }
+
+        /* Set up the cipher */
+
+        final Cipher cipher = this.createCipher(dataKeySpec, ivParameterSpec);
+
+        /* Perform the decryption */
+
+        progressMonitor.add(dataOffset);
+
+        /* Write to a temporary file and rename it over the output once complete */
+
+        final Path output = Paths.get(this.options.getOutputFile());
+
+        Path temporary = null;
+        boolean committed = false;
+
+        try {
+            temporary = OutputFiles.createTemporaryFile(output);
+
+            if (this.fileCipherEngine.transform(
+                    cipher,
+                    Paths.get(this.options.getInputFile()),
+                    dataOffset,
+                    temporary,
+                    new byte[0],
+                    progressMonitor,
+                    cancelled)) {
+                OutputFiles.commit(temporary, output, this.durability);
+
+                committed = true;
+            }
+        } catch (final IOException ioe) {
+            throw new CryptographyException("I/O error decrypting file: " + this.options.getInputFile(), ioe);
+        } catch (final GeneralSecurityException gse) {
+            throw new CryptographyException("Unable to decrypt data", gse);
+        } finally {
+            if (!committed) {
+                this.deleteTemporaryFile(temporary);
+            }
+        }
+
+        if (!committed) {
+            throw new CryptographyException("Decryption of file was cancelled: " + this.options.getInputFile());
+        }
+
+        Trace.exit(this.logger, verified);
+
+        return verified;
+    }
+
+    /**
+     * Decrypt the input file with a key from the key deriver,
+     * which is given the configuration holding the file's key
+     * derivation settings. Bulk decryption uses it to derive
+     * each distinct key only once. True is returned if the
+     * key was verified by the recipient table.
+     *
+     * @param   keyDeriver  net.jmp.aes256.crypto.AsyncOperation.CryptographyFunction&lt;net.jmp.aes256.config.Config, javax.crypto.spec.SecretKeySpec&gt;
+     * @return              boolean
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     * @since               1.2.0
+     */
+    boolean decryptFile(final AsyncOperation.CryptographyFunction<Config, SecretKeySpec> keyDeriver) throws CryptographyException {
+        return this.decryptFile(keyDeriver.apply(this.createFileKeyConfig()), ProgressMonitor.disabled(), new AtomicBoolean());
+    }
+
+    /**
+     * Decrypt the files listed in the manifest on a pool
+     * of workers, writing the status of each file. The
+     * completed files are recorded in a status journal
+     * beside the manifest so that a second run resumes.
+     *
+     * @throws  net.jmp.aes256.crypto.CryptographyException
+     * @since   1.2.0
+     */
+    private void decryptManifest() throws CryptographyException {
+        Trace.entry(this.logger);
+
+        CredentialsManifest manifest;
+
+        try {
+            manifest = CredentialsManifest.read(Paths.get(this.options.getManifest()));
+        } catch (final IOException ioe) {
+            throw new CryptographyException("Unable to read manifest: " + this.options.getManifest(), ioe);
+        }
+
+        final Path journal = Paths.get(this.options.getManifest() + BulkDecrypter.STATUS_JOURNAL_SUFFIX);
+        final int failures = new BulkDecrypter(ConfigSnapshot.of(this.config), this.options).decrypt(manifest, journal, System.out);
+
+        if (failures != 0) {
+            throw new CryptographyException(failures + " of " + manifest.getFiles().size() + " files could not be decrypted");
+        }
+
+        Trace.exit(this.logger);
+    }
+
+    /**
+     * Decrypt the input files on a pool of workers,
+     * writing the status of each file.
+     *
+     * @throws  net.jmp.aes256.crypto.CryptographyException
+     * @since   1.2.0
+     */
+    private void decryptFiles() throws CryptographyException {
+        Trace.entry(this.logger);
+
+        final MultiFileCipher multiFileCipher = new MultiFileCipher(ConfigSnapshot.of(this.config), this.options);
+        final int failures = multiFileCipher.decrypt(System.out);
+
+        if (failures != 0) {
+            throw new CryptographyException(failures + " of " + multiFileCipher.getFiles() + " files could not be decrypted");
+        }
+
+        Trace.exit(this.logger);
+    }
+
+    /**
+     * Decrypt the archive in the input file and extract its
+     * members into the directory named by the archive option.
+     * Files are written in parallel on virtual threads.
+     *
+     * @param   cancelled   java.util.concurrent.atomic.AtomicBoolean
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     * @since               1.2.0
+     */
+    private void decryptArchive(final AtomicBoolean cancelled) throws CryptographyException {
+        Trace.entry(this.logger);
+
+        if (this.doesInputFileExist()) {
+            final FileHeader fileHeader = this.readFileHeader()
+                    .orElseThrow(() -> new CryptographyException("The input file is not an archive: " + this.options.getInputFile()));
+            final KeyAgentClient.PendingKey pendingKey = this.createPendingKey(fileHeader.applyTo(this.config));
+            final SecretKeySpec secretKeySpec = pendingKey.getSecretKeySpec();
+            final Cipher cipher = this.createCipher(secretKeySpec, new IvParameterSpec(fileHeader.getInitializationVector()));
+
+            boolean completed;
+
+            try (final InputStream inputStream = new BufferedInputStream(Files.newInputStream(Paths.get(this.options.getInputFile())), ArchiveReader.CHUNK_SIZE);
+                 final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor()) {
+                inputStream.skipNBytes(FileHeader.SIZE);
+
+                completed = new ArchiveReader(new CipherInputStream(inputStream, cipher)).extract(Paths.get(this.options.getArchive()), writers, cancelled);
             } catch (final IOException ioe) {
-                throw new CryptographyException("I/O error processing input file: " + this.options.getInputFile(), ioe);
+                throw new CryptographyException("I/O error decrypting archive: " + this.options.getInputFile(), ioe);
+            }
+
+            if (!completed) {
+                throw new CryptographyException("Decryption of archive was cancelled: " + this.options.getInputFile());
             }
+
+            pendingKey.commit();
         } else {
             System.out.format("Input file '%s' does not exist%n", this.options.getInputFile());
         }
-        
-        this.logger.exit();
+
+        Trace.exit(this.logger);
     }
 
     /**
-     * Create the initialization vector from the first
-     * bytes of the previously encrypted file.
+     * Decrypt the file whose chunk manifest is the input file
+     * from the chunk store into the output file. Each chunk is
+     * checked against its fingerprint before it is written.
      *
-     * @return  javax.crypto.spec.IvParameterSpec
+     * @param   cancelled   java.util.concurrent.atomic.AtomicBoolean
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     * @since               1.2.0
+     */
+    private void decryptChunks(final AtomicBoolean cancelled) throws CryptographyException {
+        Trace.entry(this.logger);
+
+        if (this.doesInputFileExist()) {
+            final KeyAgentClient.PendingKey pendingKey = this.createPendingKey(this.readChunkManifestHeader().applyTo(this.config));
+
+            this.decryptChunks(pendingKey.getSecretKeySpec(), cancelled);
+
+            pendingKey.commit();
+        } else {
+            System.out.format("Input file '%s' does not exist%n", this.options.getInputFile());
+        }
+
+        Trace.exit(this.logger);
+    }
+
+    /**
+     * Decrypt the file whose chunk manifest is the input
+     * file from the chunk store using the secret key spec.
+     *
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @param   cancelled       java.util.concurrent.atomic.AtomicBoolean
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     * @since                   1.2.0
+     */
+    private void decryptChunks(final SecretKeySpec secretKeySpec, final AtomicBoolean cancelled) throws CryptographyException {
+        Trace.entry(this.logger);
+
+        assert secretKeySpec != null;
+
+        final FileHeader fileHeader = this.readChunkManifestHeader();
+        final ChunkStore chunkStore = new ChunkStore(Paths.get(this.options.getChunkStore()), this.durability);
+        final Path output = Paths.get(this.options.getOutputFile());
+
+        Path temporary = null;
+        boolean committed = false;
+
+        try {
+            final byte[] bytes = Files.readAllBytes(Paths.get(this.options.getInputFile()));
+            final ChunkManifest chunkManifest = ChunkManifest.parse(
+                    this.createCipher(secretKeySpec, new IvParameterSpec(fileHeader.getInitializationVector()))
+                            .doFinal(bytes, FileHeader.SIZE, bytes.length - FileHeader.SIZE));
+            final Mac mac = ChunkStore.createFingerprintMac(secretKeySpec);
+
+            temporary = OutputFiles.createTemporaryFile(output);
+
+            try (final OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporary), ContentDefinedChunker.MAXIMUM_SIZE)) {
+                for (final ChunkManifest.Chunk chunk : chunkManifest.getChunks()) {
+                    if (cancelled.get()) {
+                        throw new CryptographyException("Decryption of file was cancelled: " + this.options.getInputFile());
+                    }
+
+                    final byte[] fingerprint = chunk.getFingerprint();
+                    final byte[] stored = chunkStore.read(fingerprint);
+
+                    if (stored.length <= Config.INITIALIZATION_VECTOR_SIZE) {
+                        throw new CryptographyException("Chunk is corrupt: " + chunkStore.pathOf(fingerprint));
+                    }
+
+                    final byte[] plainText = this.createCipher(secretKeySpec, new IvParameterSpec(stored, 0, Config.INITIALIZATION_VECTOR_SIZE))
+                            .doFinal(stored, Config.INITIALIZATION_VECTOR_SIZE, stored.length - Config.INITIALIZATION_VECTOR_SIZE);
+
+                    if (plainText.length != chunk.getLength() || !MessageDigest.isEqual(fingerprint, mac.doFinal(plainText))) {
+                        throw new CryptographyException("Chunk is corrupt: " + chunkStore.pathOf(fingerprint));
+                    }
+
+                    outputStream.write(plainText);
+                }
+            }
+
+            OutputFiles.commit(temporary, output, this.durability);
+
+            committed = true;
+        } catch (final IOException ioe) {
+            throw new CryptographyException("I/O error decrypting file: " + this.options.getInputFile(), ioe);
+        } catch (final GeneralSecurityException gse) {
+            throw new CryptographyException("Unable to decrypt data", gse);
+        } finally {
+            if (!committed) {
+                this.deleteTemporaryFile(temporary);
+            }
+        }
+
+        Trace.exit(this.logger);
+    }
+
+    /**
+     * Read the file header of the chunk manifest
+     * in the input file.
+     *
+     * @return  net.jmp.aes256.crypto.FileHeader
      * @throws  net.jmp.aes256.crypto.CryptographyException
-     * @since   0.5.0
+     * @since   1.2.0
      */
-    private IvParameterSpec createIvParameterSpecFromFile() throws CryptographyException {
-        this.logger.entry();
+    private FileHeader readChunkManifestHeader() throws CryptographyException {
+        return this.readFileHeader()
+                .orElseThrow(() -> new CryptographyException("The input file is not a chunk manifest: " + this.options.getInputFile()));
+    }
 
-        final byte[] initializationVector = new byte[Config.INITIALIZATION_VECTOR_SIZE];
+    /**
+     * Extract the members of the archive in the input file
+     * selected by the extract option. Each is located through
+     * the archive index and only its own records are read and
+     * decrypted.
+     *
+     * @param   cancelled   java.util.concurrent.atomic.AtomicBoolean
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     * @since               1.2.0
+     */
+    private void extractArchiveMembers(final AtomicBoolean cancelled) throws CryptographyException {
+        Trace.entry(this.logger);
 
-        try (final FileInputStream inputStream = new FileInputStream(this.options.getInputFile())) {
-            final int bytesRead = inputStream.read(initializationVector, 0, Config.INITIALIZATION_VECTOR_SIZE);
+        if (this.doesInputFileExist()) {
+            final FileHeader fileHeader = this.readFileHeader()
+                    .orElseThrow(() -> new CryptographyException("The input file is not an archive: " + this.options.getInputFile()));
+            final KeyAgentClient.PendingKey pendingKey = this.createPendingKey(fileHeader.applyTo(this.config));
+            final SecretKeySpec secretKeySpec = pendingKey.getSecretKeySpec();
+            final List<ArchiveIndex.Entry> entries = this.readArchiveIndex(secretKeySpec).select(this.options.getExtract());
 
-            if (bytesRead != Config.INITIALIZATION_VECTOR_SIZE) {
-                throw new CryptographyException("Unable to read initialization vector");
+            pendingKey.commit();
+
+            if (entries.isEmpty()) {
+                System.out.format("Archive member '%s' does not exist%n", this.options.getExtract());
+            } else {
+                final Path target = Paths.get(this.options.getArchive());
+
+                try (final FileChannel channel = FileChannel.open(Paths.get(this.options.getInputFile()), StandardOpenOption.READ);
+                     final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor()) {
+                    Files.createDirectories(target);
+
+                    /* In reverse so that each directory follows its children and keeps its time */
+
+                    for (final ArchiveIndex.Entry entry : entries.reversed()) {
+                        if (cancelled.get()) {
+                            throw new CryptographyException("Decryption of archive was cancelled: " + this.options.getInputFile());
+                        }
+
+                        final Cipher cipher = CipherFactory.createUnpaddedCipher(this.config,
+                                Cipher.DECRYPT_MODE,
+                                secretKeySpec,
+                                new IvParameterSpec(entry.getNonce()));
+
+                        channel.position(FileHeader.SIZE + entry.getOffset());
+
+                        /* The channel stream is not closed as that would close the channel */
+
+                        final InputStream inputStream = new BoundedInputStream(
+                                new BufferedInputStream(Channels.newInputStream(channel), ArchiveReader.CHUNK_SIZE),
+                                entry.getLength());
+
+                        new ArchiveReader(new CipherInputStream(inputStream, cipher)).extractMember(target, writers);
+                    }
+                } catch (final IOException ioe) {
+                    throw new CryptographyException("I/O error decrypting archive: " + this.options.getInputFile(), ioe);
+                }
+            }
+        } else {
+            System.out.format("Input file '%s' does not exist%n", this.options.getInputFile());
+        }
+
+        Trace.exit(this.logger);
+    }
+
+    /**
+     * List the members of the archive in the input file
+     * from its index.
+     *
+     * @throws  net.jmp.aes256.crypto.CryptographyException
+     * @since   1.2.0
+     */
+    private void listArchive() throws CryptographyException {
+        Trace.entry(this.logger);
+
+        if (this.doesInputFileExist()) {
+            final FileHeader fileHeader = this.readFileHeader()
+                    .orElseThrow(() -> new CryptographyException("The input file is not an archive: " + this.options.getInputFile()));
+            final KeyAgentClient.PendingKey pendingKey = this.createPendingKey(fileHeader.applyTo(this.config));
+            final SecretKeySpec secretKeySpec = pendingKey.getSecretKeySpec();
+
+            final ArchiveIndex archiveIndex = this.readArchiveIndex(secretKeySpec);
+
+            pendingKey.commit();
+
+            for (final ArchiveIndex.Entry entry : archiveIndex.getEntries()) {
+                System.out.format("%-9s %12d %s %s%n",
+                        entry.getType() == Archive.TYPE_DIRECTORY ? "directory" : "file",
+                        entry.getSize(),
+                        Instant.ofEpochMilli(entry.getLastModified()),
+                        entry.getPath());
+            }
+        } else {
+            System.out.format("Input file '%s' does not exist%n", this.options.getInputFile());
+        }
+
+        Trace.exit(this.logger);
+    }
+
+    /**
+     * Read and decrypt the index of the archive in the
+     * input file using the trailer at the end of the file.
+     *
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @return                  net.jmp.aes256.crypto.ArchiveIndex
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     * @since                   1.2.0
+     */
+    private ArchiveIndex readArchiveIndex(final SecretKeySpec secretKeySpec) throws CryptographyException {
+        Trace.entry(this.logger);
+
+        ArchiveIndex archiveIndex;
+
+        try (final FileChannel channel = FileChannel.open(Paths.get(this.options.getInputFile()), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final ByteBuffer trailerBuffer = ByteBuffer.allocate(ArchiveIndex.TRAILER_SIZE);
+
+            if (size >= FileHeader.SIZE + ArchiveIndex.TRAILER_SIZE) {
+                readFully(channel, trailerBuffer, size - ArchiveIndex.TRAILER_SIZE);
             }
+
+            final ArchiveIndex.Trailer trailer = ArchiveIndex.parseTrailer(trailerBuffer.array())
+                    .filter(t -> t.getOffset() >= FileHeader.SIZE
+                            && t.getLength() > 0
+                            && t.getLength() <= Integer.MAX_VALUE
+                            && t.getOffset() + t.getLength() + ArchiveIndex.TRAILER_SIZE == size)
+                    .orElseThrow(() -> new CryptographyException("The archive has no index: " + this.options.getInputFile()));
+            final ByteBuffer indexBuffer = ByteBuffer.allocate((int) trailer.getLength());
+
+            readFully(channel, indexBuffer, trailer.getOffset());
+
+            archiveIndex = ArchiveIndex.parse(this.createCipher(secretKeySpec, new IvParameterSpec(trailer.getInitializationVector()))
+                    .doFinal(indexBuffer.array()));
         } catch (final IOException ioe) {
             throw new CryptographyException("I/O error processing input file: " + this.options.getInputFile(), ioe);
+        } catch (final GeneralSecurityException gse) {
+            throw new CryptographyException("Unable to decrypt data", gse);
         }
 
-        final IvParameterSpec ivParameterSpec = new IvParameterSpec(initializationVector);
+        Trace.exit(this.logger, archiveIndex);
 
-        this.logger.exit(ivParameterSpec);
+        return archiveIndex;
+    }
 
-        return ivParameterSpec;
+    /**
+     * Read the header from the start of the input
+     * file. An empty optional is returned for files
+     * written without a header.
+     *
+     * @return  java.util.Optional&lt;net.jmp.aes256.crypto.FileHeader&gt;
+     * @throws  net.jmp.aes256.crypto.CryptographyException
+     * @since   1.2.0
+     */
+    private Optional<FileHeader> readFileHeader() throws CryptographyException {
+        Trace.entry(this.logger);
+
+        final byte[] bytes = new byte[FileHeader.SIZE];
+
+        Optional<FileHeader> fileHeader;
+
+        try (final InputStream inputStream = this.openInputFile()) {
+            fileHeader = FileHeader.parse(bytes, inputStream.readNBytes(bytes, 0, bytes.length), this.config);
+        } catch (final IOException ioe) {
+            throw new CryptographyException("I/O error processing input file: " + this.options.getInputFile(), ioe);
+        }
+
+        Trace.exit(this.logger);
+
+        return fileHeader;
     }
 
     /**
-     * Encrypt the file data.
+     * Find the user's slot in the recipient table that
+     * follows the header of the input file.
      *
-     * @param   cipher                  javax.crypto.Cipher
-     * @param   inputStream             java.io.InputStream
-     * @throws                          net.jmp.aes256.crypto.CryptographyException
-     * @since                           0.5.0
+     * @return  net.jmp.aes256.crypto.RecipientTable.Match
+     * @throws  net.jmp.aes256.crypto.CryptographyException
+     * @since   1.2.0
      */
-    private void decryptFileData(final Cipher cipher, final InputStream inputStream) throws CryptographyException {
-        this.logger.entry(cipher, inputStream);
+    private RecipientTable.Match findRecipient() throws CryptographyException {
+        Trace.entry(this.logger);
 
-        assert cipher != null;
-        assert inputStream != null;
+        RecipientTable.Match match;
 
-        try (final FileOutputStream outputStream = new FileOutputStream(this.options.getOutputFile())) {
-            final byte[] buffer = new byte[64];
+        try (final InputStream inputStream = this.openInputFile()) {
+            inputStream.skipNBytes(FileHeader.SIZE);
 
-            /* Skip over the initialization vector */
+            match = RecipientTable.find(inputStream, this.options.getUserId());
+        } catch (final IOException ioe) {
+            throw new CryptographyException("I/O error processing input file: " + this.options.getInputFile(), ioe);
+        }
 
-            final long bytesSkipped = inputStream.skip(Config.INITIALIZATION_VECTOR_SIZE);
+        Trace.exit(this.logger);
 
-            if (bytesSkipped != Config.INITIALIZATION_VECTOR_SIZE) {
-                throw new CryptographyException("Unable to read beyond initialization vector");
-            }
+        return match;
+    }
 
-            /* The remaining data is cipher text */
+    /**
+     * Return the configuration to derive the key for the
+     * input file. The key derivation settings recorded in
+     * the file header take precedence over the local ones.
+     *
+     * @return  net.jmp.aes256.config.Config
+     * @throws  net.jmp.aes256.crypto.CryptographyException
+     * @since   1.2.0
+     */
+    private Config createFileKeyConfig() throws CryptographyException {
+        Trace.entry(this.logger);
 
-            int bytesRead;
+        final Config keyConfig = this.readFileHeader()
+                .map(fileHeader -> fileHeader.applyTo(this.config))
+                .orElse(this.config);
 
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                final byte[] output = cipher.update(buffer, 0, bytesRead);
+        Trace.exit(this.logger, keyConfig);
 
-                if (output != null) {
-                    outputStream.write(output);
-                }
-            }
+        return keyConfig;
+    }
 
-            final byte[] output = cipher.doFinal();
+    /**
+     * Create the initialization vector from the first
+     * bytes of the previously encrypted file.
+     *
+     * @return  javax.crypto.spec.IvParameterSpec
+     * @throws  net.jmp.aes256.crypto.CryptographyException
+     * @since   0.5.0
+     */
+    private IvParameterSpec createIvParameterSpecFromFile() throws CryptographyException {
+        Trace.entry(this.logger);
+
+        final byte[] initializationVector = new byte[Config.INITIALIZATION_VECTOR_SIZE];
+
+        try (final InputStream inputStream = this.openInputFile()) {
+            final int bytesRead = inputStream.readNBytes(initializationVector, 0, Config.INITIALIZATION_VECTOR_SIZE);
 
-            if (output != null) {
-                outputStream.write(output);
+            if (bytesRead != Config.INITIALIZATION_VECTOR_SIZE) {
+                throw new CryptographyException("Unable to read initialization vector");
             }
         } catch (final IOException ioe) {
-            throw new CryptographyException("I/O error processing output file: " + this.options.getOutputFile(), ioe);
-        } catch (final IllegalBlockSizeException | BadPaddingException e) {
-            throw new CryptographyException("Unable to decrypt data", e);
+            throw new CryptographyException("I/O error processing input file: " + this.options.getInputFile(), ioe);
         }
 
-        this.logger.exit();
+        final IvParameterSpec ivParameterSpec = new IvParameterSpec(initializationVector);
+
+        Trace.exit(this.logger);
+
+        return ivParameterSpec;
+    }
+
+    /**
+     * Open the input file for reading from the start,
+     * decoding it on the way in when it is armored.
+     *
+     * @return  java.io.InputStream
+     * @throws  java.io.IOException
+     * @since   1.2.0
+     */
+    private InputStream openInputFile() throws IOException {
+        final InputStream inputStream = new FileInputStream(this.options.getInputFile());
+
+        return this.options.isArmor() ? ArmoredFileCipherEngine.decode(inputStream) : inputStream;
     }
 
     /**
@@ -343,28 +1050,61 @@ public final class Decrypter {
      * @since                   0.5.0
      */
     private Cipher createCipher(final SecretKeySpec secretKeySpec, final IvParameterSpec ivParameterSpec) throws CryptographyException {
-        this.logger.entry(secretKeySpec, ivParameterSpec);
+        Trace.entry(this.logger);
 
         assert secretKeySpec != null;
         assert ivParameterSpec != null;
 
-        Cipher cipher;
+        final Cipher cipher = CipherFactory.createCipher(this.config, Cipher.DECRYPT_MODE, secretKeySpec, ivParameterSpec);
 
-        try {
-            cipher = Cipher.getInstance(this.config.getCipher().getInstance());
-        } catch (final NoSuchAlgorithmException | NoSuchPaddingException e) {
-            throw new CryptographyException("Unable to instantiate cipher: " + this.config.getCipher().getInstance(), e);
-        }
+        Trace.exit(this.logger);
 
-        try {
-            cipher.init(Cipher.DECRYPT_MODE, secretKeySpec, ivParameterSpec);
-        } catch (final InvalidKeyException | InvalidAlgorithmParameterException e) {
-            throw new CryptographyException("Unable to initialize cipher", e);
+        return cipher;
+    }
+
+    /**
+     * Fill the buffer from the channel at the position.
+     *
+     * @param   channel     java.nio.channels.FileChannel
+     * @param   buffer      java.nio.ByteBuffer
+     * @param   position    long
+     * @throws              java.io.IOException
+     * @since               1.2.0
+     */
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        long offset = position;
+
+        while (buffer.hasRemaining()) {
+            final int bytesRead = channel.read(buffer, offset);
+
+            if (bytesRead < 0) {
+                throw new EOFException("Unexpected end of file");
+            }
+
+            offset += bytesRead;
         }
+    }
+
+    /**
+     * Delete the temporary output file of a failed or
+     * cancelled operation, leaving any existing output
+     * file untouched.
+     *
+     * @param   temporary   java.nio.file.Path
+     * @since               1.2.0
+     */
+    private void deleteTemporaryFile(final Path temporary) {
+        Trace.entry(this.logger, temporary);
 
-        this.logger.exit(cipher);
+        if (temporary != null) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (final IOException ioe) {
+                this.logger.warn("Unable to delete temporary output file: {}", temporary);
+            }
+        }
 
-        return cipher;
+        Trace.exit(this.logger);
     }
 
     /**
@@ -374,12 +1114,12 @@ public final class Decrypter {
      * @since   0.3.0
      */
     private boolean doesInputFileExist() {
-        this.logger.entry();
+        Trace.entry(this.logger);
 
         final File file = new File(this.options.getInputFile());
         final boolean exists = file.exists();
 
-        this.logger.exit(exists);
+        Trace.exit(this.logger);
 
         return exists;
     }
@@ -0,0 +1,128 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)DecryptingProcessor.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.nio.ByteBuffer;
+
+import java.util.Objects;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.ShortBufferException;
+
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+
+/**
+ * A flow processor that decrypts a stream of byte buffers
+ * produced by the encrypting processor. The initialization
+ * vector is taken from the first bytes of the stream and
+ * the cipher is created once all of them have arrived.
+ */
+public final class DecryptingProcessor extends CipherProcessor {
+    /** The secret key spec. */
+    private final SecretKeySpec secretKeySpec;
+
+    /** Accumulates the initialization vector. */
+    private final ByteBuffer initializationVector = ByteBuffer.allocate(Config.INITIALIZATION_VECTOR_SIZE);
+
+    /** The cipher, created once the initialization vector is complete. */
+    private Cipher cipher;
+
+    /**
+     * A constructor that takes the configuration, the secret
+     * key spec and the maximum number of bytes in flight.
+     *
+     * @param   config              net.jmp.aes256.config.Config
+     * @param   secretKeySpec       javax.crypto.spec.SecretKeySpec
+     * @param   maxBytesInFlight    int
+     */
+    public DecryptingProcessor(final Config config, final SecretKeySpec secretKeySpec, final int maxBytesInFlight) {
+        super(config, maxBytesInFlight);
+
+        this.secretKeySpec = Objects.requireNonNull(secretKeySpec);
+    }
+
+    /**
+     * Decrypt one upstream item.
+     *
+     * @param   item    java.nio.ByteBuffer
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     */
+    @Override
+    protected void transform(final ByteBuffer item) throws CryptographyException {
+        if (this.cipher == null) {
+            while (item.hasRemaining() && this.initializationVector.hasRemaining()) {
+                this.initializationVector.put(item.get());
+            }
+
+            if (this.initializationVector.hasRemaining()) {
+                return;
+            }
+
+            this.cipher = CipherFactory.createCipher(
+                    this.config,
+                    Cipher.DECRYPT_MODE,
+                    this.secretKeySpec,
+                    new IvParameterSpec(this.initializationVector.array())
+            );
+        }
+
+        if (item.hasRemaining()) {
+            this.update(this.cipher, item);
+        }
+    }
+
+    /**
+     * Decrypt the final block and remove the padding.
+     *
+     * @throws  net.jmp.aes256.crypto.CryptographyException
+     */
+    @Override
+    protected void finish() throws CryptographyException {
+        if (this.cipher == null) {
+            throw new CryptographyException("Unable to read initialization vector");
+        }
+
+        final ByteBuffer output = this.acquire(this.cipher.getOutputSize(0));
+
+        try {
+            this.cipher.doFinal(ByteBuffer.allocate(0), output);
+        } catch (final ShortBufferException | IllegalBlockSizeException | BadPaddingException e) {
+            throw new CryptographyException("Unable to decrypt data", e);
+        }
+
+        this.enqueue(output.flip());
+    }
+}
@@ -0,0 +1,356 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)DirectFileCipherEngine.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.sun.nio.file.ExtendedOpenOption;
+
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.security.GeneralSecurityException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.crypto.Cipher;
+
+import net.jmp.aes256.utils.FileCipherEvent;
+import net.jmp.aes256.utils.ProgressMonitor;
+
+/**
+ * The file cipher engine that bypasses the page cache by
+ * opening both files for direct I/O. Direct I/O requires
+ * every read and write to start at a block boundary, cover
+ * whole blocks and use a block-aligned buffer, so:
+ * <ul>
+ *   <li>The input is read from the block that contains the
+ *       offset and the leading bytes are skipped in memory</li>
+ *   <li>The prefix and cipher output are gathered in an aligned
+ *       buffer and only whole blocks are written; the partial
+ *       block left over is carried to the front of the buffer.
+ *       A prefix longer than a block, such as a large recipient
+ *       table, is gathered and written a block at a time</li>
+ *   <li>The last partial block is written padded with zeros and
+ *       the file is then truncated to its true length</li>
+ * </ul>
+ */
+final class DirectFileCipherEngine implements FileCipherEngine {
+    /** The size of each read. */
+    static final int BUFFER_SIZE = 1024 * 1024;
+
+    /** The alignment used when the file store does not report one. */
+    private static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    /**
+     * The default constructor.
+     */
+    DirectFileCipherEngine() {
+        super();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean transform(final Cipher cipher,
+                             final Path input,
+                             final long inputOffset,
+                             final Path output,
+                             final byte[] prefix,
+                             final ProgressMonitor progressMonitor,
+                             final AtomicBoolean cancelled) throws IOException, GeneralSecurityException {
+        final FileCipherEvent event = new FileCipherEvent();
+
+        event.begin();
+
+        try {
+            return this.transform(cipher, input, inputOffset, output, prefix, progressMonitor, cancelled, event);
+        } finally {
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.setEngine("direct");
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Transform the input file into the output file,
+     * adding byte counts and phase times to the event.
+     *
+     * @param   cipher          javax.crypto.Cipher
+     * @param   input           java.nio.file.Path
+     * @param   inputOffset     long
+     * @param   output          java.nio.file.Path
+     * @param   prefix          byte[]
+     * @param   progressMonitor net.jmp.aes256.utils.ProgressMonitor
+     * @param   cancelled       java.util.concurrent.atomic.AtomicBoolean
+     * @param   event           net.jmp.aes256.utils.FileCipherEvent
+     * @return                  boolean
+     * @throws                  java.io.IOException
+     * @throws                  java.security.GeneralSecurityException
+     * @since                   1.2.0
+     */
+    private boolean transform(final Cipher cipher,
+                              final Path input,
+                              final long inputOffset,
+                              final Path output,
+                              final byte[] prefix,
+                              final ProgressMonitor progressMonitor,
+                              final AtomicBoolean cancelled,
+                              final FileCipherEvent event) throws IOException, GeneralSecurityException {
+        final boolean timed = event.isEnabled();
+
+        final int blockSize = Math.max(blockSize(input), blockSize(output));
+
+        try (final FileChannel inputChannel = open(input, StandardOpenOption.READ);
+             final FileChannel outputChannel = open(output,
+                     StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.WRITE)) {
+            final int readSize = Math.max(blockSize, BUFFER_SIZE / blockSize * blockSize);
+            final ByteBuffer inputBuffer = ByteBuffer.allocateDirect(readSize + blockSize).alignedSlice(blockSize);
+            final ByteBuffer outputBuffer = ByteBuffer.allocateDirect(readSize + 3 * blockSize).alignedSlice(blockSize);
+
+            long writePosition = 0;
+
+            /* Less than a block is left in the buffer after each write, so a block of the prefix always fits */
+
+            for (int offset = 0; offset < prefix.length; offset += blockSize) {
+                outputBuffer.put(prefix, offset, Math.min(blockSize, prefix.length - offset));
+
+                writePosition += writeBlocks(outputChannel, outputBuffer, writePosition, blockSize);
+            }
+
+            long readPosition = inputOffset / blockSize * blockSize;
+            int skip = (int) (inputOffset - readPosition);
+
+            progressMonitor.stage(ProgressMonitor.Stage.CIPHER);
+
+            while (true) {
+                if (cancelled.get()) {
+                    return false;
+                }
+
+                inputBuffer.clear().limit(readSize);
+
+                final long start = timed ? System.nanoTime() : 0;
+                final int bytesRead = readFully(inputChannel, inputBuffer, readPosition, blockSize);
+                final long read = timed ? System.nanoTime() : 0;
+
+                event.read(bytesRead, read - start);
+
+                if (bytesRead <= skip) {
+                    break;
+                }
+
+                readPosition += bytesRead;
+
+                inputBuffer.flip().position(skip);
+
+                skip = 0;
+
+                final int length = inputBuffer.remaining();
+                final long ciphering = timed ? System.nanoTime() : 0;
+
+                cipher.update(inputBuffer, outputBuffer);
+
+                final long ciphered = timed ? System.nanoTime() : 0;
+                final int bytesWritten = writeBlocks(outputChannel, outputBuffer, writePosition, blockSize);
+
+                writePosition += bytesWritten;
+
+                event.cipher(ciphered - ciphering);
+                event.write(bytesWritten, timed ? System.nanoTime() - ciphered : 0);
+
+                progressMonitor.add(length);
+
+                if (bytesRead < readSize) {
+                    break;      // End of file
+                }
+            }
+
+            progressMonitor.stage(ProgressMonitor.Stage.IO);
+
+            cipher.doFinal(ByteBuffer.allocate(0), outputBuffer);
+
+            writePosition += writeBlocks(outputChannel, outputBuffer, writePosition, blockSize);
+
+            /* Write the final partial block padded to the block size and trim the padding */
+
+            final int tail = outputBuffer.position();
+
+            if (tail > 0) {
+                while (outputBuffer.position() < blockSize) {
+                    outputBuffer.put((byte) 0);
+                }
+
+                outputBuffer.flip();
+
+                writeFully(outputChannel, outputBuffer, writePosition);
+
+                outputChannel.truncate(writePosition + tail);
+            }
+
+            event.write(writePosition + tail - event.getBytesWritten(), 0);
+        }
+
+        return true;
+    }
+
+    /**
+     * Return the block size that direct I/O on the
+     * file must be aligned to.
+     *
+     * @param   file    java.nio.file.Path
+     * @return          int
+     * @throws          java.io.IOException
+     */
+    static int blockSize(final Path file) throws IOException {
+        final Path existing = Files.exists(file) ? file : OutputFiles.directoryOf(file);
+        final long blockSize = Files.getFileStore(existing).getBlockSize();
+
+        return blockSize > 0 && blockSize <= BUFFER_SIZE && Long.bitCount(blockSize) == 1 ? (int) blockSize : DEFAULT_BLOCK_SIZE;
+    }
+
+    /**
+     * Open a file for direct I/O.
+     *
+     * @param   file    java.nio.file.Path
+     * @param   options java.nio.file.StandardOpenOption[]
+     * @return          java.nio.channels.FileChannel
+     * @throws          java.io.IOException
+     */
+    private static FileChannel open(final Path file, final StandardOpenOption... options) throws IOException {
+        final OpenOption[] directOptions = new OpenOption[options.length + 1];
+
+        System.arraycopy(options, 0, directOptions, 0, options.length);
+
+        directOptions[options.length] = ExtendedOpenOption.DIRECT;
+
+        try {
+            return FileChannel.open(file, directOptions);
+        } catch (final UnsupportedOperationException | IOException e) {
+            throw new IOException("Direct I/O is not supported for " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read until the buffer is full or the end of
+     * the file is reached and return the count. A
+     * read that ends part way into a block has hit
+     * the end of the file.
+     *
+     * @param   channel     java.nio.channels.FileChannel
+     * @param   buffer      java.nio.ByteBuffer
+     * @param   position    long
+     * @param   blockSize   int
+     * @return              int
+     * @throws              java.io.IOException
+     */
+    private static int readFully(final FileChannel channel,
+                                 final ByteBuffer buffer,
+                                 final long position,
+                                 final int blockSize) throws IOException {
+        int total = 0;
+
+        while (buffer.hasRemaining()) {
+            final int bytesRead = channel.read(buffer, position + total);
+
+            if (bytesRead == -1) {
+                break;
+            }
+
+            total += bytesRead;
+
+            if (total % blockSize != 0) {
+                break;
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Write the whole blocks gathered in the buffer and move
+     * the partial block left over to its front. The number
+     * of bytes written is returned.
+     *
+     * @param   channel     java.nio.channels.FileChannel
+     * @param   buffer      java.nio.ByteBuffer
+     * @param   position    long
+     * @param   blockSize   int
+     * @return              int
+     * @throws              java.io.IOException
+     */
+    private static int writeBlocks(final FileChannel channel,
+                                   final ByteBuffer buffer,
+                                   final long position,
+                                   final int blockSize) throws IOException {
+        final int gathered = buffer.position();
+        final int length = gathered / blockSize * blockSize;
+
+        if (length > 0) {
+            buffer.flip().limit(length);
+
+            writeFully(channel, buffer, position);
+
+            buffer.limit(gathered);
+            buffer.compact();
+        }
+
+        return length;
+    }
+
+    /**
+     * Write the remaining bytes of the buffer.
+     *
+     * @param   channel     java.nio.channels.FileChannel
+     * @param   buffer      java.nio.ByteBuffer
+     * @param   position    long
+     * @throws              java.io.IOException
+     */
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        long offset = position;
+
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)Durability.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+/**
+ * How hard the program works to make a completed output
+ * file survive a crash. Every policy writes to a temporary
+ * file and renames it over the target, so a crash never
+ * leaves a truncated file under the target name; the
+ * policies differ in when the data is forced to disk.
+ */
+public enum Durability {
+    /** Rename only and leave flushing to the operating system. */
+    NONE,
+
+    /** Force each file and its directory before returning. */
+    FILE,
+
+    /** Force files in batches shared with other operations. */
+    GROUP;
+
+    /**
+     * Return the durability with the given name. A null
+     * name selects none.
+     *
+     * @param   name    java.lang.String
+     * @return          net.jmp.aes256.crypto.Durability
+     */
+    public static Durability of(final String name) {
+        if (name == null) {
+            return NONE;
+        }
+
+        return switch (name.toLowerCase()) {
+            case "none" -> NONE;
+            case "file" -> FILE;
+            case "group" -> GROUP;
+            default -> throw new IllegalArgumentException("Unknown durability: " + name);
+        };
+    }
+}
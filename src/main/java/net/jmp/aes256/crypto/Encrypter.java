@@ -1,13 +1,14 @@
 package net.jmp.aes256.crypto;
 
 /*
+ * (#)Encrypter.java    1.2.0   10/19/2026
  * (#)Encrypter.java    0.5.0   07/13/2024
  * (#)Encrypter.java    0.4.0   07/12/2024
  * (#)Encrypter.java    0.3.0   07/06/2024
  * (#)Encrypter.java    0.2.0   07/05/2024
  *
  * @author   Jonathan Parker
- * @version  0.5.0
+ * @version  1.2.0
  * @since    0.2.0
  *
  * MIT License
@@ -35,14 +36,25 @@ package net.jmp.aes256.crypto;
 
 import java.io.*;
 
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.nio.ByteBuffer;
+
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+
+import java.util.concurrent.CompletableFuture;
+
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.crypto.*;
 
@@ -50,11 +62,17 @@ import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
 import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.ConfigSnapshot;
 
+import net.jmp.aes256.input.Credential;
+import net.jmp.aes256.input.CredentialsManifest;
 import net.jmp.aes256.input.Options;
 
+import net.jmp.aes256.utils.BatchKeyDeriver;
+import net.jmp.aes256.utils.ProgressMonitor;
 import net.jmp.aes256.utils.Salter;
 import net.jmp.aes256.utils.SecretKeySpecBuilder;
+import net.jmp.aes256.utils.Trace;
 
 import org.slf4j.LoggerFactory;
 
@@ -73,6 +91,12 @@ public final class Encrypter {
     /** The options. */
     private final Options options;
 
+    /** The engine that moves file data through the cipher. @since 1.2.0 */
+    private final FileCipherEngine fileCipherEngine;
+
+    /** The durability of output files. @since 1.2.0 */
+    private final Durability durability;
+
     /**
      * The default constructor.
      */
@@ -87,12 +111,44 @@ public final class Encrypter {
      * @param   options net.jmp.aes256.input.Options
      */
     public Encrypter(final Config config, final Options options) {
+        this(Objects.requireNonNull(config), options, true);
+    }
+
+    /**
+     * A constructor that takes the configuration, options
+     * and whether the configuration must be validated.
+     *
+     * @param   config      net.jmp.aes256.config.Config
+     * @param   options     net.jmp.aes256.input.Options
+     * @param   validate    boolean
+     * @since               1.2.0
+     */
+    private Encrypter(final Config config, final Options options, final boolean validate) {
         super();
 
-        this.config = Objects.requireNonNull(config);
+        this.config = config;
         this.options = Objects.requireNonNull(options);
 
-        this.config.validate();
+        if (validate) {
+            this.config.validate();
+        }
+
+        this.fileCipherEngine = FileCipherEngine.of(this.options, true);
+        this.durability = Durability.of(this.options.getDurability());
+    }
+
+    /**
+     * Return a encrypter for a configuration snapshot. The
+     * snapshot is already validated so this is the cheaper way
+     * to create one for each of many operations.
+     *
+     * @param   configSnapshot  net.jmp.aes256.config.ConfigSnapshot
+     * @param   options         net.jmp.aes256.input.Options
+     * @return                  net.jmp.aes256.crypto.Encrypter
+     * @since                   1.2.0
+     */
+    public static Encrypter of(final ConfigSnapshot configSnapshot, final Options options) {
+        return new Encrypter(configSnapshot.getConfig(), options, false);
     }
 
     /**
@@ -104,55 +160,276 @@ public final class Encrypter {
      * @throws  net.jmp.aes256.crypto.CryptographyException
      */
     public Optional<String> encrypt() throws CryptographyException {
-        this.logger.entry();
+        Trace.entry(this.logger);
+
+        /* A synchronous operation is never cancelled */
+
+        final AtomicBoolean cancelled = new AtomicBoolean();
 
         Optional<String> result = Optional.empty();
 
         if (this.options.getString() != null) {
-            result = Optional.of(this.encryptString());
+            result = Optional.of(this.encryptString(this.createSecretKeySpec()));
         }
 
         if (this.options.getInputFile() != null && this.options.getOutputFile() != null) {
-            this.encryptFile();
+            if (this.options.getChunkStore() != null) {
+                this.encryptChunks(cancelled);
+            } else {
+                this.encryptFile(cancelled);
+            }
+        }
+
+        if (this.options.getArchive() != null && this.options.getOutputFile() != null) {
+            this.encryptArchive(cancelled);
+        }
+
+        if (this.options.getInputFiles() != null) {
+            this.encryptFiles();
         }
 
         if (this.logger.isDebugEnabled()) {
             this.logger.debug("End encryption");
         }
 
-        this.logger.exit(result);
+        Trace.exit(this.logger);
 
         return result;
     }
 
     /**
-     * Encrypt a string.
+     * The asynchronous encrypt method. The key is derived
+     * on the key derivation executor, a string is then
+     * encrypted on the cipher executor and a file on the
+     * I/O executor. Cancelling the returned future stops
+     * the operation at the next stage or buffer. Each call
+     * has its own cancellation, so the encrypter can be used
+     * again after a cancelled operation. Archives and multiple
+     * input files are only encrypted synchronously; for them
+     * the returned future fails.
+     *
+     * @param   executors   net.jmp.aes256.crypto.CryptographyExecutors
+     * @return              java.util.concurrent.CompletableFuture&lt;java.util.Optional&lt;java.lang.String&gt;&gt;
+     * @since               1.2.0
+     */
+    public CompletableFuture<Optional<String>> encryptAsync(final CryptographyExecutors executors) {
+        Trace.entry(this.logger, executors);
+
+        Objects.requireNonNull(executors);
+
+        final AtomicBoolean cancelled = new AtomicBoolean();
+
+        CompletableFuture<Optional<String>> result;
+
+        if (this.options.getString() != null) {
+            result = AsyncOperation.submit(
+                    executors,
+                    this::createSecretKeySpec,
+                    secretKeySpec -> Optional.of(this.encryptString(secretKeySpec)),
+                    false,
+                    cancelled
+            );
+        } else if (this.options.getArchive() != null) {
+            result = CompletableFuture.failedFuture(new CryptographyException("Encryption of an archive is not supported asynchronously"));
+        } else if (this.options.getInputFiles() != null) {
+            result = CompletableFuture.failedFuture(new CryptographyException("Encryption of multiple files is not supported asynchronously"));
+        } else if (this.options.getInputFile() != null
+                && this.options.getOutputFile() != null
+                && this.options.getChunkStore() != null
+                && this.doesInputFileExist()) {
+            result = AsyncOperation.submit(
+                    executors,
+                    this::createSecretKeySpec,
+                    secretKeySpec -> {
+                        this.encryptChunks(secretKeySpec, cancelled);
+
+                        return Optional.empty();
+                    },
+                    true,
+                    cancelled
+            );
+        } else if (this.options.getInputFile() != null
+                && this.options.getOutputFile() != null
+                && this.options.getRecipients() != null
+                && this.doesInputFileExist()) {
+            /* The recipients' keys are derived on the key derivation executor and wrap a random data key */
+
+            final SecretKeySpec dataKey = this.createDataKey();
+
+            result = AsyncOperation.submit(
+                    executors,
+                    () -> this.createRecipientTable(dataKey),
+                    recipientTable -> {
+                        this.encryptFile(dataKey, recipientTable, ProgressMonitor.disabled(), cancelled);
+
+                        return Optional.empty();
+                    },
+                    true,
+                    cancelled
+            );
+        } else if (this.options.getInputFile() != null && this.options.getOutputFile() != null && this.doesInputFileExist()) {
+            result = AsyncOperation.submit(
+                    executors,
+                    this::createSecretKeySpec,
+                    secretKeySpec -> {
+                        this.encryptFile(secretKeySpec, ProgressMonitor.disabled(), cancelled);
+
+                        return Optional.empty();
+                    },
+                    true,
+                    cancelled
+            );
+        } else {
+            result = CompletableFuture.failedFuture(new CryptographyException("Nothing to encrypt or input file does not exist"));
+        }
+
+        Trace.exit(this.logger);
+
+        return result;
+    }
+
+    /**
+     * Encrypt the string or the input file in the options
+     * with a key that has already been derived. The load
+     * test uses it so that it measures the cipher and the
+     * file I/O rather than the key derivation.
+     *
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @return                  java.util.Optional&lt;java.lang.String&gt;
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     * @since                   1.2.0
+     */
+    Optional<String> encrypt(final SecretKeySpec secretKeySpec) throws CryptographyException {
+        Optional<String> result = Optional.empty();
+
+        if (this.options.getString() != null) {
+            result = Optional.of(this.encryptString(secretKeySpec));
+        }
+
+        if (this.options.getInputFile() != null && this.options.getOutputFile() != null) {
+            this.encryptFile(secretKeySpec, ProgressMonitor.disabled(), new AtomicBoolean());
+        }
+
+        return result;
+    }
+
+    /**
+     * Create the secret key spec from the user
+     * identifier and password in the options, or take
+     * it from the key agent if one holds it. A derived
+     * key is not given to the agent.
      *
-     * @return  java.lang.String
+     * @return  javax.crypto.spec.SecretKeySpec
      * @throws  net.jmp.aes256.crypto.CryptographyException
-     * @since   0.3.0
+     * @since   1.2.0
+     */
+    private SecretKeySpec createSecretKeySpec() throws CryptographyException {
+        Trace.entry(this.logger);
+
+        final SecretKeySpec secretKeySpec = KeyAgentClient.getOrDerive(this.options, this.config, password -> {
+            final Salter salter = new Salter(this.config);
+            final String salt = salter.getSalt(this.options.getUserId());
+
+            final SecretKeySpecBuilder secretKeySpecBuilder = new SecretKeySpecBuilder(this.config);
+
+            return secretKeySpecBuilder.build(password, salt);
+        }).getSecretKeySpec();
+
+        Trace.exit(this.logger);
+
+        return secretKeySpec;
+    }
+
+    /**
+     * Create a random data key for a file encrypted
+     * for many recipients.
+     *
+     * @return  javax.crypto.spec.SecretKeySpec
+     * @since   1.2.0
+     */
+    private SecretKeySpec createDataKey() {
+        final byte[] dataKey = new byte[this.config.getPbeKeySpecKeyLength() / 8];
+
+        new SecureRandom().nextBytes(dataKey);
+
+        return new SecretKeySpec(dataKey, this.config.getSecretKeySpecAlgorithm());
+    }
+
+    /**
+     * Create the recipient table for the credentials named
+     * by the recipients option. The recipients' keys are
+     * derived in parallel and the data key is wrapped under
+     * each one as it completes.
+     *
+     * @param   dataKey javax.crypto.spec.SecretKeySpec
+     * @return          net.jmp.aes256.crypto.RecipientTable
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     * @since           1.2.0
+     */
+    private RecipientTable createRecipientTable(final SecretKeySpec dataKey) throws CryptographyException {
+        Trace.entry(this.logger);
+
+        List<Credential> credentials;
+
+        try {
+            credentials = CredentialsManifest.read(Paths.get(this.options.getRecipients())).getCredentials();
+        } catch (final IOException ioe) {
+            throw new CryptographyException("Unable to read recipients: " + this.options.getRecipients(), ioe);
+        }
+
+        if (credentials.isEmpty() || credentials.size() > RecipientTable.MAXIMUM_RECIPIENTS) {
+            throw new CryptographyException("The number of recipients must be from 1 to " + RecipientTable.MAXIMUM_RECIPIENTS + ": " + this.options.getRecipients());
+        }
+
+        final RecipientTable recipientTable = RecipientTable.of(credentials.size(), dataKey.getEncoded().length);
+        final List<String> failures = new ArrayList<>();
+
+        try (final BatchKeyDeriver batchKeyDeriver = new BatchKeyDeriver(this.config)) {
+            batchKeyDeriver.derive(credentials, derivedKey -> {
+                try {
+                    recipientTable.add(derivedKey.getUserId(),
+                            derivedKey.getSecretKeySpec().orElseThrow(() -> new CryptographyException("Unable to derive key", derivedKey.getFailure().orElse(null))),
+                            dataKey);
+                } catch (final CryptographyException ce) {
+                    this.logger.catching(ce);
+
+                    failures.add(derivedKey.getUserId());
+                }
+            });
+        }
+
+        if (!failures.isEmpty()) {
+            throw new CryptographyException("Unable to add recipients: " + String.join(", ", failures));
+        }
+
+        Trace.exit(this.logger);
+
+        return recipientTable;
+    }
+
+    /**
+     * Encrypt a string.
+     *
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @return                  java.lang.String
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     * @since                   0.3.0
      */
-    private String encryptString() throws CryptographyException {
-        this.logger.entry();
+    private String encryptString(final SecretKeySpec secretKeySpec) throws CryptographyException {
+        Trace.entry(this.logger);
+
+        assert secretKeySpec != null;
 
         if (this.logger.isDebugEnabled()) {
-            this.logger.debug("Begin encrypting string    : '{}'", this.options.getString());
+            this.logger.debug("Begin encrypting string of {} characters", this.options.getString().length());
             this.config.logCryptoSettings(this.logger);
         }
 
-        final Salter salter = new Salter(this.config);
-        final String salt = salter.getSalt(this.options.getUserId());
-
         /* Set up the initialization vector */
 
         final byte[] initializationVector = this.createInitializationVector();
         final IvParameterSpec ivParameterSpec = new IvParameterSpec(initializationVector);
 
-        /* Set up the secret key spec */
-
-        final SecretKeySpecBuilder secretKeySpecBuilder = new SecretKeySpecBuilder(this.config);
-        final SecretKeySpec secretKeySpec = secretKeySpecBuilder.build(this.options.getPassword(), salt);
-
         /* Set up the cipher */
 
         final Cipher cipher = this.createCipher(secretKeySpec, ivParameterSpec);
@@ -176,7 +453,7 @@ public final class Encrypter {
 
         final String result = Base64.getEncoder().encodeToString(encryptedData);
 
-        this.logger.exit(result);
+        Trace.exit(this.logger);
 
         return result;
     }
@@ -184,95 +461,417 @@ public final class Encrypter {
     /**
      * Encrypt a file.
      *
-     * @throws  net.jmp.aes256.crypto.CryptographyException
-     * @since   0.3.0
+     * @param   cancelled   java.util.concurrent.atomic.AtomicBoolean
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     * @since               0.3.0
      */
-    private void encryptFile() throws CryptographyException {
-        this.logger.entry();
+    private void encryptFile(final AtomicBoolean cancelled) throws CryptographyException {
+        Trace.entry(this.logger);
 
         if (this.logger.isDebugEnabled()) {
             this.logger.debug("Begin encrypting file: '{}'", this.options.getInputFile());
         }
 
         if (this.doesInputFileExist()) {
-            final Salter salter = new Salter(this.config);
-            final String salt = salter.getSalt(this.options.getUserId());
+            try (final ProgressMonitor progressMonitor = ProgressMonitor.of(this.options.isProgress(), System.out)) {
+                progressMonitor.start(new File(this.options.getInputFile()).length());
+                progressMonitor.stage(ProgressMonitor.Stage.KDF);
+
+                if (this.options.getRecipients() != null) {
+                    final SecretKeySpec dataKey = this.createDataKey();
 
-            /* Set up the initialization vector */
+                    this.encryptFile(dataKey, this.createRecipientTable(dataKey), progressMonitor, cancelled);
+                } else {
+                    this.encryptFile(this.createSecretKeySpec(), progressMonitor, cancelled);
+                }
+            }
+        } else {
+            System.out.format("Input file '%s' does not exist%n", this.options.getInputFile());
+        }
+
+        Trace.exit(this.logger);
+    }
+
+    /**
+     * Encrypt a file using the secret key spec, resumably
+     * if the resume option is set.
+     *
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @param   progressMonitor net.jmp.aes256.utils.ProgressMonitor
+     * @param   cancelled       java.util.concurrent.atomic.AtomicBoolean
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     * @since                   1.2.0
+     */
+    private void encryptFile(final SecretKeySpec secretKeySpec,
+                             final ProgressMonitor progressMonitor,
+                             final AtomicBoolean cancelled) throws CryptographyException {
+        if (this.options.isResume()) {
+            this.resumeFile(secretKeySpec, progressMonitor, cancelled);
+        } else {
+            this.encryptFile(secretKeySpec, null, progressMonitor, cancelled);
+        }
+    }
 
+    /**
+     * Encrypt a file using the secret key spec, continuing
+     * from the last checkpoint of an interrupted encryption
+     * of the same file if there is one. A cancelled or failed
+     * encryption keeps its partial output and journal so that
+     * it can be resumed in turn.
+     *
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @param   progressMonitor net.jmp.aes256.utils.ProgressMonitor
+     * @param   cancelled       java.util.concurrent.atomic.AtomicBoolean
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     * @since                   1.2.0
+     */
+    private void resumeFile(final SecretKeySpec secretKeySpec,
+                            final ProgressMonitor progressMonitor,
+                            final AtomicBoolean cancelled) throws CryptographyException {
+        Trace.entry(this.logger, progressMonitor);
+
+        progressMonitor.stage(ProgressMonitor.Stage.IO);
+
+        final ResumableFileEncrypter resumableFileEncrypter = new ResumableFileEncrypter(this.config,
+                this.durability,
+                ResumableFileEncrypter.DEFAULT_SEGMENT_SIZE);
+
+        boolean completed;
+
+        try {
+            completed = resumableFileEncrypter.encrypt(secretKeySpec,
+                    Paths.get(this.options.getInputFile()),
+                    Paths.get(this.options.getOutputFile()),
+                    this.createInitializationVector(),
+                    progressMonitor,
+                    cancelled);
+        } catch (final IOException ioe) {
+            throw new CryptographyException("I/O error encrypting file: " + this.options.getInputFile(), ioe);
+        } catch (final GeneralSecurityException gse) {
+            throw new CryptographyException("Unable to encrypt data", gse);
+        }
+
+        if (!completed) {
+            throw new CryptographyException("Encryption of file was cancelled: " + this.options.getInputFile());
+        }
+
+        Trace.exit(this.logger);
+    }
+
+    /**
+     * Encrypt a file using the secret key spec. When a
+     * recipient table is given the secret key spec is the
+     * data key and the table is written after the header.
+     *
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @param   recipientTable  net.jmp.aes256.crypto.RecipientTable
+     * @param   progressMonitor net.jmp.aes256.utils.ProgressMonitor
+     * @param   cancelled       java.util.concurrent.atomic.AtomicBoolean
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     * @since                   1.2.0
+     */
+    private void encryptFile(final SecretKeySpec secretKeySpec,
+                             final RecipientTable recipientTable,
+                             final ProgressMonitor progressMonitor,
+                             final AtomicBoolean cancelled) throws CryptographyException {
+        Trace.entry(this.logger, progressMonitor);
+
+        assert secretKeySpec != null;
+        assert progressMonitor != null;
+
+        progressMonitor.stage(ProgressMonitor.Stage.IO);
+
+        /* Set up the initialization vector */
+
+        final byte[] initializationVector = this.createInitializationVector();
+        final IvParameterSpec ivParameterSpec = new IvParameterSpec(initializationVector);
+
+        /* Set up the cipher */
+
+        final Cipher cipher = this.createCipher(secretKeySpec, ivParameterSpec);
+
+        /* Perform the encryption - the header, which ends with the IV, and any recipient table are written first */
+
+        byte[] header = FileHeader.of(this.config, initializationVector, recipientTable != null).toByteArray();
+
+        if (recipientTable != null) {
+            header = ByteBuffer.allocate(header.length + recipientTable.size())
+                    .put(header)
+                    .put(recipientTable.toByteArray())
+                    .array();
+        }
+
+        /* Write to a temporary file and rename it over the output once complete */
+
+        final Path output = Paths.get(this.options.getOutputFile());
+
+        Path temporary = null;
+        boolean committed = false;
+
+        try {
+            temporary = OutputFiles.createTemporaryFile(output);
+
+            if (this.fileCipherEngine.transform(
+                    cipher,
+                    Paths.get(this.options.getInputFile()),
+                    0,
+                    temporary,
+                    header,
+                    progressMonitor,
+                    cancelled)) {
+                OutputFiles.commit(temporary, output, this.durability);
+
+                committed = true;
+            }
+        } catch (final IOException ioe) {
+            throw new CryptographyException("I/O error encrypting file: " + this.options.getInputFile(), ioe);
+        } catch (final GeneralSecurityException gse) {
+            throw new CryptographyException("Unable to encrypt data", gse);
+        } finally {
+            if (!committed) {
+                this.deleteTemporaryFile(temporary);
+            }
+        }
+
+        if (!committed) {
+            throw new CryptographyException("Encryption of file was cancelled: " + this.options.getInputFile());
+        }
+
+        Trace.exit(this.logger);
+    }
+
+    /**
+     * Encrypt the input files on a pool of workers,
+     * writing the status of each file.
+     *
+     * @throws  net.jmp.aes256.crypto.CryptographyException
+     * @since   1.2.0
+     */
+    private void encryptFiles() throws CryptographyException {
+        Trace.entry(this.logger);
+
+        final MultiFileCipher multiFileCipher = new MultiFileCipher(ConfigSnapshot.of(this.config), this.options);
+        final int failures = multiFileCipher.encrypt(System.out);
+
+        if (failures != 0) {
+            throw new CryptographyException(failures + " of " + multiFileCipher.getFiles() + " files could not be encrypted");
+        }
+
+        Trace.exit(this.logger);
+    }
+
+    /**
+     * Encrypt the directory tree named by the archive option
+     * into the output file. The key is derived once and all
+     * the members pass through a single cipher. The index of
+     * the members is encrypted after them and located by a
+     * trailer at the end of the file.
+     *
+     * @param   cancelled   java.util.concurrent.atomic.AtomicBoolean
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     * @since               1.2.0
+     */
+    private void encryptArchive(final AtomicBoolean cancelled) throws CryptographyException {
+        Trace.entry(this.logger);
+
+        final Path root = Paths.get(this.options.getArchive());
+
+        if (Files.isDirectory(root)) {
             final byte[] initializationVector = this.createInitializationVector();
-            final IvParameterSpec ivParameterSpec = new IvParameterSpec(initializationVector);
+            final SecretKeySpec secretKeySpec = this.createSecretKeySpec();
+            final Cipher cipher = this.createCipher(secretKeySpec, new IvParameterSpec(initializationVector));
+            final byte[] header = FileHeader.of(this.config, initializationVector).toByteArray();
+            final Path output = Paths.get(this.options.getOutputFile());
 
-            /* Set up the secret key spec */
+            Path temporary = null;
+            boolean committed = false;
 
-            final SecretKeySpecBuilder secretKeySpecBuilder = new SecretKeySpecBuilder(this.config);
-            final SecretKeySpec secretKeySpec = secretKeySpecBuilder.build(this.options.getPassword(), salt);
+            try {
+                temporary = OutputFiles.createTemporaryFile(output);
+
+                boolean completed;
+
+                try (final OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(temporary), ArchiveWriter.BUFFER_SIZE)) {
+                    outputStream.write(header);
+
+                    /* The chaining stream stays open when the cipher stream closes */
+
+                    final ChainingBlockOutputStream chainingStream = new ChainingBlockOutputStream(outputStream, initializationVector);
+                    final ArchiveWriter archiveWriter;
 
-            /* Set up the cipher */
+                    try (final CipherOutputStream cipherOutputStream = new CipherOutputStream(chainingStream, cipher)) {
+                        archiveWriter = new ArchiveWriter(cipherOutputStream, Set.of(output, temporary), chainingStream::getLastBlock);
+                        completed = archiveWriter.write(root, cancelled);
+                    }
 
-            final Cipher cipher = this.createCipher(secretKeySpec, ivParameterSpec);
+                    if (completed) {
+                        this.writeArchiveIndex(outputStream,
+                                secretKeySpec,
+                                FileHeader.SIZE + chainingStream.getCount(),
+                                archiveWriter.getArchiveIndex());
+                    }
+                }
 
-            /* Perform the encryption */
+                if (completed) {
+                    OutputFiles.commit(temporary, output, this.durability);
 
-            try (final FileInputStream inputStream = new FileInputStream(this.options.getInputFile())) {
-                this.encryptFileData(initializationVector, cipher, inputStream);
+                    committed = true;
+                }
             } catch (final IOException ioe) {
-                throw new CryptographyException("I/O error processing input file: " + this.options.getInputFile(), ioe);
+                throw new CryptographyException("I/O error encrypting archive: " + this.options.getArchive(), ioe);
+            } catch (final GeneralSecurityException gse) {
+                throw new CryptographyException("Unable to encrypt data", gse);
+            } finally {
+                if (!committed) {
+                    this.deleteTemporaryFile(temporary);
+                }
+            }
+
+            if (!committed) {
+                throw new CryptographyException("Encryption of archive was cancelled: " + this.options.getArchive());
             }
+        } else {
+            System.out.format("Archive directory '%s' does not exist%n", this.options.getArchive());
+        }
+
+        Trace.exit(this.logger);
+    }
+
+    /**
+     * Encrypt the input file into the chunk store. The file
+     * is split into content-defined chunks and only the chunks
+     * the store does not already hold are encrypted and written,
+     * so re-encrypting a file that changed a little does a little
+     * work. The output file receives the encrypted manifest of
+     * the chunks.
+     *
+     * @param   cancelled   java.util.concurrent.atomic.AtomicBoolean
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     * @since               1.2.0
+     */
+    private void encryptChunks(final AtomicBoolean cancelled) throws CryptographyException {
+        Trace.entry(this.logger);
+
+        if (this.doesInputFileExist()) {
+            this.encryptChunks(this.createSecretKeySpec(), cancelled);
         } else {
             System.out.format("Input file '%s' does not exist%n", this.options.getInputFile());
         }
 
-        this.logger.exit();
+        Trace.exit(this.logger);
     }
 
     /**
-     * Encrypt the file data.
+     * Encrypt the input file into the chunk store using
+     * the secret key spec.
      *
-     * @param   initializationVector    byte[]
-     * @param   cipher                  javax.crypto.Cipher
-     * @param   inputStream             java.io.InputStream
-     * @throws                          net.jmp.aes256.crypto.CryptographyException
-     * @since                           0.5.0
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @param   cancelled       java.util.concurrent.atomic.AtomicBoolean
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     * @since                   1.2.0
      */
-    private void encryptFileData(final byte[] initializationVector, final Cipher cipher, final InputStream inputStream) throws CryptographyException {
-        this.logger.entry(initializationVector, cipher, inputStream);
+    private void encryptChunks(final SecretKeySpec secretKeySpec, final AtomicBoolean cancelled) throws CryptographyException {
+        Trace.entry(this.logger);
+
+        assert secretKeySpec != null;
+
+        final ChunkStore chunkStore = new ChunkStore(Paths.get(this.options.getChunkStore()), this.durability);
+        final ChunkManifest chunkManifest = new ChunkManifest();
+        final Path output = Paths.get(this.options.getOutputFile());
 
-        assert initializationVector != null;
-        assert cipher != null;
-        assert inputStream != null;
+        int chunksWritten = 0;
+        long bytesEncrypted = 0;
 
-        try (final FileOutputStream outputStream = new FileOutputStream(this.options.getOutputFile())) {
-            /* Write the IV first */
+        Path temporary = null;
+        boolean committed = false;
 
-            outputStream.write(initializationVector);
+        try (final InputStream inputStream = Files.newInputStream(Paths.get(this.options.getInputFile()))) {
+            final Mac mac = ChunkStore.createFingerprintMac(secretKeySpec);
+            final ContentDefinedChunker chunker = new ContentDefinedChunker(inputStream);
 
-            final byte[] buffer = new byte[64];
+            for (byte[] chunk = chunker.next(); chunk != null; chunk = chunker.next()) {
+                if (cancelled.get()) {
+                    throw new CryptographyException("Encryption of file was cancelled: " + this.options.getInputFile());
+                }
 
-            /* Write the cipher text */
+                final byte[] fingerprint = mac.doFinal(chunk);
 
-            int bytesRead;
+                if (!chunkStore.contains(fingerprint)) {
+                    final byte[] initializationVector = this.createInitializationVector();
 
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                final byte[] output = cipher.update(buffer, 0, bytesRead);
+                    chunkStore.write(fingerprint,
+                            initializationVector,
+                            this.createCipher(secretKeySpec, new IvParameterSpec(initializationVector)).doFinal(chunk));
 
-                if (output != null) {
-                    outputStream.write(output);
+                    chunksWritten++;
+                    bytesEncrypted += chunk.length;
                 }
+
+                chunkManifest.add(fingerprint, chunk.length);
             }
 
-            final byte[] output = cipher.doFinal();
+            /* The manifest is written like an ordinary encrypted file */
+
+            final byte[] initializationVector = this.createInitializationVector();
+            final byte[] cipherText = this.createCipher(secretKeySpec, new IvParameterSpec(initializationVector))
+                    .doFinal(chunkManifest.toByteArray());
 
-            if (output != null) {
-                outputStream.write(output);
+            temporary = OutputFiles.createTemporaryFile(output);
+
+            try (final OutputStream outputStream = Files.newOutputStream(temporary)) {
+                outputStream.write(FileHeader.of(this.config, initializationVector).toByteArray());
+                outputStream.write(cipherText);
             }
+
+            OutputFiles.commit(temporary, output, this.durability);
+
+            committed = true;
         } catch (final IOException ioe) {
-            throw new CryptographyException("I/O error processing output file: " + this.options.getOutputFile(), ioe);
-        } catch (final IllegalBlockSizeException | BadPaddingException e) {
-            throw new CryptographyException("Unable to encrypt data", e);
+            throw new CryptographyException("I/O error encrypting file: " + this.options.getInputFile(), ioe);
+        } catch (final GeneralSecurityException gse) {
+            throw new CryptographyException("Unable to encrypt data", gse);
+        } finally {
+            if (!committed) {
+                this.deleteTemporaryFile(temporary);
+            }
         }
 
-        this.logger.exit();
+        System.out.format("Encrypted %d of %d chunks (%d of %d bytes)%n",
+                chunksWritten,
+                chunkManifest.getChunks().size(),
+                bytesEncrypted,
+                chunkManifest.getSize());
+
+        Trace.exit(this.logger);
+    }
+
+    /**
+     * Encrypt the archive index under its own initialization
+     * vector and write it followed by the trailer locating it.
+     *
+     * @param   outputStream    java.io.OutputStream
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @param   offset          long
+     * @param   archiveIndex    net.jmp.aes256.crypto.ArchiveIndex
+     * @throws                  java.io.IOException
+     * @throws                  java.security.GeneralSecurityException
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     * @since                   1.2.0
+     */
+    private void writeArchiveIndex(final OutputStream outputStream,
+                                   final SecretKeySpec secretKeySpec,
+                                   final long offset,
+                                   final ArchiveIndex archiveIndex) throws IOException, GeneralSecurityException, CryptographyException {
+        Trace.entry(this.logger, archiveIndex);
+
+        final byte[] initializationVector = this.createInitializationVector();
+        final byte[] encryptedIndex = this.createCipher(secretKeySpec, new IvParameterSpec(initializationVector))
+                .doFinal(archiveIndex.toByteArray());
+
+        outputStream.write(encryptedIndex);
+        outputStream.write(ArchiveIndex.trailer(offset, encryptedIndex.length, initializationVector));
+
+        Trace.exit(this.logger);
     }
 
     /**
@@ -282,14 +881,14 @@ public final class Encrypter {
      * @since   0.5.0
      */
     private byte[] createInitializationVector() {
-        this.logger.entry();
+        Trace.entry(this.logger);
 
         final SecureRandom secureRandom = new SecureRandom();
         final byte[] initializationVector = new byte[Config.INITIALIZATION_VECTOR_SIZE];
 
         secureRandom.nextBytes(initializationVector);
 
-        this.logger.exit(initializationVector);
+        Trace.exit(this.logger);
 
         return initializationVector;
     }
@@ -304,28 +903,38 @@ public final class Encrypter {
      * @since                   0.5.0
      */
     private Cipher createCipher(final SecretKeySpec secretKeySpec, final IvParameterSpec ivParameterSpec) throws CryptographyException {
-        this.logger.entry(secretKeySpec, ivParameterSpec);
+        Trace.entry(this.logger);
 
         assert secretKeySpec != null;
         assert ivParameterSpec != null;
 
-        Cipher cipher;
+        final Cipher cipher = CipherFactory.createCipher(this.config, Cipher.ENCRYPT_MODE, secretKeySpec, ivParameterSpec);
 
-        try {
-            cipher = Cipher.getInstance(this.config.getCipher().getInstance());
-        } catch (final NoSuchAlgorithmException | NoSuchPaddingException e) {
-            throw new CryptographyException("Unable to instantiate cipher: " + this.config.getCipher().getInstance(), e);
-        }
+        Trace.exit(this.logger);
 
-        try {
-            cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec, ivParameterSpec);
-        } catch (final InvalidKeyException | InvalidAlgorithmParameterException e) {
-            throw new CryptographyException("Unable to initialize cipher", e);
-        }
+        return cipher;
+    }
 
-        this.logger.exit(cipher);
+    /**
+     * Delete the temporary output file of a failed or
+     * cancelled operation, leaving any existing output
+     * file untouched.
+     *
+     * @param   temporary   java.nio.file.Path
+     * @since               1.2.0
+     */
+    private void deleteTemporaryFile(final Path temporary) {
+        Trace.entry(this.logger, temporary);
 
-        return cipher;
+        if (temporary != null) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (final IOException ioe) {
+                this.logger.warn("Unable to delete temporary output file: {}", temporary);
+            }
+        }
+
+        Trace.exit(this.logger);
     }
 
     /**
@@ -335,12 +944,12 @@ public final class Encrypter {
      * @since   0.3.0
      */
     private boolean doesInputFileExist() {
-        this.logger.entry();
+        Trace.entry(this.logger);
 
         final File file = new File(this.options.getInputFile());
         final boolean exists = file.exists();
 
-        this.logger.exit(exists);
+        Trace.exit(this.logger);
 
         return exists;
     }
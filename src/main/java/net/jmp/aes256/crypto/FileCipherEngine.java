@@ -0,0 +1,160 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)FileCipherEngine.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+
+import java.nio.file.Path;
+
+import java.security.GeneralSecurityException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.crypto.Cipher;
+
+import net.jmp.aes256.input.Options;
+
+import net.jmp.aes256.utils.ProgressMonitor;
+
+/**
+ * Moves file data through an initialized cipher. Engines
+ * differ only in how they read and write the files.
+ */
+interface FileCipherEngine {
+    /**
+     * Transform the input file, starting at the offset, into
+     * the output file. The prefix is written to the output
+     * ahead of the transformed data. False is returned if
+     * the operation was cancelled before it completed.
+     *
+     * @param   cipher          javax.crypto.Cipher
+     * @param   input           java.nio.file.Path
+     * @param   inputOffset     long
+     * @param   output          java.nio.file.Path
+     * @param   prefix          byte[]
+     * @param   progressMonitor net.jmp.aes256.utils.ProgressMonitor
+     * @param   cancelled       java.util.concurrent.atomic.AtomicBoolean
+     * @return                  boolean
+     * @throws                  java.io.IOException
+     * @throws                  java.security.GeneralSecurityException
+     */
+    boolean transform(Cipher cipher,
+                      Path input,
+                      long inputOffset,
+                      Path output,
+                      byte[] prefix,
+                      ProgressMonitor progressMonitor,
+                      AtomicBoolean cancelled) throws IOException, GeneralSecurityException;
+
+    /**
+     * Return the engine with the given name. A null
+     * name selects the stream engine.
+     *
+     * @param   name    java.lang.String
+     * @return          net.jmp.aes256.crypto.FileCipherEngine
+     */
+    static FileCipherEngine of(final String name) {
+        return of(name, false, 0);
+    }
+
+    /**
+     * Return the engine selected by the options.
+     *
+     * @param   options net.jmp.aes256.input.Options
+     * @return          net.jmp.aes256.crypto.FileCipherEngine
+     */
+    static FileCipherEngine of(final Options options) {
+        return of(options.getIoEngine(), options.isDirectIo(), options.getQueueDepth());
+    }
+
+    /**
+     * Return the engine selected by the options for the
+     * given direction. Armored files are encoded on the way
+     * out when encrypting and decoded on the way in when
+     * decrypting. Armor sits on top of streams, so it can
+     * only stand in for the stream engine.
+     *
+     * @param   options     net.jmp.aes256.input.Options
+     * @param   encrypting  boolean
+     * @return              net.jmp.aes256.crypto.FileCipherEngine
+     * @since               1.2.0
+     */
+    static FileCipherEngine of(final Options options, final boolean encrypting) {
+        if (options.isArmor()) {
+            final String name = options.getIoEngine();
+
+            if (options.isDirectIo()) {
+                throw new IllegalArgumentException("Armor cannot be combined with direct I/O");
+            }
+
+            if (name != null && !name.equalsIgnoreCase("stream")) {
+                throw new IllegalArgumentException("Armor cannot be combined with the " + name + " I/O engine");
+            }
+
+            return new ArmoredFileCipherEngine(encrypting);
+        }
+
+        return of(options);
+    }
+
+    /**
+     * Return the engine with the given name, or the direct
+     * I/O engine when requested. Direct I/O reads and writes
+     * through its own aligned buffers so it can only stand in
+     * for the stream engine. The queue depth applies to the
+     * asynchronous engine; zero selects its default.
+     *
+     * @param   name        java.lang.String
+     * @param   directIo    boolean
+     * @param   queueDepth  int
+     * @return              net.jmp.aes256.crypto.FileCipherEngine
+     */
+    static FileCipherEngine of(final String name, final boolean directIo, final int queueDepth) {
+        if (directIo) {
+            if (name != null && !name.equalsIgnoreCase("stream")) {
+                throw new IllegalArgumentException("Direct I/O cannot be combined with the " + name + " I/O engine");
+            }
+
+            return new DirectFileCipherEngine();
+        }
+
+        if (name == null) {
+            return new StreamFileCipherEngine();
+        }
+
+        return switch (name.toLowerCase()) {
+            case "stream" -> new StreamFileCipherEngine();
+            case "mapped" -> new MappedFileCipherEngine();
+            case "async" -> new AsyncFileCipherEngine(queueDepth == 0 ? AsyncFileCipherEngine.DEFAULT_QUEUE_DEPTH : queueDepth);
+            default -> throw new IllegalArgumentException("Unknown I/O engine: " + name);
+        };
+    }
+}
@@ -0,0 +1,426 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)FileHeader.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.nio.ByteBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.PBEKeyLengths;
+import net.jmp.aes256.config.Scrypt;
+
+import net.jmp.aes256.utils.SecretKeySpecBuilder;
+
+/**
+ * The header written at the start of an encrypted file.
+ * It records the key derivation function and its cost
+ * parameters along with the initialization vector, so a
+ * file can be decrypted on any host regardless of how
+ * that host is configured.
+ *
+ * <p>The layout, in big-endian order, is:
+ * <pre>
+ *   magic                  6 bytes  "AES256"
+ *   version                1 byte
+ *   key derivation         1 byte   1 = PBKDF2, 2 = scrypt
+ *   key length in bits     2 bytes
+ *   iterations or cost     4 bytes
+ *   block size             4 bytes  scrypt only
+ *   parallelization        4 bytes  scrypt only
+ *   initialization vector 16 bytes
+ * </pre>
+ *
+ * <p>Version 2 marks a file encrypted for many recipients,
+ * where a recipient table follows the header.
+ *
+ * <p>Files written before version 1.2.0 start directly
+ * with the initialization vector and carry no header.
+ */
+public final class FileHeader {
+    /** The header size in bytes. */
+    public static final int SIZE = 38;
+
+    /** The header version. */
+    private static final int VERSION = 1;
+
+    /** The header version of files with a recipient table. */
+    private static final int RECIPIENTS_VERSION = 2;
+
+    /** The PBKDF2 key derivation function identifier. */
+    private static final int KDF_PBKDF2 = 1;
+
+    /** The scrypt key derivation function identifier. */
+    private static final int KDF_SCRYPT = 2;
+
+    /** The magic bytes. */
+    private static final byte[] MAGIC = "AES256".getBytes(StandardCharsets.US_ASCII);
+
+    /** The header version. */
+    private final int version;
+
+    /** The key derivation function identifier. */
+    private final int keyDerivation;
+
+    /** The key length in bits. */
+    private final int keyLength;
+
+    /** The PBKDF2 iterations or the scrypt cost. */
+    private final int iterations;
+
+    /** The scrypt block size. */
+    private final int blockSize;
+
+    /** The scrypt parallelization. */
+    private final int parallelization;
+
+    /** The initialization vector. */
+    private final byte[] initializationVector;
+
+    /**
+     * The default constructor.
+     */
+    private FileHeader() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes all the fields.
+     *
+     * @param   version                 int
+     * @param   keyDerivation           int
+     * @param   keyLength               int
+     * @param   iterations              int
+     * @param   blockSize               int
+     * @param   parallelization         int
+     * @param   initializationVector    byte[]
+     */
+    private FileHeader(final int version,
+                       final int keyDerivation,
+                       final int keyLength,
+                       final int iterations,
+                       final int blockSize,
+                       final int parallelization,
+                       final byte[] initializationVector) {
+        super();
+
+        this.version = version;
+        this.keyDerivation = keyDerivation;
+        this.keyLength = keyLength;
+        this.iterations = iterations;
+        this.blockSize = blockSize;
+        this.parallelization = parallelization;
+        this.initializationVector = initializationVector.clone();
+    }
+
+    /**
+     * Create the header describing the key
+     * derivation settings in the configuration.
+     *
+     * @param   config                  net.jmp.aes256.config.Config
+     * @param   initializationVector    byte[]
+     * @return                          net.jmp.aes256.crypto.FileHeader
+     */
+    public static FileHeader of(final Config config, final byte[] initializationVector) {
+        return of(config, initializationVector, false);
+    }
+
+    /**
+     * Create the header describing the key derivation
+     * settings in the configuration, marking whether a
+     * recipient table follows it.
+     *
+     * @param   config                  net.jmp.aes256.config.Config
+     * @param   initializationVector    byte[]
+     * @param   recipients              boolean
+     * @return                          net.jmp.aes256.crypto.FileHeader
+     * @since                           1.2.0
+     */
+    public static FileHeader of(final Config config, final byte[] initializationVector, final boolean recipients) {
+        Objects.requireNonNull(config);
+        Objects.requireNonNull(initializationVector);
+
+        if (initializationVector.length != Config.INITIALIZATION_VECTOR_SIZE) {
+            throw new IllegalArgumentException("The initialization vector must be " + Config.INITIALIZATION_VECTOR_SIZE + " bytes");
+        }
+
+        final int version = recipients ? RECIPIENTS_VERSION : VERSION;
+
+        FileHeader fileHeader;
+
+        if (SecretKeySpecBuilder.SCRYPT.equalsIgnoreCase(config.getSecretKeyFactoryInstance())) {
+            final Scrypt scrypt = config.getScrypt();
+
+            fileHeader = new FileHeader(version,
+                    KDF_SCRYPT,
+                    config.getPbeKeySpecKeyLength(),
+                    scrypt.getCost(),
+                    scrypt.getBlockSize(),
+                    scrypt.getParallelization(),
+                    initializationVector);
+        } else {
+            fileHeader = new FileHeader(version,
+                    KDF_PBKDF2,
+                    config.getPbeKeySpecKeyLength(),
+                    config.getPbeKeySpecIterations(),
+                    0,
+                    0,
+                    initializationVector);
+        }
+
+        return fileHeader;
+    }
+
+    /**
+     * Parse the header from the first bytes of a file. An empty
+     * optional is returned when the bytes do not start with the
+     * magic bytes, which is the case for files without a header.
+     * The default cost limits apply.
+     *
+     * @param   bytes   byte[]
+     * @param   length  int
+     * @return          java.util.Optional&lt;net.jmp.aes256.crypto.FileHeader&gt;
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     */
+    public static Optional<FileHeader> parse(final byte[] bytes, final int length) throws CryptographyException {
+        return parse(bytes, length, Config.DEFAULT_MAXIMUM_ITERATIONS, Config.DEFAULT_MAXIMUM_SCRYPT_MEMORY);
+    }
+
+    /**
+     * Parse the header from the first bytes of a file, rejecting
+     * key derivation costs above the maximums in the configuration.
+     * A header is read before any password is checked, so without
+     * a limit a crafted file could make a decryption run for hours
+     * or exhaust memory.
+     *
+     * @param   bytes   byte[]
+     * @param   length  int
+     * @param   config  net.jmp.aes256.config.Config
+     * @return          java.util.Optional&lt;net.jmp.aes256.crypto.FileHeader&gt;
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     * @since           1.2.0
+     */
+    public static Optional<FileHeader> parse(final byte[] bytes, final int length, final Config config) throws CryptographyException {
+        Objects.requireNonNull(config);
+
+        return parse(bytes, length, config.getMaximumIterations(), config.getMaximumScryptMemory());
+    }
+
+    /**
+     * Parse the header from the first bytes of a file.
+     *
+     * @param   bytes               byte[]
+     * @param   length              int
+     * @param   maximumIterations   int
+     * @param   maximumScryptMemory long
+     * @return                      java.util.Optional&lt;net.jmp.aes256.crypto.FileHeader&gt;
+     * @throws                      net.jmp.aes256.crypto.CryptographyException
+     */
+    private static Optional<FileHeader> parse(final byte[] bytes,
+                                              final int length,
+                                              final int maximumIterations,
+                                              final long maximumScryptMemory) throws CryptographyException {
+        Objects.requireNonNull(bytes);
+
+        if (length < SIZE || !Arrays.equals(bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            return Optional.empty();
+        }
+
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes, MAGIC.length, SIZE - MAGIC.length);
+        final int version = buffer.get();
+
+        if (version != VERSION && version != RECIPIENTS_VERSION) {
+            throw new CryptographyException("Unsupported file header version: " + version);
+        }
+
+        final int keyDerivation = buffer.get();
+        final int keyLength = Short.toUnsignedInt(buffer.getShort());
+        final int iterations = buffer.getInt();
+        final int blockSize = buffer.getInt();
+        final int parallelization = buffer.getInt();
+        final byte[] initializationVector = new byte[Config.INITIALIZATION_VECTOR_SIZE];
+
+        buffer.get(initializationVector);
+
+        if (!PBEKeyLengths.getInstance().getKeyLengths().contains(keyLength)) {
+            throw new CryptographyException("Unsupported key length in file header: " + keyLength);
+        }
+
+        if (keyDerivation == KDF_PBKDF2) {
+            if (iterations < 1) {
+                throw new CryptographyException("Invalid iterations in file header: " + iterations);
+            }
+
+            if (iterations > maximumIterations) {
+                throw new CryptographyException("Iterations in file header exceed the maximum of " + maximumIterations + ": " + iterations);
+            }
+        } else if (keyDerivation == KDF_SCRYPT) {
+            try {
+                Scrypt.validate(iterations, blockSize, parallelization);
+            } catch (final IllegalArgumentException iae) {
+                throw new CryptographyException("Invalid scrypt parameters in file header", iae);
+            }
+
+            /* 128 * r * N * p, divided through to stay within a long */
+
+            if (128L * blockSize * iterations > maximumScryptMemory / parallelization) {
+                throw new CryptographyException("Scrypt memory in file header exceeds the maximum of " + maximumScryptMemory + " bytes");
+            }
+        } else {
+            throw new CryptographyException("Unsupported key derivation in file header: " + keyDerivation);
+        }
+
+        return Optional.of(new FileHeader(version, keyDerivation, keyLength, iterations, blockSize, parallelization, initializationVector));
+    }
+
+    /**
+     * Return the header as bytes.
+     *
+     * @return  byte[]
+     */
+    public byte[] toByteArray() {
+        final ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+
+        buffer.put(MAGIC);
+        buffer.put((byte) this.version);
+        buffer.put((byte) this.keyDerivation);
+        buffer.putShort((short) this.keyLength);
+        buffer.putInt(this.iterations);
+        buffer.putInt(this.blockSize);
+        buffer.putInt(this.parallelization);
+        buffer.put(this.initializationVector);
+
+        return buffer.array();
+    }
+
+    /**
+     * Return a copy of the configuration with the key
+     * derivation settings replaced by those in this header.
+     * A configured PBKDF2 implementation is kept since both
+     * implementations derive the same keys.
+     *
+     * @param   config  net.jmp.aes256.config.Config
+     * @return          net.jmp.aes256.config.Config
+     */
+    public Config applyTo(final Config config) {
+        Objects.requireNonNull(config);
+
+        final Config result = config.copy();
+
+        result.setPbeKeySpecKeyLength(this.keyLength);
+
+        if (this.keyDerivation == KDF_SCRYPT) {
+            final Scrypt scrypt = new Scrypt();
+
+            scrypt.setCost(this.iterations);
+            scrypt.setBlockSize(this.blockSize);
+            scrypt.setParallelization(this.parallelization);
+
+            result.setScrypt(scrypt);
+            result.setSecretKeyFactoryInstance(SecretKeySpecBuilder.SCRYPT);
+        } else {
+            result.setPbeKeySpecIterations(this.iterations);
+
+            if (SecretKeySpecBuilder.SCRYPT.equalsIgnoreCase(config.getSecretKeyFactoryInstance())) {
+                result.setSecretKeyFactoryInstance("PBKDF2WithHmacSHA256");
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Return true if a recipient table follows the header.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    public boolean hasRecipients() {
+        return this.version == RECIPIENTS_VERSION;
+    }
+
+    /**
+     * Return true if the key is derived with scrypt.
+     *
+     * @return  boolean
+     */
+    public boolean isScrypt() {
+        return this.keyDerivation == KDF_SCRYPT;
+    }
+
+    /**
+     * Return the key length in bits.
+     *
+     * @return  int
+     */
+    public int getKeyLength() {
+        return this.keyLength;
+    }
+
+    /**
+     * Return the PBKDF2 iterations or the scrypt cost.
+     *
+     * @return  int
+     */
+    public int getIterations() {
+        return this.iterations;
+    }
+
+    /**
+     * Return the initialization vector.
+     *
+     * @return  byte[]
+     */
+    public byte[] getInitializationVector() {
+        return this.initializationVector.clone();
+    }
+
+    /**
+     * The to-string method.
+     *
+     * @return  java.lang.String
+     */
+    @Override
+    public String toString() {
+        return "FileHeader{" +
+                "version=" + this.version +
+                ", keyDerivation=" + this.keyDerivation +
+                ", keyLength=" + this.keyLength +
+                ", iterations=" + this.iterations +
+                ", blockSize=" + this.blockSize +
+                ", parallelization=" + this.parallelization +
+                '}';
+    }
+}
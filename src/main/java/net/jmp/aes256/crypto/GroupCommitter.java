@@ -0,0 +1,330 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)GroupCommitter.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+
+import java.nio.file.Path;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * Makes completed output files durable in batches. Each
+ * caller forces its own temporary file, so the file syncs
+ * run in parallel on the callers' threads, and then queues
+ * it with its target. A single committer thread gathers the
+ * requests that arrive within the batch delay, renames them
+ * over their targets and then forces each directory involved
+ * once. Concurrent operations therefore share the directory
+ * syncs instead of each paying for its own.
+ */
+public final class GroupCommitter implements AutoCloseable {
+    /** The default maximum number of files in a batch. */
+    public static final int DEFAULT_MAXIMUM_BATCH_SIZE = 64;
+
+    /** The default time to wait for a batch to fill. */
+    public static final Duration DEFAULT_MAXIMUM_DELAY = Duration.ofMillis(10);
+
+    /** How often an idle committer checks for closing. */
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The pending requests. */
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+
+    /** The maximum number of files in a batch. */
+    private final int maximumBatchSize;
+
+    /** The time to wait for a batch to fill. */
+    private final long maximumDelayNanos;
+
+    /** The committer thread. */
+    private final Thread thread;
+
+    /** True once closed; guarded by this. */
+    private boolean closed;
+
+    /** The number of batches committed; written only by the committer thread. */
+    private volatile long batches;
+
+    /** The number of files committed successfully; written only by the committer thread. */
+    private volatile long files;
+
+    /**
+     * The default constructor.
+     */
+    private GroupCommitter() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the maximum batch size
+     * and the time to wait for a batch to fill.
+     *
+     * @param   maximumBatchSize    int
+     * @param   maximumDelay        java.time.Duration
+     */
+    public GroupCommitter(final int maximumBatchSize, final Duration maximumDelay) {
+        super();
+
+        if (maximumBatchSize < 1) {
+            throw new IllegalArgumentException("The maximum batch size must be positive: " + maximumBatchSize);
+        }
+
+        this.maximumBatchSize = maximumBatchSize;
+        this.maximumDelayNanos = Objects.requireNonNull(maximumDelay).toNanos();
+        this.thread = Thread.ofPlatform().name("aes256-group-commit").daemon(true).start(this::run);
+    }
+
+    /**
+     * Return the committer shared by all operations
+     * that use group durability.
+     *
+     * @return  net.jmp.aes256.crypto.GroupCommitter
+     */
+    public static GroupCommitter shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Queue the temporary file to be renamed over the
+     * target. The caller must already have forced the
+     * temporary file. The returned future completes once
+     * the rename is durable; the temporary file is left in
+     * place if it fails before the rename.
+     *
+     * @param   temporary   java.nio.file.Path
+     * @param   target      java.nio.file.Path
+     * @return              java.util.concurrent.CompletableFuture&lt;java.lang.Void&gt;
+     */
+    public CompletableFuture<Void> commit(final Path temporary, final Path target) {
+        this.logger.entry(temporary, target);
+
+        final Request request = new Request(Objects.requireNonNull(temporary), Objects.requireNonNull(target));
+
+        synchronized (this) {
+            if (this.closed) {
+                throw new IllegalStateException("The group committer is closed");
+            }
+
+            this.queue.add(request);
+        }
+
+        this.logger.exit(request.future);
+
+        return request.future;
+    }
+
+    /**
+     * Return the number of batches committed.
+     *
+     * @return  long
+     */
+    public long getBatches() {
+        return this.batches;
+    }
+
+    /**
+     * Return the number of files committed successfully.
+     *
+     * @return  long
+     */
+    public long getFiles() {
+        return this.files;
+    }
+
+    /**
+     * Stop accepting commits and wait for the
+     * pending ones to complete.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            this.closed = true;
+        }
+
+        try {
+            this.thread.join();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The committer loop.
+     */
+    private void run() {
+        final List<Request> batch = new ArrayList<>(this.maximumBatchSize);
+
+        while (true) {
+            try {
+                final Request first = this.queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+                    synchronized (this) {
+                        if (this.closed && this.queue.isEmpty()) {
+                            return;
+                        }
+                    }
+
+                    continue;
+                }
+
+                batch.add(first);
+
+                final long deadline = System.nanoTime() + this.maximumDelayNanos;
+
+                while (batch.size() < this.maximumBatchSize) {
+                    final Request next = this.queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+
+                    if (next == null) {
+                        break;
+                    }
+
+                    batch.add(next);
+                }
+            } catch (final InterruptedException ie) {
+                /* Never interrupted by this class; finish what was gathered */
+            }
+
+            this.commitBatch(batch);
+
+            batch.clear();
+        }
+    }
+
+    /**
+     * Rename and complete a batch of requests.
+     *
+     * @param   batch   java.util.List&lt;net.jmp.aes256.crypto.GroupCommitter.Request&gt;
+     */
+    private void commitBatch(final List<Request> batch) {
+        this.logger.entry(batch);
+
+        final Map<Path, List<Request>> renamed = new LinkedHashMap<>();
+
+        for (final Request request : batch) {
+            try {
+                OutputFiles.move(request.temporary, request.target);
+
+                renamed.computeIfAbsent(OutputFiles.directoryOf(request.target), directory -> new ArrayList<>()).add(request);
+            } catch (final IOException | RuntimeException e) {
+                request.future.completeExceptionally(e);
+            }
+        }
+
+        /* Count before completing so a caller that was woken sees its file counted */
+
+        final Map<Path, IOException> failures = new LinkedHashMap<>();
+        long committed = 0;
+
+        for (final Map.Entry<Path, List<Request>> entry : renamed.entrySet()) {
+            try {
+                OutputFiles.forceDirectory(entry.getKey());
+
+                committed += entry.getValue().size();
+            } catch (final IOException ioe) {
+                failures.put(entry.getKey(), ioe);
+            }
+        }
+
+        this.batches++;
+        this.files += committed;
+
+        for (final Map.Entry<Path, List<Request>> entry : renamed.entrySet()) {
+            final IOException ioe = failures.get(entry.getKey());
+
+            if (ioe == null) {
+                entry.getValue().forEach(request -> request.future.complete(null));
+            } else {
+                entry.getValue().forEach(request -> request.future.completeExceptionally(ioe));
+            }
+        }
+
+        if (this.logger.isDebugEnabled()) {
+            this.logger.debug("Committed {} of {} files in {} directories", committed, batch.size(), renamed.size());
+        }
+
+        this.logger.exit();
+    }
+
+    /**
+     * A queued commit.
+     */
+    private static final class Request {
+        /** The temporary file. */
+        private final Path temporary;
+
+        /** The target file. */
+        private final Path target;
+
+        /** The future completed once the rename is durable. */
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        /**
+         * A constructor that takes the temporary and target files.
+         *
+         * @param   temporary   java.nio.file.Path
+         * @param   target      java.nio.file.Path
+         */
+        private Request(final Path temporary, final Path target) {
+            super();
+
+            this.temporary = temporary;
+            this.target = target;
+        }
+    }
+
+    /**
+     * Holds the shared committer, created on first use.
+     */
+    private static final class Shared {
+        /** The shared committer. */
+        private static final GroupCommitter INSTANCE = new GroupCommitter(DEFAULT_MAXIMUM_BATCH_SIZE, DEFAULT_MAXIMUM_DELAY);
+    }
+}
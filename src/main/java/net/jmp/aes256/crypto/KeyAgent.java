@@ -0,0 +1,421 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)KeyAgent.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+
+import java.time.Duration;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import jdk.net.ExtendedSocketOptions;
+import jdk.net.UnixDomainPrincipal;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * An agent that holds derived keys in memory so that
+ * repeated invocations skip both the password prompt and
+ * the key derivation, in the manner of ssh-agent. Keys are
+ * kept for a time to live and wiped when they expire or
+ * the agent stops.
+ *
+ * <p>The agent listens on a Unix domain socket, by default
+ * under XDG_RUNTIME_DIR or else the temporary directory, in
+ * a directory only its owner can enter. The agent will not
+ * start, and clients will not connect, unless that directory
+ * is owned by the current user with mode 0700, so another
+ * user cannot put a socket of their own in its place. The
+ * socket itself is readable and writable only by its owner
+ * and connections from any other user are refused. Each
+ * connection carries
+ * one request:
+ * <pre>
+ *   GET  op (1), key id          -&gt; FOUND (0), algorithm, length, key | NOT FOUND (1)
+ *   PUT  op (2), key id, algorithm, length, key  -&gt; OK (0)
+ * </pre>
+ * Strings are modified UTF-8 and integers big-endian, as
+ * written by java.io.DataOutputStream.
+ */
+public final class KeyAgent implements AutoCloseable {
+    /** The environment variable naming the socket. */
+    public static final String SOCKET_ENVIRONMENT_VARIABLE = "AES256_AGENT_SOCK";
+
+    /** The environment variable naming the user's runtime directory. */
+    private static final String RUNTIME_DIRECTORY_ENVIRONMENT_VARIABLE = "XDG_RUNTIME_DIR";
+
+    /** The only permissions allowed on the socket's directory. */
+    private static final Set<PosixFilePermission> DIRECTORY_PERMISSIONS = PosixFilePermissions.fromString("rwx------");
+
+    /** The default time to live. */
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(15);
+
+    /** The get operation. */
+    static final int GET = 1;
+
+    /** The put operation. */
+    static final int PUT = 2;
+
+    /** The response to a successful request. */
+    static final int FOUND = 0;
+
+    /** The response to a get for a key that is not held. */
+    static final int NOT_FOUND = 1;
+
+    /** The largest key accepted in bytes. */
+    static final int MAXIMUM_KEY_SIZE = 64;
+
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The socket path. */
+    private final Path socket;
+
+    /** The time to live. */
+    private final Duration timeToLive;
+
+    /** The server channel. */
+    private final ServerSocketChannel serverChannel;
+
+    /** The keys by key id. */
+    private final Map<String, Key> keys = new ConcurrentHashMap<>();
+
+    /**
+     * The default constructor.
+     */
+    private KeyAgent() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the socket path and the time
+     * to live. The socket's directory is created restricted
+     * to its owner if it does not exist, and must otherwise
+     * be owned by the current user with mode 0700; a stale
+     * socket left by an agent that did not stop cleanly is
+     * replaced.
+     *
+     * @param   socket      java.nio.file.Path
+     * @param   timeToLive  java.time.Duration
+     * @throws              java.io.IOException
+     */
+    public KeyAgent(final Path socket, final Duration timeToLive) throws IOException {
+        super();
+
+        this.socket = Objects.requireNonNull(socket).toAbsolutePath();
+        this.timeToLive = Objects.requireNonNull(timeToLive);
+
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("The time to live must be positive: " + timeToLive);
+        }
+
+        final Path directory = this.socket.getParent();
+
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(DIRECTORY_PERMISSIONS));
+        }
+
+        checkOwnership(this.socket);
+
+        Files.deleteIfExists(this.socket);
+
+        this.serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+
+        try {
+            this.serverChannel.bind(UnixDomainSocketAddress.of(this.socket));
+
+            Files.setPosixFilePermissions(this.socket, PosixFilePermissions.fromString("rw-------"));
+        } catch (final IOException ioe) {
+            this.serverChannel.close();
+
+            throw ioe;
+        }
+    }
+
+    /**
+     * Return the socket named by the environment or, when
+     * it is not set, the default socket for this user: in
+     * the user's runtime directory if there is one, and in
+     * the temporary directory otherwise.
+     *
+     * @return  java.nio.file.Path
+     */
+    public static Path getSocket() {
+        final String socket = System.getenv(SOCKET_ENVIRONMENT_VARIABLE);
+        final String runtimeDirectory = System.getenv(RUNTIME_DIRECTORY_ENVIRONMENT_VARIABLE);
+
+        Path result;
+
+        if (socket != null) {
+            result = Paths.get(socket);
+        } else if (runtimeDirectory != null && !runtimeDirectory.isEmpty()) {
+            result = Paths.get(runtimeDirectory, "aes256-agent", "agent.sock");
+        } else {
+            result = Paths.get(System.getProperty("java.io.tmpdir"), "aes256-agent-" + System.getProperty("user.name"), "agent.sock");
+        }
+
+        return result;
+    }
+
+    /**
+     * Check that the socket's directory is a directory owned
+     * by the current user that only the user can enter, and
+     * that the socket, if it exists, is owned by the user too.
+     * Links are not followed.
+     *
+     * @param   socket  java.nio.file.Path
+     * @throws          java.io.IOException
+     */
+    static void checkOwnership(final Path socket) throws IOException {
+        final UserPrincipal user = FileSystems.getDefault()
+                .getUserPrincipalLookupService()
+                .lookupPrincipalByName(System.getProperty("user.name"));
+        final Path directory = socket.toAbsolutePath().getParent();
+
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)
+                || !user.equals(Files.getOwner(directory, LinkOption.NOFOLLOW_LINKS))
+                || !DIRECTORY_PERMISSIONS.equals(Files.getPosixFilePermissions(directory, LinkOption.NOFOLLOW_LINKS))) {
+            throw new IOException("The key agent directory must be owned by " + user.getName() + " with mode 0700: " + directory);
+        }
+
+        if (Files.exists(socket, LinkOption.NOFOLLOW_LINKS) && !user.equals(Files.getOwner(socket, LinkOption.NOFOLLOW_LINKS))) {
+            throw new IOException("The key agent socket is not owned by " + user.getName() + ": " + socket);
+        }
+    }
+
+    /**
+     * Return the socket of a running agent if there
+     * appears to be one.
+     *
+     * @return  java.util.Optional&lt;java.nio.file.Path&gt;
+     */
+    public static Optional<Path> findSocket() {
+        final Path socket = getSocket();
+
+        return Files.exists(socket) ? Optional.of(socket) : Optional.empty();
+    }
+
+    /**
+     * Accept and serve connections, each on its own virtual
+     * thread, until the agent is closed.
+     *
+     * @throws  java.io.IOException
+     */
+    public void serve() throws IOException {
+        this.logger.entry();
+
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (this.serverChannel.isOpen()) {
+                final SocketChannel channel;
+
+                try {
+                    channel = this.serverChannel.accept();
+                } catch (final ClosedChannelException cce) {
+                    break;
+                }
+
+                executor.submit(() -> this.serve(channel));
+            }
+        }
+
+        this.logger.exit();
+    }
+
+    /**
+     * Return the number of keys held that have not expired.
+     *
+     * @return  int
+     */
+    public int size() {
+        this.removeExpired();
+
+        return this.keys.size();
+    }
+
+    /**
+     * Stop accepting connections, remove the
+     * socket and wipe the keys.
+     *
+     * @throws  java.io.IOException
+     */
+    @Override
+    public void close() throws IOException {
+        this.serverChannel.close();
+
+        Files.deleteIfExists(this.socket);
+
+        this.keys.values().forEach(Key::wipe);
+        this.keys.clear();
+    }
+
+    /**
+     * Serve one request on the channel.
+     *
+     * @param   channel java.nio.channels.SocketChannel
+     */
+    private void serve(final SocketChannel channel) {
+        try (channel) {
+            final UnixDomainPrincipal peer = channel.getOption(ExtendedSocketOptions.SO_PEERCRED);
+
+            if (!peer.user().equals(Files.getOwner(this.socket))) {
+                this.logger.warn("Refused a connection from user {}", peer.user().getName());
+
+                return;
+            }
+
+            final DataInputStream inputStream = new DataInputStream(Channels.newInputStream(channel));
+            final DataOutputStream outputStream = new DataOutputStream(Channels.newOutputStream(channel));
+
+            final int operation = inputStream.readUnsignedByte();
+            final String keyId = inputStream.readUTF();
+
+            this.removeExpired();
+
+            if (operation == GET) {
+                final Key key = this.keys.get(keyId);
+
+                if (key != null) {
+                    outputStream.writeByte(FOUND);
+                    outputStream.writeUTF(key.algorithm);
+                    outputStream.writeInt(key.encoded.length);
+                    outputStream.write(key.encoded);
+                } else {
+                    outputStream.writeByte(NOT_FOUND);
+                }
+            } else if (operation == PUT) {
+                final String algorithm = inputStream.readUTF();
+                final int length = inputStream.readInt();
+
+                if (length < 1 || length > MAXIMUM_KEY_SIZE) {
+                    throw new IOException("Invalid key length: " + length);
+                }
+
+                final Key key = new Key(algorithm, inputStream.readNBytes(length), System.nanoTime() + this.timeToLive.toNanos());
+                final Key previous = this.keys.put(keyId, key);
+
+                if (previous != null) {
+                    previous.wipe();
+                }
+
+                outputStream.writeByte(FOUND);
+            } else {
+                throw new IOException("Unknown operation: " + operation);
+            }
+
+            outputStream.flush();
+        } catch (final IOException ioe) {
+            this.logger.catching(ioe);
+        }
+    }
+
+    /**
+     * Remove and wipe the keys that have expired.
+     */
+    private void removeExpired() {
+        final long now = System.nanoTime();
+
+        this.keys.entrySet().removeIf(entry -> {
+            final boolean expired = entry.getValue().expires - now <= 0;
+
+            if (expired) {
+                entry.getValue().wipe();
+            }
+
+            return expired;
+        });
+    }
+
+    /**
+     * A key held by the agent.
+     */
+    private static final class Key {
+        /** The key algorithm. */
+        private final String algorithm;
+
+        /** The encoded key. */
+        private final byte[] encoded;
+
+        /** The time the key expires in nanoseconds. */
+        private final long expires;
+
+        /**
+         * A constructor that takes all the fields.
+         *
+         * @param   algorithm   java.lang.String
+         * @param   encoded     byte[]
+         * @param   expires     long
+         */
+        private Key(final String algorithm, final byte[] encoded, final long expires) {
+            super();
+
+            this.algorithm = algorithm;
+            this.encoded = encoded;
+            this.expires = expires;
+        }
+
+        /**
+         * Overwrite the encoded key.
+         */
+        private void wipe() {
+            Arrays.fill(this.encoded, (byte) 0);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)KeyAgentClient.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+
+import net.jmp.aes256.input.Options;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * The client side of the key agent. An agent that cannot
+ * be reached is treated as one that holds no keys, so the
+ * key is derived as though there were no agent. So is one
+ * whose socket or directory is not owned by the current
+ * user, since no key may be sent to another user's socket.
+ */
+final class KeyAgentClient {
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The socket path. */
+    private final Path socket;
+
+    /**
+     * The default constructor.
+     */
+    private KeyAgentClient() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the socket path.
+     *
+     * @param   socket  java.nio.file.Path
+     */
+    KeyAgentClient(final Path socket) {
+        super();
+
+        this.socket = Objects.requireNonNull(socket);
+    }
+
+    /**
+     * Return the key for the user and key derivation settings
+     * from the agent named in the options. When the agent does
+     * not hold it, the password is taken from the options, or
+     * prompted for through the options' password supplier, and
+     * passed to the deriver. Without an agent the deriver is
+     * always used.
+     *
+     * <p>A derived key is not given to the agent here, since
+     * nothing yet shows that the password was typed correctly.
+     * Decryption commits the pending key only when a check with
+     * real integrity accepted it: unwrapping a recipient table,
+     * the magic of an archive or the decrypted chunk manifest.
+     * Strings and other files prove nothing beyond valid padding,
+     * which a wrong key produces about one time in 256, so they
+     * never commit, and neither does encryption. A mistyped
+     * password can therefore not be cached and used to write
+     * files the real password cannot open.
+     *
+     * @param   options     net.jmp.aes256.input.Options
+     * @param   keyConfig   net.jmp.aes256.config.Config
+     * @param   deriver     net.jmp.aes256.crypto.AsyncOperation.CryptographyFunction&lt;java.lang.String, javax.crypto.spec.SecretKeySpec&gt;
+     * @return              net.jmp.aes256.crypto.KeyAgentClient.PendingKey
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     */
+    static PendingKey getOrDerive(final Options options,
+                                  final Config keyConfig,
+                                  final AsyncOperation.CryptographyFunction<String, SecretKeySpec> deriver) throws CryptographyException {
+        if (options.getKeyAgent() == null) {
+            return new PendingKey(deriver.apply(options.getPassword()), null, null);
+        }
+
+        final KeyAgentClient keyAgentClient = new KeyAgentClient(Paths.get(options.getKeyAgent()));
+        final String keyId = options.getUserId() + '\n' + keyConfig.getKeyDerivationSettings();
+        final Optional<SecretKeySpec> cached = keyAgentClient.get(keyId);
+
+        PendingKey pendingKey;
+
+        if (cached.isPresent()) {
+            pendingKey = new PendingKey(cached.get(), null, null);
+        } else {
+            if (options.getPassword() == null && options.getPasswordSupplier() != null) {
+                options.setPassword(options.getPasswordSupplier().get());
+            }
+
+            if (options.getPassword() == null) {
+                throw new CryptographyException("No password was supplied");
+            }
+
+            pendingKey = new PendingKey(deriver.apply(options.getPassword()), keyAgentClient, keyId);
+        }
+
+        return pendingKey;
+    }
+
+    /**
+     * Return the key held by the agent under the key id.
+     *
+     * @param   keyId   java.lang.String
+     * @return          java.util.Optional&lt;javax.crypto.spec.SecretKeySpec&gt;
+     */
+    Optional<SecretKeySpec> get(final String keyId) {
+        Optional<SecretKeySpec> result = Optional.empty();
+
+        try (final SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            KeyAgent.checkOwnership(this.socket);
+
+            channel.connect(UnixDomainSocketAddress.of(this.socket));
+
+            final DataOutputStream outputStream = new DataOutputStream(Channels.newOutputStream(channel));
+
+            outputStream.writeByte(KeyAgent.GET);
+            outputStream.writeUTF(keyId);
+            outputStream.flush();
+
+            final DataInputStream inputStream = new DataInputStream(Channels.newInputStream(channel));
+
+            if (inputStream.readUnsignedByte() == KeyAgent.FOUND) {
+                final String algorithm = inputStream.readUTF();
+                final int length = inputStream.readInt();
+
+                if (length < 1 || length > KeyAgent.MAXIMUM_KEY_SIZE) {
+                    throw new IOException("Invalid key length: " + length);
+                }
+
+                result = Optional.of(new SecretKeySpec(inputStream.readNBytes(length), algorithm));
+            }
+        } catch (final IOException ioe) {
+            this.logger.warn("Unable to reach the key agent at {}: {}", this.socket, ioe.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * Give the key to the agent to hold under the key id.
+     *
+     * @param   keyId           java.lang.String
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     */
+    void put(final String keyId, final SecretKeySpec secretKeySpec) {
+        try (final SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            KeyAgent.checkOwnership(this.socket);
+
+            channel.connect(UnixDomainSocketAddress.of(this.socket));
+
+            final DataOutputStream outputStream = new DataOutputStream(Channels.newOutputStream(channel));
+            final byte[] encoded = secretKeySpec.getEncoded();
+
+            outputStream.writeByte(KeyAgent.PUT);
+            outputStream.writeUTF(keyId);
+            outputStream.writeUTF(secretKeySpec.getAlgorithm());
+            outputStream.writeInt(encoded.length);
+            outputStream.write(encoded);
+            outputStream.flush();
+
+            new DataInputStream(Channels.newInputStream(channel)).readUnsignedByte();
+        } catch (final IOException ioe) {
+            this.logger.warn("Unable to reach the key agent at {}: {}", this.socket, ioe.getMessage());
+        }
+    }
+
+    /**
+     * A key taken from the agent or derived from a password.
+     * A derived key is only given to the agent when it is
+     * committed.
+     */
+    static final class PendingKey {
+        /** The key. */
+        private final SecretKeySpec secretKeySpec;
+
+        /** The client of the agent to give a derived key to, or null. */
+        private final KeyAgentClient keyAgentClient;
+
+        /** The key id. */
+        private final String keyId;
+
+        /** True once the key has been committed. */
+        private boolean committed;
+
+        /**
+         * A constructor that takes all the fields.
+         *
+         * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+         * @param   keyAgentClient  net.jmp.aes256.crypto.KeyAgentClient
+         * @param   keyId           java.lang.String
+         */
+        private PendingKey(final SecretKeySpec secretKeySpec, final KeyAgentClient keyAgentClient, final String keyId) {
+            super();
+
+            this.secretKeySpec = secretKeySpec;
+            this.keyAgentClient = keyAgentClient;
+            this.keyId = keyId;
+        }
+
+        /**
+         * Return the key.
+         *
+         * @return  javax.crypto.spec.SecretKeySpec
+         */
+        SecretKeySpec getSecretKeySpec() {
+            return this.secretKeySpec;
+        }
+
+        /**
+         * Give a derived key to the agent. Call it only once
+         * a check with real integrity, not merely valid padding,
+         * has accepted the key. A key taken
+         * from the agent, or derived without one, is left alone,
+         * as is a key already committed.
+         */
+        synchronized void commit() {
+            if (this.keyAgentClient != null && !this.committed) {
+                this.keyAgentClient.put(this.keyId, this.secretKeySpec);
+                this.committed = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,576 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)LoadTest.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import java.util.function.Supplier;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.ConfigSnapshot;
+
+import net.jmp.aes256.input.Options;
+
+import net.jmp.aes256.utils.Builder;
+import net.jmp.aes256.utils.Salter;
+import net.jmp.aes256.utils.SecretKeySpecBuilder;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * Drives the encrypt and decrypt paths with synthetic inputs
+ * on a number of concurrent workers for a fixed duration and
+ * reports throughput, latency percentiles and garbage
+ * collection. The inputs, and the order in which each worker
+ * picks them, come from a seed, so two runs with the same seed,
+ * concurrency and configuration do the same kind of work.
+ *
+ * <p>The inputs are many small strings and files of mixed
+ * sizes, each half text that compresses well and half random
+ * bytes. The key is derived once before the clock starts, so
+ * the test measures the cipher and the file I/O; the time the
+ * derivation took is reported separately.
+ *
+ * <p>Each operation takes the snapshot current when it starts,
+ * so a configuration watcher can change the cipher settings of
+ * a running test. The key stays the one derived at the start.
+ */
+public final class LoadTest {
+    /** The user identifier of the synthetic credentials. */
+    static final String USER_ID = "loadtest@localhost";
+
+    /** The password of the synthetic credentials. */
+    static final String PASSWORD = "Synthetic_Load%Test-Input(2026)";
+
+    /** The number of strings. */
+    static final int STRINGS = 1024;
+
+    /** The shortest string. */
+    static final int MINIMUM_STRING_LENGTH = 16;
+
+    /** The longest string. */
+    static final int MAXIMUM_STRING_LENGTH = 1024;
+
+    /** The file sizes. */
+    static final int[] FILE_SIZES = {4 * 1024, 64 * 1024, 1024 * 1024, 8 * 1024 * 1024};
+
+    /** One operation in this many works on a file rather than a string. */
+    static final int FILE_RATIO = 8;
+
+    /** The words that text inputs are made of. */
+    private static final String[] WORDS = {
+            "alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel",
+            "india", "juliett", "kilo", "lima", "mike", "november", "oscar", "papa"
+    };
+
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** Supplies the configuration snapshot for each operation. @since 1.2.0 */
+    private final Supplier<ConfigSnapshot> configSupplier;
+
+    /** The configuration the key is derived with. */
+    private final Config config;
+
+    /** The I/O options shared by every operation. */
+    private final Options options;
+
+    /** The seed. */
+    private final long seed;
+
+    /** The number of concurrent workers. */
+    private final int concurrency;
+
+    /** The duration. */
+    private final Duration duration;
+
+    /** The number of operations that failed. */
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * The default constructor.
+     */
+    private LoadTest() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the configuration snapshot, the
+     * options, the seed, the concurrency and the duration. Only
+     * the I/O options apply.
+     *
+     * @param   configSnapshot  net.jmp.aes256.config.ConfigSnapshot
+     * @param   options         net.jmp.aes256.input.Options
+     * @param   seed            long
+     * @param   concurrency     int
+     * @param   duration        java.time.Duration
+     */
+    public LoadTest(final ConfigSnapshot configSnapshot,
+                    final Options options,
+                    final long seed,
+                    final int concurrency,
+                    final Duration duration) {
+        this(() -> configSnapshot, options, seed, concurrency, duration);
+    }
+
+    /**
+     * A constructor that takes a supplier of the configuration
+     * snapshot, such as a configuration watcher, the options,
+     * the seed, the concurrency and the duration. The supplier
+     * is called for each operation. Only the I/O options apply.
+     *
+     * @param   configSupplier  java.util.function.Supplier&lt;net.jmp.aes256.config.ConfigSnapshot&gt;
+     * @param   options         net.jmp.aes256.input.Options
+     * @param   seed            long
+     * @param   concurrency     int
+     * @param   duration        java.time.Duration
+     * @since                   1.2.0
+     */
+    public LoadTest(final Supplier<ConfigSnapshot> configSupplier,
+                    final Options options,
+                    final long seed,
+                    final int concurrency,
+                    final Duration duration) {
+        super();
+
+        this.configSupplier = Objects.requireNonNull(configSupplier);
+        this.config = Objects.requireNonNull(configSupplier.get()).getConfig();
+        this.options = Objects.requireNonNull(options);
+        this.seed = seed;
+        this.concurrency = concurrency;
+        this.duration = Objects.requireNonNull(duration);
+
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("The concurrency must be at least 1: " + concurrency);
+        }
+
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("The duration must be positive: " + duration);
+        }
+    }
+
+    /**
+     * Write the inputs into the working directory, run the
+     * workers for the duration and return the report.
+     *
+     * @param   directory   java.nio.file.Path
+     * @return              net.jmp.aes256.crypto.LoadTestReport
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     */
+    public LoadTestReport run(final Path directory) throws CryptographyException {
+        this.logger.entry(directory);
+
+        Objects.requireNonNull(directory);
+
+        final Random random = new Random(this.seed);
+        final List<String> strings = createStrings(random);
+        final List<Path> files = this.createFiles(random, directory);
+
+        final long derivationStart = System.nanoTime();
+        final SecretKeySpec secretKeySpec = new SecretKeySpecBuilder(this.config).build(PASSWORD, new Salter(this.config).getSalt(USER_ID));
+        final long derivationNanos = System.nanoTime() - derivationStart;
+
+        final Map<String, long[]> collectionsBefore = collections();
+        final List<Future<Latencies[]>> futures = new ArrayList<>(this.concurrency);
+        final long start = System.nanoTime();
+        final long deadline = start + this.duration.toNanos();
+
+        try (final ExecutorService executor = Executors.newFixedThreadPool(this.concurrency)) {
+            for (int i = 0; i < this.concurrency; i++) {
+                final int worker = i;
+
+                futures.add(executor.submit(() -> this.work(worker, strings, files, secretKeySpec, directory, deadline)));
+            }
+        }
+
+        final long elapsedNanos = System.nanoTime() - start;
+        final Map<String, long[]> collectionsAfter = collections();
+
+        /* Merge the latencies of the workers */
+
+        final Latencies[] merged = Latencies.of();
+
+        for (final Future<Latencies[]> future : futures) {
+            try {
+                final Latencies[] latencies = future.get();
+
+                for (final Kind kind : Kind.values()) {
+                    merged[kind.ordinal()].addAll(latencies[kind.ordinal()]);
+                }
+            } catch (final ExecutionException ee) {
+                throw new CryptographyException("Load test worker failed", ee.getCause());
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+
+                throw new CryptographyException("Interrupted waiting for a load test worker", ie);
+            }
+        }
+
+        final List<LoadTestReport.Operation> operations = new ArrayList<>();
+
+        for (final Kind kind : Kind.values()) {
+            final Latencies latencies = merged[kind.ordinal()];
+
+            operations.add(new LoadTestReport.Operation(kind.getName(), latencies.bytes, elapsedNanos, latencies.sorted()));
+        }
+
+        final List<LoadTestReport.Collector> collectors = new ArrayList<>();
+
+        collectionsAfter.forEach((name, after) -> {
+            final long[] before = collectionsBefore.getOrDefault(name, new long[2]);
+
+            collectors.add(new LoadTestReport.Collector(name, after[0] - before[0], after[1] - before[1]));
+        });
+
+        final LoadTestReport report = new LoadTestReport(
+                this.seed,
+                this.concurrency,
+                elapsedNanos,
+                derivationNanos,
+                this.errors.get(),
+                operations,
+                collectors
+        );
+
+        this.logger.exit();
+
+        return report;
+    }
+
+    /**
+     * Run one worker until the deadline, returning
+     * its latencies indexed by kind of operation.
+     *
+     * @param   worker          int
+     * @param   strings         java.util.List&lt;java.lang.String&gt;
+     * @param   files           java.util.List&lt;java.nio.file.Path&gt;
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @param   directory       java.nio.file.Path
+     * @param   deadline        long
+     * @return                  net.jmp.aes256.crypto.LoadTest.Latencies[]
+     */
+    private Latencies[] work(final int worker,
+                             final List<String> strings,
+                             final List<Path> files,
+                             final SecretKeySpec secretKeySpec,
+                             final Path directory,
+                             final long deadline) {
+        final Random random = new Random(this.seed + worker + 1);
+        final Latencies[] latencies = Latencies.of();
+        final Path encrypted = directory.resolve("worker-" + worker + ".aes");
+        final Path decrypted = directory.resolve("worker-" + worker + ".out");
+
+        while (System.nanoTime() < deadline) {
+            final ConfigSnapshot configSnapshot = this.configSupplier.get();
+
+            try {
+                if (random.nextInt(FILE_RATIO) == 0) {
+                    final Path file = files.get(random.nextInt(files.size()));
+                    final long size = Files.size(file);
+
+                    long start = System.nanoTime();
+
+                    Encrypter.of(configSnapshot, this.options(null, file, encrypted)).encrypt(secretKeySpec);
+
+                    latencies[Kind.ENCRYPT_FILE.ordinal()].add(System.nanoTime() - start, size);
+
+                    start = System.nanoTime();
+
+                    Decrypter.of(configSnapshot, this.options(null, encrypted, decrypted)).decrypt(secretKeySpec);
+
+                    latencies[Kind.DECRYPT_FILE.ordinal()].add(System.nanoTime() - start, Files.size(encrypted));
+                } else {
+                    final String string = strings.get(random.nextInt(strings.size()));
+
+                    long start = System.nanoTime();
+
+                    final String cipherText = Encrypter.of(configSnapshot, this.options(string, null, null))
+                            .encrypt(secretKeySpec)
+                            .orElseThrow();
+
+                    latencies[Kind.ENCRYPT_STRING.ordinal()].add(System.nanoTime() - start, string.length());
+
+                    start = System.nanoTime();
+
+                    final String plainText = Decrypter.of(configSnapshot, this.options(cipherText, null, null))
+                            .decrypt(secretKeySpec)
+                            .orElseThrow();
+
+                    latencies[Kind.DECRYPT_STRING.ordinal()].add(System.nanoTime() - start, cipherText.length());
+
+                    if (!string.equals(plainText)) {
+                        throw new CryptographyException("Decrypted string does not match the original");
+                    }
+                }
+            } catch (final CryptographyException | IOException e) {
+                this.errors.incrementAndGet();
+                this.logger.catching(e);
+            }
+        }
+
+        return latencies;
+    }
+
+    /**
+     * Return the options for one operation, carrying
+     * the shared I/O options.
+     *
+     * @param   string  java.lang.String
+     * @param   input   java.nio.file.Path
+     * @param   output  java.nio.file.Path
+     * @return          net.jmp.aes256.input.Options
+     */
+    private Options options(final String string, final Path input, final Path output) {
+        return Builder.of(Options::new)
+                .with(Options::setString, string)
+                .with(Options::setInputFile, input == null ? null : input.toString())
+                .with(Options::setOutputFile, output == null ? null : output.toString())
+                .with(Options::setDirectIo, this.options.isDirectIo())
+                .with(Options::setDurability, this.options.getDurability())
+                .with(Options::setIoEngine, this.options.getIoEngine())
+                .with(Options::setQueueDepth, this.options.getQueueDepth())
+                .build();
+    }
+
+    /**
+     * Create the strings, alternating text and random characters.
+     *
+     * @param   random  java.util.Random
+     * @return          java.util.List&lt;java.lang.String&gt;
+     */
+    static List<String> createStrings(final Random random) {
+        final List<String> strings = new ArrayList<>(STRINGS);
+
+        for (int i = 0; i < STRINGS; i++) {
+            final int length = MINIMUM_STRING_LENGTH + random.nextInt(MAXIMUM_STRING_LENGTH - MINIMUM_STRING_LENGTH + 1);
+            final StringBuilder sb = new StringBuilder(length + 16);
+
+            while (sb.length() < length) {
+                if (i % 2 == 0) {
+                    sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+                } else {
+                    sb.append((char) (' ' + random.nextInt('~' - ' ' + 1)));
+                }
+            }
+
+            strings.add(sb.substring(0, length));
+        }
+
+        return strings;
+    }
+
+    /**
+     * Write a text and a random file of each size
+     * into the directory and return their paths.
+     *
+     * @param   random      java.util.Random
+     * @param   directory   java.nio.file.Path
+     * @return              java.util.List&lt;java.nio.file.Path&gt;
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     */
+    private List<Path> createFiles(final Random random, final Path directory) throws CryptographyException {
+        final List<Path> files = new ArrayList<>(FILE_SIZES.length * 2);
+
+        try {
+            for (final int size : FILE_SIZES) {
+                final byte[] text = new byte[size];
+                final byte[] bytes = new byte[size];
+
+                for (int i = 0; i < size; ) {
+                    final byte[] word = (WORDS[random.nextInt(WORDS.length)] + ' ').getBytes(StandardCharsets.US_ASCII);
+                    final int length = Math.min(word.length, size - i);
+
+                    System.arraycopy(word, 0, text, i, length);
+
+                    i += length;
+                }
+
+                random.nextBytes(bytes);
+
+                files.add(Files.write(directory.resolve("text-" + size + ".bin"), text));
+                files.add(Files.write(directory.resolve("random-" + size + ".bin"), bytes));
+            }
+        } catch (final IOException ioe) {
+            throw new CryptographyException("Unable to write the load test inputs: " + directory, ioe);
+        }
+
+        return files;
+    }
+
+    /**
+     * Return the collection count and time of each garbage collector.
+     *
+     * @return  java.util.Map&lt;java.lang.String, long[]&gt;
+     */
+    private static Map<String, long[]> collections() {
+        final Map<String, long[]> collections = new LinkedHashMap<>();
+
+        for (final GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections.put(bean.getName(), new long[] {Math.max(bean.getCollectionCount(), 0), Math.max(bean.getCollectionTime(), 0)});
+        }
+
+        return collections;
+    }
+
+    /**
+     * The kinds of operation.
+     */
+    private enum Kind {
+        ENCRYPT_STRING("encrypt-string"),
+        DECRYPT_STRING("decrypt-string"),
+        ENCRYPT_FILE("encrypt-file"),
+        DECRYPT_FILE("decrypt-file");
+
+        /** The name in the report. */
+        private final String name;
+
+        /**
+         * A constructor that takes the name.
+         *
+         * @param   name    java.lang.String
+         */
+        Kind(final String name) {
+            this.name = name;
+        }
+
+        /**
+         * Return the name.
+         *
+         * @return  java.lang.String
+         */
+        String getName() {
+            return this.name;
+        }
+    }
+
+    /**
+     * The latencies and input bytes of one kind of operation.
+     * Each worker has its own, so they need no locking.
+     */
+    private static final class Latencies {
+        /** The latencies in nanoseconds. */
+        private long[] values = new long[1024];
+
+        /** The number of latencies. */
+        private int size;
+
+        /** The number of input bytes. */
+        private long bytes;
+
+        /**
+         * Return one instance for each kind of operation.
+         *
+         * @return  net.jmp.aes256.crypto.LoadTest.Latencies[]
+         */
+        private static Latencies[] of() {
+            final Latencies[] latencies = new Latencies[Kind.values().length];
+
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new Latencies();
+            }
+
+            return latencies;
+        }
+
+        /**
+         * Add a latency and the input bytes of its operation.
+         *
+         * @param   nanos   long
+         * @param   bytes   long
+         */
+        private void add(final long nanos, final long bytes) {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+
+            this.values[this.size++] = nanos;
+            this.bytes += bytes;
+        }
+
+        /**
+         * Add all the latencies and bytes of another instance.
+         *
+         * @param   other   net.jmp.aes256.crypto.LoadTest.Latencies
+         */
+        private void addAll(final Latencies other) {
+            if (this.size + other.size > this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size + other.size);
+            }
+
+            System.arraycopy(other.values, 0, this.values, this.size, other.size);
+
+            this.size += other.size;
+            this.bytes += other.bytes;
+        }
+
+        /**
+         * Return the latencies in ascending order.
+         *
+         * @return  long[]
+         */
+        private long[] sorted() {
+            final long[] sorted = Arrays.copyOf(this.values, this.size);
+
+            Arrays.sort(sorted);
+
+            return sorted;
+        }
+    }
+}
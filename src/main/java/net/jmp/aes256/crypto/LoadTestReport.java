@@ -0,0 +1,412 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)LoadTestReport.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * The result of a load test: throughput and latency
+ * percentiles for each operation and the work done by
+ * each garbage collector while the test ran.
+ */
+public final class LoadTestReport {
+    /** The seed of the synthetic inputs. */
+    @SerializedName("seed")
+    private final long seed;
+
+    /** The number of concurrent workers. */
+    @SerializedName("concurrency")
+    private final int concurrency;
+
+    /** The elapsed time in seconds. */
+    @SerializedName("elapsed-seconds")
+    private final double elapsedSeconds;
+
+    /** The time taken to derive the key in milliseconds. */
+    @SerializedName("key-derivation-millis")
+    private final double keyDerivationMillis;
+
+    /** The number of operations that failed. */
+    @SerializedName("errors")
+    private final long errors;
+
+    /** The operations. */
+    @SerializedName("operations")
+    private final List<Operation> operations;
+
+    /** The garbage collectors. */
+    @SerializedName("garbage-collectors")
+    private final List<Collector> garbageCollectors;
+
+    /** The garbage collection time as a percentage of the elapsed time. */
+    @SerializedName("gc-time-percent")
+    private final double gcTimePercent;
+
+    /**
+     * The default constructor.
+     */
+    private LoadTestReport() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes all the results.
+     *
+     * @param   seed                long
+     * @param   concurrency         int
+     * @param   elapsedNanos        long
+     * @param   keyDerivationNanos  long
+     * @param   errors              long
+     * @param   operations          java.util.List&lt;net.jmp.aes256.crypto.LoadTestReport.Operation&gt;
+     * @param   garbageCollectors   java.util.List&lt;net.jmp.aes256.crypto.LoadTestReport.Collector&gt;
+     */
+    LoadTestReport(final long seed,
+                   final int concurrency,
+                   final long elapsedNanos,
+                   final long keyDerivationNanos,
+                   final long errors,
+                   final List<Operation> operations,
+                   final List<Collector> garbageCollectors) {
+        super();
+
+        this.seed = seed;
+        this.concurrency = concurrency;
+        this.elapsedSeconds = elapsedNanos / 1e9;
+        this.keyDerivationMillis = keyDerivationNanos / 1e6;
+        this.errors = errors;
+        this.operations = List.copyOf(operations);
+        this.garbageCollectors = List.copyOf(garbageCollectors);
+        this.gcTimePercent = elapsedNanos == 0
+                ? 0
+                : 100.0 * garbageCollectors.stream().mapToLong(Collector::getTimeMillis).sum() * 1e6 / elapsedNanos;
+    }
+
+    /**
+     * Return the seed.
+     *
+     * @return  long
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Return the concurrency.
+     *
+     * @return  int
+     */
+    public int getConcurrency() {
+        return this.concurrency;
+    }
+
+    /**
+     * Return the elapsed time in seconds.
+     *
+     * @return  double
+     */
+    public double getElapsedSeconds() {
+        return this.elapsedSeconds;
+    }
+
+    /**
+     * Return the key derivation time in milliseconds.
+     *
+     * @return  double
+     */
+    public double getKeyDerivationMillis() {
+        return this.keyDerivationMillis;
+    }
+
+    /**
+     * Return the number of operations that failed.
+     *
+     * @return  long
+     */
+    public long getErrors() {
+        return this.errors;
+    }
+
+    /**
+     * Return the operations.
+     *
+     * @return  java.util.List&lt;net.jmp.aes256.crypto.LoadTestReport.Operation&gt;
+     */
+    public List<Operation> getOperations() {
+        return this.operations;
+    }
+
+    /**
+     * Return the garbage collectors.
+     *
+     * @return  java.util.List&lt;net.jmp.aes256.crypto.LoadTestReport.Collector&gt;
+     */
+    public List<Collector> getGarbageCollectors() {
+        return this.garbageCollectors;
+    }
+
+    /**
+     * Return the garbage collection time
+     * as a percentage of the elapsed time.
+     *
+     * @return  double
+     */
+    public double getGcTimePercent() {
+        return this.gcTimePercent;
+    }
+
+    /**
+     * The throughput and latency of one operation.
+     */
+    public static final class Operation {
+        /** The operation name. */
+        @SerializedName("name")
+        private final String name;
+
+        /** The number of operations. */
+        @SerializedName("count")
+        private final long count;
+
+        /** The number of input bytes. */
+        @SerializedName("bytes")
+        private final long bytes;
+
+        /** The operations per second. */
+        @SerializedName("operations-per-second")
+        private final double operationsPerSecond;
+
+        /** The input mebibytes per second. */
+        @SerializedName("mib-per-second")
+        private final double mibPerSecond;
+
+        /** The median latency in milliseconds. */
+        @SerializedName("p50-millis")
+        private final double p50Millis;
+
+        /** The 99th percentile latency in milliseconds. */
+        @SerializedName("p99-millis")
+        private final double p99Millis;
+
+        /** The 99.9th percentile latency in milliseconds. */
+        @SerializedName("p999-millis")
+        private final double p999Millis;
+
+        /** The maximum latency in milliseconds. */
+        @SerializedName("maximum-millis")
+        private final double maximumMillis;
+
+        /**
+         * A constructor that takes the name, the byte count,
+         * the elapsed time and the sorted latencies.
+         *
+         * @param   name            java.lang.String
+         * @param   bytes           long
+         * @param   elapsedNanos    long
+         * @param   latenciesNanos  long[]
+         */
+        Operation(final String name, final long bytes, final long elapsedNanos, final long[] latenciesNanos) {
+            super();
+
+            final double elapsedSeconds = elapsedNanos / 1e9;
+
+            this.name = name;
+            this.count = latenciesNanos.length;
+            this.bytes = bytes;
+            this.operationsPerSecond = elapsedSeconds == 0 ? 0 : this.count / elapsedSeconds;
+            this.mibPerSecond = elapsedSeconds == 0 ? 0 : bytes / (1024.0 * 1024.0) / elapsedSeconds;
+            this.p50Millis = percentile(latenciesNanos, 0.50) / 1e6;
+            this.p99Millis = percentile(latenciesNanos, 0.99) / 1e6;
+            this.p999Millis = percentile(latenciesNanos, 0.999) / 1e6;
+            this.maximumMillis = latenciesNanos.length == 0 ? 0 : latenciesNanos[latenciesNanos.length - 1] / 1e6;
+        }
+
+        /**
+         * Return the value at the percentile of the
+         * sorted values using the nearest rank.
+         *
+         * @param   sorted      long[]
+         * @param   percentile  double
+         * @return              long
+         */
+        static long percentile(final long[] sorted, final double percentile) {
+            long value = 0;
+
+            if (sorted.length > 0) {
+                final int rank = (int) Math.ceil(percentile * sorted.length);
+
+                value = sorted[Math.max(rank, 1) - 1];
+            }
+
+            return value;
+        }
+
+        /**
+         * Return the name.
+         *
+         * @return  java.lang.String
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Return the number of operations.
+         *
+         * @return  long
+         */
+        public long getCount() {
+            return this.count;
+        }
+
+        /**
+         * Return the number of input bytes.
+         *
+         * @return  long
+         */
+        public long getBytes() {
+            return this.bytes;
+        }
+
+        /**
+         * Return the operations per second.
+         *
+         * @return  double
+         */
+        public double getOperationsPerSecond() {
+            return this.operationsPerSecond;
+        }
+
+        /**
+         * Return the input mebibytes per second.
+         *
+         * @return  double
+         */
+        public double getMibPerSecond() {
+            return this.mibPerSecond;
+        }
+
+        /**
+         * Return the median latency in milliseconds.
+         *
+         * @return  double
+         */
+        public double getP50Millis() {
+            return this.p50Millis;
+        }
+
+        /**
+         * Return the 99th percentile latency in milliseconds.
+         *
+         * @return  double
+         */
+        public double getP99Millis() {
+            return this.p99Millis;
+        }
+
+        /**
+         * Return the 99.9th percentile latency in milliseconds.
+         *
+         * @return  double
+         */
+        public double getP999Millis() {
+            return this.p999Millis;
+        }
+
+        /**
+         * Return the maximum latency in milliseconds.
+         *
+         * @return  double
+         */
+        public double getMaximumMillis() {
+            return this.maximumMillis;
+        }
+    }
+
+    /**
+     * The collections made by one garbage collector.
+     */
+    public static final class Collector {
+        /** The collector name. */
+        @SerializedName("name")
+        private final String name;
+
+        /** The number of collections. */
+        @SerializedName("count")
+        private final long count;
+
+        /** The accumulated collection time in milliseconds. */
+        @SerializedName("time-millis")
+        private final long timeMillis;
+
+        /**
+         * A constructor that takes the name, count and time.
+         *
+         * @param   name        java.lang.String
+         * @param   count       long
+         * @param   timeMillis  long
+         */
+        Collector(final String name, final long count, final long timeMillis) {
+            super();
+
+            this.name = name;
+            this.count = count;
+            this.timeMillis = timeMillis;
+        }
+
+        /**
+         * Return the name.
+         *
+         * @return  java.lang.String
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Return the number of collections.
+         *
+         * @return  long
+         */
+        public long getCount() {
+            return this.count;
+        }
+
+        /**
+         * Return the collection time in milliseconds.
+         *
+         * @return  long
+         */
+        public long getTimeMillis() {
+            return this.timeMillis;
+        }
+    }
+}
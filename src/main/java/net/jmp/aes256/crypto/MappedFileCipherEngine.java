@@ -0,0 +1,233 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)MappedFileCipherEngine.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.security.GeneralSecurityException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.crypto.Cipher;
+
+import net.jmp.aes256.utils.FileCipherEvent;
+import net.jmp.aes256.utils.ProgressMonitor;
+
+/**
+ * The file cipher engine that maps the input and output
+ * files into memory in sliding windows. Each window is
+ * mapped in its own confined arena and unmapped as soon
+ * as it has been processed, so files of any size are
+ * handled with a bounded address space footprint. The
+ * cipher reads from and writes to the mapped segments
+ * directly; no data passes through a heap buffer here.
+ *
+ * <p>The output file grows as windows are mapped past
+ * its end and is truncated to the exact length at the end.
+ */
+final class MappedFileCipherEngine implements FileCipherEngine {
+    /** The default window size. */
+    static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    /** The largest window size. */
+    static final long MAXIMUM_WINDOW_SIZE = 1024L * 1024 * 1024;
+
+    /** The slice of a window handed to the cipher at once. */
+    private static final int SLICE_SIZE = 1024 * 1024;
+
+    /** The window size. */
+    private final long windowSize;
+
+    /**
+     * The default constructor.
+     */
+    MappedFileCipherEngine() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * A constructor that takes the window size.
+     *
+     * @param   windowSize  long
+     */
+    MappedFileCipherEngine(final long windowSize) {
+        super();
+
+        if (windowSize < SLICE_SIZE || windowSize > MAXIMUM_WINDOW_SIZE || windowSize % SLICE_SIZE != 0) {
+            throw new IllegalArgumentException("The window size must be a multiple of " + SLICE_SIZE + " up to " + MAXIMUM_WINDOW_SIZE + ": " + windowSize);
+        }
+
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean transform(final Cipher cipher,
+                             final Path input,
+                             final long inputOffset,
+                             final Path output,
+                             final byte[] prefix,
+                             final ProgressMonitor progressMonitor,
+                             final AtomicBoolean cancelled) throws IOException, GeneralSecurityException {
+        final FileCipherEvent event = new FileCipherEvent();
+
+        event.begin();
+
+        try {
+            return this.transform(cipher, input, inputOffset, output, prefix, progressMonitor, cancelled, event);
+        } finally {
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.setEngine("mapped");
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Transform the input file into the output file,
+     * adding byte counts and phase times to the event.
+     *
+     * @param   cipher          javax.crypto.Cipher
+     * @param   input           java.nio.file.Path
+     * @param   inputOffset     long
+     * @param   output          java.nio.file.Path
+     * @param   prefix          byte[]
+     * @param   progressMonitor net.jmp.aes256.utils.ProgressMonitor
+     * @param   cancelled       java.util.concurrent.atomic.AtomicBoolean
+     * @param   event           net.jmp.aes256.utils.FileCipherEvent
+     * @return                  boolean
+     * @throws                  java.io.IOException
+     * @throws                  java.security.GeneralSecurityException
+     * @since                   1.2.0
+     */
+    private boolean transform(final Cipher cipher,
+                              final Path input,
+                              final long inputOffset,
+                              final Path output,
+                              final byte[] prefix,
+                              final ProgressMonitor progressMonitor,
+                              final AtomicBoolean cancelled,
+                              final FileCipherEvent event) throws IOException, GeneralSecurityException {
+        final boolean timed = event.isEnabled();
+
+        try (final FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ);
+             final FileChannel outputChannel = FileChannel.open(output,
+                     StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.READ,
+                     StandardOpenOption.WRITE)) {
+            final long inputEnd = inputChannel.size();
+
+            if (inputOffset > inputEnd) {
+                throw new IOException("Unable to read beyond offset " + inputOffset + ": " + input);
+            }
+
+            final ByteBuffer prefixBuffer = ByteBuffer.wrap(prefix);
+
+            while (prefixBuffer.hasRemaining()) {
+                outputChannel.write(prefixBuffer, prefixBuffer.position());
+            }
+
+            event.write(prefix.length, 0);
+
+            long inputPosition = inputOffset;
+            long outputPosition = prefix.length;
+
+            progressMonitor.stage(ProgressMonitor.Stage.CIPHER);
+
+            while (inputPosition < inputEnd) {
+                final long length = Math.min(this.windowSize, inputEnd - inputPosition);
+                final long outputLength = cipher.getOutputSize((int) length);
+
+                try (final Arena arena = Arena.ofConfined()) {
+                    final MemorySegment source = inputChannel.map(FileChannel.MapMode.READ_ONLY, inputPosition, length, arena);
+                    final MemorySegment target = outputChannel.map(FileChannel.MapMode.READ_WRITE, outputPosition, outputLength, arena);
+                    final ByteBuffer targetBuffer = target.asByteBuffer();
+
+                    for (long offset = 0; offset < length; offset += SLICE_SIZE) {
+                        if (cancelled.get()) {
+                            return false;
+                        }
+
+                        final long sliceLength = Math.min(SLICE_SIZE, length - offset);
+
+                        final long start = timed ? System.nanoTime() : 0;
+
+                        cipher.update(source.asSlice(offset, sliceLength).asByteBuffer(), targetBuffer);
+
+                        event.cipher(timed ? System.nanoTime() - start : 0);
+
+                        progressMonitor.add(sliceLength);
+                    }
+
+                    outputPosition += targetBuffer.position();
+
+                    event.read(length, 0);
+                    event.write(targetBuffer.position(), 0);
+                }
+
+                inputPosition += length;
+            }
+
+            progressMonitor.stage(ProgressMonitor.Stage.IO);
+
+            final ByteBuffer last = ByteBuffer.allocate(cipher.getOutputSize(0));
+
+            cipher.doFinal(ByteBuffer.allocate(0), last);
+
+            last.flip();
+
+            event.write(last.remaining(), 0);
+
+            while (last.hasRemaining()) {
+                outputPosition += outputChannel.write(last, outputPosition);
+            }
+
+            outputChannel.truncate(outputPosition);
+        }
+
+        return true;
+    }
+}
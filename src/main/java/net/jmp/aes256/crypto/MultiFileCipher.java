@@ -0,0 +1,348 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)MultiFileCipher.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.ConfigSnapshot;
+
+import net.jmp.aes256.input.InputFiles;
+import net.jmp.aes256.input.Options;
+
+import net.jmp.aes256.utils.Builder;
+import net.jmp.aes256.utils.Salter;
+import net.jmp.aes256.utils.SecretKeySpecBuilder;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * Encrypts or decrypts many input files, named on the command
+ * line or matched by glob patterns, on a pool of workers. Each
+ * output is named from the output file template. The key of
+ * the user is derived once and shared by every file; when
+ * decrypting, files written with different key derivation
+ * settings each get their key derived once. One JSON line is
+ * written per file as it completes.
+ *
+ * <p>Without fail fast every file is attempted. With it, files
+ * not yet started when one fails are not started, and reported
+ * as cancelled; files already in progress complete.
+ */
+public final class MultiFileCipher {
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The configuration snapshot. */
+    private final ConfigSnapshot configSnapshot;
+
+    /** The configuration. */
+    private final Config config;
+
+    /** The options. */
+    private final Options options;
+
+    /** The number of workers. */
+    private final int workers;
+
+    /** The keys by key derivation settings. */
+    private final Map<String, KeyAgentClient.PendingKey> keys = new HashMap<>();
+
+    /** The number of files. */
+    private int files;
+
+    /**
+     * The default constructor.
+     */
+    private MultiFileCipher() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the configuration snapshot and
+     * the options. The inputs are the input file names and
+     * patterns of the options and the output file is the
+     * template. The concurrency defaults to one worker per
+     * available processor.
+     *
+     * @param   configSnapshot  net.jmp.aes256.config.ConfigSnapshot
+     * @param   options         net.jmp.aes256.input.Options
+     */
+    public MultiFileCipher(final ConfigSnapshot configSnapshot, final Options options) {
+        super();
+
+        this.configSnapshot = Objects.requireNonNull(configSnapshot);
+        this.config = configSnapshot.getConfig();
+        this.options = Objects.requireNonNull(options);
+        this.workers = options.getConcurrency() > 0 ? options.getConcurrency() : Runtime.getRuntime().availableProcessors();
+
+        Objects.requireNonNull(options.getInputFiles(), "No input files have been provided");
+        Objects.requireNonNull(options.getOutputFile(), "No output file template has been provided");
+
+        if (options.getConcurrency() < 0) {
+            throw new IllegalArgumentException("The concurrency must be positive: " + options.getConcurrency());
+        }
+    }
+
+    /**
+     * Encrypt the input files, writing the status of each
+     * to the print stream. The number of files that could
+     * not be encrypted is returned.
+     *
+     * @param   out java.io.PrintStream
+     * @return      int
+     * @throws      net.jmp.aes256.crypto.CryptographyException
+     */
+    public int encrypt(final PrintStream out) throws CryptographyException {
+        return this.run(true, out);
+    }
+
+    /**
+     * Decrypt the input files, writing the status of each
+     * to the print stream. The number of files that could
+     * not be decrypted is returned.
+     *
+     * @param   out java.io.PrintStream
+     * @return      int
+     * @throws      net.jmp.aes256.crypto.CryptographyException
+     */
+    public int decrypt(final PrintStream out) throws CryptographyException {
+        return this.run(false, out);
+    }
+
+    /**
+     * Return the number of files in the last run.
+     *
+     * @return  int
+     */
+    public int getFiles() {
+        return this.files;
+    }
+
+    /**
+     * Return the number of keys derived so far.
+     *
+     * @return  int
+     */
+    public synchronized int getDerivations() {
+        return this.keys.size();
+    }
+
+    /**
+     * Expand the inputs, name their outputs and
+     * transform them on the workers.
+     *
+     * @param   encrypting  boolean
+     * @param   out         java.io.PrintStream
+     * @return              int
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     */
+    private int run(final boolean encrypting, final PrintStream out) throws CryptographyException {
+        this.logger.entry(encrypting, out);
+
+        Objects.requireNonNull(out);
+
+        List<Path> inputs;
+
+        try {
+            inputs = InputFiles.expand(this.options.getInputFiles());
+        } catch (final IOException ioe) {
+            throw new CryptographyException(ioe.getMessage(), ioe);
+        }
+
+        /* Two inputs must never write the same output */
+
+        final Map<Path, Path> outputs = new LinkedHashMap<>();
+        final Set<Path> seen = new HashSet<>();
+
+        for (final Path input : inputs) {
+            final Path output = InputFiles.output(this.options.getOutputFile(), input);
+
+            if (!seen.add(output.toAbsolutePath().normalize())) {
+                throw new CryptographyException("More than one input file would be written to: " + output);
+            }
+
+            if (output.toAbsolutePath().normalize().equals(input.toAbsolutePath().normalize())) {
+                throw new CryptographyException("The output file would overwrite its input: " + input);
+            }
+
+            outputs.put(input, output);
+        }
+
+        this.files = outputs.size();
+
+        final Gson gson = new Gson();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicBoolean failed = new AtomicBoolean();
+
+        try (final ExecutorService executor = Executors.newFixedThreadPool(this.workers)) {
+            outputs.forEach((input, output) -> executor.submit(() -> {
+                final Map<String, Object> status = this.transform(encrypting, input, output, failed);
+
+                if ("failed".equals(status.get("status"))) {
+                    failures.incrementAndGet();
+                    failed.set(true);
+                }
+
+                synchronized (out) {
+                    out.println(gson.toJson(status));
+                }
+            }));
+        }
+
+        this.logger.exit(failures.get());
+
+        return failures.get();
+    }
+
+    /**
+     * Transform one file and return its status.
+     *
+     * @param   encrypting  boolean
+     * @param   input       java.nio.file.Path
+     * @param   output      java.nio.file.Path
+     * @param   failed      java.util.concurrent.atomic.AtomicBoolean
+     * @return              java.util.Map&lt;java.lang.String, java.lang.Object&gt;
+     */
+    private Map<String, Object> transform(final boolean encrypting, final Path input, final Path output, final AtomicBoolean failed) {
+        final long start = System.nanoTime();
+        final Map<String, Object> status = new LinkedHashMap<>();
+
+        status.put("input-file", input.toString());
+        status.put("output-file", output.toString());
+
+        try {
+            if (this.options.isFailFast() && failed.get()) {
+                status.put("status", "cancelled");
+            } else {
+                if (!Files.isRegularFile(input)) {
+                    throw new CryptographyException("Input file does not exist");
+                }
+
+                final Options fileOptions = Builder.of(Options::new)
+                        .with(Options::setInputFile, input.toString())
+                        .with(Options::setOutputFile, output.toString())
+                        .with(Options::setUserId, this.options.getUserId())
+                        .with(Options::setArmor, this.options.isArmor())
+                        .with(Options::setDirectIo, this.options.isDirectIo())
+                        .with(Options::setDurability, this.options.getDurability())
+                        .with(Options::setIoEngine, this.options.getIoEngine())
+                        .with(Options::setQueueDepth, this.options.getQueueDepth())
+                        .with(Options::setResume, this.options.isResume())
+                        .build();
+
+                if (encrypting) {
+                    Encrypter.of(this.configSnapshot, fileOptions).encrypt(this.deriveKey(this.config).getSecretKeySpec());
+                } else {
+                    final AtomicReference<KeyAgentClient.PendingKey> pendingKey = new AtomicReference<>();
+
+                    final boolean verified = Decrypter.of(this.configSnapshot, fileOptions).decryptFile(keyConfig -> {
+                        pendingKey.set(this.deriveKey(keyConfig));
+
+                        return pendingKey.get().getSecretKeySpec();
+                    });
+
+                    /* Only a key verified by the recipient table is given to the key agent */
+
+                    if (verified) {
+                        pendingKey.get().commit();
+                    }
+                }
+
+                status.put("status", "ok");
+            }
+        } catch (final CryptographyException | RuntimeException e) {
+            this.logger.catching(e);
+
+            status.put("status", "failed");
+            status.put("error", e.getMessage());
+        }
+
+        status.put("millis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        return status;
+    }
+
+    /**
+     * Return the key for the key derivation settings,
+     * deriving it, or taking it from the key agent, if
+     * no other worker has. Workers that need a key wait
+     * here while it is derived, and the password is only
+     * ever prompted for by one of them.
+     *
+     * @param   keyConfig   net.jmp.aes256.config.Config
+     * @return              net.jmp.aes256.crypto.KeyAgentClient.PendingKey
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     */
+    private synchronized KeyAgentClient.PendingKey deriveKey(final Config keyConfig) throws CryptographyException {
+        final String settings = keyConfig.getKeyDerivationSettings();
+
+        KeyAgentClient.PendingKey pendingKey = this.keys.get(settings);
+
+        if (pendingKey == null) {
+            pendingKey = KeyAgentClient.getOrDerive(this.options, keyConfig, password -> {
+                final String salt = new Salter(this.config).getSalt(this.options.getUserId());
+
+                return new SecretKeySpecBuilder(keyConfig).build(password, salt);
+            });
+
+            this.keys.put(settings, pendingKey);
+        }
+
+        return pendingKey;
+    }
+}
@@ -0,0 +1,159 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)OutputFiles.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Utilities for writing output through a temporary
+ * file that is atomically renamed over the target.
+ */
+final class OutputFiles {
+    /**
+     * The default constructor.
+     */
+    private OutputFiles() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * Create and return an empty temporary file in the
+     * same directory as the target so that the rename
+     * never crosses a file system.
+     *
+     * @param   target  java.nio.file.Path
+     * @return          java.nio.file.Path
+     * @throws          java.io.IOException
+     */
+    static Path createTemporaryFile(final Path target) throws IOException {
+        return Files.createTempFile(directoryOf(target), "." + target.getFileName() + ".", ".tmp");
+    }
+
+    /**
+     * Commit the temporary file as the target according to
+     * the durability. The temporary file no longer exists
+     * when this method returns normally.
+     *
+     * @param   temporary   java.nio.file.Path
+     * @param   target      java.nio.file.Path
+     * @param   durability  net.jmp.aes256.crypto.Durability
+     * @throws              java.io.IOException
+     */
+    static void commit(final Path temporary, final Path target, final Durability durability) throws IOException {
+        switch (durability) {
+            case NONE -> move(temporary, target);
+            case FILE -> {
+                force(temporary);
+                move(temporary, target);
+                forceDirectory(directoryOf(target));
+            }
+            case GROUP -> {
+                force(temporary);
+
+                try {
+                    GroupCommitter.shared().commit(temporary, target).join();
+                } catch (final CompletionException ce) {
+                    if (ce.getCause() instanceof IOException ioe) {
+                        throw ioe;
+                    }
+
+                    throw ce;
+                }
+            }
+        }
+    }
+
+    /**
+     * Atomically rename the temporary file over the target.
+     *
+     * @param   temporary   java.nio.file.Path
+     * @param   target      java.nio.file.Path
+     * @throws              java.io.IOException
+     */
+    static void move(final Path temporary, final Path target) throws IOException {
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Force the contents and metadata of a file to disk.
+     *
+     * @param   file    java.nio.file.Path
+     * @throws          java.io.IOException
+     */
+    static void force(final Path file) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Force a directory so that a rename within it is
+     * durable. Platforms that cannot open a directory
+     * for syncing are ignored.
+     *
+     * @param   directory   java.nio.file.Path
+     * @throws              java.io.IOException
+     */
+    static void forceDirectory(final Path directory) throws IOException {
+        final FileChannel channel;
+
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (final IOException ioe) {
+            return;     // Directories cannot be opened on Windows
+        }
+
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Return the directory holding the file.
+     *
+     * @param   file    java.nio.file.Path
+     * @return          java.nio.file.Path
+     */
+    static Path directoryOf(final Path file) {
+        final Path parent = file.toAbsolutePath().getParent();
+
+        return parent != null ? parent : file.toAbsolutePath().getRoot();
+    }
+}
@@ -0,0 +1,432 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)RecipientTable.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.ByteBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.crypto.Cipher;
+
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * The table of recipients of a file encrypted for many users.
+ * The file data is encrypted once under a random data key and
+ * the table holds one copy of that key per recipient, wrapped
+ * under the key derived from the recipient's user identifier
+ * and password.
+ *
+ * <p>Each slot is found by a tag, a digest of the user
+ * identifier and a random nonce, so the table does not name
+ * its recipients. The slots form a hash table indexed by the
+ * tag with linear probing into an overflow area that never
+ * wraps, so a recipient's slot is found with a few reads
+ * that only move forward through the file.
+ *
+ * <p>The layout, in big-endian order, is:
+ * <pre>
+ *   magic                  8 bytes  "AES256RT"
+ *   nonce                 16 bytes
+ *   capacity               4 bytes  a power of two
+ *   recipients             4 bytes
+ *   wrapped key size       4 bytes
+ *   slots                           capacity + recipients of them
+ *     tag                 16 bytes  zero for an empty slot
+ *     wrapped key                   the wrapped key size
+ * </pre>
+ */
+final class RecipientTable {
+    /** The key wrapping algorithm. */
+    static final String WRAP_ALGORITHM = "AESWrap";
+
+    /** The magic bytes. */
+    private static final byte[] MAGIC = "AES256RT".getBytes(StandardCharsets.US_ASCII);
+
+    /** The nonce size in bytes. */
+    private static final int NONCE_SIZE = 16;
+
+    /** The tag size in bytes. */
+    private static final int TAG_SIZE = 16;
+
+    /** The size of the fields before the slots in bytes. */
+    private static final int PREAMBLE_SIZE = MAGIC.length + NONCE_SIZE + 3 * Integer.BYTES;
+
+    /** The largest number of recipients. */
+    static final int MAXIMUM_RECIPIENTS = 1 << 16;
+
+    /** The capacity of a table with the largest number of recipients. */
+    private static final int MAXIMUM_CAPACITY = Integer.highestOneBit(2 * MAXIMUM_RECIPIENTS - 1) << 1;
+
+    /** The nonce. */
+    private final byte[] nonce;
+
+    /** The capacity of the hash table. */
+    private final int capacity;
+
+    /** The number of recipients. */
+    private final int recipients;
+
+    /** The wrapped key size in bytes. */
+    private final int wrappedKeySize;
+
+    /** The tags by slot. */
+    private final byte[][] tags;
+
+    /** The wrapped keys by slot. */
+    private final byte[][] wrappedKeys;
+
+    /**
+     * The default constructor.
+     */
+    private RecipientTable() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the nonce, the number of
+     * recipients and the size of the keys to be wrapped.
+     *
+     * @param   nonce       byte[]
+     * @param   recipients  int
+     * @param   keySize     int
+     */
+    private RecipientTable(final byte[] nonce, final int recipients, final int keySize) {
+        super();
+
+        this.nonce = nonce;
+        this.capacity = Integer.highestOneBit(recipients * 2 - 1) << 1;
+        this.recipients = recipients;
+        this.wrappedKeySize = keySize + 8;      // The RFC 3394 integrity check value
+        this.tags = new byte[this.capacity + recipients][];
+        this.wrappedKeys = new byte[this.capacity + recipients][];
+    }
+
+    /**
+     * Create an empty table for the number of recipients
+     * and keys of the given size in bytes.
+     *
+     * @param   recipients  int
+     * @param   keySize     int
+     * @return              net.jmp.aes256.crypto.RecipientTable
+     */
+    static RecipientTable of(final int recipients, final int keySize) {
+        if (recipients < 1 || recipients > MAXIMUM_RECIPIENTS) {
+            throw new IllegalArgumentException("The number of recipients must be from 1 to " + MAXIMUM_RECIPIENTS + ": " + recipients);
+        }
+
+        final byte[] nonce = new byte[NONCE_SIZE];
+
+        new SecureRandom().nextBytes(nonce);
+
+        return new RecipientTable(nonce, recipients, keySize);
+    }
+
+    /**
+     * Wrap the data key under the recipient's key and
+     * store it in the recipient's slot.
+     *
+     * @param   userId              java.lang.String
+     * @param   keyEncryptionKey    javax.crypto.spec.SecretKeySpec
+     * @param   dataKey             javax.crypto.spec.SecretKeySpec
+     * @throws                      net.jmp.aes256.crypto.CryptographyException
+     */
+    void add(final String userId, final SecretKeySpec keyEncryptionKey, final SecretKeySpec dataKey) throws CryptographyException {
+        Objects.requireNonNull(userId);
+        Objects.requireNonNull(keyEncryptionKey);
+        Objects.requireNonNull(dataKey);
+
+        final byte[] tag = tag(this.nonce, userId);
+
+        int slot = index(tag, this.capacity);
+
+        while (this.tags[slot] != null) {
+            if (Arrays.equals(this.tags[slot], tag)) {
+                throw new CryptographyException("Duplicate recipient: " + userId);
+            }
+
+            slot++;
+
+            if (slot == this.tags.length) {
+                throw new CryptographyException("Too many recipients; the table holds " + this.recipients);
+            }
+        }
+
+        try {
+            final Cipher cipher = Cipher.getInstance(WRAP_ALGORITHM);
+
+            cipher.init(Cipher.WRAP_MODE, keyEncryptionKey);
+
+            this.wrappedKeys[slot] = cipher.wrap(dataKey);
+        } catch (final GeneralSecurityException gse) {
+            throw new CryptographyException("Unable to wrap the data key for recipient: " + userId, gse);
+        }
+
+        this.tags[slot] = tag;
+    }
+
+    /**
+     * Return the table size in bytes.
+     *
+     * @return  int
+     */
+    int size() {
+        return PREAMBLE_SIZE + this.tags.length * (TAG_SIZE + this.wrappedKeySize);
+    }
+
+    /**
+     * Return the table as bytes.
+     *
+     * @return  byte[]
+     */
+    byte[] toByteArray() {
+        final ByteBuffer buffer = ByteBuffer.allocate(this.size());
+
+        buffer.put(MAGIC);
+        buffer.put(this.nonce);
+        buffer.putInt(this.capacity);
+        buffer.putInt(this.recipients);
+        buffer.putInt(this.wrappedKeySize);
+
+        for (int slot = 0; slot < this.tags.length; slot++) {
+            if (this.tags[slot] != null) {
+                buffer.put(this.tags[slot]);
+                buffer.put(this.wrappedKeys[slot]);
+            } else {
+                buffer.position(buffer.position() + TAG_SIZE + this.wrappedKeySize);
+            }
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Find the recipient's slot in the table at the current
+     * position of the input stream. The stream is left at
+     * an unspecified position inside the table.
+     *
+     * @param   inputStream java.io.InputStream
+     * @param   userId      java.lang.String
+     * @return              net.jmp.aes256.crypto.RecipientTable.Match
+     * @throws              java.io.IOException
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     */
+    static Match find(final InputStream inputStream, final String userId) throws IOException, CryptographyException {
+        Objects.requireNonNull(inputStream);
+        Objects.requireNonNull(userId);
+
+        final ByteBuffer preamble = ByteBuffer.wrap(inputStream.readNBytes(PREAMBLE_SIZE));
+
+        if (preamble.remaining() != PREAMBLE_SIZE || !Arrays.equals(preamble.array(), 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            throw new CryptographyException("Recipient table is missing or corrupt");
+        }
+
+        final byte[] nonce = new byte[NONCE_SIZE];
+
+        preamble.position(MAGIC.length);
+        preamble.get(nonce);
+
+        final int capacity = preamble.getInt();
+        final int recipients = preamble.getInt();
+        final int wrappedKeySize = preamble.getInt();
+
+        /* Bound the capacity too, since a crafted one would otherwise overflow the table size */
+
+        if (Integer.bitCount(capacity) != 1 || capacity > MAXIMUM_CAPACITY
+                || recipients < 1 || recipients > MAXIMUM_RECIPIENTS || capacity < recipients * 2
+                || wrappedKeySize < 8 || wrappedKeySize > 64) {
+            throw new CryptographyException("Recipient table is missing or corrupt");
+        }
+
+        final int slotSize = TAG_SIZE + wrappedKeySize;
+        final int slots = capacity + recipients;
+        final byte[] tag = tag(nonce, userId);
+        final byte[] slotBytes = new byte[slotSize];
+
+        int slot = index(tag, capacity);
+
+        inputStream.skipNBytes((long) slot * slotSize);
+
+        byte[] wrappedKey = null;
+
+        while (slot < slots && wrappedKey == null) {
+            if (inputStream.readNBytes(slotBytes, 0, slotSize) != slotSize) {
+                throw new CryptographyException("Recipient table is missing or corrupt");
+            }
+
+            if (isEmpty(slotBytes)) {
+                break;
+            }
+
+            if (Arrays.equals(slotBytes, 0, TAG_SIZE, tag, 0, TAG_SIZE)) {
+                wrappedKey = Arrays.copyOfRange(slotBytes, TAG_SIZE, slotSize);
+            }
+
+            slot++;
+        }
+
+        final long tableSize = PREAMBLE_SIZE + (long) slots * slotSize;
+
+        return new Match(Math.toIntExact(tableSize), wrappedKey);
+    }
+
+    /**
+     * Unwrap a data key with the recipient's key. A key
+     * derived from the wrong password fails the integrity
+     * check of the key wrapping algorithm.
+     *
+     * @param   wrappedKey          byte[]
+     * @param   keyEncryptionKey    javax.crypto.spec.SecretKeySpec
+     * @return                      javax.crypto.spec.SecretKeySpec
+     * @throws                      net.jmp.aes256.crypto.CryptographyException
+     */
+    static SecretKeySpec unwrap(final byte[] wrappedKey, final SecretKeySpec keyEncryptionKey) throws CryptographyException {
+        Objects.requireNonNull(wrappedKey);
+        Objects.requireNonNull(keyEncryptionKey);
+
+        try {
+            final Cipher cipher = Cipher.getInstance(WRAP_ALGORITHM);
+
+            cipher.init(Cipher.UNWRAP_MODE, keyEncryptionKey);
+
+            return new SecretKeySpec(cipher.unwrap(wrappedKey, keyEncryptionKey.getAlgorithm(), Cipher.SECRET_KEY).getEncoded(),
+                    keyEncryptionKey.getAlgorithm());
+        } catch (final GeneralSecurityException gse) {
+            throw new CryptographyException("Unable to unwrap the data key; the password may be incorrect", gse);
+        }
+    }
+
+    /**
+     * Return the tag for the user identifier.
+     *
+     * @param   nonce   byte[]
+     * @param   userId  java.lang.String
+     * @return          byte[]
+     */
+    private static byte[] tag(final byte[] nonce, final String userId) {
+        MessageDigest messageDigest;
+
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException nsae) {
+            throw new IllegalStateException("SHA-256 is not available", nsae);
+        }
+
+        messageDigest.update(nonce);
+
+        final byte[] tag = Arrays.copyOf(messageDigest.digest(userId.getBytes(StandardCharsets.UTF_8)), TAG_SIZE);
+
+        tag[0] |= 1;        // Never all zeros, which marks an empty slot
+
+        return tag;
+    }
+
+    /**
+     * Return the home slot of the tag.
+     *
+     * @param   tag         byte[]
+     * @param   capacity    int
+     * @return              int
+     */
+    private static int index(final byte[] tag, final int capacity) {
+        return (int) (ByteBuffer.wrap(tag).getLong(TAG_SIZE - Long.BYTES) & (capacity - 1));
+    }
+
+    /**
+     * Return true if the slot has no tag.
+     *
+     * @param   slotBytes   byte[]
+     * @return              boolean
+     */
+    private static boolean isEmpty(final byte[] slotBytes) {
+        for (int i = 0; i < TAG_SIZE; i++) {
+            if (slotBytes[i] != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * The result of looking up a recipient.
+     */
+    static final class Match {
+        /** The table size in bytes. */
+        private final int tableSize;
+
+        /** The wrapped key or null. */
+        private final byte[] wrappedKey;
+
+        /**
+         * A constructor that takes the table size and the wrapped key.
+         *
+         * @param   tableSize   int
+         * @param   wrappedKey  byte[]
+         */
+        private Match(final int tableSize, final byte[] wrappedKey) {
+            super();
+
+            this.tableSize = tableSize;
+            this.wrappedKey = wrappedKey;
+        }
+
+        /**
+         * Return the table size in bytes.
+         *
+         * @return  int
+         */
+        int getTableSize() {
+            return this.tableSize;
+        }
+
+        /**
+         * Return the wrapped key if the user is a recipient.
+         *
+         * @return  java.util.Optional&lt;byte[]&gt;
+         */
+        Optional<byte[]> getWrappedKey() {
+            return Optional.ofNullable(this.wrappedKey);
+        }
+    }
+}
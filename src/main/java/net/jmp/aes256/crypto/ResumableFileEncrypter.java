@@ -0,0 +1,467 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)ResumableFileEncrypter.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.crypto.Cipher;
+
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+
+import net.jmp.aes256.utils.ProgressMonitor;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * Encrypts a file so that an interrupted encryption can be
+ * resumed from its last checkpoint instead of from the start.
+ * The output is written to a partial file next to the output
+ * file, and every segment the output is forced to disk and a
+ * checkpoint journal records where the input and the output
+ * stand and the cipher state at that point.
+ *
+ * <p>When started again the journal is checked against the
+ * input file, the key and the tail of the partial file. If
+ * they all agree the partial file is cut back to the checkpoint,
+ * dropping anything written after it, and the encryption carries
+ * on from there with the last cipher text block as the chaining
+ * value, which in CBC mode gives the same cipher text as an
+ * uninterrupted run. Otherwise the encryption starts over. Once
+ * complete the partial file is committed as the output file and
+ * the journal is removed.
+ */
+final class ResumableFileEncrypter {
+    /** The default segment size. */
+    static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    /** The cipher block size. */
+    static final int BLOCK_SIZE = Config.INITIALIZATION_VECTOR_SIZE;
+
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The configuration. */
+    private final Config config;
+
+    /** The durability of the output file. */
+    private final Durability durability;
+
+    /** The number of output bytes between checkpoints. */
+    private final long segmentSize;
+
+    /** The input offset the last encryption resumed from. */
+    private long resumedFrom;
+
+    /**
+     * The default constructor.
+     */
+    private ResumableFileEncrypter() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the configuration, the
+     * durability of the output file and the segment size.
+     *
+     * @param   config      net.jmp.aes256.config.Config
+     * @param   durability  net.jmp.aes256.crypto.Durability
+     * @param   segmentSize long
+     */
+    ResumableFileEncrypter(final Config config, final Durability durability, final long segmentSize) {
+        super();
+
+        this.config = Objects.requireNonNull(config);
+        this.durability = Objects.requireNonNull(durability);
+        this.segmentSize = segmentSize;
+
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("The segment size must be positive: " + segmentSize);
+        }
+    }
+
+    /**
+     * Return the partial file of the output file.
+     *
+     * @param   output  java.nio.file.Path
+     * @return          java.nio.file.Path
+     */
+    static Path partialFileOf(final Path output) {
+        return OutputFiles.directoryOf(output).resolve("." + output.getFileName() + ".part");
+    }
+
+    /**
+     * Return the journal file of the output file.
+     *
+     * @param   output  java.nio.file.Path
+     * @return          java.nio.file.Path
+     */
+    static Path journalFileOf(final Path output) {
+        return OutputFiles.directoryOf(output).resolve("." + output.getFileName() + ".journal");
+    }
+
+    /**
+     * Encrypt the input file into the output file, resuming
+     * from the last checkpoint if there is a valid one. The
+     * initialization vector is only used when starting over.
+     * False is returned if the operation was cancelled, in
+     * which case the partial file and the journal are kept.
+     *
+     * @param   secretKeySpec           javax.crypto.spec.SecretKeySpec
+     * @param   input                   java.nio.file.Path
+     * @param   output                  java.nio.file.Path
+     * @param   initializationVector    byte[]
+     * @param   progressMonitor         net.jmp.aes256.utils.ProgressMonitor
+     * @param   cancelled               java.util.concurrent.atomic.AtomicBoolean
+     * @return                          boolean
+     * @throws                          java.io.IOException
+     * @throws                          java.security.GeneralSecurityException
+     * @throws                          net.jmp.aes256.crypto.CryptographyException
+     */
+    boolean encrypt(final SecretKeySpec secretKeySpec,
+                    final Path input,
+                    final Path output,
+                    final byte[] initializationVector,
+                    final ProgressMonitor progressMonitor,
+                    final AtomicBoolean cancelled) throws IOException, GeneralSecurityException, CryptographyException {
+        this.logger.entry(input, output);
+
+        final Path partial = partialFileOf(output);
+        final Path journalFile = journalFileOf(output);
+        final long inputSize = Files.size(input);
+        final long inputModified = Files.getLastModifiedTime(input).toMillis();
+        final byte[] keyCheck = keyCheck(secretKeySpec);
+        final byte[] freshHeader = FileHeader.of(this.config, initializationVector).toByteArray();
+        final CheckpointJournal checkpoint = this.findCheckpoint(journalFile, partial, inputSize, inputModified, keyCheck, freshHeader).orElse(null);
+        final byte[] header = checkpoint != null ? checkpoint.getHeader() : freshHeader;
+
+        this.resumedFrom = checkpoint != null ? checkpoint.getInputOffset() : 0;
+
+        boolean completed = false;
+
+        try (final FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ);
+             final FileChannel outputChannel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            final MessageDigest tailDigest = sha256();
+
+            long outputLength;
+            long tailOffset;
+            byte[] chainBlock;
+
+            if (checkpoint != null) {
+                this.logger.info("Resuming encryption of {} at offset {}", input, checkpoint.getInputOffset());
+
+                outputLength = checkpoint.getOutputLength();
+                tailOffset = outputLength;
+                chainBlock = checkpoint.getChainBlock();
+
+                outputChannel.truncate(outputLength);
+                outputChannel.position(outputLength);
+                inputChannel.position(checkpoint.getInputOffset());
+                progressMonitor.add(checkpoint.getInputOffset());
+            } else {
+                outputLength = header.length;
+                tailOffset = 0;
+                chainBlock = Arrays.copyOfRange(header, header.length - BLOCK_SIZE, header.length);     // The header ends with the IV
+
+                outputChannel.truncate(0);
+                writeFully(outputChannel, ByteBuffer.wrap(header));
+                tailDigest.update(header);
+            }
+
+            final Cipher cipher = CipherFactory.createCipher(this.config, Cipher.ENCRYPT_MODE, secretKeySpec, new IvParameterSpec(chainBlock));
+            final ByteBuffer buffer = ByteBuffer.allocate(StreamFileCipherEngine.BUFFER_SIZE);
+            final byte[] transformed = new byte[cipher.getOutputSize(StreamFileCipherEngine.BUFFER_SIZE)];
+
+            boolean stopped = false;
+            int bytesRead;
+
+            progressMonitor.stage(ProgressMonitor.Stage.CIPHER);
+
+            while (!stopped && (bytesRead = inputChannel.read(buffer.clear())) != -1) {
+                if (cancelled.get()) {
+                    stopped = true;
+                } else {
+                    final int length = cipher.update(buffer.array(), 0, bytesRead, transformed);
+
+                    writeFully(outputChannel, ByteBuffer.wrap(transformed, 0, length));
+                    tailDigest.update(transformed, 0, length);
+
+                    if (length > 0) {
+                        chainBlock = Arrays.copyOfRange(transformed, length - BLOCK_SIZE, length);
+                    }
+
+                    outputLength += length;
+                    progressMonitor.add(bytesRead);
+
+                    /*
+                     * Every whole block of input read so far has been written,
+                     * so the output past the header is exactly the input to
+                     * skip; any bytes the cipher holds back are read again.
+                     */
+
+                    if (outputLength - tailOffset >= this.segmentSize) {
+                        outputChannel.force(true);
+
+                        new CheckpointJournal(inputSize,
+                                inputModified,
+                                keyCheck,
+                                header,
+                                outputLength - header.length,
+                                outputLength,
+                                tailOffset,
+                                tailDigest.digest(),
+                                chainBlock).write(journalFile);
+
+                        tailOffset = outputLength;
+                    }
+                }
+            }
+
+            if (!stopped) {
+                progressMonitor.stage(ProgressMonitor.Stage.IO);
+
+                writeFully(outputChannel, ByteBuffer.wrap(cipher.doFinal()));
+
+                completed = true;
+            }
+        }
+
+        if (completed) {
+            OutputFiles.commit(partial, output, this.durability);
+            Files.deleteIfExists(journalFile);
+        }
+
+        this.logger.exit(completed);
+
+        return completed;
+    }
+
+    /**
+     * Return the input offset the last encryption
+     * resumed from, or zero if it started over.
+     *
+     * @return  long
+     */
+    long getResumedFrom() {
+        return this.resumedFrom;
+    }
+
+    /**
+     * Return the checkpoint to resume from if there is one
+     * and the input file, the key derivation settings and the
+     * partial file all still agree with it. A checkpoint made
+     * with another key is an error rather than a reason to
+     * start over, since that is most likely a mistyped password.
+     *
+     * @param   journalFile     java.nio.file.Path
+     * @param   partial         java.nio.file.Path
+     * @param   inputSize       long
+     * @param   inputModified   long
+     * @param   keyCheck        byte[]
+     * @param   freshHeader     byte[]
+     * @return                  java.util.Optional&lt;net.jmp.aes256.crypto.CheckpointJournal&gt;
+     * @throws                  java.io.IOException
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     */
+    private Optional<CheckpointJournal> findCheckpoint(final Path journalFile,
+                                                       final Path partial,
+                                                       final long inputSize,
+                                                       final long inputModified,
+                                                       final byte[] keyCheck,
+                                                       final byte[] freshHeader) throws IOException, CryptographyException {
+        Optional<CheckpointJournal> journal;
+
+        try {
+            journal = CheckpointJournal.read(journalFile);
+        } catch (final CryptographyException ce) {
+            this.logger.warn("Starting over: {}", ce.getMessage());
+
+            journal = Optional.empty();
+        }
+
+        CheckpointJournal checkpoint = null;
+
+        if (journal.isPresent()) {
+            final CheckpointJournal candidate = journal.get();
+            final byte[] header = candidate.getHeader();
+
+            if (candidate.getInputSize() != inputSize || candidate.getInputModified() != inputModified) {
+                this.logger.warn("Starting over: the input file has changed since the checkpoint");
+            } else if (header.length != freshHeader.length || !Arrays.equals(header, 0, header.length - BLOCK_SIZE, freshHeader, 0, freshHeader.length - BLOCK_SIZE)) {
+                this.logger.warn("Starting over: the key derivation settings have changed since the checkpoint");
+            } else if (!Arrays.equals(candidate.getKeyCheck(), keyCheck)) {
+                throw new CryptographyException("The password does not match the one the partial output was encrypted with");
+            } else if (!this.isTailValid(candidate, partial)) {
+                this.logger.warn("Starting over: the partial output does not match the checkpoint");
+            } else {
+                checkpoint = candidate;
+            }
+        }
+
+        return Optional.ofNullable(checkpoint);
+    }
+
+    /**
+     * Return true if the partial file holds the header and
+     * the last segment recorded by the checkpoint.
+     *
+     * @param   checkpoint  net.jmp.aes256.crypto.CheckpointJournal
+     * @param   partial     java.nio.file.Path
+     * @return              boolean
+     * @throws              java.io.IOException
+     */
+    private boolean isTailValid(final CheckpointJournal checkpoint, final Path partial) throws IOException {
+        final byte[] header = checkpoint.getHeader();
+        final long outputLength = checkpoint.getOutputLength();
+        final long tailOffset = checkpoint.getTailOffset();
+
+        boolean valid = Files.isRegularFile(partial)
+                && Files.size(partial) >= outputLength
+                && checkpoint.getInputOffset() == outputLength - header.length
+                && checkpoint.getInputOffset() % BLOCK_SIZE == 0
+                && checkpoint.getInputOffset() <= checkpoint.getInputSize()
+                && tailOffset >= 0
+                && outputLength - tailOffset >= BLOCK_SIZE;
+
+        if (valid) {
+            try (final FileChannel channel = FileChannel.open(partial, StandardOpenOption.READ)) {
+                final ByteBuffer headerBuffer = ByteBuffer.allocate(header.length);
+
+                readFully(channel, headerBuffer, 0);
+
+                final MessageDigest tailDigest = sha256();
+                final ByteBuffer buffer = ByteBuffer.allocate(StreamFileCipherEngine.BUFFER_SIZE);
+
+                long position = tailOffset;
+
+                while (position < outputLength) {
+                    buffer.clear().limit((int) Math.min(buffer.capacity(), outputLength - position));
+
+                    readFully(channel, buffer, position);
+
+                    tailDigest.update(buffer.flip());
+                    position += buffer.limit();
+                }
+
+                final ByteBuffer chainBuffer = ByteBuffer.allocate(BLOCK_SIZE);
+
+                readFully(channel, chainBuffer, outputLength - BLOCK_SIZE);
+
+                valid = Arrays.equals(headerBuffer.array(), header)
+                        && Arrays.equals(tailDigest.digest(), checkpoint.getTailDigest())
+                        && Arrays.equals(chainBuffer.array(), checkpoint.getChainBlock());
+            }
+        }
+
+        return valid;
+    }
+
+    /**
+     * Return the key check of the key: the first bytes
+     * of its SHA-256 digest.
+     *
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @return                  byte[]
+     */
+    static byte[] keyCheck(final SecretKeySpec secretKeySpec) {
+        return Arrays.copyOf(sha256().digest(secretKeySpec.getEncoded()), CheckpointJournal.KEY_CHECK_SIZE);
+    }
+
+    /**
+     * Return a new SHA-256 message digest.
+     *
+     * @return  java.security.MessageDigest
+     */
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException nsae) {
+            throw new IllegalStateException("SHA-256 is not available", nsae);
+        }
+    }
+
+    /**
+     * Write all the remaining bytes of the buffer.
+     *
+     * @param   channel java.nio.channels.FileChannel
+     * @param   buffer  java.nio.ByteBuffer
+     * @throws          java.io.IOException
+     */
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Fill the buffer from the position in the channel.
+     *
+     * @param   channel     java.nio.channels.FileChannel
+     * @param   buffer      java.nio.ByteBuffer
+     * @param   position    long
+     * @throws              java.io.IOException
+     */
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        long offset = position;
+
+        while (buffer.hasRemaining()) {
+            final int bytesRead = channel.read(buffer, offset);
+
+            if (bytesRead == -1) {
+                throw new IOException("Unexpected end of file at offset " + offset);
+            }
+
+            offset += bytesRead;
+        }
+    }
+}
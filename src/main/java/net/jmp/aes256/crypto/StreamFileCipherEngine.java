@@ -0,0 +1,172 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)StreamFileCipherEngine.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.security.GeneralSecurityException;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.crypto.Cipher;
+
+import net.jmp.aes256.utils.FileCipherEvent;
+import net.jmp.aes256.utils.ProgressMonitor;
+
+/**
+ * The file cipher engine that reads and writes through
+ * streams with a heap buffer. It works everywhere and is
+ * the default.
+ */
+final class StreamFileCipherEngine implements FileCipherEngine {
+    /** The buffer size. */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The default constructor.
+     */
+    StreamFileCipherEngine() {
+        super();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean transform(final Cipher cipher,
+                             final Path input,
+                             final long inputOffset,
+                             final Path output,
+                             final byte[] prefix,
+                             final ProgressMonitor progressMonitor,
+                             final AtomicBoolean cancelled) throws IOException, GeneralSecurityException {
+        try (final InputStream inputStream = Files.newInputStream(input);
+             final OutputStream outputStream = Files.newOutputStream(output)) {
+            inputStream.skipNBytes(inputOffset);
+
+            return transform(cipher, inputStream, outputStream, prefix, progressMonitor, cancelled, "stream");
+        }
+    }
+
+    /**
+     * Transform the input stream into the output stream
+     * through a heap buffer. The prefix is written to the
+     * output ahead of the transformed data. Progress is
+     * counted in bytes read from the input stream. False
+     * is returned if the operation was cancelled before
+     * it completed. A file cipher event is recorded under
+     * the engine name.
+     *
+     * @param   cipher          javax.crypto.Cipher
+     * @param   inputStream     java.io.InputStream
+     * @param   outputStream    java.io.OutputStream
+     * @param   prefix          byte[]
+     * @param   progressMonitor net.jmp.aes256.utils.ProgressMonitor
+     * @param   cancelled       java.util.concurrent.atomic.AtomicBoolean
+     * @param   engine          java.lang.String
+     * @return                  boolean
+     * @throws                  java.io.IOException
+     * @throws                  java.security.GeneralSecurityException
+     * @since                   1.2.0
+     */
+    static boolean transform(final Cipher cipher,
+                             final InputStream inputStream,
+                             final OutputStream outputStream,
+                             final byte[] prefix,
+                             final ProgressMonitor progressMonitor,
+                             final AtomicBoolean cancelled,
+                             final String engine) throws IOException, GeneralSecurityException {
+        final FileCipherEvent event = new FileCipherEvent();
+        final boolean timed = event.isEnabled();
+
+        event.begin();
+
+        try {
+            outputStream.write(prefix);
+
+            event.write(prefix.length, 0);
+
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            final byte[] transformed = new byte[cipher.getOutputSize(BUFFER_SIZE)];
+
+            int bytesRead;
+            long start = timed ? System.nanoTime() : 0;
+
+            progressMonitor.stage(ProgressMonitor.Stage.CIPHER);
+
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                if (cancelled.get()) {
+                    return false;
+                }
+
+                final long read = timed ? System.nanoTime() : 0;
+                final int length = cipher.update(buffer, 0, bytesRead, transformed);
+                final long ciphered = timed ? System.nanoTime() : 0;
+
+                outputStream.write(transformed, 0, length);
+
+                final long written = timed ? System.nanoTime() : 0;
+
+                event.read(bytesRead, read - start);
+                event.cipher(ciphered - read);
+                event.write(length, written - ciphered);
+
+                progressMonitor.add(bytesRead);
+
+                start = written;
+            }
+
+            progressMonitor.stage(ProgressMonitor.Stage.IO);
+
+            final byte[] last = cipher.doFinal();
+
+            if (last != null) {
+                outputStream.write(last);
+
+                event.write(last.length, 0);
+            }
+
+            return true;
+        } finally {
+            event.end();
+
+            if (event.shouldCommit()) {
+                event.setEngine(engine);
+                event.commit();
+            }
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package net.jmp.aes256.input;
 
 /*
+ * (#)CommandLineHandler.java   1.2.0   10/19/2026
  * (#)CommandLineHandler.java   0.2.0   06/30/2024
  *
  * @author   Jonathan Parker
- * @version  0.2.0
+ * @version  1.2.0
  * @since    0.2.0
  *
  * MIT License
@@ -145,9 +146,13 @@ public final class CommandLineHandler {
         final String argument = this.arguments[0];
 
         result = switch (argument.toLowerCase()) {
+            case "agent" -> CommandOperation.AGENT;
+            case "calibrate" -> CommandOperation.CALIBRATE;
             case "decrypt" -> CommandOperation.DECRYPT;
+            case "derive" -> CommandOperation.DERIVE;
             case "encrypt" -> CommandOperation.ENCRYPT;
             case "help", "-h", "--help" -> CommandOperation.HELP;
+            case "loadtest" -> CommandOperation.LOADTEST;
             default -> CommandOperation.UNRECOGNIZED;
         };
 
@@ -191,7 +196,7 @@ public final class CommandLineHandler {
             if (commandOperation == CommandOperation.HELP || cl.hasOption("help")) {
                 final var formatter = new HelpFormatter();
 
-                formatter.printHelp("aes-256.main/net.jmp.aes256.Main <decrypt | encrypt | help>", options);
+                formatter.printHelp("aes-256.main/net.jmp.aes256.Main <agent | calibrate | decrypt | derive | encrypt | help | loadtest>", options);
             }
             else
                 result = cl;
@@ -226,15 +231,129 @@ public final class CommandLineHandler {
         final Option inputFile = Option.builder("i")
                 .argName("file-name")
                 .hasArg()
-                .desc("Encrypt/Decrypt a file")
+                .desc("Encrypt/Decrypt a file; repeat or use a glob pattern for many")
                 .longOpt("input-file")
                 .build();
         final Option outputFile = Option.builder("o")
                 .argName("file-name")
                 .hasArg()
-                .desc("Encrypted/Decrypted output file")
+                .desc("Encrypted/Decrypted output file, or a template such as {name}.aes for many")
                 .longOpt("output-file")
                 .build();
+        final Option manifest = Option.builder("m")
+                .argName("file-name")
+                .hasArg()
+                .desc("Manifest of credentials or files to process in bulk")
+                .longOpt("manifest")
+                .build();
+        final Option archive = Option.builder()
+                .argName("directory")
+                .hasArg()
+                .desc("Directory to archive into the output file or extract the input file into")
+                .longOpt("archive")
+                .build();
+        final Option extract = Option.builder()
+                .argName("path")
+                .hasArg()
+                .desc("Extract only this member or directory of the archive")
+                .longOpt("extract")
+                .build();
+        final Option jfr = Option.builder()
+                .argName("file-name")
+                .hasArg()
+                .desc("Record the run with the flight recorder into the file")
+                .longOpt("jfr")
+                .build();
+        final Option list = Option.builder()
+                .desc("List the members of the archive in the input file")
+                .longOpt("list")
+                .build();
+        final Option chunkStore = Option.builder()
+                .argName("directory")
+                .hasArg()
+                .desc("Chunk store for incremental encryption of the input file")
+                .longOpt("chunk-store")
+                .build();
+        final Option recipients = Option.builder()
+                .argName("file-name")
+                .hasArg()
+                .desc("Credentials of the recipients to encrypt the input file for")
+                .longOpt("recipients")
+                .build();
+        final Option armor = Option.builder()
+                .desc("Base64 armor the output file when encrypting or read an armored input file when decrypting")
+                .longOpt("armor")
+                .build();
+        final Option directIo = Option.builder()
+                .desc("Bypass the page cache when reading and writing files")
+                .longOpt("direct-io")
+                .build();
+        final Option failFast = Option.builder()
+                .desc("Stop at the first of many input files that fails")
+                .longOpt("fail-fast")
+                .build();
+        final Option resume = Option.builder()
+                .desc("Resume an interrupted encryption from its last checkpoint")
+                .longOpt("resume")
+                .build();
+        final Option durability = Option.builder()
+                .argName("none | file | group")
+                .hasArg()
+                .desc("Durability of output files (default none)")
+                .longOpt("durability")
+                .build();
+        final Option ioEngine = Option.builder()
+                .argName("stream | mapped | async")
+                .hasArg()
+                .desc("I/O engine for files (default stream)")
+                .longOpt("io-engine")
+                .build();
+        final Option progress = Option.builder()
+                .desc("Report file progress as JSON lines")
+                .longOpt("progress")
+                .build();
+        final Option queueDepth = Option.builder()
+                .argName("depth")
+                .hasArg()
+                .desc("Reads and writes in flight for the async I/O engine (default 8)")
+                .longOpt("queue-depth")
+                .build();
+        final Option targetMillis = Option.builder()
+                .argName("millis")
+                .hasArg()
+                .desc("Target key derivation time for calibrate (default 250)")
+                .longOpt("target-millis")
+                .build();
+        final Option runs = Option.builder()
+                .argName("count")
+                .hasArg()
+                .desc("Number of timed runs for calibrate (default 5)")
+                .longOpt("runs")
+                .build();
+        final Option seed = Option.builder()
+                .argName("seed")
+                .hasArg()
+                .desc("Seed of the synthetic inputs for loadtest (default 1)")
+                .longOpt("seed")
+                .build();
+        final Option concurrency = Option.builder()
+                .argName("workers")
+                .hasArg()
+                .desc("Concurrent workers for many input files or loadtest (default one per processor)")
+                .longOpt("concurrency")
+                .build();
+        final Option duration = Option.builder()
+                .argName("seconds")
+                .hasArg()
+                .desc("Seconds loadtest runs for (default 60)")
+                .longOpt("duration")
+                .build();
+        final Option ttl = Option.builder()
+                .argName("seconds")
+                .hasArg()
+                .desc("Seconds the agent holds each key (default 900)")
+                .longOpt("ttl")
+                .build();
         final Option userId = Option.builder("u")
                 .argName("user-id")
                 .hasArg()
@@ -248,6 +367,27 @@ public final class CommandLineHandler {
         options.addOption(string);
         options.addOption(inputFile);
         options.addOption(outputFile);
+        options.addOption(manifest);
+        options.addOption(archive);
+        options.addOption(extract);
+        options.addOption(jfr);
+        options.addOption(list);
+        options.addOption(chunkStore);
+        options.addOption(recipients);
+        options.addOption(armor);
+        options.addOption(directIo);
+        options.addOption(durability);
+        options.addOption(failFast);
+        options.addOption(resume);
+        options.addOption(ioEngine);
+        options.addOption(progress);
+        options.addOption(queueDepth);
+        options.addOption(targetMillis);
+        options.addOption(runs);
+        options.addOption(seed);
+        options.addOption(concurrency);
+        options.addOption(duration);
+        options.addOption(ttl);
         options.addOption(userId);
 
         this.logger.exit(options);
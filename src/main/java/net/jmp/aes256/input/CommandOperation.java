@@ -1,10 +1,11 @@
 package net.jmp.aes256.input;
 
 /*
+ * (#)CommandOperation.java 1.2.0   10/19/2026
  * (#)CommandOperation.java 0.2.0   06/30/2024
  *
  * @author   Jonathan Parker
- * @version  0.2.0
+ * @version  1.2.0
  * @since    0.2.0
  *
  * MIT License
@@ -34,8 +35,12 @@ package net.jmp.aes256.input;
  * An enumeration of the command operation values.
  */
 public enum CommandOperation {
+    AGENT,
+    CALIBRATE,
     DECRYPT,
+    DERIVE,
     ENCRYPT,
     HELP,
+    LOADTEST,
     UNRECOGNIZED
 }
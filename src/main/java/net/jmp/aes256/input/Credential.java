@@ -0,0 +1,192 @@
+package net.jmp.aes256.input;
+
+/*
+ * (#)Credential.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.google.gson.annotations.SerializedName;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import java.util.Objects;
+
+/**
+ * A credential in a manifest. The password is never
+ * stored in the manifest itself; it is referenced
+ * through either an environment variable or a file
+ * whose first line holds the password.
+ */
+public final class Credential {
+    /** The user identifier. */
+    @SerializedName("user-id")
+    private String userId;
+
+    /** The name of the environment variable holding the password. */
+    @SerializedName("password-environment-variable")
+    private String passwordEnvironmentVariable;
+
+    /** The name of the file holding the password. */
+    @SerializedName("password-file")
+    private String passwordFile;
+
+    /**
+     * The default constructor.
+     */
+    public Credential() {
+        super();
+    }
+
+    /**
+     * Return the user identifier.
+     *
+     * @return  java.lang.String
+     */
+    public String getUserId() {
+        return this.userId;
+    }
+
+    /**
+     * Set the user identifier.
+     *
+     * @param   userId  java.lang.String
+     */
+    public void setUserId(final String userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Return the name of the environment variable holding the password.
+     *
+     * @return  java.lang.String
+     */
+    public String getPasswordEnvironmentVariable() {
+        return this.passwordEnvironmentVariable;
+    }
+
+    /**
+     * Set the name of the environment variable holding the password.
+     *
+     * @param   passwordEnvironmentVariable java.lang.String
+     */
+    public void setPasswordEnvironmentVariable(final String passwordEnvironmentVariable) {
+        this.passwordEnvironmentVariable = passwordEnvironmentVariable;
+    }
+
+    /**
+     * Return the name of the file holding the password.
+     *
+     * @return  java.lang.String
+     */
+    public String getPasswordFile() {
+        return this.passwordFile;
+    }
+
+    /**
+     * Set the name of the file holding the password.
+     *
+     * @param   passwordFile    java.lang.String
+     */
+    public void setPasswordFile(final String passwordFile) {
+        this.passwordFile = passwordFile;
+    }
+
+    /**
+     * Resolve and return the referenced password.
+     *
+     * @return  java.lang.String
+     * @throws  java.io.IOException
+     */
+    public String resolvePassword() throws IOException {
+        if (this.passwordEnvironmentVariable != null) {
+            final String password = System.getenv(this.passwordEnvironmentVariable);
+
+            if (password == null) {
+                throw new IOException("Environment variable '" + this.passwordEnvironmentVariable + "' is not set");
+            }
+
+            return password;
+        }
+
+        if (this.passwordFile != null) {
+            return Files.readAllLines(Paths.get(this.passwordFile), StandardCharsets.UTF_8).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new IOException("Password file '" + this.passwordFile + "' is empty"));
+        }
+
+        throw new IOException("No password reference for user '" + this.userId + "'");
+    }
+
+    /**
+     * The equals method.
+     *
+     * @param   o   java.lang.Object
+     * @return      boolean
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+
+        if (o == null || getClass() != o.getClass()) return false;
+
+        final Credential credential = (Credential) o;
+
+        return Objects.equals(this.userId, credential.userId) &&
+                Objects.equals(this.passwordEnvironmentVariable, credential.passwordEnvironmentVariable) &&
+                Objects.equals(this.passwordFile, credential.passwordFile);
+    }
+
+    /**
+     * The hash-code method.
+     *
+     * @return  int
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.userId, this.passwordEnvironmentVariable, this.passwordFile);
+    }
+
+    /**
+     * The to-string method.
+     *
+     * @return  java.lang.String
+     */
+    @Override
+    public String toString() {
+        return "Credential{" +
+                "userId='" + this.userId + '\'' +
+                ", passwordEnvironmentVariable='" + this.passwordEnvironmentVariable + '\'' +
+                ", passwordFile='" + this.passwordFile + '\'' +
+                '}';
+    }
+}
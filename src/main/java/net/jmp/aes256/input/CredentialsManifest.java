@@ -0,0 +1,156 @@
+package net.jmp.aes256.input;
+
+/*
+ * (#)CredentialsManifest.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A manifest of credentials used to derive keys in bulk,
+ * optionally with the files to decrypt with them.
+ *
+ * <pre>
+ * {
+ *     "credentials": [
+ *         { "user-id": "user1@domain.com", "password-environment-variable": "USER1_PASSWORD" },
+ *         { "user-id": "user2@domain.com", "password-file": "/secure/user2.password" }
+ *     ],
+ *     "files": [
+ *         { "input-file": "/backup/a.aes", "output-file": "/restore/a", "user-id": "user1@domain.com" }
+ *     ]
+ * }
+ * </pre>
+ */
+public final class CredentialsManifest {
+    /** The credentials. */
+    @SerializedName("credentials")
+    private List<Credential> credentials = new ArrayList<>();
+
+    /** The files. */
+    @SerializedName("files")
+    private List<FileEntry> files = new ArrayList<>();
+
+    /**
+     * The default constructor.
+     */
+    public CredentialsManifest() {
+        super();
+    }
+
+    /**
+     * Read and return the manifest from the specified file.
+     *
+     * @param   path    java.nio.file.Path
+     * @return          net.jmp.aes256.input.CredentialsManifest
+     * @throws          java.io.IOException
+     */
+    public static CredentialsManifest read(final Path path) throws IOException {
+        Objects.requireNonNull(path);
+
+        CredentialsManifest manifest;
+
+        try {
+            manifest = new Gson().fromJson(Files.readString(path), CredentialsManifest.class);
+        } catch (final JsonParseException jpe) {
+            throw new IOException("Unable to parse credentials manifest: " + path, jpe);
+        }
+
+        if (manifest == null || manifest.credentials == null) {
+            throw new IOException("No credentials found in manifest: " + path);
+        }
+
+        if (manifest.files == null) {
+            manifest.files = new ArrayList<>();
+        }
+
+        return manifest;
+    }
+
+    /**
+     * Return the credentials.
+     *
+     * @return  java.util.List&lt;net.jmp.aes256.input.Credential&gt;
+     */
+    public List<Credential> getCredentials() {
+        return this.credentials;
+    }
+
+    /**
+     * Set the credentials.
+     *
+     * @param   credentials java.util.List&lt;net.jmp.aes256.input.Credential&gt;
+     */
+    public void setCredentials(final List<Credential> credentials) {
+        this.credentials = credentials;
+    }
+
+    /**
+     * Return the files.
+     *
+     * @return  java.util.List&lt;net.jmp.aes256.input.FileEntry&gt;
+     */
+    public List<FileEntry> getFiles() {
+        return this.files;
+    }
+
+    /**
+     * Set the files.
+     *
+     * @param   files   java.util.List&lt;net.jmp.aes256.input.FileEntry&gt;
+     */
+    public void setFiles(final List<FileEntry> files) {
+        this.files = files;
+    }
+
+    /**
+     * The to-string method.
+     *
+     * @return  java.lang.String
+     */
+    @Override
+    public String toString() {
+        return "CredentialsManifest{" +
+                "credentials=" + this.credentials +
+                ", files=" + this.files +
+                '}';
+    }
+}
@@ -0,0 +1,158 @@
+package net.jmp.aes256.input;
+
+/*
+ * (#)FileEntry.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Objects;
+
+/**
+ * A file in a manifest. The credential used to decrypt
+ * it is referenced by user identifier and listed once in
+ * the manifest's credentials.
+ */
+public final class FileEntry {
+    /** The input file. */
+    @SerializedName("input-file")
+    private String inputFile;
+
+    /** The output file. */
+    @SerializedName("output-file")
+    private String outputFile;
+
+    /** The user identifier of the credential. */
+    @SerializedName("user-id")
+    private String userId;
+
+    /**
+     * The default constructor.
+     */
+    public FileEntry() {
+        super();
+    }
+
+    /**
+     * Return the input file.
+     *
+     * @return  java.lang.String
+     */
+    public String getInputFile() {
+        return this.inputFile;
+    }
+
+    /**
+     * Set the input file.
+     *
+     * @param   inputFile   java.lang.String
+     */
+    public void setInputFile(final String inputFile) {
+        this.inputFile = inputFile;
+    }
+
+    /**
+     * Return the output file.
+     *
+     * @return  java.lang.String
+     */
+    public String getOutputFile() {
+        return this.outputFile;
+    }
+
+    /**
+     * Set the output file.
+     *
+     * @param   outputFile  java.lang.String
+     */
+    public void setOutputFile(final String outputFile) {
+        this.outputFile = outputFile;
+    }
+
+    /**
+     * Return the user identifier of the credential.
+     *
+     * @return  java.lang.String
+     */
+    public String getUserId() {
+        return this.userId;
+    }
+
+    /**
+     * Set the user identifier of the credential.
+     *
+     * @param   userId  java.lang.String
+     */
+    public void setUserId(final String userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * The equals method.
+     *
+     * @param   o   java.lang.Object
+     * @return      boolean
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+
+        if (o == null || getClass() != o.getClass()) return false;
+
+        final FileEntry fileEntry = (FileEntry) o;
+
+        return Objects.equals(this.inputFile, fileEntry.inputFile) &&
+                Objects.equals(this.outputFile, fileEntry.outputFile) &&
+                Objects.equals(this.userId, fileEntry.userId);
+    }
+
+    /**
+     * The hash-code method.
+     *
+     * @return  int
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.inputFile, this.outputFile, this.userId);
+    }
+
+    /**
+     * The to-string method.
+     *
+     * @return  java.lang.String
+     */
+    @Override
+    public String toString() {
+        return "FileEntry{" +
+                "inputFile='" + this.inputFile + '\'' +
+                ", outputFile='" + this.outputFile + '\'' +
+                ", userId='" + this.userId + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,227 @@
+package net.jmp.aes256.input;
+
+/*
+ * (#)InputFiles.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import java.util.stream.Stream;
+
+/**
+ * Expands input file names and glob patterns given on
+ * the command line and names the output of each input
+ * from a template.
+ *
+ * <p>A pattern is split at the last directory that has no
+ * glob characters; that directory is searched, as deep as
+ * the pattern has directories or without limit when it
+ * contains <code>**</code>, and every regular file whose
+ * path matches is taken in sorted order.
+ *
+ * <p>A template names the output of an input with these
+ * placeholders: <code>{dir}</code> is the directory of the
+ * input, <code>{name}</code> its file name and
+ * <code>{stem}</code> its file name without the last
+ * extension. So <code>{dir}/{name}.aes</code> writes
+ * <code>data/a.csv.aes</code> for <code>data/a.csv</code>
+ * and <code>out/{stem}</code> writes <code>out/a</code>
+ * for <code>data/a.aes</code>.
+ */
+public final class InputFiles {
+    /** The characters that make a name a glob pattern. */
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    /** The directory placeholder. */
+    static final String DIR = "{dir}";
+
+    /** The file name placeholder. */
+    static final String NAME = "{name}";
+
+    /** The file name without extension placeholder. */
+    static final String STEM = "{stem}";
+
+    /**
+     * The default constructor.
+     */
+    private InputFiles() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * Return true if the input file options name more than
+     * one file, that is, when there is more than one, any
+     * of them is a glob pattern or the output is a template.
+     *
+     * @param   inputs  java.lang.String[]
+     * @param   output  java.lang.String
+     * @return          boolean
+     */
+    public static boolean isMultiple(final String[] inputs, final String output) {
+        boolean result = inputs.length > 1 || (output != null && isTemplate(output));
+
+        for (final String input : inputs) {
+            result = result || isPattern(input);
+        }
+
+        return result;
+    }
+
+    /**
+     * Return true if the name is a glob pattern.
+     *
+     * @param   name    java.lang.String
+     * @return          boolean
+     */
+    public static boolean isPattern(final String name) {
+        return name.chars().anyMatch(c -> GLOB_CHARACTERS.indexOf(c) != -1);
+    }
+
+    /**
+     * Return true if the name is an output template, that
+     * is, if it contains any of the placeholders.
+     *
+     * @param   name    java.lang.String
+     * @return          boolean
+     */
+    public static boolean isTemplate(final String name) {
+        return name.contains(DIR) || name.contains(NAME) || name.contains(STEM);
+    }
+
+    /**
+     * Return true if the template names each output after
+     * its input's file name. A template with only the
+     * directory placeholder gives every input in a
+     * directory the same output.
+     *
+     * @param   template    java.lang.String
+     * @return              boolean
+     */
+    public static boolean isFileNameTemplate(final String template) {
+        return template.contains(NAME) || template.contains(STEM);
+    }
+
+    /**
+     * Expand the names and patterns into the files they
+     * name, in order and without duplicates. A name that is
+     * not a pattern is taken as it is, whether or not it
+     * exists; a pattern that matches nothing is an error.
+     *
+     * @param   names   java.util.List&lt;java.lang.String&gt;
+     * @return          java.util.List&lt;java.nio.file.Path&gt;
+     * @throws          java.io.IOException
+     */
+    public static List<Path> expand(final List<String> names) throws IOException {
+        final Set<Path> files = new LinkedHashSet<>();
+
+        for (final String name : names) {
+            if (isPattern(name)) {
+                final List<Path> matches = match(name);
+
+                if (matches.isEmpty()) {
+                    throw new IOException("No files match: " + name);
+                }
+
+                files.addAll(matches);
+            } else {
+                files.add(Paths.get(name));
+            }
+        }
+
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * Return the output file for the input from the template.
+     *
+     * @param   template    java.lang.String
+     * @param   input       java.nio.file.Path
+     * @return              java.nio.file.Path
+     */
+    public static Path output(final String template, final Path input) {
+        final String name = input.getFileName().toString();
+        final int dot = name.lastIndexOf('.');
+        final Path parent = input.getParent();
+
+        return Paths.get(template
+                .replace(DIR, parent == null ? "." : parent.toString())
+                .replace(NAME, name)
+                .replace(STEM, dot > 0 ? name.substring(0, dot) : name));
+    }
+
+    /**
+     * Return the regular files that match the pattern, sorted.
+     *
+     * @param   pattern java.lang.String
+     * @return          java.util.List&lt;java.nio.file.Path&gt;
+     * @throws          java.io.IOException
+     */
+    private static List<Path> match(final String pattern) throws IOException {
+        final Path path = Paths.get(pattern);
+
+        /* Find the directory to search from: the longest prefix without glob characters */
+
+        int fixed = 0;
+
+        while (fixed < path.getNameCount() - 1 && !isPattern(path.getName(fixed).toString())) {
+            fixed++;
+        }
+
+        final Path relative = fixed == 0 ? Paths.get("") : path.subpath(0, fixed);
+        final Path root = path.getRoot() == null ? relative : path.getRoot().resolve(relative);
+        final Path directory = root.toString().isEmpty() ? Paths.get(".") : root;
+        final int depth = pattern.contains("**") ? Integer.MAX_VALUE : path.getNameCount() - fixed;
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+
+        List<Path> matches = List.of();
+
+        if (Files.isDirectory(directory)) {
+            try (final Stream<Path> paths = Files.walk(directory, depth)) {
+                matches = paths
+                        .map(file -> root.toString().isEmpty() ? directory.relativize(file) : file)
+                        .filter(file -> matcher.matches(file) && Files.isRegularFile(file))
+                        .sorted()
+                        .toList();
+            }
+        }
+
+        return matches;
+    }
+}
@@ -1,10 +1,11 @@
 package net.jmp.aes256.input;
 
 /*
+ * (#)Options.java  1.2.0   10/19/2026
  * (#)Options.java  0.2.0   07/05/2024
  *
  * @author   Jonathan Parker
- * @version  0.2.0
+ * @version  1.2.0
  * @since    0.2.0
  *
  * MIT License
@@ -30,6 +31,10 @@ package net.jmp.aes256.input;
  * SOFTWARE.
  */
 
+import java.util.List;
+
+import java.util.function.Supplier;
+
 /**
  * The final options class.
  */
@@ -43,12 +48,66 @@ public final class Options {
     /** The output file name value, if specified. */
     private String outputFile;
 
+    /** The manifest file name value, if specified. @since 1.2.0 */
+    private String manifest;
+
+    /** True when progress is reported. @since 1.2.0 */
+    private boolean progress;
+
+    /** The I/O engine name, if specified. @since 1.2.0 */
+    private String ioEngine;
+
+    /** The durability of output files. @since 1.2.0 */
+    private String durability;
+
+    /** True to bypass the page cache for file I/O. @since 1.2.0 */
+    private boolean directIo;
+
+    /** The number of reads and writes in flight for the async I/O engine. @since 1.2.0 */
+    private int queueDepth;
+
+    /** The directory to archive or to extract into. @since 1.2.0 */
+    private String archive;
+
+    /** The archive member to extract. @since 1.2.0 */
+    private String extract;
+
+    /** True to list the members of an archive. @since 1.2.0 */
+    private boolean list;
+
+    /** The directory of the chunk store. @since 1.2.0 */
+    private String chunkStore;
+
+    /** True to Base64 armor the encrypted file. @since 1.2.0 */
+    private boolean armor;
+
+    /** The file naming the recipients to encrypt for. @since 1.2.0 */
+    private String recipients;
+
+    /** The socket of the key agent to ask for keys. @since 1.2.0 */
+    private String keyAgent;
+
+    /** The input file names and patterns. @since 1.2.0 */
+    private List<String> inputFiles;
+
+    /** The number of files processed concurrently. @since 1.2.0 */
+    private int concurrency;
+
+    /** True to stop at the first file that fails. @since 1.2.0 */
+    private boolean failFast;
+
+    /** True to resume an interrupted encryption from its last checkpoint. @since 1.2.0 */
+    private boolean resume;
+
     /** The user ID value. */
     private String userId;
 
     /** The password value. */
     private String password;
 
+    /** Prompts for the password when a key agent does not hold the key. @since 1.2.0 */
+    private Supplier<String> passwordSupplier;
+
     /**
      * The default constructor.
      */
@@ -110,6 +169,346 @@ public final class Options {
         this.outputFile = outputFile;
     }
 
+    /**
+     * Return the manifest file name value or null.
+     *
+     * @return  java.lang.String
+     * @since   1.2.0
+     */
+    public String getManifest() {
+        return this.manifest;
+    }
+
+    /**
+     * Set the manifest file name value.
+     *
+     * @param   manifest    java.lang.String
+     * @since               1.2.0
+     */
+    public void setManifest(final String manifest) {
+        this.manifest = manifest;
+    }
+
+    /**
+     * Return true when progress is reported.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    public boolean isProgress() {
+        return this.progress;
+    }
+
+    /**
+     * Set whether progress is reported.
+     *
+     * @param   progress    boolean
+     * @since               1.2.0
+     */
+    public void setProgress(final boolean progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Return the I/O engine name or null.
+     *
+     * @return  java.lang.String
+     * @since   1.2.0
+     */
+    public String getIoEngine() {
+        return this.ioEngine;
+    }
+
+    /**
+     * Set the I/O engine name.
+     *
+     * @param   ioEngine    java.lang.String
+     * @since               1.2.0
+     */
+    public void setIoEngine(final String ioEngine) {
+        this.ioEngine = ioEngine;
+    }
+
+    /**
+     * Return the durability of output files.
+     *
+     * @return  java.lang.String
+     * @since   1.2.0
+     */
+    public String getDurability() {
+        return this.durability;
+    }
+
+    /**
+     * Set the durability of output files.
+     *
+     * @param   durability    java.lang.String
+     * @since                 1.2.0
+     */
+    public void setDurability(final String durability) {
+        this.durability = durability;
+    }
+
+    /**
+     * Return true to bypass the page cache for file I/O.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    public boolean isDirectIo() {
+        return this.directIo;
+    }
+
+    /**
+     * Set to true to bypass the page cache for file I/O.
+     *
+     * @param   directIo    boolean
+     * @since               1.2.0
+     */
+    public void setDirectIo(final boolean directIo) {
+        this.directIo = directIo;
+    }
+
+    /**
+     * Return the number of reads and writes in flight for the async I/O engine.
+     *
+     * @return  int
+     * @since   1.2.0
+     */
+    public int getQueueDepth() {
+        return this.queueDepth;
+    }
+
+    /**
+     * Set the number of reads and writes in flight for the async I/O engine.
+     *
+     * @param   queueDepth    int
+     * @since                 1.2.0
+     */
+    public void setQueueDepth(final int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Return the directory to archive or to extract into.
+     *
+     * @return  java.lang.String
+     * @since   1.2.0
+     */
+    public String getArchive() {
+        return this.archive;
+    }
+
+    /**
+     * Set the directory to archive or to extract into.
+     *
+     * @param   archive    java.lang.String
+     * @since              1.2.0
+     */
+    public void setArchive(final String archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * Return the archive member to extract.
+     *
+     * @return  java.lang.String
+     * @since   1.2.0
+     */
+    public String getExtract() {
+        return this.extract;
+    }
+
+    /**
+     * Set the archive member to extract.
+     *
+     * @param   extract    java.lang.String
+     * @since              1.2.0
+     */
+    public void setExtract(final String extract) {
+        this.extract = extract;
+    }
+
+    /**
+     * Return true to list the members of an archive.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    public boolean isList() {
+        return this.list;
+    }
+
+    /**
+     * Set true to list the members of an archive.
+     *
+     * @param   list    boolean
+     * @since           1.2.0
+     */
+    public void setList(final boolean list) {
+        this.list = list;
+    }
+
+    /**
+     * Return the directory of the chunk store.
+     *
+     * @return  java.lang.String
+     * @since   1.2.0
+     */
+    public String getChunkStore() {
+        return this.chunkStore;
+    }
+
+    /**
+     * Set the directory of the chunk store.
+     *
+     * @param   chunkStore    java.lang.String
+     * @since                 1.2.0
+     */
+    public void setChunkStore(final String chunkStore) {
+        this.chunkStore = chunkStore;
+    }
+
+    /**
+     * Return true if the encrypted file is Base64 armored.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    public boolean isArmor() {
+        return this.armor;
+    }
+
+    /**
+     * Set to true to Base64 armor the encrypted file.
+     *
+     * @param   armor    boolean
+     * @since            1.2.0
+     */
+    public void setArmor(final boolean armor) {
+        this.armor = armor;
+    }
+
+    /**
+     * Return the file naming the recipients to encrypt for.
+     *
+     * @return  java.lang.String
+     * @since   1.2.0
+     */
+    public String getRecipients() {
+        return this.recipients;
+    }
+
+    /**
+     * Set the file naming the recipients to encrypt for.
+     *
+     * @param   recipients    java.lang.String
+     * @since                 1.2.0
+     */
+    public void setRecipients(final String recipients) {
+        this.recipients = recipients;
+    }
+
+    /**
+     * Return the socket of the key agent to ask for keys.
+     *
+     * @return  java.lang.String
+     * @since   1.2.0
+     */
+    public String getKeyAgent() {
+        return this.keyAgent;
+    }
+
+    /**
+     * Set the socket of the key agent to ask for keys.
+     *
+     * @param   keyAgent    java.lang.String
+     * @since               1.2.0
+     */
+    public void setKeyAgent(final String keyAgent) {
+        this.keyAgent = keyAgent;
+    }
+
+    /**
+     * Return the input file names and patterns.
+     *
+     * @return  java.util.List&lt;java.lang.String&gt;
+     * @since   1.2.0
+     */
+    public List<String> getInputFiles() {
+        return this.inputFiles;
+    }
+
+    /**
+     * Set the input file names and patterns.
+     *
+     * @param   inputFiles    java.util.List&lt;java.lang.String&gt;
+     * @since                 1.2.0
+     */
+    public void setInputFiles(final List<String> inputFiles) {
+        this.inputFiles = inputFiles;
+    }
+
+    /**
+     * Return the number of files processed concurrently.
+     *
+     * @return  int
+     * @since   1.2.0
+     */
+    public int getConcurrency() {
+        return this.concurrency;
+    }
+
+    /**
+     * Set the number of files processed concurrently.
+     *
+     * @param   concurrency    int
+     * @since                  1.2.0
+     */
+    public void setConcurrency(final int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Return true to stop at the first file that fails.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    public boolean isFailFast() {
+        return this.failFast;
+    }
+
+    /**
+     * Set true to stop at the first file that fails.
+     *
+     * @param   failFast    boolean
+     * @since               1.2.0
+     */
+    public void setFailFast(final boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    /**
+     * Return true to resume an interrupted encryption from its last checkpoint.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    public boolean isResume() {
+        return this.resume;
+    }
+
+    /**
+     * Set to true to resume an interrupted encryption from its last checkpoint.
+     *
+     * @param   resume    boolean
+     * @since             1.2.0
+     */
+    public void setResume(final boolean resume) {
+        this.resume = resume;
+    }
+
     /**
      * Return the user ID value.
      *
@@ -146,6 +545,28 @@ public final class Options {
         this.password = password;
     }
 
+    /**
+     * Return the supplier that prompts for the password
+     * when a key agent does not hold the key.
+     *
+     * @return  java.util.function.Supplier&lt;java.lang.String&gt;
+     * @since   1.2.0
+     */
+    public Supplier<String> getPasswordSupplier() {
+        return this.passwordSupplier;
+    }
+
+    /**
+     * Set the supplier that prompts for the password
+     * when a key agent does not hold the key.
+     *
+     * @param   passwordSupplier    java.util.function.Supplier&lt;java.lang.String&gt;
+     * @since                       1.2.0
+     */
+    public void setPasswordSupplier(final Supplier<String> passwordSupplier) {
+        this.passwordSupplier = passwordSupplier;
+    }
+
     /**
      * The to-string method.
      *
@@ -157,8 +578,25 @@ public final class Options {
                 "string='" + string + '\'' +
                 ", inputFile='" + inputFile + '\'' +
                 ", outputFile='" + outputFile + '\'' +
+                ", manifest='" + manifest + '\'' +
+                ", progress=" + progress +
+                ", ioEngine='" + ioEngine + '\'' +
+                ", durability='" + durability + '\'' +
+                ", directIo=" + directIo +
+                ", queueDepth=" + queueDepth +
+                ", archive='" + archive + '\'' +
+                ", extract='" + extract + '\'' +
+                ", list=" + list +
+                ", chunkStore='" + chunkStore + '\'' +
+                ", armor=" + armor +
+                ", recipients='" + recipients + '\'' +
+                ", keyAgent='" + keyAgent + '\'' +
+                ", inputFiles=" + inputFiles +
+                ", concurrency=" + concurrency +
+                ", failFast=" + failFast +
+                ", resume=" + resume +
                 ", userId='" + userId + '\'' +
-                ", password='" + password + '\'' +
+                ", password=" + (password != null ? "'********'" : null) +
                 '}';
     }
 }
@@ -1,10 +1,11 @@
 package net.jmp.aes256.input;
 
 /*
+ * (#)OptionsHandler.java   1.2.0   10/19/2026
  * (#)OptionsHandler.java   0.2.0   07/02/2024
  *
  * @author   Jonathan Parker
- * @version  0.2.0
+ * @version  1.2.0
  * @since    0.2.0
  *
  * MIT License
@@ -30,6 +31,7 @@ package net.jmp.aes256.input;
  * SOFTWARE.
  */
 
+import java.util.List;
 import java.util.Objects;
 
 import org.apache.commons.cli.CommandLine;
@@ -58,9 +60,21 @@ public final class OptionsHandler {
     /** True if the --input-file option was provided. */
     private boolean hasInputFile;
 
+    /** True if the --input-file option names more than one file. @since 1.2.0 */
+    private boolean hasInputFiles;
+
     /** True if the --output-file option was provided. */
     private boolean hasOutputFile;
 
+    /** True if the --manifest option was provided. @since 1.2.0 */
+    private boolean hasManifest;
+
+    /** True if the --archive option was provided. @since 1.2.0 */
+    private boolean hasArchive;
+
+    /** True if the --list option was provided. @since 1.2.0 */
+    private boolean hasList;
+
     /** True if the --user-id option was provided. */
     private boolean hasUserId;
 
@@ -104,6 +118,22 @@ public final class OptionsHandler {
         }
     }
 
+    /**
+     * Return true when the --input-file option names more than
+     * one file: it is repeated, it is a glob pattern or the
+     * output file is a template.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    public boolean containsInputFiles() {
+        if (this.isHandled) {
+            return this.hasInputFiles;
+        } else {
+            throw new IllegalStateException(NOT_HANDLED);
+        }
+    }
+
     /**
      * Return true when the --output-file option is provided.
      *
@@ -117,11 +147,53 @@ public final class OptionsHandler {
         }
     }
 
+    /**
+     * Return true when the --archive option is provided.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    public boolean containsArchive() {
+        if (this.isHandled) {
+            return this.hasArchive;
+        } else {
+            throw new IllegalStateException(NOT_HANDLED);
+        }
+    }
+
+    /**
+     * Return true when the --manifest option is provided.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    public boolean containsManifest() {
+        if (this.isHandled) {
+            return this.hasManifest;
+        } else {
+            throw new IllegalStateException(NOT_HANDLED);
+        }
+    }
+
     /**
      * Return true when the --user-id option is provided.
      *
      * @return  boolean
      */
+    /**
+     * Return true when the --list option is provided.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    public boolean containsList() {
+        if (this.isHandled) {
+            return this.hasList;
+        } else {
+            throw new IllegalStateException(NOT_HANDLED);
+        }
+    }
+
     public boolean containsUserId() {
         if (this.isHandled) {
             return this.hasUserId;
@@ -148,16 +220,22 @@ public final class OptionsHandler {
 
         boolean result = this.validateOptions();
 
-        if (result && (this.hasString || (this.hasInputFile && this.hasOutputFile))) {
+        if (result && (this.hasString || (this.hasInputFile && this.hasOutputFile) || this.hasInputFiles || this.hasManifest || this.hasArchive || this.hasList)) {
             if (this.hasString) {
                 this.stringHandled();
+            } else if (this.hasManifest) {
+                this.manifestHandled();
+            } else if (this.hasArchive) {
+                this.archiveHandled();
+            } else if (this.hasList) {
+                this.listHandled();
             } else {
                 this.filesHandled();
             }
 
             this.isHandled = true;
         } else {
-            System.out.println("Neither --string nor --input-file options were specified");
+            System.out.println("Neither --string, --input-file, --manifest, --archive nor --list options were specified");
 
             result = false;
         }
@@ -191,7 +269,7 @@ public final class OptionsHandler {
         this.logger.entry();
 
         if (this.logger.isDebugEnabled()) {
-            this.logger.debug("Will handle input file: {}", this.commandLine.getOptionValue("i"));
+            this.logger.debug("Will handle input files: {}", List.of(this.commandLine.getOptionValues("i")));
             this.logger.debug("Will handle output file: {}", this.commandLine.getOptionValue("o"));
 
             if (this.hasUserId) {
@@ -202,6 +280,51 @@ public final class OptionsHandler {
         this.logger.exit();
     }
 
+    /**
+     * Log the handled archive.
+     *
+     * @since   1.2.0
+     */
+    private void archiveHandled() {
+        this.logger.entry();
+
+        if (this.logger.isDebugEnabled()) {
+            this.logger.debug("Will handle archive: {}", this.commandLine.getOptionValue("archive"));
+        }
+
+        this.logger.exit();
+    }
+
+    /**
+     * Log the handled listing.
+     *
+     * @since   1.2.0
+     */
+    private void listHandled() {
+        this.logger.entry();
+
+        if (this.logger.isDebugEnabled()) {
+            this.logger.debug("Will list archive: {}", this.commandLine.getOptionValue("i"));
+        }
+
+        this.logger.exit();
+    }
+
+    /**
+     * Log the handled manifest.
+     *
+     * @since   1.2.0
+     */
+    private void manifestHandled() {
+        this.logger.entry();
+
+        if (this.logger.isDebugEnabled()) {
+            this.logger.debug("Will handle manifest: {}", this.commandLine.getOptionValue("m"));
+        }
+
+        this.logger.exit();
+    }
+
     /**
      * Return true if the combination of options is valid.
      *
@@ -225,7 +348,43 @@ public final class OptionsHandler {
                 result = this.handleOutputFile();
 
                 if (result) {
-                    this.handleUserId();
+                    result = this.handleManifest();
+
+                    if (result) {
+                        result = this.handleArchive();
+
+                        if (result) {
+                            result = this.handleExtract();
+
+                            if (result) {
+                                result = this.handleList();
+
+                                if (result) {
+                                    result = this.handleChunkStore();
+
+                                    if (result) {
+                                        result = this.handleArmor();
+
+                                        if (result) {
+                                            result = this.handleRecipients();
+
+                                            if (result) {
+                                                result = this.handleFailFast();
+
+                                                if (result) {
+                                                    result = this.handleResume();
+
+                                                    if (result) {
+                                                        this.handleUserId();
+                                                    }
+                                                }
+                                            }
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
                 }
             }
         }
@@ -279,7 +438,7 @@ public final class OptionsHandler {
         if (this.commandLine.hasOption("i")) {
             this.logger.debug("Found --input-file option");
 
-            if (!this.commandLine.hasOption("o")) {
+            if (!this.commandLine.hasOption("o") && !this.commandLine.hasOption("archive") && !this.commandLine.hasOption("list")) {
                 System.out.println("Option --output-file option must be specified with --input-file");
 
                 result = false;
@@ -291,8 +450,32 @@ public final class OptionsHandler {
                 result = false;
             }
 
+            final boolean multiple = InputFiles.isMultiple(this.commandLine.getOptionValues("i"), this.commandLine.getOptionValue("o"));
+
+            if (result && multiple) {
+                if (!this.commandLine.hasOption("o") || !InputFiles.isFileNameTemplate(this.commandLine.getOptionValue("o"))) {
+                    System.out.println("Option --output-file must be a template containing {name} or {stem} with more than one input file");
+
+                    result = false;
+                }
+
+                if (this.commandLine.hasOption("archive")
+                        || this.commandLine.hasOption("list")
+                        || this.commandLine.hasOption("chunk-store")
+                        || this.commandLine.hasOption("recipients")
+                        || this.commandLine.hasOption("progress")) {
+                    System.out.println("Options --archive, --list, --chunk-store, --recipients and --progress are not allowed with more than one input file");
+
+                    result = false;
+                }
+            }
+
             if (result) {
-                this.hasInputFile = true;
+                if (multiple) {
+                    this.hasInputFiles = true;
+                } else {
+                    this.hasInputFile = true;
+                }
             }
         }
 
@@ -315,7 +498,7 @@ public final class OptionsHandler {
         if (this.commandLine.hasOption("o")) {
             this.logger.debug("Found --output-file option");
 
-            if (!this.commandLine.hasOption("i")) {
+            if (!this.commandLine.hasOption("i") && !this.commandLine.hasOption("archive")) {
                 System.out.println("Option --input-file option must be specified with --output-file");
 
                 result = false;
@@ -337,6 +520,311 @@ public final class OptionsHandler {
         return result;
     }
 
+    /**
+     * Handle the --manifest option. True
+     * is returned if no errors were detected.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    private boolean handleManifest() {
+        this.logger.entry();
+
+        boolean result = true;
+
+        if (this.commandLine.hasOption("m")) {
+            this.logger.debug("Found --manifest option");
+
+            if (this.commandLine.hasOption("s") || this.commandLine.hasOption("i") || this.commandLine.hasOption("o")) {
+                System.out.println("Options --string, --input-file and --output-file are not allowed with --manifest");
+
+                result = false;
+            }
+
+            if (result) {
+                this.hasManifest = true;
+            }
+        }
+
+        this.logger.exit(result);
+
+        return result;
+    }
+
+    /**
+     * Handle the --archive option. An archive is created
+     * into the output file or extracted from the input
+     * file, so exactly one of them is required. True is
+     * returned if no errors were detected.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    private boolean handleArchive() {
+        this.logger.entry();
+
+        boolean result = true;
+
+        if (this.commandLine.hasOption("archive")) {
+            this.logger.debug("Found --archive option");
+
+            if (this.commandLine.hasOption("s") || this.commandLine.hasOption("m")) {
+                System.out.println("Options --string and --manifest are not allowed with --archive");
+
+                result = false;
+            }
+
+            if (this.commandLine.hasOption("i") == this.commandLine.hasOption("o")) {
+                System.out.println("Exactly one of --input-file or --output-file must be specified with --archive");
+
+                result = false;
+            }
+
+            if (result) {
+                this.hasArchive = true;
+            }
+        }
+
+        this.logger.exit(result);
+
+        return result;
+    }
+
+    /**
+     * Handle the --extract option. Members are extracted
+     * from an input file into the archive directory. True
+     * is returned if no errors were detected.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    private boolean handleExtract() {
+        this.logger.entry();
+
+        boolean result = true;
+
+        if (this.commandLine.hasOption("extract")) {
+            this.logger.debug("Found --extract option");
+
+            if (!this.commandLine.hasOption("archive") || !this.commandLine.hasOption("i")) {
+                System.out.println("Options --archive and --input-file must be specified with --extract");
+
+                result = false;
+            }
+        }
+
+        this.logger.exit(result);
+
+        return result;
+    }
+
+    /**
+     * Handle the --list option. The members of the input
+     * file are listed so only it may be specified. True
+     * is returned if no errors were detected.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    private boolean handleList() {
+        this.logger.entry();
+
+        boolean result = true;
+
+        if (this.commandLine.hasOption("list")) {
+            this.logger.debug("Found --list option");
+
+            if (!this.commandLine.hasOption("i")) {
+                System.out.println("Option --input-file must be specified with --list");
+
+                result = false;
+            }
+
+            if (this.commandLine.hasOption("s")
+                    || this.commandLine.hasOption("o")
+                    || this.commandLine.hasOption("m")
+                    || this.commandLine.hasOption("archive")) {
+                System.out.println("Options --string, --output-file, --manifest and --archive are not allowed with --list");
+
+                result = false;
+            }
+
+            if (result) {
+                this.hasList = true;
+            }
+        }
+
+        this.logger.exit(result);
+
+        return result;
+    }
+
+    /**
+     * Handle the --chunk-store option. The input file is
+     * encrypted into the store and the output file receives
+     * its manifest, or the reverse, so both are required.
+     * True is returned if no errors were detected.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    private boolean handleChunkStore() {
+        this.logger.entry();
+
+        boolean result = true;
+
+        if (this.commandLine.hasOption("chunk-store")) {
+            this.logger.debug("Found --chunk-store option");
+
+            if (!this.commandLine.hasOption("i") || !this.commandLine.hasOption("o")) {
+                System.out.println("Options --input-file and --output-file must be specified with --chunk-store");
+
+                result = false;
+            }
+
+            if (this.commandLine.hasOption("archive")) {
+                System.out.println("Option --archive is not allowed with --chunk-store");
+
+                result = false;
+            }
+        }
+
+        this.logger.exit(result);
+
+        return result;
+    }
+
+    /**
+     * Handle the --armor option. True
+     * is returned if no errors were detected.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    private boolean handleArmor() {
+        this.logger.entry();
+
+        boolean result = true;
+
+        if (this.commandLine.hasOption("armor")) {
+            this.logger.debug("Found --armor option");
+
+            if (!this.commandLine.hasOption("i") || !this.commandLine.hasOption("o")) {
+                System.out.println("Options --input-file and --output-file must be specified with --armor");
+
+                result = false;
+            }
+
+            if (this.commandLine.hasOption("archive") || this.commandLine.hasOption("chunk-store")) {
+                System.out.println("Options --archive and --chunk-store are not allowed with --armor");
+
+                result = false;
+            }
+        }
+
+        this.logger.exit(result);
+
+        return result;
+    }
+
+    /**
+     * Handle the --recipients option. True
+     * is returned if no errors were detected.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    private boolean handleRecipients() {
+        this.logger.entry();
+
+        boolean result = true;
+
+        if (this.commandLine.hasOption("recipients")) {
+            this.logger.debug("Found --recipients option");
+
+            if (!this.commandLine.hasOption("i") || !this.commandLine.hasOption("o")) {
+                System.out.println("Options --input-file and --output-file must be specified with --recipients");
+
+                result = false;
+            }
+
+            if (this.commandLine.hasOption("u") || this.commandLine.hasOption("archive") || this.commandLine.hasOption("chunk-store")) {
+                System.out.println("Options --user-id, --archive and --chunk-store are not allowed with --recipients");
+
+                result = false;
+            }
+        }
+
+        this.logger.exit(result);
+
+        return result;
+    }
+
+    /**
+     * Handle the --fail-fast option, which only applies when
+     * there is more than one input file. True is returned if
+     * no errors were detected.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    private boolean handleFailFast() {
+        this.logger.entry();
+
+        boolean result = true;
+
+        if (this.commandLine.hasOption("fail-fast")) {
+            this.logger.debug("Found --fail-fast option");
+
+            if (!this.hasInputFiles) {
+                System.out.println("Option --fail-fast is only allowed with more than one input file");
+
+                result = false;
+            }
+        }
+
+        this.logger.exit(result);
+
+        return result;
+    }
+
+    /**
+     * Handle the --resume option. True
+     * is returned if no errors were detected.
+     *
+     * @return  boolean
+     * @since   1.2.0
+     */
+    private boolean handleResume() {
+        this.logger.entry();
+
+        boolean result = true;
+
+        if (this.commandLine.hasOption("resume")) {
+            this.logger.debug("Found --resume option");
+
+            if (!this.hasInputFile && !this.hasInputFiles) {
+                System.out.println("Options --input-file and --output-file must be specified with --resume");
+
+                result = false;
+            }
+
+            if (this.commandLine.hasOption("armor")
+                    || this.commandLine.hasOption("chunk-store")
+                    || this.commandLine.hasOption("direct-io")
+                    || this.commandLine.hasOption("io-engine")
+                    || this.commandLine.hasOption("recipients")) {
+                System.out.println("Options --armor, --chunk-store, --direct-io, --io-engine and --recipients are not allowed with --resume");
+
+                result = false;
+            }
+        }
+
+        this.logger.exit(result);
+
+        return result;
+    }
+
     /**
      * Handle the --user-id option.
      */
@@ -363,7 +851,9 @@ public final class OptionsHandler {
                 ", commandLine=" + commandLine +
                 ", hasString=" + hasString +
                 ", hasInputFile=" + hasInputFile +
+                ", hasInputFiles=" + hasInputFiles +
                 ", hasOutputFile=" + hasOutputFile +
+                ", hasManifest=" + hasManifest +
                 ", hasUserId=" + hasUserId +
                 ", isHandled=" + isHandled +
                 '}';
@@ -118,7 +118,7 @@ public final class Prompter {
             result = Optional.empty();
         }
 
-        this.logger.exit(result);
+        this.logger.exit();
 
         return result;
     }
@@ -156,7 +156,7 @@ public final class Prompter {
             result = Optional.empty();
         }
 
-        this.logger.exit(result);
+        this.logger.exit();
 
         return result;
     }
@@ -175,7 +175,7 @@ public final class Prompter {
 
         final String result = new String(password);
 
-        this.logger.exit(result);
+        this.logger.exit();
 
         return result;
     }
@@ -188,7 +188,7 @@ public final class Prompter {
      * @return              boolean
      */
     private boolean isPasswordValid(final char[] password) {
-        this.logger.entry(password);
+        this.logger.entry();
 
         assert password != null;
 
@@ -0,0 +1,176 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)BatchKeyDeriver.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import java.util.function.Consumer;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+
+import net.jmp.aes256.input.Credential;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * Derives the keys for many credentials in parallel on
+ * a fork-join pool sized to the available processors.
+ * Each result is handed to the consumer as soon as its
+ * derivation completes; the consumer is never called
+ * concurrently.
+ */
+public final class BatchKeyDeriver implements AutoCloseable {
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The configuration. */
+    private final Config config;
+
+    /** The fork-join pool. */
+    private final ForkJoinPool pool;
+
+    /** True if the pool was created by this object. */
+    private final boolean ownsPool;
+
+    /**
+     * The default constructor.
+     */
+    private BatchKeyDeriver() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the configuration and
+     * creates a pool sized to the available processors.
+     *
+     * @param   config  net.jmp.aes256.config.Config
+     */
+    public BatchKeyDeriver(final Config config) {
+        this(config, new ForkJoinPool(Runtime.getRuntime().availableProcessors()), true);
+    }
+
+    /**
+     * A constructor that takes the configuration and the pool.
+     *
+     * @param   config  net.jmp.aes256.config.Config
+     * @param   pool    java.util.concurrent.ForkJoinPool
+     */
+    public BatchKeyDeriver(final Config config, final ForkJoinPool pool) {
+        this(config, pool, false);
+    }
+
+    /**
+     * A constructor that takes the configuration, the
+     * pool and whether the pool is owned by this object.
+     *
+     * @param   config      net.jmp.aes256.config.Config
+     * @param   pool        java.util.concurrent.ForkJoinPool
+     * @param   ownsPool    boolean
+     */
+    private BatchKeyDeriver(final Config config, final ForkJoinPool pool, final boolean ownsPool) {
+        super();
+
+        this.config = Objects.requireNonNull(config);
+        this.pool = Objects.requireNonNull(pool);
+        this.ownsPool = ownsPool;
+
+        this.config.validate();
+    }
+
+    /**
+     * Derive the keys for all the credentials, handing
+     * each result to the consumer as it completes. This
+     * method returns once every derivation has finished.
+     *
+     * @param   credentials java.util.Collection&lt;net.jmp.aes256.input.Credential&gt;
+     * @param   consumer    java.util.function.Consumer&lt;net.jmp.aes256.utils.DerivedKey&gt;
+     */
+    public void derive(final Collection<Credential> credentials, final Consumer<DerivedKey> consumer) {
+        this.logger.entry(credentials, consumer);
+
+        Objects.requireNonNull(credentials);
+        Objects.requireNonNull(consumer);
+
+        final Object lock = new Object();
+
+        final List<CompletableFuture<Void>> futures = credentials.stream()
+                .map(credential -> CompletableFuture
+                        .supplyAsync(() -> this.derive(credential), this.pool)
+                        .thenAccept(derivedKey -> {
+                            synchronized (lock) {
+                                consumer.accept(derivedKey);
+                            }
+                        }))
+                .toList();
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        this.logger.exit();
+    }
+
+    /**
+     * Derive the key for one credential.
+     *
+     * @param   credential  net.jmp.aes256.input.Credential
+     * @return              net.jmp.aes256.utils.DerivedKey
+     */
+    private DerivedKey derive(final Credential credential) {
+        final long start = System.nanoTime();
+
+        try {
+            final String salt = new Salter(this.config).getSalt(credential.getUserId());
+            final SecretKeySpec secretKeySpec = new SecretKeySpecBuilder(this.config).build(credential.resolvePassword(), salt);
+
+            return new DerivedKey(credential.getUserId(), secretKeySpec, null, System.nanoTime() - start);
+        } catch (final Exception e) {
+            return new DerivedKey(credential.getUserId(), null, e, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Shut down the pool if it was created by this object.
+     */
+    @Override
+    public void close() {
+        if (this.ownsPool) {
+            this.pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)Calibration.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Arrays;
+
+/**
+ * The result of calibrating the key derivation cost.
+ * It holds the recommended parameter and statistics
+ * over the timed runs made with that parameter.
+ */
+public final class Calibration {
+    /** The secret key factory instance. */
+    @SerializedName("secret-key-factory-instance")
+    private final String secretKeyFactoryInstance;
+
+    /** The name of the configuration setting that was calibrated. */
+    @SerializedName("setting")
+    private final String setting;
+
+    /** The recommended value. */
+    @SerializedName("value")
+    private final int value;
+
+    /** The target latency in milliseconds. */
+    @SerializedName("target-millis")
+    private final long targetMillis;
+
+    /** True if the configured maximum kept the value from reaching the target. */
+    @SerializedName("capped")
+    private final boolean capped;
+
+    /** The timed runs in milliseconds. */
+    @SerializedName("samples-millis")
+    private final double[] samplesMillis;
+
+    /** The mean in milliseconds. */
+    @SerializedName("mean-millis")
+    private final double meanMillis;
+
+    /** The minimum in milliseconds. */
+    @SerializedName("minimum-millis")
+    private final double minimumMillis;
+
+    /** The maximum in milliseconds. */
+    @SerializedName("maximum-millis")
+    private final double maximumMillis;
+
+    /** The standard deviation in milliseconds. */
+    @SerializedName("standard-deviation-millis")
+    private final double standardDeviationMillis;
+
+    /** The standard deviation as a percentage of the mean. */
+    @SerializedName("coefficient-of-variation-percent")
+    private final double coefficientOfVariationPercent;
+
+    /**
+     * The default constructor.
+     */
+    private Calibration() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the parameter and the timed runs.
+     *
+     * @param   secretKeyFactoryInstance    java.lang.String
+     * @param   setting                     java.lang.String
+     * @param   value                       int
+     * @param   targetMillis                long
+     * @param   capped                      boolean
+     * @param   samplesNanos                long[]
+     */
+    Calibration(final String secretKeyFactoryInstance,
+                final String setting,
+                final int value,
+                final long targetMillis,
+                final boolean capped,
+                final long[] samplesNanos) {
+        super();
+
+        if (samplesNanos.length == 0) {
+            throw new IllegalArgumentException("At least one sample is required");
+        }
+
+        this.secretKeyFactoryInstance = secretKeyFactoryInstance;
+        this.setting = setting;
+        this.value = value;
+        this.targetMillis = targetMillis;
+        this.capped = capped;
+        this.samplesMillis = Arrays.stream(samplesNanos).mapToDouble(nanos -> round(nanos / 1_000_000.0)).toArray();
+
+        final double mean = Arrays.stream(this.samplesMillis).average().orElse(0);
+        final double variance = Arrays.stream(this.samplesMillis).map(sample -> (sample - mean) * (sample - mean)).sum() / this.samplesMillis.length;
+
+        this.meanMillis = round(mean);
+        this.minimumMillis = Arrays.stream(this.samplesMillis).min().orElse(0);
+        this.maximumMillis = Arrays.stream(this.samplesMillis).max().orElse(0);
+        this.standardDeviationMillis = round(Math.sqrt(variance));
+        this.coefficientOfVariationPercent = mean == 0 ? 0 : round(100 * Math.sqrt(variance) / mean);
+    }
+
+    /**
+     * Round to two decimal places.
+     *
+     * @param   value   double
+     * @return          double
+     */
+    private static double round(final double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Return the secret key factory instance.
+     *
+     * @return  java.lang.String
+     */
+    public String getSecretKeyFactoryInstance() {
+        return this.secretKeyFactoryInstance;
+    }
+
+    /**
+     * Return the name of the configuration setting that was calibrated.
+     *
+     * @return  java.lang.String
+     */
+    public String getSetting() {
+        return this.setting;
+    }
+
+    /**
+     * Return the recommended value.
+     *
+     * @return  int
+     */
+    public int getValue() {
+        return this.value;
+    }
+
+    /**
+     * Return the target latency in milliseconds.
+     *
+     * @return  long
+     */
+    public long getTargetMillis() {
+        return this.targetMillis;
+    }
+
+    /**
+     * Return true if the configured maximum iterations
+     * or scrypt memory kept the value from reaching the
+     * target.
+     *
+     * @return  boolean
+     */
+    public boolean isCapped() {
+        return this.capped;
+    }
+
+    /**
+     * Return the timed runs in milliseconds.
+     *
+     * @return  double[]
+     */
+    public double[] getSamplesMillis() {
+        return this.samplesMillis.clone();
+    }
+
+    /**
+     * Return the mean in milliseconds.
+     *
+     * @return  double
+     */
+    public double getMeanMillis() {
+        return this.meanMillis;
+    }
+
+    /**
+     * Return the minimum in milliseconds.
+     *
+     * @return  double
+     */
+    public double getMinimumMillis() {
+        return this.minimumMillis;
+    }
+
+    /**
+     * Return the maximum in milliseconds.
+     *
+     * @return  double
+     */
+    public double getMaximumMillis() {
+        return this.maximumMillis;
+    }
+
+    /**
+     * Return the standard deviation in milliseconds.
+     *
+     * @return  double
+     */
+    public double getStandardDeviationMillis() {
+        return this.standardDeviationMillis;
+    }
+
+    /**
+     * Return the standard deviation as a percentage of the mean.
+     *
+     * @return  double
+     */
+    public double getCoefficientOfVariationPercent() {
+        return this.coefficientOfVariationPercent;
+    }
+
+    /**
+     * The to-string method.
+     *
+     * @return  java.lang.String
+     */
+    @Override
+    public String toString() {
+        return "Calibration{" +
+                "secretKeyFactoryInstance='" + this.secretKeyFactoryInstance + '\'' +
+                ", setting='" + this.setting + '\'' +
+                ", value=" + this.value +
+                ", targetMillis=" + this.targetMillis +
+                ", capped=" + this.capped +
+                ", samplesMillis=" + Arrays.toString(this.samplesMillis) +
+                ", meanMillis=" + this.meanMillis +
+                ", minimumMillis=" + this.minimumMillis +
+                ", maximumMillis=" + this.maximumMillis +
+                ", standardDeviationMillis=" + this.standardDeviationMillis +
+                ", coefficientOfVariationPercent=" + this.coefficientOfVariationPercent +
+                '}';
+    }
+}
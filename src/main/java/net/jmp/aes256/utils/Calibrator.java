@@ -0,0 +1,334 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)Calibrator.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.Objects;
+
+import net.jmp.aes256.config.Config;
+
+import net.jmp.aes256.crypto.CryptographyException;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * Measures the secret key spec builder on this host and
+ * finds the key derivation cost that meets a target latency.
+ * For PBKDF2 the iteration count is scaled from a timed probe
+ * and rounded to a multiple of 1,000; for scrypt the cost is
+ * the largest power of two that stays within the target. Neither
+ * exceeds the maximum iterations or scrypt memory configured,
+ * so the recommendation always passes validation.
+ */
+public final class Calibrator {
+    /** The synthetic password used for measurement. */
+    private static final String PASSWORD = "Calibration#Password-0123456789";
+
+    /** The synthetic salt used for measurement. */
+    private static final String SALT = "Y2FsaWJyYXRpb24tc2FsdA==";
+
+    /** The smallest PBKDF2 iteration count recommended. */
+    private static final int MINIMUM_ITERATIONS = 1_000;
+
+    /** The smallest scrypt cost recommended. */
+    private static final int MINIMUM_COST = 1_024;
+
+    /** The most times a PBKDF2 estimate is re-measured. */
+    private static final int MAXIMUM_REFINEMENTS = 5;
+
+    /** The longest time spent warming up in nanoseconds. */
+    private static final long WARM_UP_NANOS = 3_000_000_000L;
+
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The configuration. */
+    private final Config config;
+
+    /**
+     * The default constructor.
+     */
+    private Calibrator() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the configuration.
+     *
+     * @param   config  net.jmp.aes256.config.Config
+     */
+    public Calibrator(final Config config) {
+        super();
+
+        this.config = Objects.requireNonNull(config);
+
+        this.config.validate();
+    }
+
+    /**
+     * Calibrate the configured key derivation function.
+     *
+     * @param   targetMillis    long
+     * @param   runs            int
+     * @return                  net.jmp.aes256.utils.Calibration
+     * @throws                  net.jmp.aes256.crypto.CryptographyException
+     */
+    public Calibration calibrate(final long targetMillis, final int runs) throws CryptographyException {
+        Trace.entry(this.logger, targetMillis, runs);
+
+        if (targetMillis < 1) {
+            throw new IllegalArgumentException("The target must be at least one millisecond: " + targetMillis);
+        }
+
+        if (runs < 1) {
+            throw new IllegalArgumentException("The number of runs must be positive: " + runs);
+        }
+
+        final Config trial = this.config.copy();
+
+        Calibration calibration;
+
+        if (SecretKeySpecBuilder.SCRYPT.equalsIgnoreCase(trial.getSecretKeyFactoryInstance())) {
+            final boolean capped = this.calibrateScrypt(trial, targetMillis * 1_000_000L);
+
+            calibration = new Calibration(trial.getSecretKeyFactoryInstance(),
+                    "scrypt:cost",
+                    trial.getScrypt().getCost(),
+                    targetMillis,
+                    capped,
+                    this.sample(trial, runs));
+        } else {
+            final boolean capped = this.calibratePbkdf2(trial, targetMillis * 1_000_000L);
+
+            calibration = new Calibration(trial.getSecretKeyFactoryInstance(),
+                    "pbe-key-spec-iterations",
+                    trial.getPbeKeySpecIterations(),
+                    targetMillis,
+                    capped,
+                    this.sample(trial, runs));
+        }
+
+        Trace.exit(this.logger, calibration);
+
+        return calibration;
+    }
+
+    /**
+     * Find the PBKDF2 iteration count for the target
+     * and leave it set in the trial configuration. True
+     * is returned if the target needs more iterations
+     * than the configured maximum.
+     *
+     * @param   trial       net.jmp.aes256.config.Config
+     * @param   targetNanos long
+     * @return              boolean
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     */
+    private boolean calibratePbkdf2(final Config trial, final long targetNanos) throws CryptographyException {
+        final int maximum = trial.getMaximumIterations();
+
+        trial.setPbeKeySpecIterations(Math.min(MINIMUM_ITERATIONS * 10, maximum));
+
+        this.warmUp(trial);
+
+        int probe = Math.min(MINIMUM_ITERATIONS, maximum);
+
+        trial.setPbeKeySpecIterations(probe);
+
+        /* Double the probe until it takes long enough to time reliably */
+
+        long elapsed = this.time(trial);
+
+        while (elapsed < targetNanos / 4 && probe <= maximum / 2) {
+            probe *= 2;
+
+            trial.setPbeKeySpecIterations(probe);
+
+            elapsed = this.time(trial);
+        }
+
+        /* Scale to the target and re-measure, since early probes include JIT compilation */
+
+        int iterations = this.scale(probe, elapsed, targetNanos, maximum);
+
+        for (int round = 0; round < MAXIMUM_REFINEMENTS; round++) {
+            trial.setPbeKeySpecIterations(iterations);
+
+            elapsed = this.time(trial);
+
+            final int next = this.scale(iterations, elapsed, targetNanos, maximum);
+
+            if (Math.abs(elapsed - targetNanos) <= targetNanos / 20 || next == iterations) {
+                break;
+            }
+
+            iterations = next;
+        }
+
+        if (this.logger.isDebugEnabled()) {
+            this.logger.debug("{} iterations took {} ns", iterations, elapsed);
+        }
+
+        trial.setPbeKeySpecIterations(iterations);
+
+        final boolean capped = iterations == maximum && elapsed < targetNanos - targetNanos / 20;
+
+        if (capped) {
+            this.logger.warn("The target needs more than the maximum of {} iterations", maximum);
+        }
+
+        return capped;
+    }
+
+    /**
+     * Scale an iteration count from a timed run to the
+     * target, rounded to a multiple of the minimum and
+     * kept within the maximum.
+     *
+     * @param   iterations  int
+     * @param   elapsed     long
+     * @param   targetNanos long
+     * @param   maximum     int
+     * @return              int
+     */
+    private int scale(final int iterations, final long elapsed, final long targetNanos, final int maximum) {
+        final double estimate = (double) iterations * targetNanos / Math.max(1, elapsed);
+        final long rounded = Math.round(estimate / MINIMUM_ITERATIONS) * MINIMUM_ITERATIONS;
+
+        return Math.clamp(rounded, Math.min(MINIMUM_ITERATIONS, maximum), maximum);
+    }
+
+    /**
+     * Find the scrypt cost for the target and leave
+     * it set in the trial configuration. True is
+     * returned if the target needs more memory than
+     * the configured maximum or half of the heap.
+     *
+     * @param   trial       net.jmp.aes256.config.Config
+     * @param   targetNanos long
+     * @return              boolean
+     * @throws              net.jmp.aes256.crypto.CryptographyException
+     */
+    private boolean calibrateScrypt(final Config trial, final long targetNanos) throws CryptographyException {
+        final var scrypt = trial.getScrypt();
+        final long maximumMemory = Math.min(Runtime.getRuntime().maxMemory() / 2, trial.getMaximumScryptMemory());
+
+        scrypt.setCost(MINIMUM_COST);
+
+        this.warmUp(trial);
+
+        /* Doubling the cost doubles the time, so stop while twice the time still fits */
+
+        int cost = MINIMUM_COST;
+        long elapsed = this.time(trial);
+
+        while (elapsed * 2 <= targetNanos && scrypt.getMemoryPerLane() * 2 * scrypt.getParallelization() <= maximumMemory) {
+            cost *= 2;
+
+            scrypt.setCost(cost);
+
+            elapsed = this.time(trial);
+        }
+
+        if (this.logger.isDebugEnabled()) {
+            this.logger.debug("Cost {} took {} ns", cost, elapsed);
+        }
+
+        final boolean capped = elapsed * 2 <= targetNanos;
+
+        if (capped) {
+            this.logger.warn("The target needs more than the maximum of {} bytes of scrypt memory", maximumMemory);
+        }
+
+        return capped;
+    }
+
+    /**
+     * Derive repeatedly until three successive timings
+     * agree within ten percent, so that the measurements
+     * reflect compiled code rather than the interpreter.
+     *
+     * @param   trial   net.jmp.aes256.config.Config
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     */
+    private void warmUp(final Config trial) throws CryptographyException {
+        final long deadline = System.nanoTime() + WARM_UP_NANOS;
+
+        long previous = this.time(trial);
+        int stable = 0;
+
+        while (stable < 3 && System.nanoTime() < deadline) {
+            final long elapsed = this.time(trial);
+
+            stable = Math.abs(elapsed - previous) <= previous / 10 ? stable + 1 : 0;
+            previous = elapsed;
+        }
+
+        if (this.logger.isDebugEnabled()) {
+            this.logger.debug("Warmed up at {} ns per derivation", previous);
+        }
+    }
+
+    /**
+     * Time the given number of derivations.
+     *
+     * @param   trial   net.jmp.aes256.config.Config
+     * @param   runs    int
+     * @return          long[]
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     */
+    private long[] sample(final Config trial, final int runs) throws CryptographyException {
+        final long[] samples = new long[runs];
+
+        for (int i = 0; i < runs; i++) {
+            samples[i] = this.time(trial);
+        }
+
+        return samples;
+    }
+
+    /**
+     * Time one derivation in nanoseconds.
+     *
+     * @param   trial   net.jmp.aes256.config.Config
+     * @return          long
+     * @throws          net.jmp.aes256.crypto.CryptographyException
+     */
+    private long time(final Config trial) throws CryptographyException {
+        final SecretKeySpecBuilder secretKeySpecBuilder = new SecretKeySpecBuilder(trial);
+        final long start = System.nanoTime();
+
+        secretKeySpecBuilder.build(PASSWORD, SALT);
+
+        return System.nanoTime() - start;
+    }
+}
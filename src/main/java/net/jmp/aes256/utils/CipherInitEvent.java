@@ -0,0 +1,73 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)CipherInitEvent.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The flight recorder event emitted around the
+ * instantiation and initialization of a cipher.
+ */
+@Name("net.jmp.aes256.CipherInit")
+@Label("Cipher Initialization")
+@Category("AES-256")
+@Description("Instantiation and initialization of a cipher")
+public final class CipherInitEvent extends Event {
+    /** The cipher transformation. */
+    @Label("Transformation")
+    private String transformation;
+
+    /** True when the cipher encrypts. */
+    @Label("Encrypting")
+    private boolean encrypting;
+
+    /**
+     * The default constructor.
+     */
+    public CipherInitEvent() {
+        super();
+    }
+
+    /**
+     * Set the fields.
+     *
+     * @param   transformation  java.lang.String
+     * @param   encrypting      boolean
+     */
+    public void set(final String transformation, final boolean encrypting) {
+        this.transformation = transformation;
+        this.encrypting = encrypting;
+    }
+}
@@ -0,0 +1,164 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)DerivedKey.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * The result of one key derivation in a batch. It
+ * holds either the secret key spec or the failure.
+ */
+public final class DerivedKey {
+    /** The user identifier. */
+    private final String userId;
+
+    /** The secret key spec or null if the derivation failed. */
+    private final SecretKeySpec secretKeySpec;
+
+    /** The failure or null if the derivation succeeded. */
+    private final Throwable failure;
+
+    /** The elapsed time of the derivation in nanoseconds. */
+    private final long elapsedNanos;
+
+    /**
+     * The default constructor.
+     */
+    private DerivedKey() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes all the fields.
+     *
+     * @param   userId          java.lang.String
+     * @param   secretKeySpec   javax.crypto.spec.SecretKeySpec
+     * @param   failure         java.lang.Throwable
+     * @param   elapsedNanos    long
+     */
+    DerivedKey(final String userId, final SecretKeySpec secretKeySpec, final Throwable failure, final long elapsedNanos) {
+        super();
+
+        this.userId = userId;
+        this.secretKeySpec = secretKeySpec;
+        this.failure = failure;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Return the user identifier.
+     *
+     * @return  java.lang.String
+     */
+    public String getUserId() {
+        return this.userId;
+    }
+
+    /**
+     * Return the optional secret key spec.
+     *
+     * @return  java.util.Optional&lt;javax.crypto.spec.SecretKeySpec&gt;
+     */
+    public Optional<SecretKeySpec> getSecretKeySpec() {
+        return Optional.ofNullable(this.secretKeySpec);
+    }
+
+    /**
+     * Return the optional failure.
+     *
+     * @return  java.util.Optional&lt;java.lang.Throwable&gt;
+     */
+    public Optional<Throwable> getFailure() {
+        return Optional.ofNullable(this.failure);
+    }
+
+    /**
+     * Return true if the key was derived.
+     *
+     * @return  boolean
+     */
+    public boolean isSuccessful() {
+        return this.secretKeySpec != null;
+    }
+
+    /**
+     * Return a short check value that identifies the derived
+     * key without revealing it: the first four bytes of the
+     * SHA-256 digest of the key in hexadecimal. An empty
+     * optional is returned if the derivation failed.
+     *
+     * @return  java.util.Optional&lt;java.lang.String&gt;
+     */
+    public Optional<String> getKeyCheckValue() {
+        if (this.secretKeySpec == null) {
+            return Optional.empty();
+        }
+
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(this.secretKeySpec.getEncoded());
+
+            return Optional.of(HexFormat.of().formatHex(digest, 0, 4));
+        } catch (final NoSuchAlgorithmException nsae) {
+            throw new IllegalStateException("SHA-256 is not available", nsae);
+        }
+    }
+
+    /**
+     * Return the elapsed time of the derivation in nanoseconds.
+     *
+     * @return  long
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * The to-string method. The key material is not included.
+     *
+     * @return  java.lang.String
+     */
+    @Override
+    public String toString() {
+        return "DerivedKey{" +
+                "userId='" + this.userId + '\'' +
+                ", successful=" + this.isSuccessful() +
+                ", failure=" + Objects.toString(this.failure, null) +
+                ", elapsedNanos=" + this.elapsedNanos +
+                '}';
+    }
+}
@@ -0,0 +1,147 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)FileCipherEvent.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The flight recorder event emitted around the transformation
+ * of one file. Its duration is the whole transformation; the
+ * time spent reading, in the cipher, and writing is summed
+ * over the update loop. An engine times the phases only when
+ * the event is enabled, so that a run without a recording
+ * does not pay for the clock reads.
+ */
+@Name("net.jmp.aes256.FileCipher")
+@Label("File Cipher")
+@Category("AES-256")
+@Description("Transformation of one file through a cipher")
+public final class FileCipherEvent extends Event {
+    /** The file cipher engine. */
+    @Label("Engine")
+    private String engine;
+
+    /** The number of bytes read. */
+    @Label("Bytes Read")
+    @DataAmount
+    private long bytesRead;
+
+    /** The number of bytes written. */
+    @Label("Bytes Written")
+    @DataAmount
+    private long bytesWritten;
+
+    /** The time spent reading. */
+    @Label("Read Time")
+    @Timespan
+    private long readTime;
+
+    /** The time spent in the cipher. */
+    @Label("Cipher Time")
+    @Timespan
+    private long cipherTime;
+
+    /** The time spent writing. */
+    @Label("Write Time")
+    @Timespan
+    private long writeTime;
+
+    /**
+     * The default constructor.
+     */
+    public FileCipherEvent() {
+        super();
+    }
+
+    /**
+     * Set the engine.
+     *
+     * @param   engine  java.lang.String
+     */
+    public void setEngine(final String engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Add bytes read and the time spent reading them.
+     *
+     * @param   bytes   long
+     * @param   nanos   long
+     */
+    public void read(final long bytes, final long nanos) {
+        this.bytesRead += bytes;
+        this.readTime += nanos;
+    }
+
+    /**
+     * Add time spent in the cipher.
+     *
+     * @param   nanos   long
+     */
+    public void cipher(final long nanos) {
+        this.cipherTime += nanos;
+    }
+
+    /**
+     * Add bytes written and the time spent writing them.
+     *
+     * @param   bytes   long
+     * @param   nanos   long
+     */
+    public void write(final long bytes, final long nanos) {
+        this.bytesWritten += bytes;
+        this.writeTime += nanos;
+    }
+
+    /**
+     * Return the number of bytes read.
+     *
+     * @return  long
+     */
+    public long getBytesRead() {
+        return this.bytesRead;
+    }
+
+    /**
+     * Return the number of bytes written.
+     *
+     * @return  long
+     */
+    public long getBytesWritten() {
+        return this.bytesWritten;
+    }
+}
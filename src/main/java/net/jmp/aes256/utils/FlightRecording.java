@@ -0,0 +1,116 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)FlightRecording.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+
+import java.nio.file.Path;
+
+import java.text.ParseException;
+
+import java.util.List;
+import java.util.Objects;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+
+import org.slf4j.LoggerFactory;
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * A flight recording of one run. It uses the default JDK
+ * settings, enables every application event and writes the
+ * recording to the destination file when it is closed.
+ */
+public final class FlightRecording implements AutoCloseable {
+    /** The application events. */
+    static final List<Class<? extends Event>> EVENTS = List.of(
+            KeyDerivationEvent.class,
+            SaltEvent.class,
+            CipherInitEvent.class,
+            FileCipherEvent.class
+    );
+
+    /** The logger. */
+    private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
+
+    /** The recording. */
+    private final Recording recording;
+
+    /**
+     * The default constructor.
+     */
+    private FlightRecording() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the destination
+     * file and starts the recording.
+     *
+     * @param   destination java.nio.file.Path
+     * @throws              java.io.IOException
+     */
+    public FlightRecording(final Path destination) throws IOException {
+        super();
+
+        Objects.requireNonNull(destination);
+
+        try {
+            this.recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (final ParseException pe) {
+            throw new IOException("Unable to read the default recording configuration", pe);
+        }
+
+        this.recording.setName("AES-256");
+        this.recording.setToDisk(true);
+
+        for (final Class<? extends Event> event : EVENTS) {
+            this.recording.enable(event);
+        }
+
+        this.recording.setDestination(destination);
+        this.recording.start();
+
+        this.logger.info("Flight recording to {}", destination);
+    }
+
+    /**
+     * Stop the recording and write it to the destination.
+     */
+    @Override
+    public void close() {
+        this.recording.stop();
+        this.recording.close();
+    }
+}
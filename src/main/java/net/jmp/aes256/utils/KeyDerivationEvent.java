@@ -0,0 +1,107 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)KeyDerivationEvent.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The flight recorder event emitted around the derivation
+ * of a secret key from a password and salt. Its duration is
+ * the time spent in the key derivation function.
+ */
+@Name("net.jmp.aes256.KeyDerivation")
+@Label("Key Derivation")
+@Category("AES-256")
+@Description("Derivation of a secret key from a password and salt")
+public final class KeyDerivationEvent extends Event {
+    /** The secret key factory instance. */
+    @Label("Factory")
+    private String factory;
+
+    /** The number of PBKDF2 iterations, zero for scrypt. */
+    @Label("Iterations")
+    private int iterations;
+
+    /** The scrypt cost, zero for PBKDF2. */
+    @Label("Scrypt Cost")
+    private int scryptCost;
+
+    /** The scrypt block size, zero for PBKDF2. */
+    @Label("Scrypt Block Size")
+    private int scryptBlockSize;
+
+    /** The scrypt parallelization, zero for PBKDF2. */
+    @Label("Scrypt Parallelization")
+    private int scryptParallelization;
+
+    /** The key length in bytes. */
+    @Label("Key Length")
+    @DataAmount
+    private int keyLength;
+
+    /**
+     * The default constructor.
+     */
+    public KeyDerivationEvent() {
+        super();
+    }
+
+    /**
+     * Set the fields.
+     *
+     * @param   factory     java.lang.String
+     * @param   iterations  int
+     * @param   keyLength   int
+     */
+    public void set(final String factory, final int iterations, final int keyLength) {
+        this.factory = factory;
+        this.iterations = iterations;
+        this.keyLength = keyLength;
+    }
+
+    /**
+     * Set the scrypt parameters.
+     *
+     * @param   cost            int
+     * @param   blockSize       int
+     * @param   parallelization int
+     */
+    public void setScrypt(final int cost, final int blockSize, final int parallelization) {
+        this.scryptCost = cost;
+        this.scryptBlockSize = blockSize;
+        this.scryptParallelization = parallelization;
+    }
+}
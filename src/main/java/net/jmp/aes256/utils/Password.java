@@ -58,7 +58,7 @@ public final class Password {
      * @throws                  net.jmp.aes256.utils.PasswordException
      */
     public static void validate(final String password, final int minimumLength) throws PasswordException {
-        logger.entry(password, minimumLength);
+        Trace.entry(logger);
 
         Objects.requireNonNull(password);
 
@@ -68,7 +68,7 @@ public final class Password {
         checkSpecialCharacters(password);
         checkLength(password, minimumLength);
 
-        logger.exit();
+        Trace.exit(logger);
     }
 
     /**
@@ -78,17 +78,17 @@ public final class Password {
      * @throws              net.jmp.aes256.utils.PasswordException
      */
     private static void checkUpperCase(final String password) throws PasswordException {
-        logger.entry(password);
+        Trace.entry(logger);
 
         final String regex = "(?=(.*[A-Z]+))";
         final Pattern pattern = Pattern.compile(regex);
         final Matcher matcher = pattern.matcher(password);
 
         if (!matcher.find()) {
-            throw new PasswordException("At least one uppercase letter must be specified: " + password);
+            throw new PasswordException("At least one uppercase letter must be specified");
         }
 
-        logger.exit();
+        Trace.exit(logger);
     }
 
     /**
@@ -98,17 +98,17 @@ public final class Password {
      * @throws              net.jmp.aes256.utils.PasswordException
      */
     private static void checkLowerCase(final String password) throws PasswordException {
-        logger.entry(password);
+        Trace.entry(logger);
 
         final String regex = "(?=(.*[a-z]+))";
         final Pattern pattern = Pattern.compile(regex);
         final Matcher matcher = pattern.matcher(password);
 
         if (!matcher.find()) {
-            throw new PasswordException("At least one lowercase letter must be specified: " + password);
+            throw new PasswordException("At least one lowercase letter must be specified");
         }
 
-        logger.exit();
+        Trace.exit(logger);
     }
 
     /**
@@ -118,17 +118,17 @@ public final class Password {
      * @throws              net.jmp.aes256.utils.PasswordException
      */
     private static void checkNumbers(final String password) throws PasswordException {
-        logger.entry(password);
+        Trace.entry(logger);
 
         final String regex = "(?=(.*[0-9]+))";
         final Pattern pattern = Pattern.compile(regex);
         final Matcher matcher = pattern.matcher(password);
 
         if (!matcher.find()) {
-            throw new PasswordException("At least one number must be specified: " + password);
+            throw new PasswordException("At least one number must be specified");
         }
 
-        logger.exit();
+        Trace.exit(logger);
     }
 
     /**
@@ -138,17 +138,17 @@ public final class Password {
      * @throws              net.jmp.aes256.utils.PasswordException
      */
     private static void checkSpecialCharacters(final String password) throws PasswordException {
-        logger.entry(password);
+        Trace.entry(logger);
 
         final String regex = "(?=(.*[!@#$%^&*()\\-_+.,<>{}=\\[\\]\\\\|~`\\/'\"\\?]+))"; // @todo Missing ;:
         final Pattern pattern = Pattern.compile(regex);
         final Matcher matcher = pattern.matcher(password);
 
         if (!matcher.find()) {
-            throw new PasswordException("At least one special character must be specified: " + password);
+            throw new PasswordException("At least one special character must be specified");
         }
 
-        logger.exit();
+        Trace.exit(logger);
     }
 
     /**
@@ -159,12 +159,12 @@ public final class Password {
      * @throws                  net.jmp.aes256.utils.PasswordException
      */
     private static void checkLength(final String password, final int minimumLength) throws PasswordException {
-        logger.entry(password, minimumLength);
+        Trace.entry(logger);
 
         if (password.length() < minimumLength) {
             throw new PasswordException("The password must be equal to or greater than " + minimumLength + " characters");
         }
 
-        logger.exit();
+        Trace.exit(logger);
     }
 }
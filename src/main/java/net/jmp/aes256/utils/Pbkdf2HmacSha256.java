@@ -0,0 +1,396 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)Pbkdf2HmacSha256.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import java.util.stream.IntStream;
+
+/**
+ * An implementation of PBKDF2 with HMAC-SHA256 (RFC 8018)
+ * that produces the same keys as the JCE secret key factory
+ * PBKDF2WithHmacSHA256.
+ *
+ * <p>The SHA-256 states after absorbing the HMAC inner and
+ * outer pads are computed once per password. Every iteration
+ * then costs exactly two compressions on preallocated arrays,
+ * so the iteration loop allocates nothing. When the requested
+ * key is longer than one digest, the output blocks are
+ * computed in parallel.
+ *
+ * <p>Instances are immutable and may be shared between threads.
+ */
+public final class Pbkdf2HmacSha256 {
+    /** The SHA-256 block size in bytes. */
+    private static final int BLOCK_SIZE = 64;
+
+    /** The SHA-256 digest size in bytes. */
+    private static final int DIGEST_SIZE = 32;
+
+    /** The SHA-256 initial hash value. */
+    private static final int[] INITIAL_STATE = {
+            0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a,
+            0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+    };
+
+    /** The SHA-256 round constants. */
+    private static final int[] K = {
+            0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+            0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+            0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+            0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+            0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+            0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+            0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+            0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+    };
+
+    /** The state after absorbing the key XOR the inner pad. */
+    private final int[] innerState;
+
+    /** The state after absorbing the key XOR the outer pad. */
+    private final int[] outerState;
+
+    /**
+     * The default constructor.
+     */
+    private Pbkdf2HmacSha256() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the password. The password
+     * is encoded as UTF-8, as the JCE implementation does.
+     *
+     * @param   password    char[]
+     */
+    public Pbkdf2HmacSha256(final char[] password) {
+        this(toBytes(Objects.requireNonNull(password)));
+    }
+
+    /**
+     * A constructor that takes the password bytes.
+     *
+     * @param   password    byte[]
+     */
+    public Pbkdf2HmacSha256(final byte[] password) {
+        super();
+
+        Objects.requireNonNull(password);
+
+        byte[] key = password;
+
+        if (key.length > BLOCK_SIZE) {
+            try {
+                key = MessageDigest.getInstance("SHA-256").digest(key);
+            } catch (final NoSuchAlgorithmException nsae) {
+                throw new IllegalStateException("SHA-256 is not available", nsae);
+            }
+        }
+
+        final int[] schedule = new int[64];
+        final byte[] pad = new byte[BLOCK_SIZE];
+
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            pad[i] = (byte) ((i < key.length ? key[i] : 0) ^ 0x36);
+        }
+
+        this.innerState = INITIAL_STATE.clone();
+
+        loadBlock(pad, 0, schedule);
+        compress(this.innerState, schedule);
+
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            pad[i] = (byte) ((i < key.length ? key[i] : 0) ^ 0x5c);
+        }
+
+        this.outerState = INITIAL_STATE.clone();
+
+        loadBlock(pad, 0, schedule);
+        compress(this.outerState, schedule);
+
+        Arrays.fill(pad, (byte) 0);
+
+        if (key != password) {
+            Arrays.fill(key, (byte) 0);
+        }
+    }
+
+    /**
+     * Derive and return a key of the requested length.
+     *
+     * @param   salt            byte[]
+     * @param   iterations      int
+     * @param   keyLengthBytes  int
+     * @return                  byte[]
+     */
+    public byte[] derive(final byte[] salt, final int iterations, final int keyLengthBytes) {
+        Objects.requireNonNull(salt);
+
+        if (iterations < 1) {
+            throw new IllegalArgumentException("The iteration count must be positive: " + iterations);
+        }
+
+        if (keyLengthBytes < 1) {
+            throw new IllegalArgumentException("The key length must be positive: " + keyLengthBytes);
+        }
+
+        final int blocks = (keyLengthBytes + DIGEST_SIZE - 1) / DIGEST_SIZE;
+        final byte[] result = new byte[keyLengthBytes];
+
+        IntStream stream = IntStream.rangeClosed(1, blocks);
+
+        if (blocks > 1) {
+            stream = stream.parallel();
+        }
+
+        stream.forEach(index -> {
+            final byte[] block = this.deriveBlock(salt, iterations, index);
+            final int offset = (index - 1) * DIGEST_SIZE;
+
+            System.arraycopy(block, 0, result, offset, Math.min(DIGEST_SIZE, keyLengthBytes - offset));
+        });
+
+        return result;
+    }
+
+    /**
+     * Derive one output block, F(P, S, c, i) in RFC 8018.
+     *
+     * @param   salt        byte[]
+     * @param   iterations  int
+     * @param   index       int
+     * @return              byte[]
+     */
+    private byte[] deriveBlock(final byte[] salt, final int iterations, final int index) {
+        final int[] schedule = new int[64];
+        final int[] state = new int[8];
+        final int[] u = new int[8];
+        final int[] t = new int[8];
+
+        /* U1 = HMAC(P, S || INT(i)) over a message of arbitrary length */
+
+        final byte[] message = Arrays.copyOf(salt, salt.length + 4);
+
+        message[salt.length] = (byte) (index >>> 24);
+        message[salt.length + 1] = (byte) (index >>> 16);
+        message[salt.length + 2] = (byte) (index >>> 8);
+        message[salt.length + 3] = (byte) index;
+
+        System.arraycopy(this.innerState, 0, state, 0, 8);
+
+        hashTail(state, message, schedule);
+
+        this.finishHmac(state, u, schedule);
+
+        System.arraycopy(u, 0, t, 0, 8);
+
+        /* U2 .. Uc each take one inner and one outer compression */
+
+        for (int iteration = 1; iteration < iterations; iteration++) {
+            System.arraycopy(this.innerState, 0, state, 0, 8);
+
+            loadDigestBlock(u, schedule);
+            compress(state, schedule);
+
+            this.finishHmac(state, u, schedule);
+
+            for (int i = 0; i < 8; i++) {
+                t[i] ^= u[i];
+            }
+        }
+
+        final byte[] block = new byte[DIGEST_SIZE];
+
+        for (int i = 0; i < 8; i++) {
+            block[i * 4] = (byte) (t[i] >>> 24);
+            block[i * 4 + 1] = (byte) (t[i] >>> 16);
+            block[i * 4 + 2] = (byte) (t[i] >>> 8);
+            block[i * 4 + 3] = (byte) t[i];
+        }
+
+        return block;
+    }
+
+    /**
+     * Apply the outer hash to the inner digest
+     * held in the state, leaving the result in u.
+     *
+     * @param   innerDigest int[]
+     * @param   u           int[]
+     * @param   schedule    int[]
+     */
+    private void finishHmac(final int[] innerDigest, final int[] u, final int[] schedule) {
+        loadDigestBlock(innerDigest, schedule);
+
+        System.arraycopy(this.outerState, 0, u, 0, 8);
+
+        compress(u, schedule);
+    }
+
+    /**
+     * Load a 32-byte digest that follows one 64-byte
+     * block into the schedule, with its SHA-256 padding.
+     *
+     * @param   digest      int[]
+     * @param   schedule    int[]
+     */
+    private static void loadDigestBlock(final int[] digest, final int[] schedule) {
+        System.arraycopy(digest, 0, schedule, 0, 8);
+
+        schedule[8] = 0x80000000;
+        schedule[9] = 0;
+        schedule[10] = 0;
+        schedule[11] = 0;
+        schedule[12] = 0;
+        schedule[13] = 0;
+        schedule[14] = 0;
+        schedule[15] = (BLOCK_SIZE + DIGEST_SIZE) * 8;
+    }
+
+    /**
+     * Hash a message that follows one 64-byte block,
+     * including the final padding, into the state.
+     *
+     * @param   state       int[]
+     * @param   message     byte[]
+     * @param   schedule    int[]
+     */
+    private static void hashTail(final int[] state, final byte[] message, final int[] schedule) {
+        final long bitLength = (BLOCK_SIZE + (long) message.length) * 8;
+        final int paddedLength = ((message.length + 8) / BLOCK_SIZE + 1) * BLOCK_SIZE;
+        final byte[] padded = Arrays.copyOf(message, paddedLength);
+
+        padded[message.length] = (byte) 0x80;
+
+        for (int i = 0; i < 8; i++) {
+            padded[paddedLength - 1 - i] = (byte) (bitLength >>> (8 * i));
+        }
+
+        for (int offset = 0; offset < paddedLength; offset += BLOCK_SIZE) {
+            loadBlock(padded, offset, schedule);
+            compress(state, schedule);
+        }
+    }
+
+    /**
+     * Load a 64-byte block into the first sixteen schedule words.
+     *
+     * @param   bytes       byte[]
+     * @param   offset      int
+     * @param   schedule    int[]
+     */
+    private static void loadBlock(final byte[] bytes, final int offset, final int[] schedule) {
+        for (int i = 0; i < 16; i++) {
+            final int j = offset + i * 4;
+
+            schedule[i] = (bytes[j] << 24) | ((bytes[j + 1] & 0xff) << 16) | ((bytes[j + 2] & 0xff) << 8) | (bytes[j + 3] & 0xff);
+        }
+    }
+
+    /**
+     * The SHA-256 compression function. The first sixteen
+     * schedule words hold the block; the rest are scratch.
+     *
+     * @param   state       int[]
+     * @param   schedule    int[]
+     */
+    private static void compress(final int[] state, final int[] schedule) {
+        for (int i = 16; i < 64; i++) {
+            final int w15 = schedule[i - 15];
+            final int w2 = schedule[i - 2];
+            final int s0 = Integer.rotateRight(w15, 7) ^ Integer.rotateRight(w15, 18) ^ (w15 >>> 3);
+            final int s1 = Integer.rotateRight(w2, 17) ^ Integer.rotateRight(w2, 19) ^ (w2 >>> 10);
+
+            schedule[i] = schedule[i - 16] + s0 + schedule[i - 7] + s1;
+        }
+
+        int a = state[0];
+        int b = state[1];
+        int c = state[2];
+        int d = state[3];
+        int e = state[4];
+        int f = state[5];
+        int g = state[6];
+        int h = state[7];
+
+        for (int i = 0; i < 64; i++) {
+            final int s1 = Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25);
+            final int ch = (e & f) ^ (~e & g);
+            final int temp1 = h + s1 + ch + K[i] + schedule[i];
+            final int s0 = Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22);
+            final int maj = (a & b) ^ (a & c) ^ (b & c);
+            final int temp2 = s0 + maj;
+
+            h = g;
+            g = f;
+            f = e;
+            e = d + temp1;
+            d = c;
+            c = b;
+            b = a;
+            a = temp1 + temp2;
+        }
+
+        state[0] += a;
+        state[1] += b;
+        state[2] += c;
+        state[3] += d;
+        state[4] += e;
+        state[5] += f;
+        state[6] += g;
+        state[7] += h;
+    }
+
+    /**
+     * Encode the password as UTF-8.
+     *
+     * @param   password    char[]
+     * @return              byte[]
+     */
+    private static byte[] toBytes(final char[] password) {
+        final ByteBuffer buffer = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        final byte[] bytes = new byte[buffer.remaining()];
+
+        buffer.get(bytes);
+
+        return bytes;
+    }
+}
@@ -0,0 +1,322 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)ProgressMonitor.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.google.gson.Gson;
+
+import java.io.PrintStream;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.time.Duration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reports the progress of a long file operation as JSON
+ * lines. The worker thread records bytes with one opaque
+ * (relaxed) write per buffer; a separate reporter thread
+ * samples the counter at a fixed interval and computes
+ * the throughput and the estimated time remaining.
+ *
+ * <p>A disabled monitor never starts a reporter thread,
+ * so the only cost left in the hot loop is the counter.
+ */
+public final class ProgressMonitor implements AutoCloseable {
+    /**
+     * The stages of a file operation.
+     */
+    public enum Stage {
+        /** Deriving the key. */
+        KDF,
+        /** Reading, transforming and writing the data. */
+        CIPHER,
+        /** Opening, flushing and closing files. */
+        IO,
+        /** Finished. */
+        DONE;
+
+        /**
+         * Return the lower case name used in the output.
+         *
+         * @return  java.lang.String
+         */
+        String label() {
+            return this.name().toLowerCase();
+        }
+    }
+
+    /** The default interval between reports. */
+    public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(1);
+
+    /** The number of bytes in a megabyte. */
+    private static final double MEGABYTE = 1024.0 * 1024.0;
+
+    /** The weight of the latest sample in the smoothed rate. */
+    private static final double SMOOTHING = 0.3;
+
+    /** The handle for relaxed access to the byte counter. */
+    private static final VarHandle BYTES;
+
+    static {
+        try {
+            BYTES = MethodHandles.lookup().findVarHandle(ProgressMonitor.class, "bytes", long.class);
+        } catch (final ReflectiveOperationException roe) {
+            throw new ExceptionInInitializerError(roe);
+        }
+    }
+
+    /** The stream the reports are written to, or null when disabled. */
+    private final PrintStream out;
+
+    /** The interval between reports in nanoseconds. */
+    private final long intervalNanos;
+
+    /** The JSON writer. */
+    private final Gson gson = new Gson();
+
+    /** The bytes processed, written only by the worker thread. */
+    @SuppressWarnings("unused")
+    private long bytes;
+
+    /** The total bytes expected, or zero when unknown. */
+    private volatile long totalBytes;
+
+    /** The current stage. */
+    private volatile Stage stage = Stage.IO;
+
+    /** Set when the monitor is closing. */
+    private volatile boolean closing;
+
+    /** Set when the monitor has been started. */
+    private boolean started;
+
+    /** The reporter thread. */
+    private Thread reporter;
+
+    /** The time the monitor was started. */
+    private long startNanos;
+
+    /** The smoothed rate in bytes per second, used by the reporter only. */
+    private double rate = -1;
+
+    /**
+     * The default constructor.
+     */
+    private ProgressMonitor() {
+        this(null, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * A constructor that takes the output stream and the interval.
+     *
+     * @param   out         java.io.PrintStream
+     * @param   interval    java.time.Duration
+     */
+    public ProgressMonitor(final PrintStream out, final Duration interval) {
+        super();
+
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("The interval must be positive: " + interval);
+        }
+
+        this.out = out;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Return a monitor that counts but never reports.
+     *
+     * @return  net.jmp.aes256.utils.ProgressMonitor
+     */
+    public static ProgressMonitor disabled() {
+        return new ProgressMonitor();
+    }
+
+    /**
+     * Return a monitor that reports to the stream
+     * at the default interval, or a disabled one.
+     *
+     * @param   enabled boolean
+     * @param   out     java.io.PrintStream
+     * @return          net.jmp.aes256.utils.ProgressMonitor
+     */
+    public static ProgressMonitor of(final boolean enabled, final PrintStream out) {
+        return enabled ? new ProgressMonitor(Objects.requireNonNull(out), DEFAULT_INTERVAL) : disabled();
+    }
+
+    /**
+     * Return true if this monitor reports.
+     *
+     * @return  boolean
+     */
+    public boolean isEnabled() {
+        return this.out != null;
+    }
+
+    /**
+     * Start reporting.
+     *
+     * @param   totalBytes  long
+     */
+    public synchronized void start(final long totalBytes) {
+        if (this.started) {
+            throw new IllegalStateException("The progress monitor has already been started");
+        }
+
+        this.started = true;
+        this.totalBytes = Math.max(0, totalBytes);
+        this.startNanos = System.nanoTime();
+
+        if (this.isEnabled()) {
+            this.reporter = Thread.ofPlatform()
+                    .daemon()
+                    .name("aes256-progress")
+                    .start(this::report);
+        }
+    }
+
+    /**
+     * Enter a stage.
+     *
+     * @param   stage   net.jmp.aes256.utils.ProgressMonitor.Stage
+     */
+    public void stage(final Stage stage) {
+        this.stage = Objects.requireNonNull(stage);
+    }
+
+    /**
+     * Record processed bytes. This must only be
+     * called by the thread doing the work.
+     *
+     * @param   count   long
+     */
+    public void add(final long count) {
+        BYTES.setOpaque(this, (long) BYTES.getOpaque(this) + count);
+    }
+
+    /**
+     * Return the bytes processed.
+     *
+     * @return  long
+     */
+    public long getBytes() {
+        return (long) BYTES.getOpaque(this);
+    }
+
+    /**
+     * Stop reporting and write the final report.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.reporter != null && !this.closing) {
+            this.closing = true;
+
+            LockSupport.unpark(this.reporter);
+
+            try {
+                this.reporter.join();
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        this.closing = true;
+    }
+
+    /**
+     * The reporter loop.
+     */
+    private void report() {
+        long lastBytes = 0;
+        long lastNanos = this.startNanos;
+
+        while (!this.closing) {
+            LockSupport.parkNanos(this.intervalNanos);
+
+            if (!this.closing) {
+                final long now = System.nanoTime();
+                final long bytes = this.getBytes();
+
+                this.print(this.stage, bytes, now, (bytes - lastBytes) * 1e9 / Math.max(1, now - lastNanos));
+
+                lastBytes = bytes;
+                lastNanos = now;
+            }
+        }
+
+        final long now = System.nanoTime();
+        final long bytes = this.getBytes();
+
+        this.print(Stage.DONE, bytes, now, bytes * 1e9 / Math.max(1, now - this.startNanos));
+    }
+
+    /**
+     * Write one report.
+     *
+     * @param   stage       net.jmp.aes256.utils.ProgressMonitor.Stage
+     * @param   bytes       long
+     * @param   now         long
+     * @param   sampleRate  double
+     */
+    private void print(final Stage stage, final long bytes, final long now, final double sampleRate) {
+        this.rate = (this.rate < 0 || stage == Stage.DONE) ? sampleRate : SMOOTHING * sampleRate + (1 - SMOOTHING) * this.rate;
+
+        final long total = this.totalBytes;
+        final Map<String, Object> report = new LinkedHashMap<>();
+
+        report.put("stage", stage.label());
+        report.put("bytes", bytes);
+
+        if (total > 0) {
+            report.put("total-bytes", total);
+            report.put("percent", Math.round(1000.0 * Math.min(bytes, total) / total) / 10.0);
+        }
+
+        report.put("mb-per-second", Math.round(100 * this.rate / MEGABYTE) / 100.0);
+
+        if (total > 0 && stage != Stage.DONE && this.rate > 0) {
+            report.put("eta-seconds", Math.round(Math.max(0, total - bytes) / this.rate));
+        }
+
+        report.put("elapsed-millis", TimeUnit.NANOSECONDS.toMillis(now - this.startNanos));
+
+        this.out.println(this.gson.toJson(report));
+        this.out.flush();
+    }
+}
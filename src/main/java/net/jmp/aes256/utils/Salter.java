@@ -86,16 +86,19 @@ public final class Salter {
      * @return          java.lang.String
      */
     public String getSalt(final String string) {
-        this.logger.entry(string);
+        Trace.entry(this.logger);
 
         final String characterSet = this.config.getSalter().getCharacterSet();
         final int iterations = this.config.getSalter().getIterations();
 
+        final SaltEvent event = new SaltEvent();
+
+        event.begin();
+
         String unencodedString = string;
         String encodedString = null;
 
         if (this.logger.isDebugEnabled()) {
-            this.logger.debug("Unencoded string    : {}", string);
             this.logger.debug("Using character set : {}", characterSet);
             this.logger.debug("Number of iterations: {}", iterations);
         }
@@ -109,9 +112,14 @@ public final class Salter {
             this.logger.catching(use);
         }
 
-        this.logger.debug("Encoded string: {}", encodedString);
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.set(characterSet, iterations);
+            event.commit();
+        }
 
-        this.logger.exit(encodedString);
+        Trace.exit(this.logger);
 
         return encodedString;
     }
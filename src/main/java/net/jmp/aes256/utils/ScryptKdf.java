@@ -0,0 +1,293 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)ScryptKdf.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import java.util.concurrent.ForkJoinPool;
+
+import java.util.stream.IntStream;
+
+import net.jmp.aes256.config.Scrypt;
+
+/**
+ * An implementation of the scrypt memory-hard key
+ * derivation function (RFC 7914).
+ *
+ * <p>Each of the p lanes fills and then reads back
+ * 128 * r * N bytes of memory. The lanes are independent
+ * and run concurrently on a fork-join pool, so raising p
+ * increases the total work without increasing the wall
+ * clock time when enough cores are available.
+ *
+ * <p>Instances are immutable and may be shared between threads.
+ */
+public final class ScryptKdf {
+    /** The CPU and memory cost, N. */
+    private final int cost;
+
+    /** The block size, r. */
+    private final int blockSize;
+
+    /** The parallelization, p. */
+    private final int parallelization;
+
+    /** The pool that runs the lanes. */
+    private final ForkJoinPool pool;
+
+    /**
+     * The default constructor.
+     */
+    private ScryptKdf() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * A constructor that takes the cost parameters
+     * and runs the lanes on the common pool.
+     *
+     * @param   cost            int
+     * @param   blockSize       int
+     * @param   parallelization int
+     */
+    public ScryptKdf(final int cost, final int blockSize, final int parallelization) {
+        this(cost, blockSize, parallelization, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * A constructor that takes the cost parameters
+     * and the pool that runs the lanes.
+     *
+     * @param   cost            int
+     * @param   blockSize       int
+     * @param   parallelization int
+     * @param   pool            java.util.concurrent.ForkJoinPool
+     */
+    public ScryptKdf(final int cost, final int blockSize, final int parallelization, final ForkJoinPool pool) {
+        super();
+
+        Scrypt.validate(cost, blockSize, parallelization);
+
+        this.cost = cost;
+        this.blockSize = blockSize;
+        this.parallelization = parallelization;
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    /**
+     * Derive and return a key of the requested length.
+     *
+     * @param   password        byte[]
+     * @param   salt            byte[]
+     * @param   keyLengthBytes  int
+     * @return                  byte[]
+     */
+    public byte[] derive(final byte[] password, final byte[] salt, final int keyLengthBytes) {
+        Objects.requireNonNull(password);
+        Objects.requireNonNull(salt);
+
+        final Pbkdf2HmacSha256 pbkdf2 = new Pbkdf2HmacSha256(password);
+        final int laneBytes = 128 * this.blockSize;
+        final byte[] blocks = pbkdf2.derive(salt, 1, laneBytes * this.parallelization);
+
+        if (this.parallelization == 1) {
+            this.mix(blocks, 0);
+        } else {
+            this.pool.submit(() ->
+                    IntStream.range(0, this.parallelization)
+                            .parallel()
+                            .forEach(lane -> this.mix(blocks, lane * laneBytes))
+            ).join();
+        }
+
+        final byte[] key = pbkdf2.derive(blocks, 1, keyLengthBytes);
+
+        Arrays.fill(blocks, (byte) 0);
+
+        return key;
+    }
+
+    /**
+     * Run ROMix over one lane of the block array in place.
+     *
+     * @param   blocks  byte[]
+     * @param   offset  int
+     */
+    private void mix(final byte[] blocks, final int offset) {
+        final int words = 32 * this.blockSize;
+        final int[] x = new int[words];
+        final int[] y = new int[words];
+        final int[] v = new int[words * this.cost];
+        final int[] scratch = new int[16];
+        final int mask = this.cost - 1;
+        final int last = (2 * this.blockSize - 1) * 16;
+
+        for (int i = 0; i < words; i++) {
+            x[i] = getIntLittleEndian(blocks, offset + i * 4);
+        }
+
+        for (int i = 0; i < this.cost; i++) {
+            System.arraycopy(x, 0, v, i * words, words);
+
+            this.blockMix(x, y, scratch);
+        }
+
+        for (int i = 0; i < this.cost; i++) {
+            final int base = (x[last] & mask) * words;
+
+            for (int k = 0; k < words; k++) {
+                x[k] ^= v[base + k];
+            }
+
+            this.blockMix(x, y, scratch);
+        }
+
+        for (int i = 0; i < words; i++) {
+            putIntLittleEndian(blocks, offset + i * 4, x[i]);
+        }
+
+        Arrays.fill(v, 0);
+    }
+
+    /**
+     * The scrypt BlockMix function using Salsa20/8.
+     * The result replaces the input in b.
+     *
+     * @param   b       int[]
+     * @param   y       int[]
+     * @param   scratch int[]
+     */
+    private void blockMix(final int[] b, final int[] y, final int[] scratch) {
+        final int count = 2 * this.blockSize;
+
+        System.arraycopy(b, (count - 1) * 16, scratch, 0, 16);
+
+        for (int i = 0; i < count; i++) {
+            for (int k = 0; k < 16; k++) {
+                scratch[k] ^= b[i * 16 + k];
+            }
+
+            salsa208(scratch);
+
+            final int destination = ((i & 1) == 0 ? i / 2 : this.blockSize + i / 2) * 16;
+
+            System.arraycopy(scratch, 0, y, destination, 16);
+        }
+
+        System.arraycopy(y, 0, b, 0, count * 16);
+    }
+
+    /**
+     * The Salsa20/8 core applied in place.
+     *
+     * @param   b   int[]
+     */
+    private static void salsa208(final int[] b) {
+        int x0 = b[0], x1 = b[1], x2 = b[2], x3 = b[3];
+        int x4 = b[4], x5 = b[5], x6 = b[6], x7 = b[7];
+        int x8 = b[8], x9 = b[9], x10 = b[10], x11 = b[11];
+        int x12 = b[12], x13 = b[13], x14 = b[14], x15 = b[15];
+
+        for (int i = 0; i < 8; i += 2) {
+            /* Columns */
+
+            x4 ^= Integer.rotateLeft(x0 + x12, 7);
+            x8 ^= Integer.rotateLeft(x4 + x0, 9);
+            x12 ^= Integer.rotateLeft(x8 + x4, 13);
+            x0 ^= Integer.rotateLeft(x12 + x8, 18);
+            x9 ^= Integer.rotateLeft(x5 + x1, 7);
+            x13 ^= Integer.rotateLeft(x9 + x5, 9);
+            x1 ^= Integer.rotateLeft(x13 + x9, 13);
+            x5 ^= Integer.rotateLeft(x1 + x13, 18);
+            x14 ^= Integer.rotateLeft(x10 + x6, 7);
+            x2 ^= Integer.rotateLeft(x14 + x10, 9);
+            x6 ^= Integer.rotateLeft(x2 + x14, 13);
+            x10 ^= Integer.rotateLeft(x6 + x2, 18);
+            x3 ^= Integer.rotateLeft(x15 + x11, 7);
+            x7 ^= Integer.rotateLeft(x3 + x15, 9);
+            x11 ^= Integer.rotateLeft(x7 + x3, 13);
+            x15 ^= Integer.rotateLeft(x11 + x7, 18);
+
+            /* Rows */
+
+            x1 ^= Integer.rotateLeft(x0 + x3, 7);
+            x2 ^= Integer.rotateLeft(x1 + x0, 9);
+            x3 ^= Integer.rotateLeft(x2 + x1, 13);
+            x0 ^= Integer.rotateLeft(x3 + x2, 18);
+            x6 ^= Integer.rotateLeft(x5 + x4, 7);
+            x7 ^= Integer.rotateLeft(x6 + x5, 9);
+            x4 ^= Integer.rotateLeft(x7 + x6, 13);
+            x5 ^= Integer.rotateLeft(x4 + x7, 18);
+            x11 ^= Integer.rotateLeft(x10 + x9, 7);
+            x8 ^= Integer.rotateLeft(x11 + x10, 9);
+            x9 ^= Integer.rotateLeft(x8 + x11, 13);
+            x10 ^= Integer.rotateLeft(x9 + x8, 18);
+            x12 ^= Integer.rotateLeft(x15 + x14, 7);
+            x13 ^= Integer.rotateLeft(x12 + x15, 9);
+            x14 ^= Integer.rotateLeft(x13 + x12, 13);
+            x15 ^= Integer.rotateLeft(x14 + x13, 18);
+        }
+
+        b[0] += x0; b[1] += x1; b[2] += x2; b[3] += x3;
+        b[4] += x4; b[5] += x5; b[6] += x6; b[7] += x7;
+        b[8] += x8; b[9] += x9; b[10] += x10; b[11] += x11;
+        b[12] += x12; b[13] += x13; b[14] += x14; b[15] += x15;
+    }
+
+    /**
+     * Read a little-endian integer.
+     *
+     * @param   bytes   byte[]
+     * @param   offset  int
+     * @return          int
+     */
+    private static int getIntLittleEndian(final byte[] bytes, final int offset) {
+        return (bytes[offset] & 0xff) |
+                ((bytes[offset + 1] & 0xff) << 8) |
+                ((bytes[offset + 2] & 0xff) << 16) |
+                (bytes[offset + 3] << 24);
+    }
+
+    /**
+     * Write a little-endian integer.
+     *
+     * @param   bytes   byte[]
+     * @param   offset  int
+     * @param   value   int
+     */
+    private static void putIntLittleEndian(final byte[] bytes, final int offset, final int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+}
@@ -1,10 +1,11 @@
 package net.jmp.aes256.utils;
 
 /*
+ * (#)SecretKeySpecBuilder.java 1.2.0   10/19/2026
  * (#)SecretKeySpecBuilder.java 0.4.0   07/13/2024
  *
  * @author   Jonathan Parker
- * @version  0.4.0
+ * @version  1.2.0
  * @since    0.4.0
  *
  * MIT License
@@ -30,6 +31,8 @@ package net.jmp.aes256.utils;
  * SOFTWARE.
  */
 
+import java.nio.charset.StandardCharsets;
+
 import java.security.NoSuchAlgorithmException;
 
 import java.security.spec.InvalidKeySpecException;
@@ -44,6 +47,7 @@ import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
 
 import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Scrypt;
 
 import net.jmp.aes256.crypto.CryptographyException;
 
@@ -56,6 +60,23 @@ import org.slf4j.ext.XLogger;
  * key spec based on the configuration.
  */
 public final class SecretKeySpecBuilder {
+    /**
+     * The secret key factory instance name that selects the
+     * in-project PBKDF2 implementation. It derives the same
+     * keys as the JCE factory PBKDF2WithHmacSHA256.
+     *
+     * @since   1.2.0
+     */
+    public static final String PBKDF2_HMAC_SHA256 = "PBKDF2-HMAC-SHA256";
+
+    /**
+     * The secret key factory instance name that selects the
+     * scrypt memory-hard key derivation function.
+     *
+     * @since   1.2.0
+     */
+    public static final String SCRYPT = "Scrypt";
+
     /** The logger. */
     private final XLogger logger = new XLogger(LoggerFactory.getLogger(this.getClass().getName()));
 
@@ -87,11 +108,72 @@ public final class SecretKeySpecBuilder {
      * @throws  net.jmp.aes256.crypto.CryptographyException
      */
     public SecretKeySpec build(final String password, final String salt) throws CryptographyException {
-        this.logger.entry(password, salt);
+        Trace.entry(this.logger);
 
         Objects.requireNonNull(password);
         Objects.requireNonNull(salt);
 
+        final KeyDerivationEvent event = new KeyDerivationEvent();
+
+        event.begin();
+
+        final byte[] encoded;
+
+        if (PBKDF2_HMAC_SHA256.equalsIgnoreCase(this.config.getSecretKeyFactoryInstance())) {
+            encoded = new Pbkdf2HmacSha256(password.toCharArray()).derive(
+                    salt.getBytes(),
+                    this.config.getPbeKeySpecIterations(),
+                    this.config.getPbeKeySpecKeyLength() / 8
+            );
+        } else if (SCRYPT.equalsIgnoreCase(this.config.getSecretKeyFactoryInstance())) {
+            final Scrypt scrypt = Objects.requireNonNull(this.config.getScrypt(), "No scrypt section has been provided");
+
+            encoded = new ScryptKdf(scrypt.getCost(), scrypt.getBlockSize(), scrypt.getParallelization()).derive(
+                    password.getBytes(StandardCharsets.UTF_8),
+                    salt.getBytes(),
+                    this.config.getPbeKeySpecKeyLength() / 8
+            );
+        } else {
+            encoded = this.generateSecret(password, salt);
+        }
+
+        event.end();
+
+        if (event.shouldCommit()) {
+            if (SCRYPT.equalsIgnoreCase(this.config.getSecretKeyFactoryInstance())) {
+                final Scrypt scrypt = this.config.getScrypt();
+
+                event.set(this.config.getSecretKeyFactoryInstance(), 0, encoded.length);
+                event.setScrypt(scrypt.getCost(), scrypt.getBlockSize(), scrypt.getParallelization());
+            } else {
+                event.set(this.config.getSecretKeyFactoryInstance(), this.config.getPbeKeySpecIterations(), encoded.length);
+            }
+
+            event.commit();
+        }
+
+        /* Build the secret key spec */
+
+        final SecretKeySpec secretKeySpec = new SecretKeySpec(
+                encoded,
+                this.config.getSecretKeySpecAlgorithm()
+        );
+
+        Trace.exit(this.logger);
+
+        return secretKeySpec;
+    }
+
+    /**
+     * Generate the secret key bytes using the JCE secret key factory.
+     *
+     * @param   password    java.lang.String
+     * @param   salt        java.lang.String
+     * @return              byte[]
+     * @throws  net.jmp.aes256.crypto.CryptographyException
+     * @since               1.2.0
+     */
+    private byte[] generateSecret(final String password, final String salt) throws CryptographyException {
         /* Set up the secret key factory */
 
         SecretKeyFactory secretKeyFactory;
@@ -119,15 +201,6 @@ public final class SecretKeySpecBuilder {
             throw new CryptographyException("Unable to generate secret key", ikse);
         }
 
-        /* Build the secret key spec */
-
-        final SecretKeySpec secretKeySpec = new SecretKeySpec(
-                secretKey.getEncoded(),
-                this.config.getSecretKeySpecAlgorithm()
-        );
-
-        this.logger.exit(secretKeySpec);
-
-        return secretKeySpec;
+        return secretKey.getEncoded();
     }
 }
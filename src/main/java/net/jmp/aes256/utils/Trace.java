@@ -0,0 +1,116 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)Trace.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import org.slf4j.ext.XLogger;
+
+/**
+ * Method entry and exit tracing for hot paths. Whether tracing
+ * is enabled is read once from the aes256.trace system property
+ * into a static final field, so when it is off the compiler
+ * reduces every call to a branch on a constant and removes it.
+ * The methods take a fixed number of arguments rather than
+ * varargs so that no array is created at the call site.
+ *
+ * <p>Callers must never pass sensitive values: passwords, keys,
+ * salts, initialization vectors, plain text or cipher text. A
+ * log is not a safe place for any of them.
+ */
+public final class Trace {
+    /** True when tracing is enabled. */
+    public static final boolean ENABLED = Boolean.getBoolean("aes256.trace");
+
+    /**
+     * The default constructor.
+     */
+    private Trace() {
+        throw new UnsupportedOperationException("The default constructor is not supported");
+    }
+
+    /**
+     * Trace entry to a method.
+     *
+     * @param   logger  org.slf4j.ext.XLogger
+     */
+    public static void entry(final XLogger logger) {
+        if (ENABLED) {
+            logger.entry();
+        }
+    }
+
+    /**
+     * Trace entry to a method with its argument.
+     *
+     * @param   logger      org.slf4j.ext.XLogger
+     * @param   argument    java.lang.Object
+     */
+    public static void entry(final XLogger logger, final Object argument) {
+        if (ENABLED) {
+            logger.entry(argument);
+        }
+    }
+
+    /**
+     * Trace entry to a method with its arguments.
+     *
+     * @param   logger  org.slf4j.ext.XLogger
+     * @param   first   java.lang.Object
+     * @param   second  java.lang.Object
+     */
+    public static void entry(final XLogger logger, final Object first, final Object second) {
+        if (ENABLED) {
+            logger.entry(first, second);
+        }
+    }
+
+    /**
+     * Trace exit from a method.
+     *
+     * @param   logger  org.slf4j.ext.XLogger
+     */
+    public static void exit(final XLogger logger) {
+        if (ENABLED) {
+            logger.exit();
+        }
+    }
+
+    /**
+     * Trace exit from a method with its result.
+     *
+     * @param   logger  org.slf4j.ext.XLogger
+     * @param   result  java.lang.Object
+     */
+    public static void exit(final XLogger logger, final Object result) {
+        if (ENABLED) {
+            logger.exit(result);
+        }
+    }
+}
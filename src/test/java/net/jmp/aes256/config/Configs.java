@@ -0,0 +1,71 @@
+package net.jmp.aes256.config;
+
+/*
+ * (#)Configs.java   1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+/**
+ * A utility class that builds the configuration shared by the tests.
+ */
+public final class Configs {
+    /**
+     * The default constructor.
+     */
+    private Configs() {
+        super();
+    }
+
+    /**
+     * Create a valid configuration using AES/CBC/PKCS5Padding
+     * and a 256-bit PBKDF2WithHmacSHA256 key. The number of
+     * iterations is kept low so that tests derive keys quickly.
+     *
+     * @return  net.jmp.aes256.config.Config
+     */
+    public static Config newConfig() {
+        final Config config = new Config();
+        final Cipher cipher = new Cipher();
+        final Salter salter = new Salter();
+
+        cipher.setCharacterSet("UTF-8");
+        cipher.setInstance("AES/CBC/PKCS5Padding");
+        salter.setCharacterSet("UTF-8");
+        salter.setIterations(3);
+
+        config.setCipher(cipher);
+        config.setSalter(salter);
+        config.setPasswordMinimumLength(20);
+        config.setPbeKeySpecIterations(1000);
+        config.setPbeKeySpecKeyLength(256);
+        config.setSecretKeyFactoryInstance("PBKDF2WithHmacSHA256");
+        config.setSecretKeySpecAlgorithm("AES");
+
+        return config;
+    }
+}
@@ -1,10 +1,11 @@
 package net.jmp.aes256.config;
 
 /*
+ * (#)TestConfig.java   1.2.0   10/19/2026
  * (#)TestConfig.java   0.5.0   07/20/2024
  *
  * @author   Jonathan Parker
- * @version  0.5.0
+ * @version  1.2.0
  * @since    0.5.0
  *
  * MIT License
@@ -118,6 +119,19 @@ public class TestConfig {
         this.config.validate();
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testIterationsAboveMaximum() {
+        this.cipher.setCharacterSet("UTF-8");
+        this.cipher.setInstance("AES/CBC/PKCS5Padding");
+
+        this.config.setPbeKeySpecIterations(65536);
+        this.config.setMaximumIterations(1000);
+        this.config.setPbeKeySpecKeyLength(256);
+        this.config.setSecretKeySpecAlgorithm("AES");
+        this.config.setSecretKeyFactoryInstance("PBKDF2WithHmacSHA256");
+        this.config.validate();
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testNoSalter() {
         this.config.setSalter(null);
@@ -130,4 +144,51 @@ public class TestConfig {
         this.config.setSecretKeyFactoryInstance("PBKDF2WithHmacSHA256");
         this.config.validate();
     }
+
+    @Test
+    public void testValidScryptConfig() {
+        this.cipher.setCharacterSet("UTF-8");
+        this.cipher.setInstance("AES/CBC/PKCS5Padding");
+
+        final var scrypt = new Scrypt();
+
+        scrypt.setCost(16384);
+        scrypt.setBlockSize(8);
+        scrypt.setParallelization(4);
+
+        this.config.setScrypt(scrypt);
+        this.config.setPbeKeySpecKeyLength(256);
+        this.config.setSecretKeySpecAlgorithm("AES");
+        this.config.setSecretKeyFactoryInstance("Scrypt");
+        this.config.validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoScrypt() {
+        this.cipher.setCharacterSet("UTF-8");
+        this.cipher.setInstance("AES/CBC/PKCS5Padding");
+
+        this.config.setPbeKeySpecKeyLength(256);
+        this.config.setSecretKeySpecAlgorithm("AES");
+        this.config.setSecretKeyFactoryInstance("Scrypt");
+        this.config.validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidScryptCost() {
+        this.cipher.setCharacterSet("UTF-8");
+        this.cipher.setInstance("AES/CBC/PKCS5Padding");
+
+        final var scrypt = new Scrypt();
+
+        scrypt.setCost(10000);
+        scrypt.setBlockSize(8);
+        scrypt.setParallelization(1);
+
+        this.config.setScrypt(scrypt);
+        this.config.setPbeKeySpecKeyLength(256);
+        this.config.setSecretKeySpecAlgorithm("AES");
+        this.config.setSecretKeyFactoryInstance("Scrypt");
+        this.config.validate();
+    }
 }
@@ -0,0 +1,135 @@
+package net.jmp.aes256.config;
+
+/*
+ * (#)TestConfigWatcher.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public final class TestConfigWatcher {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path file;
+
+    private static String json(final int iterations, final String instance) {
+        return """
+                {
+                    "cipher": {"character-set": "UTF-8", "instance": "%s"},
+                    "salter": {"character-set": "UTF-8", "iterations": 3},
+                    "password-minimum-length": 20,
+                    "pbe-key-spec-iterations": %d,
+                    "pbe-key-spec-key-length": 256,
+                    "secret-key-factory-instance": "PBKDF2WithHmacSHA256",
+                    "secret-key-spec-algorithm": "AES"
+                }
+                """.formatted(instance, iterations);
+    }
+
+    private static void awaitReloads(final ConfigWatcher watcher, final long reloads) throws Exception {
+        final long deadline = System.nanoTime() + 30_000_000_000L;
+
+        while (watcher.getReloads() < reloads && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Before
+    public void before() throws Exception {
+        this.file = this.temporaryFolder.getRoot().toPath().resolve("config.json");
+
+        Files.writeString(this.file, json(1000, "AES/CBC/PKCS5Padding"));
+    }
+
+    @Test
+    public void testSnapshotIsACopy() throws Exception {
+        final ConfigSnapshot snapshot = ConfigSnapshot.read(this.file);
+
+        snapshot.getConfig().setPbeKeySpecIterations(1);
+
+        assertEquals(1000, snapshot.getConfig().getPbeKeySpecIterations());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSnapshot() throws Exception {
+        Files.writeString(this.file, json(1000, "AES/ECB/PKCS5Padding"));
+
+        ConfigSnapshot.read(this.file);
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        try (final ConfigWatcher watcher = new ConfigWatcher(this.file)) {
+            final ConfigSnapshot first = watcher.get();
+
+            assertEquals(1000, first.getConfig().getPbeKeySpecIterations());
+
+            /* Replace the file the way an editor would */
+
+            final Path replacement = this.temporaryFolder.newFile("replacement.json").toPath();
+
+            Files.writeString(replacement, json(2000, "AES/CBC/PKCS5Padding"));
+            Files.move(replacement, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            awaitReloads(watcher, 1);
+
+            assertEquals(1, watcher.getReloads());
+            assertEquals(2000, watcher.get().getConfig().getPbeKeySpecIterations());
+            assertEquals(1000, first.getConfig().getPbeKeySpecIterations());
+        }
+    }
+
+    @Test
+    public void testInvalidChangeKeepsSnapshot() throws Exception {
+        try (final ConfigWatcher watcher = new ConfigWatcher(this.file)) {
+            final ConfigSnapshot first = watcher.get();
+
+            Files.writeString(this.file, json(2000, "AES/ECB/PKCS5Padding"));
+            Thread.sleep(500);
+
+            assertSame(first, watcher.get());
+
+            Files.writeString(this.file, json(3000, "AES/CBC/PKCS5Padding"));
+
+            awaitReloads(watcher, 1);
+
+            assertEquals(3000, watcher.get().getConfig().getPbeKeySpecIterations());
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)TestArchive.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.nio.file.attribute.FileTime;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Configs;
+
+import net.jmp.aes256.input.Options;
+
+import net.jmp.aes256.utils.Builder;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public final class TestArchive {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path source;
+    private byte[] large;
+
+    @Before
+    public void before() throws Exception {
+        this.source = this.temporaryFolder.newFolder("source").toPath();
+        this.large = new byte[3 * ArchiveReader.CHUNK_SIZE + 5];
+
+        new Random(7).nextBytes(this.large);
+
+        Files.createDirectories(this.source.resolve("empty"));
+        Files.createDirectories(this.source.resolve("nested/deeper"));
+        Files.writeString(this.source.resolve("a.txt"), "The quick brown fox");
+        Files.write(this.source.resolve("nested/deeper/large.bin"), this.large);
+        Files.write(this.source.resolve("nested/zero.bin"), new byte[0]);
+        Files.setLastModifiedTime(this.source.resolve("a.txt"), FileTime.fromMillis(1_000_000_000_000L));
+    }
+
+    private Path encryptSource(final Config config) throws Exception {
+        final Path archive = this.source.resolve("source.aes");     // Inside the tree but never archived
+
+        new Encrypter(config, Builder.of(Options::new)
+                .with(Options::setArchive, this.source.toString())
+                .with(Options::setOutputFile, archive.toString())
+                .with(Options::setUserId, "jonathanp62@gmail.com")
+                .with(Options::setPassword, "johann_Sebastian%Bach-6(Partitas)")
+                .build()).encrypt();
+
+        return archive;
+    }
+
+    private void extract(final Config config, final Path archive, final Path target, final String member) throws Exception {
+        new Decrypter(config, Builder.of(Options::new)
+                .with(Options::setArchive, target.toString())
+                .with(Options::setInputFile, archive.toString())
+                .with(Options::setExtract, member)
+                .with(Options::setUserId, "jonathanp62@gmail.com")
+                .with(Options::setPassword, "johann_Sebastian%Bach-6(Partitas)")
+                .build()).decrypt();
+    }
+
+    private void assertExtracted(final Path target) throws Exception {
+        assertEquals("The quick brown fox", Files.readString(target.resolve("a.txt")));
+        assertArrayEquals(this.large, Files.readAllBytes(target.resolve("nested/deeper/large.bin")));
+        assertEquals(0, Files.size(target.resolve("nested/zero.bin")));
+        assertTrue(Files.isDirectory(target.resolve("empty")));
+        assertEquals(1_000_000_000_000L, Files.getLastModifiedTime(target.resolve("a.txt")).toMillis());
+    }
+
+    @Test
+    public void testAsyncArchiveIsNotSupported() throws Exception {
+        try (final var executors = CryptographyExecutors.newDefaultExecutors()) {
+            new Encrypter(Configs.newConfig(), Builder.of(Options::new)
+                    .with(Options::setArchive, this.source.toString())
+                    .with(Options::setOutputFile, this.temporaryFolder.getRoot().toPath().resolve("source.aes").toString())
+                    .with(Options::setUserId, "jonathanp62@gmail.com")
+                    .with(Options::setPassword, "johann_Sebastian%Bach-6(Partitas)")
+                    .build()).encryptAsync(executors).get();
+
+            fail("An archive was encrypted asynchronously");
+        } catch (final ExecutionException ee) {
+            assertTrue(ee.getCause() instanceof CryptographyException);
+            assertTrue(ee.getCause().getMessage().contains("not supported asynchronously"));
+        }
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final ArchiveWriter archiveWriter = new ArchiveWriter(outputStream, Set.of(), () -> new byte[Archive.ALIGNMENT]);
+
+        assertTrue(archiveWriter.write(this.source, new AtomicBoolean()));
+        assertEquals(6, archiveWriter.getMembers());
+        assertEquals(0, outputStream.size() % Archive.ALIGNMENT);
+
+        final Path target = this.temporaryFolder.getRoot().toPath().resolve("target");
+
+        try (final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor()) {
+            final ArchiveReader archiveReader = new ArchiveReader(new ByteArrayInputStream(outputStream.toByteArray()));
+
+            assertTrue(archiveReader.extract(target, writers, new AtomicBoolean()));
+            assertEquals(6, archiveReader.getMembers());
+        }
+
+        this.assertExtracted(target);
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final ArchiveWriter archiveWriter = new ArchiveWriter(outputStream, Set.of(), () -> new byte[Archive.ALIGNMENT]);
+
+        assertTrue(archiveWriter.write(this.source, new AtomicBoolean()));
+
+        final byte[] bytes = archiveWriter.getArchiveIndex().toByteArray();
+
+        assertEquals(0, bytes.length % 4096);
+
+        final List<ArchiveIndex.Entry> entries = ArchiveIndex.parse(bytes).getEntries();
+
+        assertEquals(6, entries.size());
+
+        long offset = Archive.ALIGNMENT;
+
+        for (final ArchiveIndex.Entry entry : entries) {
+            assertEquals(offset, entry.getOffset());
+            assertEquals(0, entry.getLength() % Archive.ALIGNMENT);
+
+            offset += entry.getLength();
+        }
+
+        final ArchiveIndex.Entry large = entries.stream()
+                .filter(entry -> entry.getPath().equals("nested/deeper/large.bin"))
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(Archive.TYPE_FILE, large.getType());
+        assertEquals(this.large.length, large.getSize());
+        assertEquals(4, ArchiveIndex.parse(bytes).select("nested").size());
+        assertEquals(1, ArchiveIndex.parse(bytes).select("a.txt").size());
+        assertTrue(ArchiveIndex.parse(bytes).select("a").isEmpty());
+    }
+
+    @Test
+    public void testTrailer() {
+        final byte[] initializationVector = new byte[Archive.ALIGNMENT];
+
+        initializationVector[0] = 42;
+
+        final ArchiveIndex.Trailer trailer = ArchiveIndex.parseTrailer(ArchiveIndex.trailer(1234, 4112, initializationVector)).orElseThrow();
+
+        assertEquals(1234, trailer.getOffset());
+        assertEquals(4112, trailer.getLength());
+        assertArrayEquals(initializationVector, trailer.getInitializationVector());
+        assertTrue(ArchiveIndex.parseTrailer(new byte[ArchiveIndex.TRAILER_SIZE]).isEmpty());
+    }
+
+    @Test(expected = CryptographyException.class)
+    public void testNotAnArchive() throws Exception {
+        final byte[] bytes = "Not an archive at all".getBytes(StandardCharsets.UTF_8);
+
+        try (final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor()) {
+            new ArchiveReader(new ByteArrayInputStream(bytes)).extract(this.temporaryFolder.getRoot().toPath(), writers, new AtomicBoolean());
+        }
+    }
+
+    @Test
+    public void testResolveRejectsEscapes() {
+        final Path target = this.temporaryFolder.getRoot().toPath();
+
+        for (final String path : new String[] {"", "/etc/passwd", "../x", "a/../../x", "a//b", "./a", "c:x", "a\\\\b"}) {
+            try {
+                Archive.resolve(target, path);
+
+                fail("Expected a CryptographyException for " + path);
+            } catch (final CryptographyException ce) {
+                assertTrue(ce.getMessage().startsWith("Invalid path in archive"));
+            }
+        }
+    }
+
+    @Test
+    public void testEncryptAndDecryptArchive() throws Exception {
+        final Config config = Configs.newConfig();
+        final Path archive = this.encryptSource(config);
+        final Path target = this.temporaryFolder.getRoot().toPath().resolve("extracted");
+
+        new Decrypter(config, Builder.of(Options::new)
+                .with(Options::setArchive, target.toString())
+                .with(Options::setInputFile, archive.toString())
+                .with(Options::setUserId, "jonathanp62@gmail.com")
+                .with(Options::setPassword, "johann_Sebastian%Bach-6(Partitas)")
+                .build()).decrypt();
+
+        this.assertExtracted(target);
+        assertFalse(Files.exists(target.resolve("source.aes")));
+    }
+
+    @Test
+    public void testExtractMember() throws Exception {
+        final Config config = Configs.newConfig();
+        final Path archive = this.encryptSource(config);
+        final Path target = this.temporaryFolder.getRoot().toPath().resolve("member");
+
+        this.extract(config, archive, target, "nested/deeper/large.bin");
+
+        assertArrayEquals(this.large, Files.readAllBytes(target.resolve("nested/deeper/large.bin")));
+        assertFalse(Files.exists(target.resolve("a.txt")));
+        assertFalse(Files.exists(target.resolve("nested/zero.bin")));
+
+        this.extract(config, archive, target, "a.txt");
+
+        assertEquals("The quick brown fox", Files.readString(target.resolve("a.txt")));
+        assertEquals(1_000_000_000_000L, Files.getLastModifiedTime(target.resolve("a.txt")).toMillis());
+    }
+
+    @Test
+    public void testExtractDirectory() throws Exception {
+        final Config config = Configs.newConfig();
+        final Path archive = this.encryptSource(config);
+        final Path target = this.temporaryFolder.getRoot().toPath().resolve("directory");
+
+        this.extract(config, archive, target, "nested");
+
+        assertArrayEquals(this.large, Files.readAllBytes(target.resolve("nested/deeper/large.bin")));
+        assertEquals(0, Files.size(target.resolve("nested/zero.bin")));
+        assertEquals(Files.getLastModifiedTime(this.source.resolve("nested")).toMillis(), Files.getLastModifiedTime(target.resolve("nested")).toMillis());
+        assertFalse(Files.exists(target.resolve("a.txt")));
+        assertFalse(Files.exists(target.resolve("empty")));
+    }
+
+    @Test
+    public void testListArchive() throws Exception {
+        final Config config = Configs.newConfig();
+        final Path archive = this.encryptSource(config);
+        final ByteArrayOutputStream listing = new ByteArrayOutputStream();
+        final PrintStream out = System.out;
+
+        System.setOut(new PrintStream(listing, true, StandardCharsets.UTF_8));
+
+        try {
+            new Decrypter(config, Builder.of(Options::new)
+                    .with(Options::setInputFile, archive.toString())
+                    .with(Options::setList, true)
+                    .with(Options::setUserId, "jonathanp62@gmail.com")
+                    .with(Options::setPassword, "johann_Sebastian%Bach-6(Partitas)")
+                    .build()).decrypt();
+        } finally {
+            System.setOut(out);
+        }
+
+        final List<String> lines = listing.toString(StandardCharsets.UTF_8).lines()
+                .filter(line -> line.startsWith("file ") || line.startsWith("directory "))
+                .toList();
+
+        assertEquals(6, lines.size());
+        assertTrue(lines.contains(String.format("%-9s %12d %s %s", "file", 19, "2001-09-09T01:46:40Z", "a.txt")));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("directory") && line.endsWith(" nested/deeper")));
+    }
+}
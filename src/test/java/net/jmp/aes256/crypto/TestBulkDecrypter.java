@@ -0,0 +1,208 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)TestBulkDecrypter.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Configs;
+import net.jmp.aes256.config.ConfigSnapshot;
+
+import net.jmp.aes256.input.Credential;
+import net.jmp.aes256.input.CredentialsManifest;
+import net.jmp.aes256.input.FileEntry;
+import net.jmp.aes256.input.Options;
+
+import net.jmp.aes256.utils.Builder;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public final class TestBulkDecrypter {
+    private static final String PASSWORD = "johann_Sebastian%Bach-6(Partitas)";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Config config;
+    private CredentialsManifest manifest;
+    private List<byte[]> plainTexts;
+
+    @Before
+    public void before() throws Exception {
+        this.config = Configs.newConfig();
+
+        final Random random = new Random(3);
+        final List<Credential> credentials = new ArrayList<>();
+        final List<FileEntry> files = new ArrayList<>();
+
+        this.plainTexts = new ArrayList<>();
+
+        for (int user = 0; user < 2; user++) {
+            final String userId = "user" + user + "@domain.com";
+            final Path passwordFile = this.temporaryFolder.newFile().toPath();
+            final Credential credential = new Credential();
+
+            Files.writeString(passwordFile, PASSWORD + user);
+
+            credential.setUserId(userId);
+            credential.setPasswordFile(passwordFile.toString());
+            credentials.add(credential);
+
+            for (int i = 0; i < 3; i++) {
+                final byte[] plainText = new byte[10_000 + random.nextInt(10_000)];
+                final Path input = this.temporaryFolder.newFile().toPath();
+                final Path encrypted = this.temporaryFolder.getRoot().toPath().resolve(input.getFileName() + ".aes");
+
+                random.nextBytes(plainText);
+                Files.write(input, plainText);
+
+                new Encrypter(this.config, Builder.of(Options::new)
+                        .with(Options::setInputFile, input.toString())
+                        .with(Options::setOutputFile, encrypted.toString())
+                        .with(Options::setUserId, userId)
+                        .with(Options::setPassword, PASSWORD + user)
+                        .build()).encrypt();
+
+                final FileEntry entry = new FileEntry();
+
+                entry.setInputFile(encrypted.toString());
+                entry.setOutputFile(this.temporaryFolder.getRoot().toPath().resolve("restored-" + this.plainTexts.size()).toString());
+                entry.setUserId(userId);
+
+                files.add(entry);
+                this.plainTexts.add(plainText);
+            }
+        }
+
+        final FileEntry stranger = new FileEntry();
+
+        stranger.setInputFile(files.get(0).getInputFile());
+        stranger.setOutputFile(this.temporaryFolder.getRoot().toPath().resolve("stranger").toString());
+        stranger.setUserId("stranger@domain.com");
+
+        files.add(stranger);
+
+        this.manifest = new CredentialsManifest();
+        this.manifest.setCredentials(credentials);
+        this.manifest.setFiles(files);
+    }
+
+    private String decrypt(final BulkDecrypter bulkDecrypter, final int expectedFailures) {
+        return this.decrypt(bulkDecrypter, null, expectedFailures);
+    }
+
+    private String decrypt(final BulkDecrypter bulkDecrypter, final Path journal, final int expectedFailures) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (final PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8)) {
+            assertEquals(expectedFailures, bulkDecrypter.decrypt(this.manifest, journal, out));
+        }
+
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testDecryptManifest() throws Exception {
+        final BulkDecrypter bulkDecrypter = new BulkDecrypter(ConfigSnapshot.of(this.config), new Options(), 4);
+        final String output = this.decrypt(bulkDecrypter, 1);
+
+        assertEquals(7, output.lines().count());
+        assertEquals(6, output.lines().filter(line -> line.contains("\"status\":\"ok\"")).count());
+        assertTrue(output.lines().anyMatch(line -> line.contains("stranger@domain.com") && line.contains("\"status\":\"failed\"")));
+
+        /* One key per credential */
+
+        assertEquals(2, bulkDecrypter.getDerivations());
+
+        for (int i = 0; i < this.plainTexts.size(); i++) {
+            assertArrayEquals(this.plainTexts.get(i), Files.readAllBytes(Path.of(this.manifest.getFiles().get(i).getOutputFile())));
+        }
+    }
+
+    @Test
+    public void testResume() {
+        final Path journal = this.temporaryFolder.getRoot().toPath().resolve("manifest.json" + BulkDecrypter.STATUS_JOURNAL_SUFFIX);
+
+        this.decrypt(new BulkDecrypter(ConfigSnapshot.of(this.config), new Options(), 2), journal, 1);
+
+        final BulkDecrypter bulkDecrypter = new BulkDecrypter(ConfigSnapshot.of(this.config), new Options(), 2);
+        final String output = this.decrypt(bulkDecrypter, journal, 1);
+
+        assertEquals(6, output.lines().filter(line -> line.contains("\"status\":\"skipped\"")).count());
+        assertEquals(0, bulkDecrypter.getDerivations());
+    }
+
+    @Test
+    public void testUnrecordedOutputIsDecrypted() throws Exception {
+        final Path journal = this.temporaryFolder.getRoot().toPath().resolve("manifest.json" + BulkDecrypter.STATUS_JOURNAL_SUFFIX);
+        final Path output = Path.of(this.manifest.getFiles().get(0).getOutputFile());
+
+        /* An output newer than its input that no run of this manifest wrote */
+
+        Files.writeString(output, "not the plain text");
+
+        final String result = this.decrypt(new BulkDecrypter(ConfigSnapshot.of(this.config), new Options(), 2), journal, 1);
+
+        assertEquals(0, result.lines().filter(line -> line.contains("\"status\":\"skipped\"")).count());
+        assertArrayEquals(this.plainTexts.get(0), Files.readAllBytes(output));
+    }
+
+    @Test
+    public void testChangedOutputIsDecryptedAgain() throws Exception {
+        final Path journal = this.temporaryFolder.getRoot().toPath().resolve("manifest.json" + BulkDecrypter.STATUS_JOURNAL_SUFFIX);
+        final Path output = Path.of(this.manifest.getFiles().get(0).getOutputFile());
+
+        this.decrypt(new BulkDecrypter(ConfigSnapshot.of(this.config), new Options(), 2), journal, 1);
+
+        Files.writeString(output, "overwritten");
+
+        final String result = this.decrypt(new BulkDecrypter(ConfigSnapshot.of(this.config), new Options(), 2), journal, 1);
+
+        assertEquals(5, result.lines().filter(line -> line.contains("\"status\":\"skipped\"")).count());
+        assertArrayEquals(this.plainTexts.get(0), Files.readAllBytes(output));
+    }
+}
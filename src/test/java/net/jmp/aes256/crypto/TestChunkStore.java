@@ -0,0 +1,209 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)TestChunkStore.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Random;
+
+import java.util.stream.Stream;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Configs;
+
+import net.jmp.aes256.input.Options;
+
+import net.jmp.aes256.utils.Builder;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public final class TestChunkStore {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Config config;
+    private Path store;
+
+    @Before
+    public void before() throws Exception {
+        this.config = Configs.newConfig();
+
+        this.store = this.temporaryFolder.newFolder("store").toPath();
+    }
+
+    private Options options(final Path input, final Path output) {
+        return Builder.of(Options::new)
+                .with(Options::setInputFile, input.toString())
+                .with(Options::setOutputFile, output.toString())
+                .with(Options::setChunkStore, this.store.toString())
+                .with(Options::setUserId, "jonathanp62@gmail.com")
+                .with(Options::setPassword, "johann_Sebastian%Bach-6(Partitas)")
+                .build();
+    }
+
+    private String encrypt(final Path input, final Path manifest) throws Exception {
+        final ByteArrayOutputStream summary = new ByteArrayOutputStream();
+        final PrintStream out = System.out;
+
+        System.setOut(new PrintStream(summary, true, StandardCharsets.UTF_8));
+
+        try {
+            new Encrypter(this.config, this.options(input, manifest)).encrypt();
+        } finally {
+            System.setOut(out);
+        }
+
+        return summary.toString(StandardCharsets.UTF_8).lines()
+                .filter(line -> line.startsWith("Encrypted "))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private long countChunks() throws Exception {
+        try (final Stream<Path> paths = Files.walk(this.store)) {
+            return paths.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    public void testIncrementalEncryption() throws Exception {
+        final byte[] bytes = new byte[24 * 1024 * 1024];
+
+        new Random(3).nextBytes(bytes);
+
+        final Path input = this.temporaryFolder.newFile("input.bin").toPath();
+        final Path manifest = this.temporaryFolder.getRoot().toPath().resolve("input.bin.aes");
+        final Path restored = this.temporaryFolder.getRoot().toPath().resolve("restored.bin");
+
+        Files.write(input, bytes);
+
+        assertTrue(this.encrypt(input, manifest).endsWith("(" + bytes.length + " of " + bytes.length + " bytes)"));
+
+        final long chunks = this.countChunks();
+
+        /* Change a few bytes near the end and only the chunks around them are new */
+
+        bytes[bytes.length - 1000] ^= 1;
+        bytes[bytes.length - 2000] ^= 1;
+
+        Files.write(input, bytes);
+
+        final String summary = this.encrypt(input, manifest);
+
+        assertTrue(summary, summary.startsWith("Encrypted 1 of "));
+        assertEquals(chunks + 1, this.countChunks());
+
+        new Decrypter(this.config, this.options(manifest, restored)).decrypt();
+
+        assertArrayEquals(bytes, Files.readAllBytes(restored));
+    }
+
+    @Test
+    public void testAsyncEncryptionAndDecryption() throws Exception {
+        final byte[] bytes = new byte[3 * 1024 * 1024];
+
+        new Random(5).nextBytes(bytes);
+
+        final Path input = this.temporaryFolder.newFile("input.bin").toPath();
+        final Path manifest = this.temporaryFolder.getRoot().toPath().resolve("input.bin.aes");
+        final Path restored = this.temporaryFolder.getRoot().toPath().resolve("restored.bin");
+
+        Files.write(input, bytes);
+
+        try (final var executors = CryptographyExecutors.newDefaultExecutors()) {
+            new Encrypter(this.config, this.options(input, manifest)).encryptAsync(executors).get();
+
+            /* The output is a manifest far smaller than the file and the chunks are in the store */
+
+            assertTrue(this.countChunks() > 0);
+            assertTrue(Files.size(manifest) < bytes.length / 100);
+
+            new Decrypter(this.config, this.options(manifest, restored)).decryptAsync(executors).get();
+        }
+
+        assertArrayEquals(bytes, Files.readAllBytes(restored));
+    }
+
+    @Test
+    public void testCorruptChunkIsDetected() throws Exception {
+        final Path input = this.temporaryFolder.newFile("input.txt").toPath();
+        final Path manifest = this.temporaryFolder.getRoot().toPath().resolve("input.txt.aes");
+        final Path restored = this.temporaryFolder.getRoot().toPath().resolve("restored.txt");
+
+        Files.writeString(input, "The quick brown fox jumps over the lazy dog");
+
+        this.encrypt(input, manifest);
+
+        /* Swap in the chunk of a different file under the same name */
+
+        final Path other = this.temporaryFolder.newFile("other.txt").toPath();
+        final Path otherManifest = this.temporaryFolder.getRoot().toPath().resolve("other.txt.aes");
+
+        Files.writeString(other, "Pack my box with five dozen liquor jugs");
+
+        this.encrypt(other, otherManifest);
+
+        final Path[] chunks;
+
+        try (final Stream<Path> paths = Files.walk(this.store)) {
+            chunks = paths.filter(Files::isRegularFile).toArray(Path[]::new);
+        }
+
+        assertEquals(2, chunks.length);
+
+        final byte[] first = Files.readAllBytes(chunks[0]);
+
+        Files.write(chunks[0], Files.readAllBytes(chunks[1]));
+        Files.write(chunks[1], first);
+
+        try {
+            new Decrypter(this.config, this.options(manifest, restored)).decrypt();
+
+            fail("Expected a CryptographyException");
+        } catch (final CryptographyException ce) {
+            assertTrue(ce.getMessage(), ce.getMessage().startsWith("Chunk is corrupt"));
+        }
+
+        assertFalse(Files.exists(restored));
+    }
+}
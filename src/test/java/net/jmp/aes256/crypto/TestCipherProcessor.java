@@ -0,0 +1,173 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)TestCipherProcessor.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.ByteArrayOutputStream;
+
+import java.nio.ByteBuffer;
+
+import java.util.Random;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Configs;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public final class TestCipherProcessor {
+    private static final int MAX_BYTES_IN_FLIGHT = 4096;
+
+    private Config config;
+    private SecretKeySpec secretKeySpec;
+
+    @Before
+    public void before() {
+        this.config = Configs.newConfig();
+
+        this.config.setPbeKeySpecIterations(65536);
+
+        final byte[] key = new byte[32];
+
+        new Random(42).nextBytes(key);
+
+        this.secretKeySpec = new SecretKeySpec(key, "AES");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxBytesInFlight() {
+        new DecryptingProcessor(this.config, this.secretKeySpec, 0);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final byte[] plainText = new byte[100_000];
+
+        new Random(7).nextBytes(plainText);
+
+        final var encrypter = new EncryptingProcessor(this.config, this.secretKeySpec, MAX_BYTES_IN_FLIGHT);
+        final var decrypter = new DecryptingProcessor(this.config, this.secretKeySpec, MAX_BYTES_IN_FLIGHT);
+        final var collector = new Collector(encrypter, decrypter);
+
+        encrypter.subscribe(decrypter);
+        decrypter.subscribe(collector);
+
+        try (final var publisher = new SubmissionPublisher<ByteBuffer>()) {
+            publisher.subscribe(encrypter);
+
+            for (int offset = 0; offset < plainText.length; offset += 1000) {
+                publisher.submit(ByteBuffer.wrap(plainText, offset, Math.min(1000, plainText.length - offset)));
+            }
+        }
+
+        assertArrayEquals(plainText, collector.result.get(30, TimeUnit.SECONDS));
+        assertTrue(collector.maxPendingBytes.get() <= MAX_BYTES_IN_FLIGHT + 1000 + 32);
+    }
+
+    @Test
+    public void testWrongKey() throws Exception {
+        final var encrypter = new EncryptingProcessor(this.config, this.secretKeySpec, MAX_BYTES_IN_FLIGHT);
+        final var decrypter = new DecryptingProcessor(this.config, new SecretKeySpec(new byte[32], "AES"), MAX_BYTES_IN_FLIGHT);
+        final var collector = new Collector(encrypter, decrypter);
+
+        encrypter.subscribe(decrypter);
+        decrypter.subscribe(collector);
+
+        try (final var publisher = new SubmissionPublisher<ByteBuffer>()) {
+            publisher.subscribe(encrypter);
+            publisher.submit(ByteBuffer.wrap("The quick brown fox jumped over the lazy dog!".getBytes()));
+        }
+
+        try {
+            collector.result.get(30, TimeUnit.SECONDS);
+
+            fail("Expected decryption with the wrong key to fail");
+        } catch (final Exception e) {
+            assertTrue(e.getCause() instanceof CryptographyException);
+        }
+    }
+
+    /**
+     * A subscriber that requests one buffer at a time, recycles
+     * it and records the largest backlog seen in either processor.
+     */
+    private static final class Collector implements Flow.Subscriber<ByteBuffer> {
+        private final CipherProcessor first;
+        private final CipherProcessor second;
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        private final AtomicLong maxPendingBytes = new AtomicLong();
+        private Flow.Subscription subscription;
+
+        private Collector(final CipherProcessor first, final CipherProcessor second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            this.subscription.request(1);
+        }
+
+        @Override
+        public void onNext(final ByteBuffer item) {
+            this.maxPendingBytes.accumulateAndGet(Math.max(this.first.getPendingBytes(), this.second.getPendingBytes()), Math::max);
+
+            while (item.hasRemaining()) {
+                this.output.write(item.get());
+            }
+
+            this.second.release(item);
+            this.subscription.request(1);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            this.result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            this.result.complete(this.output.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)TestContentDefinedChunker.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import java.security.MessageDigest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public final class TestContentDefinedChunker {
+    private static List<byte[]> chunk(final byte[] bytes) throws Exception {
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(new ByteArrayInputStream(bytes));
+        final List<byte[]> chunks = new ArrayList<>();
+
+        for (byte[] chunk = chunker.next(); chunk != null; chunk = chunker.next()) {
+            chunks.add(chunk);
+        }
+
+        return chunks;
+    }
+
+    private static Set<String> digests(final List<byte[]> chunks) throws Exception {
+        final Set<String> digests = new HashSet<>();
+
+        for (final byte[] chunk : chunks) {
+            digests.add(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(chunk)));
+        }
+
+        return digests;
+    }
+
+    @Test
+    public void testChunksReassemble() throws Exception {
+        final byte[] bytes = new byte[20 * 1024 * 1024 + 123];
+
+        new Random(1).nextBytes(bytes);
+
+        final List<byte[]> chunks = chunk(bytes);
+        final ByteArrayOutputStream reassembled = new ByteArrayOutputStream();
+
+        for (int i = 0; i < chunks.size(); i++) {
+            final byte[] chunk = chunks.get(i);
+
+            assertTrue(chunk.length <= ContentDefinedChunker.MAXIMUM_SIZE);
+
+            if (i < chunks.size() - 1) {
+                assertTrue(chunk.length >= ContentDefinedChunker.MINIMUM_SIZE);
+            }
+
+            reassembled.write(chunk);
+        }
+
+        assertArrayEquals(bytes, reassembled.toByteArray());
+        assertTrue(chunks.size() > 5);
+    }
+
+    @Test
+    public void testEmptyAndSmallInput() throws Exception {
+        assertTrue(chunk(new byte[0]).isEmpty());
+        assertEquals(1, chunk(new byte[100]).size());
+    }
+
+    @Test
+    public void testMaximumSizeWithoutBoundary() throws Exception {
+        final List<byte[]> chunks = chunk(new byte[10 * 1024 * 1024]);
+
+        assertEquals(3, chunks.size());
+        assertEquals(ContentDefinedChunker.MAXIMUM_SIZE, chunks.get(0).length);
+    }
+
+    @Test
+    public void testInsertionResynchronizes() throws Exception {
+        final byte[] original = new byte[32 * 1024 * 1024];
+
+        new Random(2).nextBytes(original);
+
+        /* Insert a few bytes in the middle */
+
+        final int at = original.length / 2;
+        final byte[] changed = new byte[original.length + 7];
+
+        System.arraycopy(original, 0, changed, 0, at);
+        System.arraycopy(original, at, changed, at + 7, original.length - at);
+
+        final Set<String> before = digests(chunk(original));
+        final Set<String> after = digests(chunk(changed));
+        final Set<String> added = new HashSet<>(after);
+
+        added.removeAll(before);
+
+        assertTrue("Too many chunks changed: " + added.size(), added.size() <= 2);
+    }
+}
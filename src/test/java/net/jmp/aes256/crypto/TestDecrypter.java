@@ -1,12 +1,13 @@
 package net.jmp.aes256.crypto;
 
 /*
+ * (#)TestOptionsHandler.java   1.2.0   10/19/2026
  * (#)TestOptionsHandler.java   0.5.0   07/13/2024
  * (#)TestOptionsHandler.java   0.4.0   07/12/2024
  * (#)TestOptionsHandler.java   0.2.0   07/02/2024
  *
  * @author   Jonathan Parker
- * @version  0.5.0
+ * @version  1.2.0
  * @since    0.2.0
  *
  * MIT License
@@ -33,9 +34,12 @@ package net.jmp.aes256.crypto;
  */
 
 import java.io.File;
+import java.io.RandomAccessFile;
 
 import java.net.URL;
 
+import java.nio.file.Files;
+
 import net.jmp.aes256.config.Config;
 
 import net.jmp.aes256.input.Options;
@@ -44,11 +48,17 @@ import net.jmp.aes256.utils.Builder;
 import net.jmp.aes256.utils.SHA256;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 
+import org.junit.rules.TemporaryFolder;
+
 import static org.junit.Assert.*;
 
 public final class TestDecrypter {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private Config config;
     private Options fileOptions;
     private Options stringOptions;
@@ -197,4 +207,131 @@ public final class TestDecrypter {
 
         assertEquals(originalFileSha256, decryptedFileSha256);
     }
+
+    @Test
+    public void testDecryptStringAsync() throws Exception {
+        try (final var executors = CryptographyExecutors.newDefaultExecutors()) {
+            final var decrypter = new Decrypter(this.config, this.stringOptions);
+            final var decrypted = decrypter.decryptAsync(executors).get();
+
+            assertTrue(decrypted.isPresent());
+
+            assertEquals("The quick brown fox jumped over the lazy dog!", decrypted.get());
+        }
+    }
+
+    @Test
+    public void testDecryptAsyncAfterCancel() throws Exception {
+        try (final var executors = CryptographyExecutors.newDefaultExecutors()) {
+            final var decrypter = new Decrypter(this.config, this.stringOptions);
+
+            assertTrue(decrypter.decryptAsync(executors).cancel(true));
+
+            /* A cancelled operation does not cancel the next one */
+
+            final var decrypted = decrypter.decryptAsync(executors).get();
+
+            assertEquals("The quick brown fox jumped over the lazy dog!", decrypted.orElseThrow());
+        }
+    }
+
+    @Test
+    public void testDecryptFileAsync() throws Exception {
+        final URL url = getClass().getClassLoader().getResource("Most-Popular-Team-By-State.png");
+
+        assert url != null;
+
+        final var originalFileSha256 = SHA256.getFileSHA256(new File(url.getPath()).getAbsolutePath());
+        final var outputFile = new File(this.temporaryFolder.getRoot(), "Most-Popular-Team-By-State.png");
+
+        this.fileOptions.setOutputFile(outputFile.getAbsolutePath());
+
+        try (final var executors = CryptographyExecutors.newDefaultExecutors()) {
+            final var decrypter = new Decrypter(this.config, this.fileOptions);
+            final var decrypted = decrypter.decryptAsync(executors).get();
+
+            assertTrue(decrypted.isEmpty());
+        }
+
+        assertEquals(originalFileSha256, SHA256.getFileSHA256(outputFile.getAbsolutePath()));
+    }
+
+    @Test
+    public void testDecryptFileUsesHeaderSettings() throws Exception {
+        final URL url = getClass().getClassLoader().getResource("Most-Popular-Team-By-State.png");
+
+        assert url != null;
+
+        final var originalFile = new File(url.getPath());
+        final var encryptedFile = new File(this.temporaryFolder.getRoot(), "Most-Popular-Team-By-State.aes");
+        final var decryptedFile = new File(this.temporaryFolder.getRoot(), "Most-Popular-Team-By-State.png");
+
+        final var encryptConfig = this.config.copy();
+
+        encryptConfig.setPbeKeySpecIterations(1000);
+        encryptConfig.setPbeKeySpecKeyLength(128);
+
+        final var encryptOptions = Builder.of(Options::new)
+                .with(Options::setInputFile, originalFile.getAbsolutePath())
+                .with(Options::setOutputFile, encryptedFile.getAbsolutePath())
+                .with(Options::setUserId, this.fileOptions.getUserId())
+                .with(Options::setPassword, this.fileOptions.getPassword())
+                .build();
+
+        new Encrypter(encryptConfig, encryptOptions).encrypt();
+
+        /* The local configuration differs from the one recorded in the header */
+
+        this.fileOptions.setInputFile(encryptedFile.getAbsolutePath());
+        this.fileOptions.setOutputFile(decryptedFile.getAbsolutePath());
+
+        new Decrypter(this.config, this.fileOptions).decrypt();
+
+        assertEquals(SHA256.getFileSHA256(originalFile.getAbsolutePath()), SHA256.getFileSHA256(decryptedFile.getAbsolutePath()));
+    }
+
+    @Test
+    public void testFailedDecryptFileLeavesOutputUntouched() throws Exception {
+        final URL url = getClass().getClassLoader().getResource("Most-Popular-Team-By-State.png");
+
+        assert url != null;
+
+        final var originalFile = new File(url.getPath());
+        final var encryptedFile = new File(this.temporaryFolder.getRoot(), "Most-Popular-Team-By-State.aes");
+        final var decryptedFile = this.temporaryFolder.newFile("existing.png");
+
+        Files.writeString(decryptedFile.toPath(), "existing");
+
+        final var encryptConfig = this.config.copy();
+
+        encryptConfig.setPbeKeySpecIterations(1000);
+
+        final var encryptOptions = Builder.of(Options::new)
+                .with(Options::setInputFile, originalFile.getAbsolutePath())
+                .with(Options::setOutputFile, encryptedFile.getAbsolutePath())
+                .with(Options::setUserId, this.fileOptions.getUserId())
+                .with(Options::setPassword, this.fileOptions.getPassword())
+                .with(Options::setDurability, "file")
+                .build();
+
+        new Encrypter(encryptConfig, encryptOptions).encrypt();
+
+        /* A cipher text that is not a whole number of blocks always fails */
+
+        try (final var file = new RandomAccessFile(encryptedFile, "rw")) {
+            file.setLength(file.length() - 1);
+        }
+
+        this.fileOptions.setInputFile(encryptedFile.getAbsolutePath());
+        this.fileOptions.setOutputFile(decryptedFile.getAbsolutePath());
+
+        try {
+            new Decrypter(this.config, this.fileOptions).decrypt();
+
+            fail("Expected a CryptographyException");
+        } catch (final CryptographyException ce) {
+            assertEquals("existing", Files.readString(decryptedFile.toPath()));
+            assertEquals(2, this.temporaryFolder.getRoot().list().length);
+        }
+    }
 }
@@ -1,12 +1,13 @@
 package net.jmp.aes256.crypto;
 
 /*
+ * (#)TestEncrypter.java    1.2.0   10/19/2026
  * (#)TestEncrypter.java    0.5.0   07/13/2024
  * (#)TestEncrypter.java    0.4.0   07/12/2024
  * (#)TestEncrypter.java    0.3.0   07/06/2024
  *
  * @author   Jonathan Parker
- * @version  0.5.0
+ * @version  1.2.0
  * @since    0.3.0
  *
  * MIT License
@@ -36,6 +37,8 @@ import java.io.File;
 
 import java.net.URL;
 
+import java.util.concurrent.CancellationException;
+
 import net.jmp.aes256.config.Config;
 
 import net.jmp.aes256.input.Options;
@@ -221,4 +224,54 @@ public final class TestEncrypter {
 
         assertEquals(originalFileSha256, decryptedFileSha256);
     }
+
+    @Test
+    public void testEncryptStringAsync() throws Exception {
+        try (final var executors = CryptographyExecutors.newDefaultExecutors()) {
+            final var encrypter = new Encrypter(this.config, this.stringOptions);
+            final var encrypted = encrypter.encryptAsync(executors).get();
+
+            assertTrue(encrypted.isPresent());
+
+            this.stringOptions.setString(encrypted.get());
+
+            final var decrypter = new Decrypter(this.config, this.stringOptions);
+            final var decrypted = decrypter.decryptAsync(executors).get();
+
+            assertTrue(decrypted.isPresent());
+
+            assertEquals("The quick brown fox jumped over the lazy dog!", decrypted.get());
+        }
+    }
+
+    @Test(expected = CancellationException.class)
+    public void testCancelEncryptAsync() throws Exception {
+        try (final var executors = CryptographyExecutors.newDefaultExecutors()) {
+            final var encrypter = new Encrypter(this.config, this.stringOptions);
+            final var future = encrypter.encryptAsync(executors);
+
+            assertTrue(future.cancel(true));
+
+            future.get();
+        }
+    }
+
+    @Test
+    public void testEncryptAsyncAfterCancel() throws Exception {
+        try (final var executors = CryptographyExecutors.newDefaultExecutors()) {
+            final var encrypter = new Encrypter(this.config, this.stringOptions);
+
+            assertTrue(encrypter.encryptAsync(executors).cancel(true));
+
+            /* A cancelled operation does not cancel the next one */
+
+            final var encrypted = encrypter.encryptAsync(executors).get();
+
+            assertTrue(encrypted.isPresent());
+
+            this.stringOptions.setString(encrypted.get());
+
+            assertEquals("The quick brown fox jumped over the lazy dog!", new Decrypter(this.config, this.stringOptions).decrypt().orElseThrow());
+        }
+    }
 }
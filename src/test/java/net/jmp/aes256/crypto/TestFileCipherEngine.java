@@ -0,0 +1,312 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)TestFileCipherEngine.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.crypto.Cipher;
+
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import jdk.jfr.Recording;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import net.jmp.aes256.config.Config;
+
+import net.jmp.aes256.input.Options;
+
+import net.jmp.aes256.utils.FileCipherEvent;
+import net.jmp.aes256.utils.ProgressMonitor;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+
+public final class TestFileCipherEngine {
+    private static final int WINDOW_SIZE = 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Config config;
+    private SecretKeySpec secretKeySpec;
+    private IvParameterSpec ivParameterSpec;
+    private byte[] plainText;
+    private Path plainFile;
+
+    @Before
+    public void before() throws Exception {
+        this.config = new Config();
+
+        final var cipher = new net.jmp.aes256.config.Cipher();
+
+        cipher.setCharacterSet("UTF-8");
+        cipher.setInstance("AES/CBC/PKCS5Padding");
+
+        this.config.setCipher(cipher);
+
+        final Random random = new Random(42);
+        final byte[] key = new byte[32];
+        final byte[] initializationVector = new byte[Config.INITIALIZATION_VECTOR_SIZE];
+
+        random.nextBytes(key);
+        random.nextBytes(initializationVector);
+
+        this.secretKeySpec = new SecretKeySpec(key, "AES");
+        this.ivParameterSpec = new IvParameterSpec(initializationVector);
+
+        /* Span several windows and end mid-block */
+
+        this.plainText = new byte[3 * WINDOW_SIZE + WINDOW_SIZE / 2 + 7];
+
+        random.nextBytes(this.plainText);
+
+        this.plainFile = this.temporaryFolder.newFile("plain.bin").toPath();
+
+        Files.write(this.plainFile, this.plainText);
+    }
+
+    private Cipher cipher(final int mode) throws Exception {
+        return CipherFactory.createCipher(this.config, mode, this.secretKeySpec, this.ivParameterSpec);
+    }
+
+    private Path transform(final FileCipherEngine engine, final int mode, final Path input, final long offset, final byte[] prefix) throws Exception {
+        final File output = this.temporaryFolder.newFile();
+
+        assertTrue(engine.transform(this.cipher(mode), input, offset, output.toPath(), prefix, ProgressMonitor.disabled(), new AtomicBoolean()));
+
+        return output.toPath();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownEngine() {
+        FileCipherEngine.of("carrier-pigeon");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWindowSize() {
+        new MappedFileCipherEngine(WINDOW_SIZE + 1);
+    }
+
+    @Test
+    public void testMappedMatchesStream() throws Exception {
+        final byte[] prefix = {1, 2, 3};
+        final Path streamed = this.transform(new StreamFileCipherEngine(), Cipher.ENCRYPT_MODE, this.plainFile, 0, prefix);
+        final Path mapped = this.transform(new MappedFileCipherEngine(WINDOW_SIZE), Cipher.ENCRYPT_MODE, this.plainFile, 0, prefix);
+
+        assertArrayEquals(Files.readAllBytes(streamed), Files.readAllBytes(mapped));
+
+        final Path decrypted = this.transform(new MappedFileCipherEngine(WINDOW_SIZE), Cipher.DECRYPT_MODE, mapped, prefix.length, new byte[0]);
+
+        assertArrayEquals(this.plainText, Files.readAllBytes(decrypted));
+    }
+
+    @Test
+    public void testCancelled() throws Exception {
+        final File output = this.temporaryFolder.newFile();
+        final FileCipherEngine engine = new MappedFileCipherEngine(WINDOW_SIZE);
+
+        assertFalse(engine.transform(this.cipher(Cipher.ENCRYPT_MODE),
+                this.plainFile,
+                0,
+                output.toPath(),
+                new byte[0],
+                ProgressMonitor.disabled(),
+                new AtomicBoolean(true)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDirectWithMappedEngine() {
+        FileCipherEngine.of("mapped", true, 0);
+    }
+
+    @Test
+    public void testDirectMatchesStream() throws Exception {
+        final byte[] prefix = new byte[FileHeader.SIZE];
+
+        Arrays.fill(prefix, (byte) 7);
+
+        final Path streamed = this.transform(new StreamFileCipherEngine(), Cipher.ENCRYPT_MODE, this.plainFile, 0, prefix);
+        final Path direct;
+
+        try {
+            direct = this.transform(new DirectFileCipherEngine(), Cipher.ENCRYPT_MODE, this.plainFile, 0, prefix);
+        } catch (final IOException ioe) {
+            assumeFalse("Direct I/O is not supported by the temporary folder", ioe.getMessage().startsWith("Direct I/O is not supported"));
+
+            throw ioe;
+        }
+
+        assertArrayEquals(Files.readAllBytes(streamed), Files.readAllBytes(direct));
+
+        /* The data starts part way into the first block */
+
+        final Path decrypted = this.transform(new DirectFileCipherEngine(), Cipher.DECRYPT_MODE, direct, prefix.length, new byte[0]);
+
+        assertArrayEquals(this.plainText, Files.readAllBytes(decrypted));
+    }
+
+    @Test
+    public void testDirectWithLongPrefix() throws Exception {
+        final byte[] prefix = new byte[3 * DirectFileCipherEngine.blockSize(this.plainFile) + 100];
+
+        new Random(5).nextBytes(prefix);
+
+        final Path streamed = this.transform(new StreamFileCipherEngine(), Cipher.ENCRYPT_MODE, this.plainFile, 0, prefix);
+        final Path direct;
+
+        try {
+            direct = this.transform(new DirectFileCipherEngine(), Cipher.ENCRYPT_MODE, this.plainFile, 0, prefix);
+        } catch (final IOException ioe) {
+            assumeFalse("Direct I/O is not supported by the temporary folder", ioe.getMessage().startsWith("Direct I/O is not supported"));
+
+            throw ioe;
+        }
+
+        assertArrayEquals(Files.readAllBytes(streamed), Files.readAllBytes(direct));
+
+        final Path decrypted = this.transform(new DirectFileCipherEngine(), Cipher.DECRYPT_MODE, direct, prefix.length, new byte[0]);
+
+        assertArrayEquals(this.plainText, Files.readAllBytes(decrypted));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidQueueDepth() {
+        FileCipherEngine.of("async", false, -1);
+    }
+
+    @Test
+    public void testAsyncMatchesStream() throws Exception {
+        final byte[] prefix = {1, 2, 3};
+        final Path streamed = this.transform(new StreamFileCipherEngine(), Cipher.ENCRYPT_MODE, this.plainFile, 0, prefix);
+
+        /* Small chunks wrap the ring of slots many times */
+
+        for (final int queueDepth : new int[] {1, 4, 16}) {
+            final Path async = this.transform(new AsyncFileCipherEngine(queueDepth, 64 * 1024), Cipher.ENCRYPT_MODE, this.plainFile, 0, prefix);
+
+            assertArrayEquals(Files.readAllBytes(streamed), Files.readAllBytes(async));
+
+            final Path decrypted = this.transform(new AsyncFileCipherEngine(queueDepth, 64 * 1024), Cipher.DECRYPT_MODE, async, prefix.length, new byte[0]);
+
+            assertArrayEquals(this.plainText, Files.readAllBytes(decrypted));
+        }
+    }
+
+    @Test
+    public void testArmoredMatchesStream() throws Exception {
+        final byte[] prefix = {1, 2, 3};
+        final Path streamed = this.transform(new StreamFileCipherEngine(), Cipher.ENCRYPT_MODE, this.plainFile, 0, prefix);
+        final Path armored = this.transform(new ArmoredFileCipherEngine(true), Cipher.ENCRYPT_MODE, this.plainFile, 0, prefix);
+
+        final String text = Files.readString(armored, StandardCharsets.US_ASCII);
+
+        for (final String line : text.split("\r\n")) {
+            assertTrue(line.length() <= ArmoredFileCipherEngine.LINE_LENGTH);
+            assertTrue(line.matches("[A-Za-z0-9+/=]*"));
+        }
+
+        final byte[] decoded = Base64.getMimeDecoder().decode(text);
+
+        assertArrayEquals(Files.readAllBytes(streamed), decoded);
+        assertEquals(decoded.length, ArmoredFileCipherEngine.decodedLength(Files.size(armored)), 2);
+
+        final Path decrypted = this.transform(new ArmoredFileCipherEngine(false), Cipher.DECRYPT_MODE, armored, prefix.length, new byte[0]);
+
+        assertArrayEquals(this.plainText, Files.readAllBytes(decrypted));
+    }
+
+    @Test
+    public void testFileCipherEvents() throws Exception {
+        final byte[] prefix = {1, 2, 3};
+        final Path recorded = this.temporaryFolder.getRoot().toPath().resolve("engines.jfr");
+        final Path streamed;
+        final Path mapped;
+
+        try (final Recording recording = new Recording()) {
+            recording.enable(FileCipherEvent.class);
+            recording.start();
+
+            streamed = this.transform(new StreamFileCipherEngine(), Cipher.ENCRYPT_MODE, this.plainFile, 0, prefix);
+            mapped = this.transform(new MappedFileCipherEngine(WINDOW_SIZE), Cipher.ENCRYPT_MODE, this.plainFile, 0, prefix);
+
+            recording.stop();
+            recording.dump(recorded);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recorded).stream()
+                .filter(event -> event.getEventType().getName().equals("net.jmp.aes256.FileCipher"))
+                .toList();
+
+        assertEquals(2, events.size());
+
+        for (final RecordedEvent event : events) {
+            final Path output = "stream".equals(event.getString("engine")) ? streamed : mapped;
+
+            assertEquals(this.plainText.length, event.getLong("bytesRead"));
+            assertEquals(Files.size(output), event.getLong("bytesWritten"));
+        }
+
+        assertEquals("stream", events.get(0).getString("engine"));
+        assertEquals("mapped", events.get(1).getString("engine"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArmorWithMappedEngine() {
+        final Options options = new Options();
+
+        options.setArmor(true);
+        options.setIoEngine("mapped");
+
+        FileCipherEngine.of(options, true);
+    }
+}
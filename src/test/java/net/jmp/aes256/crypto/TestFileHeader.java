@@ -0,0 +1,172 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)TestFileHeader.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Scrypt;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public final class TestFileHeader {
+    private Config config;
+    private byte[] initializationVector;
+
+    @Before
+    public void before() {
+        this.config = new Config();
+
+        this.config.setPbeKeySpecIterations(65536);
+        this.config.setPbeKeySpecKeyLength(256);
+        this.config.setSecretKeyFactoryInstance("PBKDF2WithHmacSHA256");
+        this.config.setSecretKeySpecAlgorithm("AES");
+
+        this.initializationVector = new byte[Config.INITIALIZATION_VECTOR_SIZE];
+
+        for (int i = 0; i < this.initializationVector.length; i++) {
+            this.initializationVector[i] = (byte) (i + 1);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final byte[] bytes = FileHeader.of(this.config, this.initializationVector).toByteArray();
+
+        assertEquals(FileHeader.SIZE, bytes.length);
+
+        final FileHeader fileHeader = FileHeader.parse(bytes, bytes.length).orElseThrow();
+
+        assertFalse(fileHeader.isScrypt());
+        assertEquals(256, fileHeader.getKeyLength());
+        assertEquals(65536, fileHeader.getIterations());
+        assertArrayEquals(this.initializationVector, fileHeader.getInitializationVector());
+    }
+
+    @Test
+    public void testLegacyFile() throws Exception {
+        assertTrue(FileHeader.parse(this.initializationVector, this.initializationVector.length).isEmpty());
+        assertTrue(FileHeader.parse(new byte[FileHeader.SIZE], FileHeader.SIZE).isEmpty());
+    }
+
+    @Test(expected = CryptographyException.class)
+    public void testUnsupportedVersion() throws Exception {
+        final byte[] bytes = FileHeader.of(this.config, this.initializationVector).toByteArray();
+
+        bytes[6] = 99;
+
+        FileHeader.parse(bytes, bytes.length);
+    }
+
+    @Test(expected = CryptographyException.class)
+    public void testExcessiveIterations() throws Exception {
+        final Config other = this.config.copy();
+
+        other.setPbeKeySpecIterations(Config.DEFAULT_MAXIMUM_ITERATIONS + 1);
+
+        final byte[] bytes = FileHeader.of(other, this.initializationVector).toByteArray();
+
+        FileHeader.parse(bytes, bytes.length);
+    }
+
+    @Test(expected = CryptographyException.class)
+    public void testExcessiveScryptMemory() throws Exception {
+        final Scrypt scrypt = new Scrypt();
+
+        scrypt.setCost(1 << 20);
+        scrypt.setBlockSize(8);
+        scrypt.setParallelization(1 << 20);
+
+        final Config scryptConfig = this.config.copy();
+
+        scryptConfig.setScrypt(scrypt);
+        scryptConfig.setSecretKeyFactoryInstance("Scrypt");
+
+        final byte[] bytes = FileHeader.of(scryptConfig, this.initializationVector).toByteArray();
+
+        FileHeader.parse(bytes, bytes.length);
+    }
+
+    @Test
+    public void testConfiguredMaximum() throws Exception {
+        final byte[] bytes = FileHeader.of(this.config, this.initializationVector).toByteArray();
+        final Config limited = this.config.copy();
+
+        limited.setMaximumIterations(1000);
+
+        try {
+            FileHeader.parse(bytes, bytes.length, limited);
+            fail("Expected a CryptographyException");
+        } catch (final CryptographyException ce) {
+            assertTrue(ce.getMessage().contains("maximum of 1000"));
+        }
+
+        limited.setMaximumIterations(65536);
+
+        assertEquals(65536, FileHeader.parse(bytes, bytes.length, limited).orElseThrow().getIterations());
+    }
+
+    @Test
+    public void testApplyScrypt() throws Exception {
+        final Scrypt scrypt = new Scrypt();
+
+        scrypt.setCost(2048);
+        scrypt.setBlockSize(8);
+        scrypt.setParallelization(2);
+
+        final Config scryptConfig = this.config.copy();
+
+        scryptConfig.setScrypt(scrypt);
+        scryptConfig.setSecretKeyFactoryInstance("Scrypt");
+
+        final byte[] bytes = FileHeader.of(scryptConfig, this.initializationVector).toByteArray();
+        final Config applied = FileHeader.parse(bytes, bytes.length).orElseThrow().applyTo(this.config);
+
+        assertEquals("Scrypt", applied.getSecretKeyFactoryInstance());
+        assertEquals(scrypt, applied.getScrypt());
+        assertNull(this.config.getScrypt());
+    }
+
+    @Test
+    public void testApplyPbkdf2() throws Exception {
+        final Config other = this.config.copy();
+
+        other.setPbeKeySpecIterations(1000);
+        other.setPbeKeySpecKeyLength(128);
+
+        final byte[] bytes = FileHeader.of(other, this.initializationVector).toByteArray();
+        final Config applied = FileHeader.parse(bytes, bytes.length).orElseThrow().applyTo(this.config);
+
+        assertEquals(other, applied);
+        assertEquals(65536, this.config.getPbeKeySpecIterations());
+    }
+}
@@ -0,0 +1,119 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)TestGroupCommitter.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public final class TestGroupCommitter {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testCommitBatch() throws Exception {
+        final Path directory = this.temporaryFolder.getRoot().toPath();
+        final List<Path> targets = new ArrayList<>();
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        try (final GroupCommitter groupCommitter = new GroupCommitter(8, Duration.ofMillis(200))) {
+            for (int i = 0; i < 8; i++) {
+                final Path target = directory.resolve("file-" + i + ".aes");
+                final Path temporary = OutputFiles.createTemporaryFile(target);
+
+                Files.writeString(temporary, "content-" + i);
+                OutputFiles.force(temporary);
+
+                targets.add(target);
+                futures.add(groupCommitter.commit(temporary, target));
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+            assertEquals(8, groupCommitter.getFiles());
+            assertTrue(groupCommitter.getBatches() < 8);
+        }
+
+        for (int i = 0; i < targets.size(); i++) {
+            assertEquals("content-" + i, Files.readString(targets.get(i)));
+        }
+
+        try (final var files = Files.list(directory)) {
+            assertEquals(8, files.count());
+        }
+    }
+
+    @Test
+    public void testCommitMissingFile() throws Exception {
+        final Path directory = this.temporaryFolder.getRoot().toPath();
+
+        try (final GroupCommitter groupCommitter = new GroupCommitter(8, Duration.ZERO)) {
+            final CompletableFuture<Void> future = groupCommitter.commit(directory.resolve("missing.tmp"), directory.resolve("missing.aes"));
+
+            assertTrue(future.handle((result, throwable) -> throwable).join() != null);
+            assertEquals(0, groupCommitter.getFiles());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCommitAfterClose() throws Exception {
+        final Path directory = this.temporaryFolder.getRoot().toPath();
+        final GroupCommitter groupCommitter = new GroupCommitter(8, Duration.ZERO);
+
+        groupCommitter.close();
+        groupCommitter.commit(directory.resolve("a.tmp"), directory.resolve("a.aes"));
+    }
+
+    @Test
+    public void testDurabilityOf() {
+        assertEquals(Durability.NONE, Durability.of(null));
+        assertEquals(Durability.FILE, Durability.of("File"));
+        assertEquals(Durability.GROUP, Durability.of("group"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownDurability() {
+        Durability.of("eventually");
+    }
+}
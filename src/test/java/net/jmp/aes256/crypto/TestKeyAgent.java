@@ -0,0 +1,281 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)TestKeyAgent.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.nio.file.attribute.PosixFilePermissions;
+
+import java.time.Duration;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Configs;
+
+import net.jmp.aes256.input.Options;
+
+import net.jmp.aes256.utils.Builder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public final class TestKeyAgent {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path socket;
+    private KeyAgent keyAgent;
+    private Thread server;
+
+    private void start(final Duration timeToLive) throws Exception {
+        this.keyAgent = new KeyAgent(this.socket, timeToLive);
+        this.server = Thread.ofVirtual().start(() -> {
+            try {
+                this.keyAgent.serve();
+            } catch (final Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Before
+    public void before() throws Exception {
+        this.socket = this.temporaryFolder.getRoot().toPath().resolve("agent").resolve("agent.sock");
+    }
+
+    @After
+    public void after() throws Exception {
+        if (this.keyAgent != null) {
+            this.keyAgent.close();
+            this.server.join();
+        }
+    }
+
+    @Test
+    public void testGetAndPut() throws Exception {
+        this.start(Duration.ofMinutes(1));
+
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(this.socket)));
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(this.socket.getParent())));
+
+        final KeyAgentClient keyAgentClient = new KeyAgentClient(this.socket);
+        final SecretKeySpec secretKeySpec = new SecretKeySpec(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16}, "AES");
+
+        assertTrue(keyAgentClient.get("user@domain.com").isEmpty());
+
+        keyAgentClient.put("user@domain.com", secretKeySpec);
+
+        assertEquals(secretKeySpec, keyAgentClient.get("user@domain.com").orElseThrow());
+        assertTrue(keyAgentClient.get("other@domain.com").isEmpty());
+        assertEquals(1, this.keyAgent.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testInsecureDirectory() throws Exception {
+        Files.createDirectories(this.socket.getParent());
+        Files.setPosixFilePermissions(this.socket.getParent(), PosixFilePermissions.fromString("rwxrwxrwx"));
+
+        new KeyAgent(this.socket, Duration.ofMinutes(1)).close();
+    }
+
+    @Test
+    public void testClientRefusesInsecureDirectory() throws Exception {
+        this.start(Duration.ofMinutes(1));
+
+        final KeyAgentClient keyAgentClient = new KeyAgentClient(this.socket);
+
+        keyAgentClient.put("user@domain.com", new SecretKeySpec(new byte[16], "AES"));
+
+        Files.setPosixFilePermissions(this.socket.getParent(), PosixFilePermissions.fromString("rwxr-xr-x"));
+
+        assertTrue(keyAgentClient.get("user@domain.com").isEmpty());
+
+        keyAgentClient.put("other@domain.com", new SecretKeySpec(new byte[16], "AES"));
+
+        assertEquals(1, this.keyAgent.size());
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        this.start(Duration.ofMillis(100));
+
+        final KeyAgentClient keyAgentClient = new KeyAgentClient(this.socket);
+
+        keyAgentClient.put("user@domain.com", new SecretKeySpec(new byte[16], "AES"));
+
+        Thread.sleep(200);
+
+        assertTrue(keyAgentClient.get("user@domain.com").isEmpty());
+        assertEquals(0, this.keyAgent.size());
+    }
+
+    @Test
+    public void testGetOrDerive() throws Exception {
+        this.start(Duration.ofMinutes(1));
+
+        final Config config = new Config();
+        final AtomicInteger prompts = new AtomicInteger();
+        final AtomicInteger derivations = new AtomicInteger();
+
+        config.setPbeKeySpecKeyLength(256);
+        config.setPbeKeySpecIterations(1000);
+
+        for (int i = 0; i < 3; i++) {
+            final Options options = new Options();
+
+            options.setUserId("user@domain.com");
+            options.setKeyAgent(this.socket.toString());
+            options.setPasswordSupplier(() -> {
+                prompts.incrementAndGet();
+
+                return "password";
+            });
+
+            final KeyAgentClient.PendingKey pendingKey = KeyAgentClient.getOrDerive(options, config, password -> {
+                derivations.incrementAndGet();
+
+                return new SecretKeySpec(new byte[32], "AES");
+            });
+
+            assertEquals(32, pendingKey.getSecretKeySpec().getEncoded().length);
+
+            pendingKey.commit();
+        }
+
+        assertEquals(1, prompts.get());
+        assertEquals(1, derivations.get());
+    }
+
+    @Test
+    public void testUncommittedKey() throws Exception {
+        this.start(Duration.ofMinutes(1));
+
+        final Config config = new Config();
+        final AtomicInteger derivations = new AtomicInteger();
+
+        config.setPbeKeySpecKeyLength(256);
+        config.setPbeKeySpecIterations(1000);
+
+        for (int i = 0; i < 2; i++) {
+            final Options options = new Options();
+
+            options.setUserId("user@domain.com");
+            options.setKeyAgent(this.socket.toString());
+            options.setPassword("mistyped");
+
+            KeyAgentClient.getOrDerive(options, config, password -> {
+                derivations.incrementAndGet();
+
+                return new SecretKeySpec(new byte[32], "AES");
+            });
+        }
+
+        assertEquals(2, derivations.get());
+        assertEquals(0, this.keyAgent.size());
+    }
+
+    @Test
+    public void testCommitOnlyAfterIntegrityCheck() throws Exception {
+        this.start(Duration.ofMinutes(1));
+
+        final Config config = Configs.newConfig();
+        final String encrypted = new Encrypter(config, Builder.of(Options::new)
+                .with(Options::setString, "The quick brown fox")
+                .with(Options::setUserId, "user@domain.com")
+                .with(Options::setPassword, "johann_Sebastian%Bach-6(Partitas)")
+                .build()).encrypt().orElseThrow();
+
+        /* Valid padding does not prove the password, so the key is not cached */
+
+        final String decrypted = new Decrypter(config, Builder.of(Options::new)
+                .with(Options::setString, encrypted)
+                .with(Options::setUserId, "user@domain.com")
+                .with(Options::setPassword, "johann_Sebastian%Bach-6(Partitas)")
+                .with(Options::setKeyAgent, this.socket.toString())
+                .build()).decrypt().orElseThrow();
+
+        assertEquals("The quick brown fox", decrypted);
+        assertEquals(0, this.keyAgent.size());
+
+        /* The authenticated chunk manifest does */
+
+        final Path input = this.temporaryFolder.newFile("input.txt").toPath();
+        final Path manifest = this.temporaryFolder.getRoot().toPath().resolve("input.txt.aes");
+        final Path store = this.temporaryFolder.newFolder("store").toPath();
+
+        Files.writeString(input, "Pack my box with five dozen liquor jugs");
+
+        new Encrypter(config, Builder.of(Options::new)
+                .with(Options::setInputFile, input.toString())
+                .with(Options::setOutputFile, manifest.toString())
+                .with(Options::setChunkStore, store.toString())
+                .with(Options::setUserId, "user@domain.com")
+                .with(Options::setPassword, "johann_Sebastian%Bach-6(Partitas)")
+                .build()).encrypt();
+
+        new Decrypter(config, Builder.of(Options::new)
+                .with(Options::setInputFile, manifest.toString())
+                .with(Options::setOutputFile, this.temporaryFolder.getRoot().toPath().resolve("restored.txt").toString())
+                .with(Options::setChunkStore, store.toString())
+                .with(Options::setUserId, "user@domain.com")
+                .with(Options::setPassword, "johann_Sebastian%Bach-6(Partitas)")
+                .with(Options::setKeyAgent, this.socket.toString())
+                .build()).decrypt();
+
+        assertEquals(1, this.keyAgent.size());
+    }
+
+    @Test
+    public void testAgentNotRunning() throws Exception {
+        final Options options = new Options();
+
+        options.setUserId("user@domain.com");
+        options.setKeyAgent(this.socket.toString());
+        options.setPassword("password");
+
+        final SecretKeySpec secretKeySpec = KeyAgentClient.getOrDerive(options, new Config(), password -> new SecretKeySpec(password.getBytes(), "AES"))
+                .getSecretKeySpec();
+
+        assertArrayEquals("password".getBytes(), secretKeySpec.getEncoded());
+    }
+}
@@ -0,0 +1,134 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)TestLoadTest.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.time.Duration;
+
+import java.util.Random;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Configs;
+import net.jmp.aes256.config.ConfigSnapshot;
+
+import net.jmp.aes256.input.Options;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public final class TestLoadTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Config config;
+
+    @Before
+    public void before() {
+        this.config = Configs.newConfig();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConcurrency() {
+        new LoadTest(ConfigSnapshot.of(this.config), new Options(), 1, 0, Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void testSeededStrings() {
+        assertEquals(LoadTest.createStrings(new Random(7)), LoadTest.createStrings(new Random(7)));
+        assertNotEquals(LoadTest.createStrings(new Random(7)), LoadTest.createStrings(new Random(8)));
+    }
+
+    @Test
+    public void testPercentile() {
+        final long[] sorted = new long[1000];
+
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+
+        assertEquals(500, LoadTestReport.Operation.percentile(sorted, 0.50));
+        assertEquals(990, LoadTestReport.Operation.percentile(sorted, 0.99));
+        assertEquals(999, LoadTestReport.Operation.percentile(sorted, 0.999));
+        assertEquals(0, LoadTestReport.Operation.percentile(new long[0], 0.99));
+    }
+
+    @Test
+    public void testRun() throws Exception {
+        final LoadTest loadTest = new LoadTest(ConfigSnapshot.of(this.config), new Options(), 1, 2, Duration.ofSeconds(1));
+        final LoadTestReport report = loadTest.run(this.temporaryFolder.getRoot().toPath());
+
+        assertEquals(0, report.getErrors());
+        assertEquals(2, report.getConcurrency());
+        assertEquals(4, report.getOperations().size());
+        assertFalse(report.getGarbageCollectors().isEmpty());
+
+        for (final LoadTestReport.Operation operation : report.getOperations()) {
+            if (operation.getName().endsWith("-string")) {
+                assertTrue(operation.getName(), operation.getCount() > 0);
+            }
+
+            assertTrue(operation.getP50Millis() <= operation.getP99Millis());
+            assertTrue(operation.getP99Millis() <= operation.getP999Millis());
+            assertTrue(operation.getP999Millis() <= operation.getMaximumMillis());
+        }
+    }
+
+    @Test
+    public void testSnapshotPerOperation() throws Exception {
+        final ConfigSnapshot configSnapshot = ConfigSnapshot.of(this.config);
+        final AtomicLong calls = new AtomicLong();
+
+        final LoadTest loadTest = new LoadTest(() -> {
+            calls.incrementAndGet();
+
+            return configSnapshot;
+        }, new Options(), 1, 1, Duration.ofMillis(200));
+
+        final LoadTestReport report = loadTest.run(this.temporaryFolder.getRoot().toPath());
+
+        long operations = 0;
+
+        for (final LoadTestReport.Operation operation : report.getOperations()) {
+            operations += operation.getCount();
+        }
+
+        /* One call from the constructor and one for each encrypt and decrypt pair */
+
+        assertEquals(0, report.getErrors());
+        assertTrue(calls.get() >= 1 + operations / 2);
+    }
+}
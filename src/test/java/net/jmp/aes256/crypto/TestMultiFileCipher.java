@@ -0,0 +1,157 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)TestMultiFileCipher.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+import java.util.Random;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Configs;
+import net.jmp.aes256.config.ConfigSnapshot;
+
+import net.jmp.aes256.input.Options;
+
+import net.jmp.aes256.utils.Builder;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public final class TestMultiFileCipher {
+    private static final String PASSWORD = "johann_Sebastian%Bach-6(Partitas)";
+    private static final String USER_ID = "user@domain.com";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Config config;
+
+    @Before
+    public void before() {
+        this.config = Configs.newConfig();
+    }
+
+    @Test
+    public void testEncryptAndDecrypt() throws Exception {
+        final Path root = this.temporaryFolder.getRoot().toPath();
+        final Path plain = Files.createDirectories(root.resolve("plain"));
+        final Path restored = Files.createDirectories(root.resolve("restored"));
+        final Random random = new Random(5);
+
+        for (int i = 0; i < 5; i++) {
+            final byte[] plainText = new byte[10_000 + random.nextInt(10_000)];
+
+            random.nextBytes(plainText);
+            Files.write(plain.resolve("file" + i + ".bin"), plainText);
+        }
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final MultiFileCipher encrypter = new MultiFileCipher(ConfigSnapshot.of(this.config),
+                this.options(List.of(plain + "/*.bin"), "{dir}/{name}.aes", false));
+
+        assertEquals(0, encrypter.encrypt(new PrintStream(bytes, true, StandardCharsets.UTF_8)));
+        assertEquals(5, encrypter.getFiles());
+        assertEquals(1, encrypter.getDerivations());
+        assertEquals(5, bytes.toString(StandardCharsets.UTF_8).lines().filter(line -> line.contains("\"ok\"")).count());
+
+        final MultiFileCipher decrypter = new MultiFileCipher(ConfigSnapshot.of(this.config),
+                this.options(List.of(plain + "/*.aes"), restored + "/{stem}", false));
+
+        assertEquals(0, decrypter.decrypt(new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8)));
+        assertEquals(1, decrypter.getDerivations());
+
+        for (int i = 0; i < 5; i++) {
+            assertArrayEquals(Files.readAllBytes(plain.resolve("file" + i + ".bin")),
+                    Files.readAllBytes(restored.resolve("file" + i + ".bin")));
+        }
+    }
+
+    @Test
+    public void testFailures() throws Exception {
+        final Path root = this.temporaryFolder.getRoot().toPath();
+        final List<String> inputs = List.of(root.resolve("missing").toString(),
+                Files.writeString(root.resolve("present"), "present").toString());
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final MultiFileCipher continuing = new MultiFileCipher(ConfigSnapshot.of(this.config),
+                this.options(inputs, "{dir}/{name}.aes", false));
+
+        assertEquals(1, continuing.encrypt(new PrintStream(bytes, true, StandardCharsets.UTF_8)));
+        assertTrue(Files.exists(root.resolve("present.aes")));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("\"failed\""));
+
+        Files.delete(root.resolve("present.aes"));
+
+        final Options failFast = this.options(inputs, "{dir}/{name}.aes", true);
+
+        failFast.setConcurrency(1);
+
+        bytes.reset();
+
+        assertEquals(1, new MultiFileCipher(ConfigSnapshot.of(this.config), failFast)
+                .encrypt(new PrintStream(bytes, true, StandardCharsets.UTF_8)));
+        assertFalse(Files.exists(root.resolve("present.aes")));
+        assertTrue(bytes.toString(StandardCharsets.UTF_8).contains("\"cancelled\""));
+    }
+
+    @Test(expected = CryptographyException.class)
+    public void testDuplicateOutputs() throws Exception {
+        final Path root = this.temporaryFolder.getRoot().toPath();
+
+        Files.writeString(root.resolve("a.txt"), "a");
+        Files.writeString(root.resolve("a.log"), "a");
+
+        new MultiFileCipher(ConfigSnapshot.of(this.config), this.options(List.of(root + "/a.*"), "{dir}/{stem}.aes", false))
+                .encrypt(new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+    }
+
+    private Options options(final List<String> inputs, final String template, final boolean failFast) {
+        return Builder.of(Options::new)
+                .with(Options::setInputFiles, inputs)
+                .with(Options::setOutputFile, template)
+                .with(Options::setUserId, USER_ID)
+                .with(Options::setPassword, PASSWORD)
+                .with(Options::setFailFast, failFast)
+                .build();
+    }
+}
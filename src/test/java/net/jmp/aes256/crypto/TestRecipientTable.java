@@ -0,0 +1,289 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)TestRecipientTable.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.google.gson.Gson;
+
+import java.io.ByteArrayInputStream;
+
+import java.nio.ByteBuffer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Configs;
+
+import net.jmp.aes256.input.Credential;
+import net.jmp.aes256.input.CredentialsManifest;
+import net.jmp.aes256.input.Options;
+
+import net.jmp.aes256.utils.Builder;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+
+public final class TestRecipientTable {
+    private static final String PASSWORD = "johann_Sebastian%Bach-6(Partitas)";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static SecretKeySpec key(final Random random) {
+        final byte[] key = new byte[32];
+
+        random.nextBytes(key);
+
+        return new SecretKeySpec(key, "AES");
+    }
+
+    private Options createOptions(final Path input, final Path output, final String userId) {
+        return Builder.of(Options::new)
+                .with(Options::setInputFile, input.toString())
+                .with(Options::setOutputFile, output.toString())
+                .with(Options::setUserId, userId)
+                .with(Options::setPassword, PASSWORD + userId.charAt(4))
+                .build();
+    }
+
+    private Path createRecipients() throws Exception {
+        return this.createRecipients(3);
+    }
+
+    private Path createRecipients(final int count) throws Exception {
+        final List<Credential> credentials = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            final String userId = "user" + i + "@domain.com";
+            final Path passwordFile = this.temporaryFolder.newFile().toPath();
+            final Credential credential = new Credential();
+
+            Files.writeString(passwordFile, PASSWORD + userId.charAt(4));
+
+            credential.setUserId(userId);
+            credential.setPasswordFile(passwordFile.toString());
+            credentials.add(credential);
+        }
+
+        final CredentialsManifest manifest = new CredentialsManifest();
+
+        manifest.setCredentials(credentials);
+
+        final Path recipients = this.temporaryFolder.newFile("recipients.json").toPath();
+
+        Files.writeString(recipients, new Gson().toJson(manifest));
+
+        return recipients;
+    }
+
+    private void assertEveryRecipientDecrypts(final Config config, final Path encrypted, final byte[] plainText) throws Exception {
+        this.assertEveryRecipientDecrypts(config, encrypted, plainText, 3, false);
+    }
+
+    private void assertEveryRecipientDecrypts(final Config config,
+                                              final Path encrypted,
+                                              final byte[] plainText,
+                                              final int count,
+                                              final boolean directIo) throws Exception {
+        for (int i = 0; i < count; i++) {
+            final Path decrypted = this.temporaryFolder.getRoot().toPath().resolve("plain" + i + ".bin");
+            final Options options = this.createOptions(encrypted, decrypted, "user" + i + "@domain.com");
+
+            options.setDirectIo(directIo);
+
+            new Decrypter(config, options).decrypt();
+
+            assertArrayEquals(plainText, Files.readAllBytes(decrypted));
+        }
+
+        try {
+            new Decrypter(config, this.createOptions(encrypted, this.temporaryFolder.getRoot().toPath().resolve("stranger.bin"), "stranger@domain.com")).decrypt();
+
+            fail("A user who is not a recipient decrypted the file");
+        } catch (final CryptographyException ce) {
+            assertTrue(ce.getMessage().contains("not a recipient"));
+        }
+    }
+
+    @Test
+    public void testFindEveryRecipient() throws Exception {
+        final Random random = new Random(7);
+        final SecretKeySpec dataKey = key(random);
+        final List<SecretKeySpec> keys = new ArrayList<>();
+        final RecipientTable recipientTable = RecipientTable.of(50, 32);
+
+        for (int i = 0; i < 50; i++) {
+            keys.add(key(random));
+
+            recipientTable.add("user" + i + "@domain.com", keys.get(i), dataKey);
+        }
+
+        final byte[] table = recipientTable.toByteArray();
+
+        assertEquals(recipientTable.size(), table.length);
+
+        for (int i = 0; i < 50; i++) {
+            final RecipientTable.Match match = RecipientTable.find(new ByteArrayInputStream(table), "user" + i + "@domain.com");
+
+            assertEquals(table.length, match.getTableSize());
+            assertArrayEquals(dataKey.getEncoded(), RecipientTable.unwrap(match.getWrappedKey().orElseThrow(), keys.get(i)).getEncoded());
+        }
+
+        assertTrue(RecipientTable.find(new ByteArrayInputStream(table), "stranger@domain.com").getWrappedKey().isEmpty());
+    }
+
+    @Test(expected = CryptographyException.class)
+    public void testExcessiveCapacity() throws Exception {
+        final Random random = new Random(7);
+        final RecipientTable recipientTable = RecipientTable.of(1, 32);
+
+        recipientTable.add("user@domain.com", key(random), key(random));
+
+        /* The capacity follows the eight magic bytes and the sixteen byte nonce */
+
+        final byte[] table = recipientTable.toByteArray();
+
+        ByteBuffer.wrap(table).putInt(24, 1 << 30);
+
+        RecipientTable.find(new ByteArrayInputStream(table), "user@domain.com");
+    }
+
+    @Test(expected = CryptographyException.class)
+    public void testWrongKey() throws Exception {
+        final Random random = new Random(7);
+        final RecipientTable recipientTable = RecipientTable.of(1, 32);
+
+        recipientTable.add("user@domain.com", key(random), key(random));
+
+        final RecipientTable.Match match = RecipientTable.find(new ByteArrayInputStream(recipientTable.toByteArray()), "user@domain.com");
+
+        RecipientTable.unwrap(match.getWrappedKey().orElseThrow(), key(random));
+    }
+
+    @Test(expected = CryptographyException.class)
+    public void testDuplicateRecipient() throws Exception {
+        final Random random = new Random(7);
+        final RecipientTable recipientTable = RecipientTable.of(2, 32);
+
+        recipientTable.add("user@domain.com", key(random), key(random));
+        recipientTable.add("user@domain.com", key(random), key(random));
+    }
+
+    @Test
+    public void testEncryptForRecipients() throws Exception {
+        final Config config = Configs.newConfig();
+        final byte[] plainText = new byte[100_003];
+
+        new Random(11).nextBytes(plainText);
+
+        final Path recipients = this.createRecipients();
+        final Path input = this.temporaryFolder.newFile("plain.bin").toPath();
+        final Path encrypted = this.temporaryFolder.getRoot().toPath().resolve("plain.bin.aes");
+
+        Files.write(input, plainText);
+
+        new Encrypter(config, Builder.of(Options::new)
+                .with(Options::setInputFile, input.toString())
+                .with(Options::setOutputFile, encrypted.toString())
+                .with(Options::setRecipients, recipients.toString())
+                .build()).encrypt();
+
+        this.assertEveryRecipientDecrypts(config, encrypted, plainText);
+    }
+
+    @Test
+    public void testEncryptForRecipientsAsync() throws Exception {
+        final Config config = Configs.newConfig();
+        final byte[] plainText = new byte[100_003];
+
+        new Random(13).nextBytes(plainText);
+
+        final Path recipients = this.createRecipients();
+        final Path input = this.temporaryFolder.newFile("plain.bin").toPath();
+        final Path encrypted = this.temporaryFolder.getRoot().toPath().resolve("plain.bin.aes");
+
+        Files.write(input, plainText);
+
+        try (final var executors = CryptographyExecutors.newDefaultExecutors()) {
+            new Encrypter(config, Builder.of(Options::new)
+                    .with(Options::setInputFile, input.toString())
+                    .with(Options::setOutputFile, encrypted.toString())
+                    .with(Options::setRecipients, recipients.toString())
+                    .build()).encryptAsync(executors).get();
+        }
+
+        this.assertEveryRecipientDecrypts(config, encrypted, plainText);
+    }
+
+    @Test
+    public void testEncryptForManyRecipientsWithDirectIo() throws Exception {
+        final Config config = Configs.newConfig();
+        final byte[] plainText = new byte[100_003];
+
+        new Random(17).nextBytes(plainText);
+
+        /* Seventeen recipients make a table longer than a 4 KiB block */
+
+        final Path recipients = this.createRecipients(17);
+        final Path input = this.temporaryFolder.newFile("plain.bin").toPath();
+        final Path encrypted = this.temporaryFolder.getRoot().toPath().resolve("plain.bin.aes");
+
+        Files.write(input, plainText);
+
+        try {
+            new Encrypter(config, Builder.of(Options::new)
+                    .with(Options::setInputFile, input.toString())
+                    .with(Options::setOutputFile, encrypted.toString())
+                    .with(Options::setRecipients, recipients.toString())
+                    .with(Options::setDirectIo, true)
+                    .build()).encrypt();
+        } catch (final CryptographyException ce) {
+            assumeFalse("Direct I/O is not supported by the temporary folder", String.valueOf(ce.getCause()).contains("Direct I/O is not supported"));
+
+            throw ce;
+        }
+
+        assertTrue(Files.size(encrypted) > FileHeader.SIZE + 4096 + plainText.length);
+
+        this.assertEveryRecipientDecrypts(config, encrypted, plainText, 17, true);
+    }
+}
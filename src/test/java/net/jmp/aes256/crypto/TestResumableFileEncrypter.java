@@ -0,0 +1,238 @@
+package net.jmp.aes256.crypto;
+
+/*
+ * (#)TestResumableFileEncrypter.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.nio.file.attribute.FileTime;
+
+import java.security.MessageDigest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Configs;
+
+import net.jmp.aes256.input.Options;
+
+import net.jmp.aes256.utils.Builder;
+import net.jmp.aes256.utils.ProgressMonitor;
+import net.jmp.aes256.utils.Salter;
+import net.jmp.aes256.utils.SecretKeySpecBuilder;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public final class TestResumableFileEncrypter {
+    private static final String PASSWORD = "johann_Sebastian%Bach-6(Partitas)";
+    private static final String USER_ID = "user@domain.com";
+    private static final long SEGMENT_SIZE = 100_000;
+    private static final byte[] IV = new byte[16];
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Config config;
+    private Path input;
+    private Path output;
+    private byte[] plainText;
+
+    @Before
+    public void before() throws IOException {
+        this.config = Configs.newConfig();
+
+        this.plainText = new byte[1_000_003];
+        this.input = this.temporaryFolder.getRoot().toPath().resolve("input.bin");
+        this.output = this.temporaryFolder.getRoot().toPath().resolve("input.bin.aes");
+
+        new Random(11).nextBytes(this.plainText);
+        Files.write(this.input, this.plainText);
+    }
+
+    @Test
+    public void testUninterrupted() throws Exception {
+        final ResumableFileEncrypter encrypter = this.encrypter();
+
+        assertTrue(encrypter.encrypt(this.key(PASSWORD), this.input, this.output, IV, ProgressMonitor.disabled(), new AtomicBoolean()));
+        assertEquals(0, encrypter.getResumedFrom());
+        assertFalse(Files.exists(ResumableFileEncrypter.partialFileOf(this.output)));
+        assertFalse(Files.exists(ResumableFileEncrypter.journalFileOf(this.output)));
+        assertArrayEquals(this.plainText, this.decrypt());
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        final byte[] cipherText = this.encryptAll();
+        final long outputLength = this.interrupt(cipherText, 5);
+
+        /* Bytes written after the checkpoint are dropped */
+
+        Files.write(ResumableFileEncrypter.partialFileOf(this.output), new byte[1000], StandardOpenOption.APPEND);
+
+        final ResumableFileEncrypter encrypter = this.encrypter();
+
+        assertTrue(encrypter.encrypt(this.key(PASSWORD), this.input, this.output, IV, ProgressMonitor.disabled(), new AtomicBoolean()));
+        assertEquals(outputLength - FileHeader.SIZE, encrypter.getResumedFrom());
+        assertFalse(Files.exists(ResumableFileEncrypter.journalFileOf(this.output)));
+        assertArrayEquals(cipherText, Files.readAllBytes(this.output));
+        assertArrayEquals(this.plainText, this.decrypt());
+    }
+
+    @Test
+    public void testCorruptTail() throws Exception {
+        final long outputLength = this.interrupt(this.encryptAll(), 5);
+        final Path partial = ResumableFileEncrypter.partialFileOf(this.output);
+        final byte[] bytes = Files.readAllBytes(partial);
+
+        bytes[(int) outputLength - 100] ^= 1;
+        Files.write(partial, bytes);
+
+        final ResumableFileEncrypter encrypter = this.encrypter();
+
+        assertTrue(encrypter.encrypt(this.key(PASSWORD), this.input, this.output, IV, ProgressMonitor.disabled(), new AtomicBoolean()));
+        assertEquals(0, encrypter.getResumedFrom());
+        assertArrayEquals(this.plainText, this.decrypt());
+    }
+
+    @Test
+    public void testChangedInput() throws Exception {
+        this.interrupt(this.encryptAll(), 5);
+
+        Files.setLastModifiedTime(this.input, FileTime.fromMillis(Files.getLastModifiedTime(this.input).toMillis() + 1000));
+
+        final ResumableFileEncrypter encrypter = this.encrypter();
+
+        assertTrue(encrypter.encrypt(this.key(PASSWORD), this.input, this.output, IV, ProgressMonitor.disabled(), new AtomicBoolean()));
+        assertEquals(0, encrypter.getResumedFrom());
+        assertArrayEquals(this.plainText, this.decrypt());
+    }
+
+    @Test(expected = CryptographyException.class)
+    public void testWrongPassword() throws Exception {
+        this.interrupt(this.encryptAll(), 5);
+        this.encrypter().encrypt(this.key(PASSWORD + "!"), this.input, this.output, IV, ProgressMonitor.disabled(), new AtomicBoolean());
+    }
+
+    @Test
+    public void testCancelled() throws Exception {
+        assertFalse(this.encrypter().encrypt(this.key(PASSWORD), this.input, this.output, IV, ProgressMonitor.disabled(), new AtomicBoolean(true)));
+        assertTrue(Files.exists(ResumableFileEncrypter.partialFileOf(this.output)));
+        assertFalse(Files.exists(this.output));
+    }
+
+    @Test
+    public void testJournal() throws Exception {
+        final CheckpointJournal journal = new CheckpointJournal(1, 2, new byte[4], new byte[FileHeader.SIZE], 3, 4, 5, new byte[32], new byte[16]);
+        final byte[] bytes = journal.toByteArray();
+        final CheckpointJournal parsed = CheckpointJournal.parse(bytes);
+
+        assertEquals(3, parsed.getInputOffset());
+        assertEquals(4, parsed.getOutputLength());
+        assertEquals(5, parsed.getTailOffset());
+
+        bytes[10] ^= 1;
+
+        try {
+            CheckpointJournal.parse(bytes);
+            fail("A corrupt journal was parsed");
+        } catch (final CryptographyException ce) {
+            assertEquals("The checkpoint journal is corrupt", ce.getMessage());
+        }
+    }
+
+    private byte[] encryptAll() throws Exception {
+        assertTrue(this.encrypter().encrypt(this.key(PASSWORD), this.input, this.output, IV, ProgressMonitor.disabled(), new AtomicBoolean()));
+
+        final byte[] cipherText = Files.readAllBytes(this.output);
+
+        Files.delete(this.output);
+
+        return cipherText;
+    }
+
+    private long interrupt(final byte[] cipherText, final int segments) throws Exception {
+        /* Leave the partial output and journal of a run stopped after some segments */
+
+        final long outputLength = FileHeader.SIZE + segments * SEGMENT_SIZE;
+        final long tailOffset = outputLength - SEGMENT_SIZE;
+        final byte[] header = Arrays.copyOf(cipherText, FileHeader.SIZE);
+        final byte[] tailDigest = MessageDigest.getInstance("SHA-256").digest(Arrays.copyOfRange(cipherText, (int) tailOffset, (int) outputLength));
+
+        Files.write(ResumableFileEncrypter.partialFileOf(this.output), Arrays.copyOf(cipherText, (int) outputLength));
+
+        new CheckpointJournal(Files.size(this.input),
+                Files.getLastModifiedTime(this.input).toMillis(),
+                ResumableFileEncrypter.keyCheck(this.key(PASSWORD)),
+                header,
+                outputLength - FileHeader.SIZE,
+                outputLength,
+                tailOffset,
+                tailDigest,
+                Arrays.copyOfRange(cipherText, (int) outputLength - 16, (int) outputLength)).write(ResumableFileEncrypter.journalFileOf(this.output));
+
+        return outputLength;
+    }
+
+    private ResumableFileEncrypter encrypter() {
+        return new ResumableFileEncrypter(this.config, Durability.NONE, SEGMENT_SIZE);
+    }
+
+    private SecretKeySpec key(final String password) throws Exception {
+        return new SecretKeySpecBuilder(this.config).build(password, new Salter(this.config).getSalt(USER_ID));
+    }
+
+    private byte[] decrypt() throws Exception {
+        final Path restored = this.temporaryFolder.getRoot().toPath().resolve("restored.bin");
+
+        new Decrypter(this.config, Builder.of(Options::new)
+                .with(Options::setInputFile, this.output.toString())
+                .with(Options::setOutputFile, restored.toString())
+                .with(Options::setUserId, USER_ID)
+                .with(Options::setPassword, PASSWORD)
+                .build()).decrypt();
+
+        return Files.readAllBytes(restored);
+    }
+}
@@ -0,0 +1,99 @@
+package net.jmp.aes256.input;
+
+/*
+ * (#)TestInputFiles.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public final class TestInputFiles {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testIsMultiple() {
+        assertFalse(InputFiles.isMultiple(new String[] {"in.txt"}, "out.aes"));
+        assertTrue(InputFiles.isMultiple(new String[] {"a.txt", "b.txt"}, "{name}.aes"));
+        assertTrue(InputFiles.isMultiple(new String[] {"*.txt"}, "out.aes"));
+        assertTrue(InputFiles.isMultiple(new String[] {"in.txt"}, "{stem}.txt"));
+        assertTrue(InputFiles.isMultiple(new String[] {"in.txt"}, "{dir}/out.aes"));
+    }
+
+    @Test
+    public void testIsTemplate() {
+        assertTrue(InputFiles.isTemplate("{dir}/out.aes"));
+        assertFalse(InputFiles.isFileNameTemplate("{dir}/out.aes"));
+        assertTrue(InputFiles.isFileNameTemplate("{dir}/{stem}"));
+        assertFalse(InputFiles.isTemplate("out.aes"));
+    }
+
+    @Test
+    public void testExpand() throws IOException {
+        final Path root = this.temporaryFolder.getRoot().toPath();
+        final Path sub = Files.createDirectories(root.resolve("sub"));
+
+        Files.writeString(root.resolve("b.txt"), "b");
+        Files.writeString(root.resolve("a.txt"), "a");
+        Files.writeString(root.resolve("c.log"), "c");
+        Files.writeString(sub.resolve("d.txt"), "d");
+
+        assertEquals(List.of(root.resolve("a.txt"), root.resolve("b.txt")),
+                InputFiles.expand(List.of(root + "/*.txt")));
+        assertEquals(List.of(root.resolve("a.txt"), root.resolve("b.txt"), sub.resolve("d.txt")),
+                InputFiles.expand(List.of(root + "/**.txt", root.resolve("a.txt").toString())));
+        assertEquals(List.of(root.resolve("c.log"), root.resolve("a.txt")),
+                InputFiles.expand(List.of(root.resolve("c.log").toString(), root + "/a.*")));
+    }
+
+    @Test(expected = IOException.class)
+    public void testExpandNoMatch() throws IOException {
+        InputFiles.expand(List.of(this.temporaryFolder.getRoot() + "/*.none"));
+    }
+
+    @Test
+    public void testOutput() {
+        final Path input = Paths.get("data", "report.txt");
+
+        assertEquals(Paths.get("data", "report.txt.aes"), InputFiles.output("{dir}/{name}.aes", input));
+        assertEquals(Paths.get("out", "report.dec"), InputFiles.output("out/{stem}.dec", input));
+    }
+}
@@ -1,10 +1,11 @@
 package net.jmp.aes256.input;
 
 /*
+ * (#)TestOptionsHandler.java   1.2.0   10/19/2026
  * (#)TestOptionsHandler.java   0.2.0   07/02/2024
  *
  * @author   Jonathan Parker
- * @version  0.2.0
+ * @version  1.2.0
  * @since    0.2.0
  *
  * MIT License
@@ -260,4 +261,210 @@ public final class TestOptionsHandler {
 
         assertFalse(optionsHandler.isHandled());
     }
+
+    @Test
+    public void testDeriveManifest() {
+        final var args = new String[] {"derive", "--manifest", "/usr/local/credentials.json"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        assertEquals(CommandOperation.DERIVE, handler.getCommandOperation());
+        assertTrue(handler.getCommandLine().isPresent());
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().get());
+
+        optionsHandler.handle();
+
+        assertTrue(optionsHandler.isHandled());
+        assertTrue(optionsHandler.containsManifest());
+        assertFalse(optionsHandler.containsString());
+        assertFalse(optionsHandler.containsInputFile());
+    }
+
+    @Test
+    public void testManifestWithString() {
+        final var args = new String[] {"derive", "--manifest", "/usr/local/credentials.json", "--string", "The quick brown fox"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertFalse(optionsHandler.handle());
+        assertFalse(optionsHandler.isHandled());
+    }
+
+    @Test
+    public void testEncryptArchive() {
+        final var args = new String[] {"encrypt", "--archive", "/usr/local/documents", "--output-file", "/usr/local/documents.aes"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertTrue(optionsHandler.handle());
+        assertTrue(optionsHandler.containsArchive());
+        assertTrue(optionsHandler.containsOutputFile());
+        assertFalse(optionsHandler.containsInputFile());
+    }
+
+    @Test
+    public void testArchiveWithBothFiles() {
+        final var args = new String[] {"decrypt", "--archive", "/usr/local/documents", "-i", "/usr/local/documents.aes", "-o", "/usr/local/out"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertFalse(optionsHandler.handle());
+        assertFalse(optionsHandler.isHandled());
+    }
+
+    @Test
+    public void testListArchive() {
+        final var args = new String[] {"decrypt", "--list", "-i", "/usr/local/documents.aes"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertTrue(optionsHandler.handle());
+        assertTrue(optionsHandler.containsList());
+        assertTrue(optionsHandler.containsInputFile());
+        assertFalse(optionsHandler.containsArchive());
+    }
+
+    @Test
+    public void testListWithArchive() {
+        final var args = new String[] {"decrypt", "--list", "--archive", "/usr/local/documents", "-i", "/usr/local/documents.aes"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertFalse(optionsHandler.handle());
+        assertFalse(optionsHandler.isHandled());
+    }
+
+    @Test
+    public void testExtractWithoutArchive() {
+        final var args = new String[] {"decrypt", "--extract", "notes/todo.txt", "-i", "/usr/local/documents.aes", "-o", "/usr/local/out"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertFalse(optionsHandler.handle());
+        assertFalse(optionsHandler.isHandled());
+    }
+
+    @Test
+    public void testArmorWithArchive() {
+        final var args = new String[] {"encrypt", "--armor", "--archive", "/usr/local/documents", "-o", "/usr/local/documents.aes"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertFalse(optionsHandler.handle());
+        assertFalse(optionsHandler.isHandled());
+    }
+
+    @Test
+    public void testRecipientsWithUserId() {
+        final var args = new String[] {"encrypt", "--recipients", "/usr/local/recipients.json", "-u", "user@domain.com", "-i", "/usr/local/report.pdf", "-o", "/usr/local/report.pdf.aes"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertFalse(optionsHandler.handle());
+        assertFalse(optionsHandler.isHandled());
+    }
+
+    @Test
+    public void testMultipleInputFiles() {
+        final var args = new String[] {"encrypt", "-u", "user@domain.com", "-i", "/usr/local/a.txt", "-i", "/usr/local/*.pdf", "-o", "{dir}/{name}.aes", "--fail-fast"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertTrue(optionsHandler.handle());
+        assertTrue(optionsHandler.containsInputFiles());
+        assertFalse(optionsHandler.containsInputFile());
+    }
+
+    @Test
+    public void testDirectoryOnlyTemplate() {
+        final var args = new String[] {"encrypt", "-u", "user@domain.com", "-i", "/usr/local/a.txt", "-o", "{dir}/out.aes"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertFalse(optionsHandler.handle());
+        assertFalse(optionsHandler.isHandled());
+    }
+
+    @Test
+    public void testMultipleInputFilesWithoutTemplate() {
+        final var args = new String[] {"encrypt", "-u", "user@domain.com", "-i", "/usr/local/a.txt", "-i", "/usr/local/b.txt", "-o", "/usr/local/out.aes"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertFalse(optionsHandler.handle());
+        assertFalse(optionsHandler.isHandled());
+    }
+
+    @Test
+    public void testFailFastWithOneInputFile() {
+        final var args = new String[] {"encrypt", "-u", "user@domain.com", "-i", "/usr/local/a.txt", "-o", "/usr/local/a.txt.aes", "--fail-fast"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertFalse(optionsHandler.handle());
+        assertFalse(optionsHandler.isHandled());
+    }
+
+    @Test
+    public void testResume() {
+        final var args = new String[] {"encrypt", "-u", "user@domain.com", "-i", "/usr/local/disk.img", "-o", "/usr/local/disk.img.aes", "--resume"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertTrue(optionsHandler.handle());
+    }
+
+    @Test
+    public void testResumeWithArmor() {
+        final var args = new String[] {"encrypt", "-u", "user@domain.com", "-i", "/usr/local/disk.img", "-o", "/usr/local/disk.img.asc", "--resume", "--armor"};
+        final var handler = new CommandLineHandler(args);
+
+        handler.handle();
+
+        final var optionsHandler = new OptionsHandler(handler.getCommandLine().orElseThrow());
+
+        assertFalse(optionsHandler.handle());
+        assertFalse(optionsHandler.isHandled());
+    }
 }
@@ -0,0 +1,125 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)TestBatchKeyDeriver.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.io.File;
+
+import java.nio.file.Files;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Configs;
+
+import net.jmp.aes256.input.Credential;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public final class TestBatchKeyDeriver {
+    private static final String PASSWORD = "johann_Sebastian%Bach-6(Partitas)";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Config config;
+
+    @Before
+    public void before() {
+        this.config = Configs.newConfig();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullConfig() {
+        new BatchKeyDeriver(null);
+    }
+
+    @Test
+    public void testDerive() throws Exception {
+        final File passwordFile = this.temporaryFolder.newFile("password.txt");
+
+        Files.writeString(passwordFile.toPath(), PASSWORD + System.lineSeparator());
+
+        final List<Credential> credentials = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            final var credential = new Credential();
+
+            credential.setUserId("user" + i + "@somedomain.com");
+            credential.setPasswordFile(passwordFile.getAbsolutePath());
+
+            credentials.add(credential);
+        }
+
+        final List<DerivedKey> results = new ArrayList<>();
+
+        try (final var batchKeyDeriver = new BatchKeyDeriver(this.config)) {
+            batchKeyDeriver.derive(credentials, results::add);
+        }
+
+        assertEquals(credentials.size(), results.size());
+
+        for (final DerivedKey derivedKey : results) {
+            assertTrue(derivedKey.isSuccessful());
+
+            final var salt = new Salter(this.config).getSalt(derivedKey.getUserId());
+            final var expected = new SecretKeySpecBuilder(this.config).build(PASSWORD, salt);
+
+            assertEquals(expected, derivedKey.getSecretKeySpec().orElseThrow());
+            assertEquals(8, derivedKey.getKeyCheckValue().orElseThrow().length());
+        }
+    }
+
+    @Test
+    public void testMissingPassword() {
+        final var credential = new Credential();
+
+        credential.setUserId("user@somedomain.com");
+        credential.setPasswordEnvironmentVariable("AES_256_TEST_VARIABLE_THAT_IS_NOT_SET");
+
+        final List<DerivedKey> results = new ArrayList<>();
+
+        try (final var batchKeyDeriver = new BatchKeyDeriver(this.config)) {
+            batchKeyDeriver.derive(List.of(credential), results::add);
+        }
+
+        assertEquals(1, results.size());
+        assertFalse(results.getFirst().isSuccessful());
+        assertTrue(results.getFirst().getFailure().isPresent());
+        assertTrue(results.getFirst().getKeyCheckValue().isEmpty());
+    }
+}
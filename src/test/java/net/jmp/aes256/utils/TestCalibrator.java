@@ -0,0 +1,117 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)TestCalibrator.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Configs;
+import net.jmp.aes256.config.Scrypt;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public final class TestCalibrator {
+    private Config config;
+
+    @Before
+    public void before() {
+        this.config = Configs.newConfig();
+
+        this.config.setPbeKeySpecIterations(65536);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRuns() throws Exception {
+        new Calibrator(this.config).calibrate(100, 0);
+    }
+
+    @Test
+    public void testCalibratePbkdf2() throws Exception {
+        final Calibration calibration = new Calibrator(this.config).calibrate(40, 3);
+
+        assertEquals("pbe-key-spec-iterations", calibration.getSetting());
+        assertEquals(0, calibration.getValue() % 1000);
+        assertTrue(calibration.getValue() >= 1000);
+        assertEquals(3, calibration.getSamplesMillis().length);
+        assertTrue(calibration.getMinimumMillis() <= calibration.getMeanMillis());
+        assertTrue(calibration.getMeanMillis() <= calibration.getMaximumMillis());
+        assertEquals(65536, this.config.getPbeKeySpecIterations());
+    }
+
+    @Test
+    public void testCalibratePbkdf2Capped() throws Exception {
+        this.config.setPbeKeySpecIterations(1000);
+        this.config.setMaximumIterations(2000);
+
+        final Calibration calibration = new Calibrator(this.config).calibrate(10_000, 1);
+
+        assertEquals(2000, calibration.getValue());
+        assertTrue(calibration.isCapped());
+    }
+
+    @Test
+    public void testCalibrateScrypt() throws Exception {
+        final Scrypt scrypt = new Scrypt();
+
+        scrypt.setCost(16384);
+        scrypt.setBlockSize(1);
+        scrypt.setParallelization(1);
+
+        this.config.setScrypt(scrypt);
+        this.config.setSecretKeyFactoryInstance("Scrypt");
+
+        final Calibration calibration = new Calibrator(this.config).calibrate(20, 2);
+
+        assertEquals("scrypt:cost", calibration.getSetting());
+        assertEquals(1, Integer.bitCount(calibration.getValue()));
+        assertEquals(2, calibration.getSamplesMillis().length);
+        assertEquals(16384, scrypt.getCost());
+    }
+
+    @Test
+    public void testCalibrateScryptCapped() throws Exception {
+        final Scrypt scrypt = new Scrypt();
+
+        scrypt.setCost(1024);
+        scrypt.setBlockSize(1);
+        scrypt.setParallelization(1);
+
+        this.config.setScrypt(scrypt);
+        this.config.setSecretKeyFactoryInstance("Scrypt");
+        this.config.setMaximumScryptMemory(128 * 2048);
+
+        final Calibration calibration = new Calibrator(this.config).calibrate(10_000, 1);
+
+        assertEquals(2048, calibration.getValue());
+        assertTrue(calibration.isCapped());
+    }
+}
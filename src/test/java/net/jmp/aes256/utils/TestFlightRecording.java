@@ -0,0 +1,137 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)TestFlightRecording.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Configs;
+import net.jmp.aes256.config.Scrypt;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public final class TestFlightRecording {
+    private static final String PASSWORD = "johann_Sebastian%Bach-6(Partitas)";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Config config;
+
+    @Before
+    public void before() {
+        this.config = Configs.newConfig();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullDestination() throws Exception {
+        new FlightRecording(null);
+    }
+
+    @Test
+    public void testRecording() throws Exception {
+        final Path destination = this.temporaryFolder.getRoot().toPath().resolve("run.jfr");
+
+        final FlightRecording flightRecording = new FlightRecording(destination);
+
+        try {
+            final String salt = new Salter(this.config).getSalt("jonathanp62@gmail.com");
+
+            new SecretKeySpecBuilder(this.config).build(PASSWORD, salt);
+        } finally {
+            flightRecording.close();
+        }
+
+        assertTrue(Files.exists(destination));
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(destination);
+
+        final RecordedEvent salt = find(events, "net.jmp.aes256.Salt");
+
+        assertEquals("UTF-8", salt.getString("characterSet"));
+        assertEquals(3, salt.getInt("iterations"));
+
+        final RecordedEvent keyDerivation = find(events, "net.jmp.aes256.KeyDerivation");
+
+        assertEquals("PBKDF2WithHmacSHA256", keyDerivation.getString("factory"));
+        assertEquals(1000, keyDerivation.getInt("iterations"));
+        assertEquals(32, keyDerivation.getInt("keyLength"));
+        assertEquals(0, keyDerivation.getInt("scryptCost"));
+    }
+
+    @Test
+    public void testScryptRecording() throws Exception {
+        final Path destination = this.temporaryFolder.getRoot().toPath().resolve("scrypt.jfr");
+        final Scrypt scrypt = new Scrypt();
+
+        scrypt.setCost(1024);
+        scrypt.setBlockSize(8);
+        scrypt.setParallelization(1);
+
+        this.config.setScrypt(scrypt);
+        this.config.setSecretKeyFactoryInstance(SecretKeySpecBuilder.SCRYPT);
+
+        final FlightRecording flightRecording = new FlightRecording(destination);
+
+        try {
+            new SecretKeySpecBuilder(this.config).build(PASSWORD, "salt");
+        } finally {
+            flightRecording.close();
+        }
+
+        final RecordedEvent keyDerivation = find(RecordingFile.readAllEvents(destination), "net.jmp.aes256.KeyDerivation");
+
+        assertEquals(SecretKeySpecBuilder.SCRYPT, keyDerivation.getString("factory"));
+        assertEquals(0, keyDerivation.getInt("iterations"));
+        assertEquals(1024, keyDerivation.getInt("scryptCost"));
+        assertEquals(8, keyDerivation.getInt("scryptBlockSize"));
+        assertEquals(1, keyDerivation.getInt("scryptParallelization"));
+    }
+
+    private static RecordedEvent find(final List<RecordedEvent> events, final String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No " + name + " event was recorded"));
+    }
+}
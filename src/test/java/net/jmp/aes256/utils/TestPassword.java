@@ -123,4 +123,17 @@ public class TestPassword {
     public void testInvalidPasswordNotLongEnough() throws PasswordException {
         Password.validate("someUpper'&%8", this.minimumLength);
     }
+
+    @Test
+    public void testMessageDoesNotContainPassword() {
+        final String password = "someUppercaseWithand12345End";
+
+        try {
+            Password.validate(password, this.minimumLength);
+
+            fail("Expected a PasswordException");
+        } catch (final PasswordException pe) {
+            assertFalse(pe.getMessage().contains(password));
+        }
+    }
 }
@@ -0,0 +1,119 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)TestPbkdf2HmacSha256.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.HexFormat;
+
+import javax.crypto.SecretKeyFactory;
+
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public final class TestPbkdf2HmacSha256 {
+    private static final String PASSWORD = "johann_Sebastian%Bach-6(Partitas)";
+
+    private static byte[] jce(final String password, final byte[] salt, final int iterations, final int keyLengthBits) throws Exception {
+        final SecretKeyFactory secretKeyFactory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+
+        return secretKeyFactory.generateSecret(new PBEKeySpec(password.toCharArray(), salt, iterations, keyLengthBits)).getEncoded();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullPassword() {
+        new Pbkdf2HmacSha256((char[]) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroIterations() {
+        new Pbkdf2HmacSha256(PASSWORD.toCharArray()).derive(new byte[16], 0, 32);
+    }
+
+    @Test
+    public void testKnownAnswer() {
+        /* RFC 7914, section 11 */
+
+        final byte[] key = new Pbkdf2HmacSha256("passwd".getBytes(StandardCharsets.US_ASCII))
+                .derive("salt".getBytes(StandardCharsets.US_ASCII), 1, 64);
+
+        assertEquals("55ac046e56e3089fec1691c22544b605f94185216dde0465e68b9d57c20dacbc" +
+                     "49ca9cccf179b645991664b39d77ef317c71b845b1e30bd509112041d3a19783",
+                     HexFormat.of().formatHex(key));
+    }
+
+    @Test
+    public void testMatchesJce() throws Exception {
+        final byte[] salt = "WVcwNWRWbFlVbTlaVnpWM1RtcEtRVm95TVdoaFYzZDFXVEk1ZEE9PQ==".getBytes();
+
+        for (final int keyLength : new int[] {128, 192, 256, 1000}) {
+            for (final int iterations : new int[] {1, 2, 1000}) {
+                assertArrayEquals(jce(PASSWORD, salt, iterations, keyLength),
+                                  new Pbkdf2HmacSha256(PASSWORD.toCharArray()).derive(salt, iterations, keyLength / 8));
+            }
+        }
+    }
+
+    @Test
+    public void testLongPasswordAndSalt() throws Exception {
+        final String password = PASSWORD.repeat(4) + "é中";
+        final byte[] salt = new byte[119];
+
+        for (int i = 0; i < salt.length; i++) {
+            salt[i] = (byte) i;
+        }
+
+        assertArrayEquals(jce(password, salt, 10, 256),
+                          new Pbkdf2HmacSha256(password.toCharArray()).derive(salt, 10, 32));
+    }
+
+    @Test
+    public void testSecretKeySpecBuilder() throws Exception {
+        final Config config = new Config();
+
+        config.setPbeKeySpecIterations(1000);
+        config.setPbeKeySpecKeyLength(256);
+        config.setSecretKeySpecAlgorithm("AES");
+        config.setSecretKeyFactoryInstance("PBKDF2WithHmacSHA256");
+
+        final SecretKeySpec expected = new SecretKeySpecBuilder(config).build(PASSWORD, "salt");
+
+        config.setSecretKeyFactoryInstance(SecretKeySpecBuilder.PBKDF2_HMAC_SHA256);
+
+        assertEquals(expected, new SecretKeySpecBuilder(config).build(PASSWORD, "salt"));
+    }
+}
@@ -0,0 +1,111 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)TestProgressMonitor.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.time.Duration;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public final class TestProgressMonitor {
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroInterval() {
+        new ProgressMonitor(System.out, Duration.ZERO);
+    }
+
+    @Test
+    public void testDisabled() {
+        try (final ProgressMonitor progressMonitor = ProgressMonitor.disabled()) {
+            assertFalse(progressMonitor.isEnabled());
+
+            progressMonitor.start(100);
+            progressMonitor.add(60);
+            progressMonitor.add(40);
+
+            assertEquals(100, progressMonitor.getBytes());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStartTwice() {
+        try (final ProgressMonitor progressMonitor = ProgressMonitor.disabled()) {
+            progressMonitor.start(100);
+            progressMonitor.start(100);
+        }
+    }
+
+    @Test
+    public void testReports() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (final PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8)) {
+            try (final ProgressMonitor progressMonitor = new ProgressMonitor(out, Duration.ofMillis(10))) {
+                progressMonitor.start(4096);
+                progressMonitor.stage(ProgressMonitor.Stage.CIPHER);
+
+                for (int i = 0; i < 4; i++) {
+                    progressMonitor.add(1024);
+
+                    Thread.sleep(25);
+                }
+            }
+        }
+
+        final List<String> lines = bytes.toString(StandardCharsets.UTF_8).lines().toList();
+
+        assertTrue(lines.size() > 1);
+
+        final Gson gson = new Gson();
+        final JsonObject first = gson.fromJson(lines.getFirst(), JsonObject.class);
+        final JsonObject last = gson.fromJson(lines.getLast(), JsonObject.class);
+
+        assertEquals("cipher", first.get("stage").getAsString());
+        assertEquals(4096, first.get("total-bytes").getAsLong());
+        assertTrue(first.has("mb-per-second"));
+        assertTrue(first.has("elapsed-millis"));
+
+        assertEquals("done", last.get("stage").getAsString());
+        assertEquals(4096, last.get("bytes").getAsLong());
+        assertEquals(100.0, last.get("percent").getAsDouble(), 0.0);
+        assertFalse(last.has("eta-seconds"));
+    }
+}
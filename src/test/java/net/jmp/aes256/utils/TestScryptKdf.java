@@ -0,0 +1,118 @@
+package net.jmp.aes256.utils;
+
+/*
+ * (#)TestScryptKdf.java    1.2.0   10/19/2026
+ *
+ * @author   Jonathan Parker
+ * @version  1.2.0
+ * @since    1.2.0
+ *
+ * MIT License
+ *
+ * Copyright (c) 2024 Jonathan M. Parker
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.HexFormat;
+
+import java.util.concurrent.ForkJoinPool;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import net.jmp.aes256.config.Config;
+import net.jmp.aes256.config.Scrypt;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public final class TestScryptKdf {
+    private static final String PASSWORD = "johann_Sebastian%Bach-6(Partitas)";
+
+    private static String derive(final ScryptKdf scryptKdf, final String password, final String salt, final int keyLengthBytes) {
+        final byte[] key = scryptKdf.derive(password.getBytes(StandardCharsets.UTF_8),
+                                            salt.getBytes(StandardCharsets.UTF_8),
+                                            keyLengthBytes);
+
+        return HexFormat.of().formatHex(key);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCostNotPowerOfTwo() {
+        new ScryptKdf(1000, 8, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroBlockSize() {
+        new ScryptKdf(1024, 0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroParallelization() {
+        new ScryptKdf(1024, 8, 0);
+    }
+
+    @Test
+    public void testKnownAnswers() {
+        /* RFC 7914, section 12 */
+
+        assertEquals("77d6576238657b203b19ca42c18a0497f16b4844e3074ae8dfdffa3fede21442" +
+                     "fcd0069ded0948f8326a753a0fc81f17e8d3e0fb2e0d3628cf35e20c38d18906",
+                     derive(new ScryptKdf(16, 1, 1), "", "", 64));
+
+        assertEquals("fdbabe1c9d3472007856e7190d01e9fe7c6ad7cbc8237830e77376634b373162" +
+                     "2eaf30d92e22a3886ff109279d9830dac727afb94a83ee6d8360cbdfa2cc0640",
+                     derive(new ScryptKdf(1024, 8, 16), "password", "NaCl", 64));
+    }
+
+    @Test
+    public void testLanesOnDedicatedPool() {
+        final String expected = "391a7d43acdfc2490f3f528b11e0c8d123b7ddfb41ecd22583be113e068a57a4";
+
+        assertEquals(expected, derive(new ScryptKdf(1024, 4, 3), PASSWORD, "salt", 32));
+
+        try (final ForkJoinPool pool = new ForkJoinPool(3)) {
+            assertEquals(expected, derive(new ScryptKdf(1024, 4, 3, pool), PASSWORD, "salt", 32));
+        }
+    }
+
+    @Test
+    public void testSecretKeySpecBuilder() throws Exception {
+        final Scrypt scrypt = new Scrypt();
+
+        scrypt.setCost(1024);
+        scrypt.setBlockSize(4);
+        scrypt.setParallelization(3);
+
+        final Config config = new Config();
+
+        config.setScrypt(scrypt);
+        config.setPbeKeySpecKeyLength(256);
+        config.setSecretKeySpecAlgorithm("AES");
+        config.setSecretKeyFactoryInstance(SecretKeySpecBuilder.SCRYPT);
+
+        final SecretKeySpec secretKeySpec = new SecretKeySpecBuilder(config).build(PASSWORD, "salt");
+
+        assertEquals("391a7d43acdfc2490f3f528b11e0c8d123b7ddfb41ecd22583be113e068a57a4",
+                     HexFormat.of().formatHex(secretKeySpec.getEncoded()));
+    }
+}